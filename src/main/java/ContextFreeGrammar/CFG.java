@@ -43,6 +43,7 @@ public class CFG extends Automaton {
     private Map<String, Terminal> terminalsByName;
     private Map<NonTerminal, List<Production>> productionsByLeft;
     private CFG cachedCNF;
+    private GrammarSimplifier.Report simplificationReport;
     private Set<String> terminalNames;
     private Set<String> variableNames;
     private Map<String, List<Production>> productionsByTerminal;  // "a" -> [S -> a, ...]
@@ -412,14 +413,30 @@ public class CFG extends Automaton {
         newProductions.add(new Production(newStart, Arrays.asList(originalStart)));
         newStartSymbol = newStart;
 
-        newProductions = eliminateEpsilonProductions(newProductions, newVariables);
-        newProductions = eliminateUnitProductions(newProductions, newVariables);
+        // Terminals are kept even if they become useless so execute() still recognises the input alphabet
+        GrammarSimplifier.Report report = new GrammarSimplifier.Report();
+        newProductions = GrammarSimplifier.removeUselessSymbols(newProductions, newVariables, newStartSymbol, report);
+        newProductions = eliminateEpsilonProductions(newProductions, newVariables, report);
+        newProductions = GrammarSimplifier.collapseUnitChains(newProductions, newVariables, report);
+        // Unit collapse can leave variables that are only referenced through removed unit productions
+        newProductions = GrammarSimplifier.removeUselessSymbols(newProductions, newVariables, newStartSymbol, report);
         newProductions = convertToCNFFormat(newProductions, newVariables, newTerminals);
+        report.recordOutput(newVariables.size(), newProductions.size());
 
+        simplificationReport = report;
         cachedCNF = new CFG(newVariables, newTerminals, newProductions, newStartSymbol);
         return cachedCNF;
     }
 
+    /**
+     * Returns the statistics of the simplification performed during the last CNF conversion.
+     *
+     * @return the simplification report, or null if the grammar has not been converted yet
+     */
+    public GrammarSimplifier.Report getSimplificationReport() {
+        return simplificationReport;
+    }
+
     private NonTerminal generateUniqueStartSymbol(Set<NonTerminal> variables) {
         String name = "S'";
         while (variableExists(variables, name)) {
@@ -432,7 +449,8 @@ public class CFG extends Automaton {
         return variableNames.contains(name);
     }
 
-    private List<Production> eliminateEpsilonProductions(List<Production> productions, Set<NonTerminal> variables) {
+    private List<Production> eliminateEpsilonProductions(List<Production> productions, Set<NonTerminal> variables,
+                                                        GrammarSimplifier.Report report) {
         Set<NonTerminal> nullable = findNullableVariables(productions);
         List<Production> newProductions = new ArrayList<>();
 
@@ -456,7 +474,7 @@ public class CFG extends Automaton {
             }
         }
 
-        return removeDuplicateProductions(newProductions);
+        return GrammarSimplifier.mergeDuplicates(newProductions, report);
     }
 
     private Set<NonTerminal> findNullableVariables(List<Production> productions) {
@@ -534,63 +552,6 @@ public class CFG extends Automaton {
         }
     }
 
-    private List<Production> eliminateUnitProductions(List<Production> productions, Set<NonTerminal> variables) {
-        List<Production> unitProductions = new ArrayList<>();
-        List<Production> nonUnitProductions = new ArrayList<>();
-
-        for (Production p : productions) {
-            if (p.getRight().size() == 1 && p.getRight().get(0) instanceof NonTerminal) {
-                unitProductions.add(p);
-            } else {
-                nonUnitProductions.add(p);
-            }
-        }
-
-        Map<NonTerminal, Set<NonTerminal>> unitChains = buildUnitChains(unitProductions, variables);
-        List<Production> newProductions = new ArrayList<>();
-
-        for (NonTerminal var : variables) {
-            Set<NonTerminal> reachable = unitChains.getOrDefault(var, new HashSet<>());
-            reachable.add(var);
-
-            for (NonTerminal reachableVar : reachable) {
-                for (Production p : nonUnitProductions) {
-                    if (p.getLeft().equals(reachableVar)) {
-                        newProductions.add(new Production(var, new ArrayList<>(p.getRight())));
-                    }
-                }
-            }
-        }
-
-        return removeDuplicateProductions(newProductions);
-    }
-
-    private Map<NonTerminal, Set<NonTerminal>> buildUnitChains(List<Production> unitProductions, Set<NonTerminal> variables) {
-        Map<NonTerminal, Set<NonTerminal>> chains = new HashMap<>();
-
-        for (NonTerminal var : variables) {
-            chains.put(var, new HashSet<>());
-        }
-
-        for (Production p : unitProductions) {
-            NonTerminal from = p.getLeft();
-            NonTerminal to = (NonTerminal) p.getRight().get(0);
-            chains.get(from).add(to);
-        }
-
-        for (NonTerminal k : variables) {
-            for (NonTerminal i : variables) {
-                for (NonTerminal j : variables) {
-                    if (chains.get(i).contains(k) && chains.get(k).contains(j)) {
-                        chains.get(i).add(j);
-                    }
-                }
-            }
-        }
-
-        return chains;
-    }
-
     private List<Production> convertToCNFFormat(List<Production> productions, Set<NonTerminal> variables, Set<Terminal> terminals) {
         List<Production> newProductions = new ArrayList<>();
         Map<String, NonTerminal> terminalVariables = new HashMap<>();
@@ -632,7 +593,8 @@ public class CFG extends Automaton {
             }
         }
 
-        return removeDuplicateProductions(newProductions);
+        // Helper rules such as T_a -> a are emitted once per use, so they are not counted as merged duplicates
+        return GrammarSimplifier.mergeDuplicates(newProductions, new GrammarSimplifier.Report());
     }
 
     private NonTerminal getOrCreateTerminalVariable(String terminalName,
@@ -715,23 +677,6 @@ public class CFG extends Automaton {
         return name;
     }
 
-    private List<Production> removeDuplicateProductions(List<Production> productions) {
-        Set<String> seen = new HashSet<>();
-        List<Production> unique = new ArrayList<>();
-
-        for (Production p : productions) {
-            String key = p.getLeft().getName() + "->" +
-                    p.getRight().stream().map(Symbol::getName).collect(Collectors.joining(""));
-
-            if (!seen.contains(key)) {
-                seen.add(key);
-                unique.add(p);
-            }
-        }
-
-        return unique;
-    }
-
     @Override
     public ParseResult parse(String inputText) {
         List<ValidationMessage> messages = new ArrayList<>();
@@ -0,0 +1,322 @@
+package ContextFreeGrammar;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import common.Symbol;
+
+/**
+ * Enumerates the language of a context-free grammar up to a fixed length.
+ * <p>
+ * The enumerator works bottom-up on the Chomsky Normal Form of the grammar. For every variable
+ * {@code A} and length {@code L} it computes the set of strings of length {@code L} derivable
+ * from {@code A}, encoded as base-|alphabet| numbers in a {@link BitSet}. Longer sets are built
+ * from shorter ones through the binary productions, so every (variable, length) pair is computed
+ * exactly once and shared by all strings that use it, instead of running CYK per candidate.
+ * </p>
+ * <p>
+ * The alphabet is the set of single-character terminals, which is exactly what
+ * {@link CFG#execute(String)} accepts as input characters. Within one length, strings are
+ * produced in lexicographic order of that alphabet.
+ * </p>
+ */
+public class CFGEnumerator {
+
+    /** Upper bound on |alphabet|^maxLength so one bitset never exceeds 512 KB. */
+    public static final int MAX_UNIVERSE = 1 << 22;
+
+    private final int maxLength;
+    private final char[] alphabet;
+    private final int[] powers;
+    private final boolean acceptsEmpty;
+    /** accepted[L] holds the codes of accepted strings of length L (index 0 unused). */
+    private final BitSet[] accepted;
+
+    /**
+     * Builds the language tables of the given grammar up to {@code maxLength}.
+     *
+     * @param cfg a parsed grammar
+     * @param maxLength the maximum string length to enumerate
+     * @throws IllegalArgumentException if the length is negative or the search space is too large
+     */
+    public CFGEnumerator(CFG cfg, int maxLength) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("Maximum length must be non-negative: " + maxLength);
+        }
+        this.maxLength = maxLength;
+
+        CFG cnf = cfg.toChomskyNormalForm();
+
+        TreeSet<Character> letters = new TreeSet<>();
+        for (Terminal t : cnf.getTerminals()) {
+            if (t.getName().length() == 1) {
+                letters.add(t.getName().charAt(0));
+            }
+        }
+        this.alphabet = new char[letters.size()];
+        int pos = 0;
+        for (char c : letters) {
+            alphabet[pos++] = c;
+        }
+
+        this.powers = new int[maxLength + 1];
+        long power = 1;
+        for (int length = 0; length <= maxLength; length++) {
+            if (power > MAX_UNIVERSE) {
+                throw new IllegalArgumentException("Too many candidate strings: " + alphabet.length
+                        + " symbols up to length " + maxLength + " exceeds " + MAX_UNIVERSE + " per length");
+            }
+            powers[length] = (int) power;
+            power *= Math.max(1, alphabet.length);
+        }
+
+        this.acceptsEmpty = cfg.execute("").isAccepted();
+        this.accepted = computeLanguage(cnf);
+    }
+
+    private BitSet[] computeLanguage(CFG cnf) {
+        Map<NonTerminal, Integer> ids = new HashMap<>();
+        for (NonTerminal v : cnf.getVariables()) {
+            ids.put(v, ids.size());
+        }
+        int numNT = ids.size();
+
+        // table[A][L] = codes of strings of length L derivable from A
+        BitSet[][] table = new BitSet[numNT][maxLength + 1];
+        for (int a = 0; a < numNT; a++) {
+            for (int length = 1; length <= maxLength; length++) {
+                table[a][length] = new BitSet();
+            }
+        }
+
+        // Group binary productions by their right-hand pair so each product is computed once
+        Map<Long, List<Integer>> pairs = new HashMap<>();
+        for (Production p : cnf.getProductions()) {
+            Integer left = ids.get(p.getLeft());
+            List<Symbol> right = p.getRight();
+            if (left == null) {
+                continue;
+            }
+            if (right.size() == 1 && right.get(0) instanceof Terminal && maxLength >= 1) {
+                int code = indexOf(right.get(0).getName());
+                if (code >= 0) {
+                    table[left][1].set(code);
+                }
+            } else if (right.size() == 2) {
+                Integer b = ids.get(right.get(0));
+                Integer c = ids.get(right.get(1));
+                if (b != null && c != null) {
+                    pairs.computeIfAbsent((long) b * numNT + c, k -> new ArrayList<>()).add(left);
+                }
+            }
+        }
+
+        BitSet product = new BitSet();
+        for (int length = 2; length <= maxLength; length++) {
+            for (Map.Entry<Long, List<Integer>> entry : pairs.entrySet()) {
+                int b = (int) (entry.getKey() / numNT);
+                int c = (int) (entry.getKey() % numNT);
+
+                product.clear();
+                for (int split = 1; split < length; split++) {
+                    BitSet leftSet = table[b][split];
+                    BitSet rightSet = table[c][length - split];
+                    if (leftSet.isEmpty() || rightSet.isEmpty()) {
+                        continue;
+                    }
+                    int shift = powers[length - split];
+                    for (int x = leftSet.nextSetBit(0); x >= 0; x = leftSet.nextSetBit(x + 1)) {
+                        int base = x * shift;
+                        for (int y = rightSet.nextSetBit(0); y >= 0; y = rightSet.nextSetBit(y + 1)) {
+                            product.set(base + y);
+                        }
+                    }
+                }
+
+                if (!product.isEmpty()) {
+                    for (int a : entry.getValue()) {
+                        table[a][length].or(product);
+                    }
+                }
+            }
+        }
+
+        BitSet[] result = new BitSet[maxLength + 1];
+        Integer start = ids.get(cnf.getStartSymbol());
+        for (int length = 1; length <= maxLength; length++) {
+            result[length] = start == null ? new BitSet() : table[start][length];
+        }
+        return result;
+    }
+
+    private int indexOf(String terminal) {
+        if (terminal.length() != 1) {
+            return -1;
+        }
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] == terminal.charAt(0)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String decode(int code, int length) {
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = alphabet[code % alphabet.length];
+            code /= alphabet.length;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the input alphabet in the order used for enumeration
+     */
+    public char[] getAlphabet() {
+        return alphabet.clone();
+    }
+
+    /**
+     * @return the maximum length this enumerator was built for
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Returns the number of accepted strings of exactly the given length.
+     *
+     * @param length the string length, at most {@link #getMaxLength()}
+     * @return the number of accepted strings
+     */
+    public long count(int length) {
+        checkLength(length);
+        if (length == 0) {
+            return acceptsEmpty ? 1 : 0;
+        }
+        return accepted[length].cardinality();
+    }
+
+    /**
+     * Returns the number of accepted strings of every length up to {@link #getMaxLength()}.
+     *
+     * @return the total number of accepted strings
+     */
+    public long countAll() {
+        long total = 0;
+        for (int length = 0; length <= maxLength; length++) {
+            total += count(length);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the accepted strings of exactly the given length in lexicographic order.
+     *
+     * @param length the string length, at most {@link #getMaxLength()}
+     * @return the accepted strings
+     */
+    public List<String> acceptedStrings(int length) {
+        checkLength(length);
+        List<String> result = new ArrayList<>();
+        if (length == 0) {
+            if (acceptsEmpty) {
+                result.add("");
+            }
+            return result;
+        }
+        BitSet set = accepted[length];
+        for (int code = set.nextSetBit(0); code >= 0; code = set.nextSetBit(code + 1)) {
+            result.add(decode(code, length));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all accepted strings up to {@link #getMaxLength()}, shortest first.
+     *
+     * @return the accepted strings in length-lexicographic order
+     */
+    public List<String> acceptedStrings() {
+        List<String> result = new ArrayList<>();
+        for (int length = 0; length <= maxLength; length++) {
+            result.addAll(acceptedStrings(length));
+        }
+        return result;
+    }
+
+    /**
+     * Checks membership of a string using the precomputed tables.
+     *
+     * @param input the string to test, at most {@link #getMaxLength()} long
+     * @return true if the grammar generates the string
+     */
+    public boolean accepts(String input) {
+        checkLength(input.length());
+        if (input.isEmpty()) {
+            return acceptsEmpty;
+        }
+        int code = 0;
+        for (int i = 0; i < input.length(); i++) {
+            int symbol = indexOf(String.valueOf(input.charAt(i)));
+            if (symbol < 0) {
+                return false;
+            }
+            code = code * alphabet.length + symbol;
+        }
+        return accepted[input.length()].get(code);
+    }
+
+    /**
+     * Writes a test file containing every string over the alphabet up to {@link #getMaxLength()}
+     * with its expected verdict, in the {@code input,1} / {@code input,0} format read by
+     * {@link common.TestFileParser}.
+     *
+     * @param path the file to write
+     * @param includeRejected whether strings outside the language are written as {@code ,0} cases
+     * @return the number of test cases written
+     * @throws IOException if the file cannot be written
+     */
+    public int writeTestFile(String path, boolean includeRejected) throws IOException {
+        int written = 0;
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path), 1 << 16)) {
+            if (acceptsEmpty || includeRejected) {
+                bw.write(acceptsEmpty ? ",1" : ",0");
+                bw.newLine();
+                written++;
+            }
+            for (int length = 1; length <= maxLength; length++) {
+                if (alphabet.length == 0) {
+                    break;
+                }
+                BitSet set = accepted[length];
+                int limit = includeRejected ? powers[length] : set.length();
+                for (int code = 0; code < limit; code++) {
+                    boolean inLanguage = set.get(code);
+                    if (!inLanguage && !includeRejected) {
+                        continue;
+                    }
+                    bw.write(decode(code, length));
+                    bw.write(inLanguage ? ",1" : ",0");
+                    bw.newLine();
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    private void checkLength(int length) {
+        if (length < 0 || length > maxLength) {
+            throw new IllegalArgumentException("Length " + length + " outside 0.." + maxLength);
+        }
+    }
+}
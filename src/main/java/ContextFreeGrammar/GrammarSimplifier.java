@@ -0,0 +1,387 @@
+package ContextFreeGrammar;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import common.Symbol;
+
+/**
+ * Simplification stage applied to a grammar before it is brought into Chomsky Normal Form.
+ * <p>
+ * Every variable that survives into the CNF grammar becomes a row in the CYK bitsets, so
+ * removing useless symbols and collapsing unit chains here directly shrinks the cubic parse.
+ * The individual steps are:
+ * <ul>
+ *   <li>removal of non-generating variables (those that derive no terminal string)</li>
+ *   <li>removal of variables unreachable from the start symbol</li>
+ *   <li>unit chain collapse using strongly connected components of the unit graph</li>
+ *   <li>hash based merging of duplicate productions</li>
+ * </ul>
+ */
+public final class GrammarSimplifier {
+
+    private GrammarSimplifier() {
+    }
+
+    /**
+     * Reduction statistics collected while simplifying one grammar.
+     */
+    public static class Report {
+        private int variablesBefore = -1;
+        private int productionsBefore = -1;
+        private int variablesAfter;
+        private int productionsAfter;
+        private int nonGeneratingRemoved;
+        private int unreachableRemoved;
+        private int unitProductionsCollapsed;
+        private int unitCycles;
+        private int duplicatesMerged;
+
+        public int getVariablesBefore() { return variablesBefore; }
+        public int getProductionsBefore() { return productionsBefore; }
+        public int getVariablesAfter() { return variablesAfter; }
+        public int getProductionsAfter() { return productionsAfter; }
+        public int getNonGeneratingRemoved() { return nonGeneratingRemoved; }
+        public int getUnreachableRemoved() { return unreachableRemoved; }
+        public int getUnitProductionsCollapsed() { return unitProductionsCollapsed; }
+        public int getUnitCycles() { return unitCycles; }
+        public int getDuplicatesMerged() { return duplicatesMerged; }
+
+        void recordInput(int variables, int productions) {
+            if (variablesBefore < 0) {
+                variablesBefore = variables;
+                productionsBefore = productions;
+            }
+        }
+
+        void recordOutput(int variables, int productions) {
+            variablesAfter = variables;
+            productionsAfter = productions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Simplification: variables %d -> %d, productions %d -> %d "
+                            + "(non-generating removed: %d, unreachable removed: %d, unit productions collapsed: %d, "
+                            + "unit cycles: %d, duplicates merged: %d)",
+                    variablesBefore, variablesAfter, productionsBefore, productionsAfter,
+                    nonGeneratingRemoved, unreachableRemoved, unitProductionsCollapsed,
+                    unitCycles, duplicatesMerged);
+        }
+    }
+
+    /**
+     * Removes non-generating variables first and unreachable variables second. The order matters:
+     * dropping non-generating variables can make further variables unreachable, but not the other way around.
+     * The start symbol is always kept, even if the language is empty.
+     *
+     * @param productions the productions to simplify
+     * @param variables the variable set, pruned in place
+     * @param start the start symbol
+     * @param report statistics accumulator
+     * @return the productions that only mention useful variables
+     */
+    public static List<Production> removeUselessSymbols(List<Production> productions,
+                                                        Set<NonTerminal> variables,
+                                                        NonTerminal start,
+                                                        Report report) {
+        report.recordInput(variables.size(), productions.size());
+
+        // Generating variables: linear-time worklist over the number of unresolved variables per production
+        Set<NonTerminal> generating = new LinkedHashSet<>();
+        Map<NonTerminal, List<Integer>> occurrences = new HashMap<>();
+        int[] pending = new int[productions.size()];
+        Deque<NonTerminal> work = new ArrayDeque<>();
+
+        for (int i = 0; i < productions.size(); i++) {
+            Production p = productions.get(i);
+            for (Symbol s : p.getRight()) {
+                if (s instanceof NonTerminal) {
+                    pending[i]++;
+                    occurrences.computeIfAbsent((NonTerminal) s, k -> new ArrayList<>()).add(i);
+                }
+            }
+            if (pending[i] == 0 && generating.add(p.getLeft())) {
+                work.add(p.getLeft());
+            }
+        }
+
+        while (!work.isEmpty()) {
+            NonTerminal v = work.poll();
+            for (int i : occurrences.getOrDefault(v, new ArrayList<>())) {
+                if (--pending[i] == 0) {
+                    NonTerminal left = productions.get(i).getLeft();
+                    if (generating.add(left)) {
+                        work.add(left);
+                    }
+                }
+            }
+        }
+
+        List<Production> generatingProductions = new ArrayList<>();
+        Map<NonTerminal, List<Production>> byLeft = new HashMap<>();
+        for (int i = 0; i < productions.size(); i++) {
+            if (pending[i] == 0) {
+                Production p = productions.get(i);
+                generatingProductions.add(p);
+                byLeft.computeIfAbsent(p.getLeft(), k -> new ArrayList<>()).add(p);
+            }
+        }
+
+        // Reachable variables over the generating productions only
+        Set<NonTerminal> reachable = new LinkedHashSet<>();
+        reachable.add(start);
+        work.add(start);
+        while (!work.isEmpty()) {
+            NonTerminal v = work.poll();
+            for (Production p : byLeft.getOrDefault(v, new ArrayList<>())) {
+                for (Symbol s : p.getRight()) {
+                    if (s instanceof NonTerminal && reachable.add((NonTerminal) s)) {
+                        work.add((NonTerminal) s);
+                    }
+                }
+            }
+        }
+
+        List<Production> useful = new ArrayList<>();
+        for (Production p : generatingProductions) {
+            if (reachable.contains(p.getLeft())) {
+                useful.add(p);
+            }
+        }
+
+        int nonGenerating = 0;
+        int unreachable = 0;
+        for (NonTerminal v : variables) {
+            if (v.equals(start)) {
+                continue;
+            }
+            if (!generating.contains(v)) {
+                nonGenerating++;
+            } else if (!reachable.contains(v)) {
+                unreachable++;
+            }
+        }
+        report.nonGeneratingRemoved += nonGenerating;
+        report.unreachableRemoved += unreachable;
+
+        variables.retainAll(reachable);
+        variables.add(start);
+
+        report.recordOutput(variables.size(), useful.size());
+        return useful;
+    }
+
+    /**
+     * Replaces every unit production {@code A -> B} by the non-unit productions of all variables
+     * reachable from {@code A} through unit productions.
+     * <p>
+     * Variables on a unit cycle derive each other and therefore share one closure, so the closures are
+     * computed once per strongly connected component of the unit graph (Tarjan) and propagated over the
+     * condensation in reverse topological order as bitsets.
+     * </p>
+     *
+     * @param productions productions without epsilon rules
+     * @param variables all variables of the grammar
+     * @param report statistics accumulator
+     * @return the productions with all unit productions removed and duplicates merged
+     */
+    public static List<Production> collapseUnitChains(List<Production> productions,
+                                                      Set<NonTerminal> variables,
+                                                      Report report) {
+        report.recordInput(variables.size(), productions.size());
+
+        List<NonTerminal> index = new ArrayList<>(variables);
+        Map<NonTerminal, Integer> ids = new HashMap<>();
+        for (NonTerminal v : index) {
+            ids.put(v, ids.size());
+        }
+        int n = index.size();
+
+        List<List<Integer>> unitEdges = new ArrayList<>();
+        List<List<Production>> nonUnitByLeft = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            unitEdges.add(new ArrayList<>());
+            nonUnitByLeft.add(new ArrayList<>());
+        }
+
+        int unitCount = 0;
+        for (Production p : productions) {
+            Integer from = ids.get(p.getLeft());
+            if (from == null) {
+                continue;
+            }
+            if (p.getRight().size() == 1 && p.getRight().get(0) instanceof NonTerminal) {
+                Integer to = ids.get(p.getRight().get(0));
+                if (to != null) {
+                    unitEdges.get(from).add(to);
+                }
+                unitCount++;
+            } else {
+                nonUnitByLeft.get(from).add(p);
+            }
+        }
+        report.unitProductionsCollapsed += unitCount;
+
+        int[] component = new int[n];
+        List<int[]> components = stronglyConnectedComponents(unitEdges, component);
+
+        // Tarjan emits components sinks first, so successors are always complete when a component is closed
+        BitSet[] closure = new BitSet[components.size()];
+        for (int c = 0; c < components.size(); c++) {
+            BitSet reach = new BitSet(n);
+            for (int v : components.get(c)) {
+                reach.set(v);
+                for (int w : unitEdges.get(v)) {
+                    if (component[w] != c) {
+                        reach.or(closure[component[w]]);
+                    }
+                }
+            }
+            closure[c] = reach;
+            if (components.get(c).length > 1) {
+                report.unitCycles++;
+            }
+        }
+
+        List<Production> result = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            NonTerminal left = index.get(v);
+            BitSet reach = closure[component[v]];
+            for (int w = reach.nextSetBit(0); w >= 0; w = reach.nextSetBit(w + 1)) {
+                for (Production p : nonUnitByLeft.get(w)) {
+                    result.add(w == v ? p : new Production(left, new ArrayList<>(p.getRight())));
+                }
+            }
+        }
+
+        return mergeDuplicates(result, report);
+    }
+
+    /**
+     * Removes duplicate productions, keeping the first occurrence. Productions are compared by their
+     * left-hand side and the exact symbol sequence on the right, so {@code A -> B C} and a
+     * production whose symbol names merely concatenate to the same text are kept apart.
+     *
+     * @param productions productions that may contain duplicates
+     * @param report statistics accumulator
+     * @return the unique productions in their original order
+     */
+    public static List<Production> mergeDuplicates(List<Production> productions, Report report) {
+        Set<ProductionKey> seen = new LinkedHashSet<>(productions.size() * 2);
+        List<Production> unique = new ArrayList<>(productions.size());
+        for (Production p : productions) {
+            if (seen.add(new ProductionKey(p))) {
+                unique.add(p);
+            }
+        }
+        report.duplicatesMerged += productions.size() - unique.size();
+        return unique;
+    }
+
+    /**
+     * Iterative Tarjan SCC so deep unit chains cannot overflow the stack.
+     *
+     * @param edges adjacency lists
+     * @param component output array receiving the component index of each vertex
+     * @return the components in the order Tarjan completes them (reverse topological order)
+     */
+    private static List<int[]> stronglyConnectedComponents(List<List<Integer>> edges, int[] component) {
+        int n = edges.size();
+        int[] order = new int[n];
+        int[] low = new int[n];
+        int[] edgePos = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(order, -1);
+
+        int[] sccStack = new int[n];
+        int sccTop = 0;
+        int[] callStack = new int[n];
+        int callTop = 0;
+        int counter = 0;
+        List<int[]> components = new ArrayList<>();
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] != -1) {
+                continue;
+            }
+            callStack[callTop++] = root;
+            order[root] = low[root] = counter++;
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                List<Integer> out = edges.get(v);
+                if (edgePos[v] < out.size()) {
+                    int w = out.get(edgePos[v]++);
+                    if (order[w] == -1) {
+                        order[w] = low[w] = counter++;
+                        sccStack[sccTop++] = w;
+                        onStack[w] = true;
+                        callStack[callTop++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == order[v]) {
+                    int start = sccTop;
+                    do {
+                        start--;
+                    } while (sccStack[start] != v);
+                    int[] members = Arrays.copyOfRange(sccStack, start, sccTop);
+                    for (int m : members) {
+                        onStack[m] = false;
+                        component[m] = components.size();
+                    }
+                    sccTop = start;
+                    components.add(members);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Hash key for a production based on its left side and right-hand symbol sequence.
+     */
+    private static final class ProductionKey {
+        private final NonTerminal left;
+        private final List<Symbol> right;
+        private final int hash;
+
+        ProductionKey(Production p) {
+            this.left = p.getLeft();
+            this.right = p.getRight();
+            this.hash = 31 * left.hashCode() + right.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ProductionKey)) return false;
+            ProductionKey that = (ProductionKey) o;
+            return hash == that.hash && left.equals(that.left) && right.equals(that.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -5,9 +5,12 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import common.AlphabetIndex;
 import common.Automaton;
+import common.CompiledDFA;
 import common.InputNormalizer;
 import common.State;
+import common.StateInterner;
 import common.Symbol;
 
 /**
@@ -23,6 +26,9 @@ public class DFA extends Automaton {
   private State startState;
   private Set<State> finalStates;
 
+  /** Structural analysis, computed on first use and recomputed when the DFA changes. */
+  private volatile DFAAnalysis analysis;
+
   /**
    * Default constructor for DFA (used for parsing from text).
    */
@@ -49,11 +55,16 @@ public class DFA extends Automaton {
             State startState, 
             Set<Transition> transitions) {
     super(MachineType.DFA);
-    this.states = states;
-    this.alphabet = alphabet;
-    this.finalStates = finalStates;
+    // Copies, so that later changes to the caller's sets cannot make the cached analysis stale
+    this.states = copyOf(states);
+    this.alphabet = copyOf(alphabet);
+    this.finalStates = copyOf(finalStates);
     this.startState = startState;
-    this.transitions = transitions;
+    this.transitions = copyOf(transitions);
+  }
+
+  private static <T> Set<T> copyOf(Set<T> set) {
+    return set == null ? null : new HashSet<>(set);
   }
 
   /**
@@ -101,6 +112,25 @@ public class DFA extends Automaton {
     return Collections.unmodifiableSet(finalStates);
   }
 
+  /**
+   * Returns the structural analysis of this DFA: completeness, reachability and the transition
+   * table used for execution. It is computed once and reused until the DFA is parsed again.
+   *
+   * @return the analysis of the current states, alphabet and transitions
+   * @throws IllegalStateException if the states, alphabet or transitions are not initialized
+   */
+  public DFAAnalysis getAnalysis() {
+    if (states == null || alphabet == null || transitions == null) {
+      throw new IllegalStateException("DFA is not initialized");
+    }
+    DFAAnalysis current = analysis;
+    if (current == null) {
+      current = new DFAAnalysis(states, alphabet, finalStates, startState, transitions);
+      analysis = current;
+    }
+    return current;
+  }
+
   /**
    * Parses a string representation of a DFA and initializes this instance.
    * The input string should contain sections for states, alphabet, start state,
@@ -116,6 +146,7 @@ public class DFA extends Automaton {
     this.finalStates = new HashSet<>();
     this.startState = null;
     this.transitions = new HashSet<>();
+    this.analysis = null;
 
     Map<String, State> stateMap = new HashMap<>();
     
@@ -146,8 +177,9 @@ public class DFA extends Automaton {
       return new ParseResult(false, messages, this);
     }
 
-    checkForUnreachableStates(this.states, this.startState, this.transitions, messages);
-    checkForDeadEndStates(this.states, this.finalStates, this.transitions, messages);
+    DFAAnalysis structure = getAnalysis();
+    checkForUnreachableStates(structure, messages);
+    checkForDeadEndStates(structure, messages);
 
     return new ParseResult(true, messages, this);
   }
@@ -193,29 +225,25 @@ public class DFA extends Automaton {
 
     List<ValidationMessage> runtimeMessages = new ArrayList<>();
     StringBuilder trace = new StringBuilder();
+
+    DFAAnalysis structure = getAnalysis();
+    AlphabetIndex symbols = structure.getSymbols();
     
     State currentState = startState;
     trace.append("Initial state: ").append(currentState.getName()).append("\n");
     
     for (int i = 0; i < inputText.length(); i++) {
       char inputChar = inputText.charAt(i);
-      Symbol inputSymbol = new Symbol(inputChar);
+      int symbol = symbols.indexOf(inputChar);
       
       // Check if symbol is in alphabet
-      if (!alphabet.contains(inputSymbol)) {
+      if (symbol < 0) {
         runtimeMessages.add(new ValidationMessage("Symbol '" + inputChar + "' not in alphabet", i, ValidationMessage.ValidationMessageType.ERROR));
         return new ExecutionResult(false, runtimeMessages, trace.toString());
       }
       
       // Find transition
-      Transition validTransition = null;
-      for (Transition transition : transitions) {
-        if (transition.getFrom().getName().equals(currentState.getName()) && 
-            transition.getSymbol().equals(inputSymbol)) {
-          validTransition = transition;
-          break;
-        }
-      }
+      Transition validTransition = structure.next(currentState.getName(), symbol);
       
       if (validTransition == null) {
         trace.append("No transition from state ").append(currentState.getName())
@@ -263,7 +291,7 @@ public class DFA extends Automaton {
       
       if (result.isSuccess()) {
         // Add check for missing transitions
-        checkMissingTransitions(this.states, this.alphabet, this.transitions, messages);
+        checkMissingTransitions(getAnalysis(), messages);
         
         if (messages.stream().noneMatch(m -> m.getType() == ValidationMessage.ValidationMessageType.ERROR)) {
           messages.add(new ValidationMessage("DFA is valid", 0, ValidationMessage.ValidationMessageType.INFO));
@@ -280,38 +308,19 @@ public class DFA extends Automaton {
    * Checks if all states have transitions for every symbol in the alphabet.
    * Adds error messages for any missing transitions.
    * 
-   * @param states All states in the DFA
-   * @param alphabet The alphabet of the DFA
-   * @param transitions The set of transitions
+   * @param structure The analysis of this DFA
    * @param messages List to collect validation messages
    */
-  private void checkMissingTransitions(Set<State> states, 
-                                     Set<Symbol> alphabet,
-                                     Set<Transition> transitions,
+  private void checkMissingTransitions(DFAAnalysis structure,
                                      List<ValidationMessage> messages) {
-    if (states == null || alphabet == null || transitions == null) {
+    if (structure.isComplete()) {
       return;
     }
 
-    // Create a map of state -> symbol -> target state
-    Map<State, Map<Symbol, State>> transitionMap = new HashMap<>();
-    
-    // Initialize the transition map
-    for (State state : states) {
-      transitionMap.put(state, new HashMap<>());
-    }
-    
-    // Populate the transition map with existing transitions
-    for (Transition t : transitions) {
-      transitionMap.get(t.getFrom()).put(t.getSymbol(), t.getTo());
-    }
-    
-    // Check for missing transitions
+    AlphabetIndex symbols = structure.getSymbols();
     for (State state : states) {
-      Map<Symbol, State> stateTransitions = transitionMap.get(state);
-      
       for (Symbol symbol : alphabet) {
-        if (!stateTransitions.containsKey(symbol)) {
+        if (structure.next(state.getName(), symbols.indexOf(symbol.getValue())) == null) {
           messages.add(new ValidationMessage(
             String.format("Missing transition from state '%s' for symbol '%s'", 
                          state.getName(), symbol),
@@ -341,9 +350,10 @@ public class DFA extends Automaton {
       return;
     }
 
+    StateInterner interner = new StateInterner();
     String[] stateNames = stateLines.get(0).split("\\s+");
     for (String name : stateNames) {
-      State newState = new State(name);
+      State newState = interner.intern(name);
       states.add(newState);
       stateMap.put(name, newState);
     }
@@ -367,7 +377,7 @@ public class DFA extends Automaton {
 
     String[] symbolNames = alphabetLines.get(0).split("\\s+");
     for (String name : symbolNames) {
-      alphabet.add(new Symbol(name.charAt(0)));
+      alphabet.add(Symbol.of(name.charAt(0)));
     }
   }
 
@@ -378,7 +388,7 @@ public class DFA extends Automaton {
    * @param lineNum The line number where the start state is defined
    * @param stateMap Map of state names to State objects
    * @param messages List to collect any validation messages
-   * @return The start State object, or null if invalid
+   * @return The interned start State, marked as start, or null if invalid
    */
   private State processStartState(List<String> lines, int lineNum,
                                                              Map<String, State> stateMap,
@@ -395,7 +405,8 @@ public class DFA extends Automaton {
       return null;
     }
 
-    return new State(startStateName, true, false);
+    startState.setStart(true);
+    return startState;
   }
 
   /**
@@ -405,7 +416,7 @@ public class DFA extends Automaton {
    * @param lineNum The line number where the final states are defined
    * @param stateMap Map of state names to State objects
    * @param messages List to collect any validation messages
-   * @return A set of final State objects
+   * @return The interned final States, marked as accepting
    */
   private Set<State> processFinalStates(List<String> lines, int lineNum,
                                                                    Map<String, State> stateMap,
@@ -425,7 +436,8 @@ public class DFA extends Automaton {
         continue;
       }
 
-      finalStates.add(new State(finalState.getName(), false, true));
+      finalState.setAccept(true);
+      finalStates.add(finalState);
     }
 
     return finalStates;
@@ -477,7 +489,7 @@ public class DFA extends Automaton {
         }
 
         for (String symStr : symbols) {
-          Symbol sym = validateSymbol(new Symbol(symStr.charAt(0)), this.alphabet, currentLine, messages);
+          Symbol sym = validateSymbol(Symbol.of(symStr.charAt(0)), this.alphabet, currentLine, messages);
           if (sym == null) {
             continue; // Skip if symbol validation failed
           }
@@ -557,46 +569,15 @@ public class DFA extends Automaton {
    * Checks for states that are unreachable from the start state.
    * Adds a warning message for each unreachable state found.
    *
-   * @param allStates All states in the DFA
-   * @param startState The start state of the DFA
-   * @param transitions Set of transitions in the DFA
+   * @param structure The analysis of this DFA
    * @param messages List to collect validation messages
    */
-  private void checkForUnreachableStates(Set<State> allStates, 
-                                       State startState,
-                                       Set<Transition> transitions,
+  private void checkForUnreachableStates(DFAAnalysis structure,
                                        List<ValidationMessage> messages) {
-    if (startState == null || allStates.isEmpty()) return;
-
-    Set<State> reachableStates = new HashSet<>();
-    Queue<State> queue = new LinkedList<>();
-
-    reachableStates.add(startState);
-    queue.add(startState);
-
-    Map<State, Set<State>> transitionMap = new HashMap<>();
-    for (Transition t : transitions) {
-      transitionMap.computeIfAbsent(t.getFrom(), k -> new HashSet<>()).add(t.getTo());
-    }
-
-    while (!queue.isEmpty()) {
-      State currentState = queue.poll();
-      Set<State> nextStates = transitionMap.get(currentState);
-      if (nextStates != null) {
-        for (State nextState : nextStates) {
-          if (nextState != null && reachableStates.add(nextState)) {
-            queue.add(nextState);
-          }
-        }
-      }
-    }
-
-    for (State state : allStates) {
-      if (!reachableStates.contains(state)) {
-        messages.add(new ValidationMessage("State '" + state.getName() + "' is unreachable from the start state.", 
-                                          0, 
-                                          ValidationMessage.ValidationMessageType.WARNING));
-      }
+    for (String name : structure.getUnreachableStates()) {
+      messages.add(new ValidationMessage("State '" + name + "' is unreachable from the start state.", 
+                                        0, 
+                                        ValidationMessage.ValidationMessageType.WARNING));
     }
   }
 
@@ -604,26 +585,15 @@ public class DFA extends Automaton {
    * Checks for dead-end states in the DFA.
    * A state is considered a dead-end if it's not a final state and has no outgoing transitions.
    *
-   * @param allStates All states in the DFA
-   * @param finalStates Set of final/accepting states
-   * @param transitions Set of transitions in the DFA
+   * @param structure The analysis of this DFA
    * @param messages List to collect validation messages
    */
-  private void checkForDeadEndStates(Set<State> allStates,
-                                   Set<State> finalStates,
-                                   Set<Transition> transitions,
+  private void checkForDeadEndStates(DFAAnalysis structure,
                                    List<ValidationMessage> messages) {
-
-    Set<State> statesWithOutgoing = transitions.stream()
-        .map(Transition::getFrom)
-        .collect(Collectors.toSet());
-
-    for (State state : allStates) {
-      if (!finalStates.contains(state) && !statesWithOutgoing.contains(state)) {
-        messages.add(new ValidationMessage("State '" + state.getName() + "' is a non-final state with no outgoing transitions (dead-end state).", 
-                                          0, 
-                                          ValidationMessage.ValidationMessageType.WARNING));
-      }
+    for (String name : structure.getDeadEndStates()) {
+      messages.add(new ValidationMessage("State '" + name + "' is a non-final state with no outgoing transitions (dead-end state).", 
+                                        0, 
+                                        ValidationMessage.ValidationMessageType.WARNING));
     }
   }
 
@@ -635,19 +605,7 @@ public class DFA extends Automaton {
     if (states == null || alphabet == null || transitions == null) {
       return false;
     }
-
-    // Check if any state is missing a transition for any symbol
-    for (State state : states) {
-      Set<Symbol> symbolsForState = transitions.stream()
-        .filter(t -> t.getFrom().equals(state))
-        .map(Transition::getSymbol)
-        .collect(Collectors.toSet());
-
-      if (!symbolsForState.containsAll(alphabet)) {
-        return false;
-      }
-    }
-    return true;
+    return getAnalysis().isComplete();
   }
 
   /**
@@ -721,6 +679,73 @@ public class DFA extends Automaton {
     return dot.toString();
   }
 
+  /**
+   * Builds a transition table for this DFA with states indexed by name and a sorted alphabet.
+   * Missing transitions lead to a rejecting sink, so the table describes the language the
+   * DFA would recognise once it is completed.
+   *
+   * @return the compiled transition table
+   */
+  public CompiledDFA toCompiledDFA() {
+    return compile(new LinkedHashMap<>());
+  }
+
+  /**
+   * Same as {@link #toCompiledDFA()}, filling {@code ids} with the table index of every
+   * state name. The start state is 0; a sink added for missing transitions has no name.
+   */
+  CompiledDFA compile(Map<String, Integer> ids) {
+    TreeSet<Character> letters = new TreeSet<>();
+    for (Symbol symbol : alphabet) {
+      letters.add(symbol.getValue());
+    }
+    char[] sigma = new char[letters.size()];
+    int idx = 0;
+    for (char c : letters) {
+      sigma[idx++] = c;
+    }
+
+    ids.put(startState.getName(), 0);
+    for (State state : states) {
+      ids.putIfAbsent(state.getName(), ids.size());
+    }
+    for (Transition t : transitions) {
+      ids.putIfAbsent(t.getFrom().getName(), ids.size());
+      ids.putIfAbsent(t.getTo().getName(), ids.size());
+    }
+
+    int[][] table = new int[ids.size()][sigma.length];
+    for (int[] row : table) {
+      Arrays.fill(row, -1);
+    }
+    for (Transition t : transitions) {
+      int a = Arrays.binarySearch(sigma, t.getSymbol().getValue());
+      int from = ids.get(t.getFrom().getName());
+      if (a >= 0 && table[from][a] < 0) {
+        table[from][a] = ids.get(t.getTo().getName());
+      }
+    }
+
+    boolean[] accepting = new boolean[ids.size()];
+    for (State finalState : finalStates) {
+      Integer id = ids.get(finalState.getName());
+      if (id != null) {
+        accepting[id] = true;
+      }
+    }
+    return new CompiledDFA(sigma, table, accepting, 0);
+  }
+
+  /**
+   * Minimizes this DFA with Hopcroft's algorithm.
+   *
+   * @return the minimal DFA together with the mapping from original to merged states
+   * @see DFAMinimizer
+   */
+  public DFAMinimizer.Result minimize() {
+    return DFAMinimizer.minimize(this);
+  }
+
   @Override
   public String getDefaultTemplate() {
     return "Start: q0\n" +
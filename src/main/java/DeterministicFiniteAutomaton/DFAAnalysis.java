@@ -0,0 +1,160 @@
+package DeterministicFiniteAutomaton;
+
+import java.util.*;
+
+import common.AlphabetIndex;
+import common.State;
+import common.Symbol;
+
+/**
+ * Structural facts about a {@link DFA} that do not depend on the input: whether the transition
+ * function is complete, which states are reachable from the start state, which states can reach
+ * a final state, and the transition table used for execution.
+ * <p>
+ * Everything is computed in one pass over adjacency lists keyed by state name, in time linear in
+ * the number of states and transitions, and is reused by {@link DFA#execute(String)},
+ * {@link DFA#validate()} and {@link DFA#toDotCode(String)} until the DFA is parsed again.
+ * </p>
+ * <p>
+ * An analysis is a snapshot of the DFA when it was computed: it keeps no reference to the DFA's
+ * collections, and its sets and rows cannot be modified by callers. Keeping it current is up to
+ * {@link DFA}, whose collections change only while it is being parsed.
+ * </p>
+ */
+public final class DFAAnalysis {
+  private final boolean complete;
+  private final Set<String> unreachableStates;
+  private final Set<String> deadEndStates;
+  private final Set<String> statesWithoutPathToFinal;
+  private final AlphabetIndex symbols;
+  private final Map<String, Transition[]> rows;
+
+  DFAAnalysis(Set<State> states, Set<Symbol> alphabet, Set<State> finalStates,
+              State startState, Set<Transition> transitions) {
+    // Transition rows indexed by symbol; if a state has several transitions on one symbol, the first wins
+    this.symbols = AlphabetIndex.of(alphabet);
+    Map<String, Transition[]> table = new HashMap<>();
+    Map<String, List<String>> successors = new HashMap<>();
+    Map<String, List<String>> predecessors = new HashMap<>();
+    for (Transition t : transitions) {
+      String from = t.getFrom().getName();
+      String to = t.getTo().getName();
+      successors.computeIfAbsent(from, k -> new ArrayList<>()).add(to);
+      predecessors.computeIfAbsent(to, k -> new ArrayList<>()).add(from);
+
+      int symbol = symbols.indexOf(t.getSymbol().getValue());
+      if (symbol < 0) {
+        continue;
+      }
+      Transition[] row = table.computeIfAbsent(from, k -> new Transition[symbols.size()]);
+      if (row[symbol] == null) {
+        row[symbol] = t;
+      }
+    }
+    this.rows = Collections.unmodifiableMap(table);
+
+    boolean allPresent = true;
+    for (State state : states) {
+      Transition[] row = table.get(state.getName());
+      for (int a = 0; a < symbols.size() && allPresent; a++) {
+        allPresent = row != null && row[a] != null;
+      }
+    }
+    this.complete = allPresent;
+
+    Set<String> finalNames = new HashSet<>();
+    if (finalStates != null) {
+      for (State state : finalStates) {
+        finalNames.add(state.getName());
+      }
+    }
+
+    Set<String> reachable = startState == null
+        ? Collections.<String>emptySet()
+        : closure(Collections.singleton(startState.getName()), successors);
+    Set<String> coReachable = closure(finalNames, predecessors);
+
+    Set<String> unreachable = new LinkedHashSet<>();
+    Set<String> deadEnds = new LinkedHashSet<>();
+    Set<String> withoutPath = new LinkedHashSet<>();
+    for (State state : states) {
+      String name = state.getName();
+      if (startState != null && !reachable.contains(name)) {
+        unreachable.add(name);
+      }
+      if (!finalNames.contains(name) && !successors.containsKey(name)) {
+        deadEnds.add(name);
+      }
+      if (!coReachable.contains(name)) {
+        withoutPath.add(name);
+      }
+    }
+    this.unreachableStates = Collections.unmodifiableSet(unreachable);
+    this.deadEndStates = Collections.unmodifiableSet(deadEnds);
+    this.statesWithoutPathToFinal = Collections.unmodifiableSet(withoutPath);
+  }
+
+  private static Set<String> closure(Collection<String> roots, Map<String, List<String>> edges) {
+    Set<String> seen = new HashSet<>(roots);
+    Deque<String> queue = new ArrayDeque<>(roots);
+    while (!queue.isEmpty()) {
+      for (String next : edges.getOrDefault(queue.poll(), Collections.emptyList())) {
+        if (seen.add(next)) {
+          queue.add(next);
+        }
+      }
+    }
+    return seen;
+  }
+
+  /**
+   * @return whether every state has a transition for every symbol of the alphabet
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * @return names of the states that cannot be reached from the start state, in state order
+   */
+  public Set<String> getUnreachableStates() {
+    return unreachableStates;
+  }
+
+  /**
+   * @return names of the non-final states without outgoing transitions, in state order
+   */
+  public Set<String> getDeadEndStates() {
+    return deadEndStates;
+  }
+
+  /**
+   * @return names of the states from which no final state can be reached, in state order
+   */
+  public Set<String> getStatesWithoutPathToFinal() {
+    return statesWithoutPathToFinal;
+  }
+
+  /**
+   * @return the index of the alphabet used by {@link #getRow(String)}
+   */
+  public AlphabetIndex getSymbols() {
+    return symbols;
+  }
+
+  /**
+   * @return the transitions leaving a state, indexed by symbol index, or null if there are none
+   */
+  public Transition[] getRow(String stateName) {
+    Transition[] row = rows.get(stateName);
+    return row == null ? null : row.clone();
+  }
+
+  /**
+   * Same as {@link #getRow(String)} without the defensive copy, for the execution loop.
+   */
+  Transition next(String stateName, int symbol) {
+    Transition[] row = rows.get(stateName);
+    return row == null ? null : row[symbol];
+  }
+}
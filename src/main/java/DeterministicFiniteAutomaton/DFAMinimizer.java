@@ -0,0 +1,196 @@
+package DeterministicFiniteAutomaton;
+
+import java.util.*;
+
+import common.CompiledDFA;
+import common.State;
+import common.StateInterner;
+import common.Symbol;
+
+/**
+ * Minimizes DFAs with Hopcroft's partition refinement.
+ * <p>
+ * The DFA is compiled into a transition table (missing transitions go to a rejecting sink),
+ * unreachable states are dropped and equivalent states are merged in O(n log n). The result
+ * is an ordinary {@link DFA} whose states are named after the start state or the smallest
+ * original state name they replace, together with the mapping from every reachable original
+ * state to its merged state.
+ * Because the numbering of merged states is canonical, two DFAs for the same language give
+ * the same minimal table, which makes the result usable as a cache key.
+ * </p>
+ */
+public class DFAMinimizer {
+
+  /**
+   * Outcome of a minimization.
+   */
+  public static class Result {
+    private final DFA minimalDFA;
+    private final CompiledDFA minimalTable;
+    private final Map<String, String> stateMapping;
+    private final int originalStateCount;
+    private final boolean deadStateAdded;
+
+    Result(DFA minimalDFA, CompiledDFA minimalTable, Map<String, String> stateMapping, int originalStateCount,
+           boolean deadStateAdded) {
+      this.minimalDFA = minimalDFA;
+      this.minimalTable = minimalTable;
+      this.stateMapping = Collections.unmodifiableMap(stateMapping);
+      this.originalStateCount = originalStateCount;
+      this.deadStateAdded = deadStateAdded;
+    }
+
+    /**
+     * @return the minimal complete DFA
+     */
+    public DFA getMinimalDFA() {
+      return minimalDFA;
+    }
+
+    /**
+     * @return the canonical transition table of the minimal DFA
+     */
+    public CompiledDFA getMinimalTable() {
+      return minimalTable;
+    }
+
+    /**
+     * Maps the name of every reachable original state to the name of the minimal state
+     * it was merged into. Unreachable states are not included.
+     *
+     * @return the state partition as a name mapping
+     */
+    public Map<String, String> getStateMapping() {
+      return stateMapping;
+    }
+
+    /**
+     * @return the number of states declared in the original DFA
+     */
+    public int getOriginalStateCount() {
+      return originalStateCount;
+    }
+
+    /**
+     * @return whether the minimal DFA has a "dead" state that no original state was merged into,
+     * i.e. the sink added for missing transitions
+     */
+    public boolean isDeadStateAdded() {
+      return deadStateAdded;
+    }
+
+    /**
+     * Number of states of the minimal DFA, comparable with {@link #getOriginalStateCount()}: the
+     * sink added for missing transitions is not counted, so a partial DFA is compared with the
+     * minimal partial DFA and a complete one with the minimal complete DFA.
+     *
+     * @return the number of minimal states, without an added dead state
+     */
+    public int getMinimalStateCount() {
+      return minimalTable.getStateCount() - (deadStateAdded ? 1 : 0);
+    }
+
+    /**
+     * @return whether the original DFA has no more states than the minimal one
+     */
+    public boolean isMinimal() {
+      return originalStateCount <= getMinimalStateCount();
+    }
+
+    /**
+     * @return a one-line summary such as "Your DFA has 7 states, minimal is 4."
+     */
+    public String getSummary() {
+      if (isMinimal()) {
+        return String.format("Your DFA has %d states, which is minimal.", originalStateCount);
+      }
+      return String.format("Your DFA has %d states, minimal is %d.", originalStateCount, getMinimalStateCount());
+    }
+  }
+
+  private DFAMinimizer() {
+  }
+
+  /**
+   * Minimizes a DFA.
+   *
+   * @param dfa the DFA, which must have a start state
+   * @return the minimal DFA and the state mapping
+   * @throws IllegalArgumentException if the DFA has no start state
+   */
+  public static Result minimize(DFA dfa) {
+    if (dfa.getStartState() == null) {
+      throw new IllegalArgumentException("DFA has no start state");
+    }
+
+    Map<String, Integer> ids = new LinkedHashMap<>();
+    CompiledDFA table = dfa.compile(ids);
+    int[] block = table.minimalStateMap();
+    CompiledDFA minimal = table.minimize();
+
+    // Name every block after the start state or else its smallest original state name
+    String startName = dfa.getStartState().getName();
+    String[] names = new String[minimal.getStateCount()];
+    for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+      int b = block[entry.getValue()];
+      if (b < 0 || startName.equals(names[b])) {
+        continue;
+      }
+      if (names[b] == null || entry.getKey().equals(startName) || entry.getKey().compareTo(names[b]) < 0) {
+        names[b] = entry.getKey();
+      }
+    }
+    Map<String, String> mapping = new TreeMap<>();
+    for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+      int b = block[entry.getValue()];
+      if (b >= 0) {
+        mapping.put(entry.getKey(), names[b]);
+      }
+    }
+    // A block holding only the added sink gets a fresh name
+    boolean deadStateAdded = false;
+    for (int b = 0; b < names.length; b++) {
+      if (names[b] == null) {
+        deadStateAdded = true;
+        String name = "dead";
+        for (int i = 1; ids.containsKey(name); i++) {
+          name = "dead" + i;
+        }
+        names[b] = name;
+      }
+    }
+
+    return new Result(toDFA(minimal, names), minimal, mapping, dfa.getStates().size(), deadStateAdded);
+  }
+
+  private static DFA toDFA(CompiledDFA table, String[] names) {
+    char[] sigma = table.getAlphabet();
+    StateInterner interner = new StateInterner();
+    Set<State> states = new LinkedHashSet<>();
+    for (String name : names) {
+      states.add(interner.intern(name));
+    }
+
+    Set<Symbol> alphabet = new LinkedHashSet<>();
+    for (char c : sigma) {
+      alphabet.add(Symbol.of(c));
+    }
+
+    Set<State> finals = new LinkedHashSet<>();
+    Set<Transition> transitions = new LinkedHashSet<>();
+    for (int q = 0; q < names.length; q++) {
+      State from = interner.get(q);
+      if (table.isAccepting(q)) {
+        from.setAccept(true);
+        finals.add(from);
+      }
+      for (int a = 0; a < sigma.length; a++) {
+        transitions.add(new Transition(from, Symbol.of(sigma[a]), interner.get(table.next(q, a))));
+      }
+    }
+
+    State start = interner.get(table.getStart());
+    start.setStart(true);
+    return new DFA(states, alphabet, finals, start, transitions);
+  }
+}
@@ -1,9 +1,12 @@
 package NondeterministicFiniteAutomaton;
 
+import common.AlphabetIndex;
 import common.Automaton;
 import common.Automaton.ValidationMessage.ValidationMessageType;
+import common.CompiledDFA;
 import common.InputNormalizer;
 import common.State;
+import common.StateInterner;
 import common.Symbol;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -152,6 +155,7 @@ public class NFA extends Automaton {
             return;
         }
 
+        StateInterner interner = new StateInterner();
         String[] stateNames = String.join(" ", stateLines).split("\\s+");
         for (String name : stateNames) {
             lineNumber = findLineNumberFromSectionLines(name, lineNum, stateLines);
@@ -159,7 +163,7 @@ public class NFA extends Automaton {
                 messages.add(new ValidationMessage("State Name Too Long.", lineNumber, ValidationMessageType.WARNING));
             }
             if (name.matches("^" + statePattern + "$")) {
-                this.states.put(name, new State(name));
+                this.states.put(name, interner.intern(name));
                 if (VERBOSE) {
                     System.out.println("State: " + name + " added to states");
                 }
@@ -189,7 +193,7 @@ public class NFA extends Automaton {
         for (String name : symbolNames) {
             lineNumber = findLineNumberFromSectionLines(name, lineNum, alphabetLines);
             if (name.length() == 1 && Character.isLetterOrDigit(name.charAt(0))) {
-                Symbol symbol = new Symbol(name.charAt(0));
+                Symbol symbol = Symbol.of(name.charAt(0));
                 if (!this.alphabet.contains(symbol)) {
                     this.alphabet.add(symbol);
                     if (VERBOSE) {
@@ -334,11 +338,11 @@ public class NFA extends Automaton {
             currentStates.add(s);
         }
 
+        AlphabetIndex symbols = AlphabetIndex.of(this.alphabet);
         for (char c : inputText.toCharArray()) {
-            Symbol inputSymbol = new Symbol(c);
             Set<State> nextStates = new LinkedHashSet<>();
 
-            if (!this.alphabet.contains(inputSymbol)) {
+            if (!symbols.contains(c)) {
                 runtimeMessages.add(new ValidationMessage("Symbol not in alphabet: " + c, -1, ValidationMessageType.ERROR));
                 if (TIME){
                     System.out.println("Failed");
@@ -350,7 +354,7 @@ public class NFA extends Automaton {
             for (State state : currentStates) {
 
                 for (Transition t : this.transitions.getOrDefault(state, Collections.emptyList())) {
-                    if (t.getSymbol().equals(inputSymbol)) {
+                    if (t.getSymbol().getValue() == c) {
                         nextStates.add(t.getTo());
                         trace.append("Transition: ").append(state.getName())
                                 .append(" --").append(c).append("--> ")
@@ -527,9 +531,9 @@ public class NFA extends Automaton {
                     for (String symbol : symbols) {
                         Symbol symbolTemp;
                         if (symbol.equals("eps")) {
-                            symbolTemp = new Symbol('_');
+                            symbolTemp = Symbol.of('_');
                         }else{
-                            symbolTemp = new Symbol(symbol.charAt(0));
+                            symbolTemp = Symbol.of(symbol.charAt(0));
                         }
                         if (!this.alphabet.contains(symbolTemp) && !symbol.equals("eps")) {
                             warnings.add(new ValidationMessage("Alphabet does not contain transition symbol: " + symbol,
@@ -933,6 +937,88 @@ public class NFA extends Automaton {
         return transitions;
     }
 
+    /**
+     * Determinises this NFA with the subset construction, following epsilon transitions the
+     * same way {@link #execute(String)} does. The alphabet of the result is sorted.
+     *
+     * @return the compiled transition table
+     */
+    public CompiledDFA toCompiledDFA() {
+        return toCompiledDFA(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #toCompiledDFA()}, but gives up once the subset construction has found more
+     * than {@code maxStates} subsets. The number of subsets can grow exponentially in the number
+     * of NFA states, so callers that compile untrusted machines should pass a budget.
+     *
+     * @param maxStates the largest number of DFA states to build
+     * @return the compiled transition table, or null if it would have more than maxStates states
+     */
+    public CompiledDFA toCompiledDFA(int maxStates) {
+        TreeSet<Character> letters = new TreeSet<>();
+        for (Symbol symbol : alphabet) {
+            if (!symbol.isEpsilon()) letters.add(symbol.getValue());
+        }
+        char[] sigma = new char[letters.size()];
+        int idx = 0;
+        for (char c : letters) sigma[idx++] = c;
+
+        Set<String> acceptingNames = new HashSet<>();
+        for (State s : finalStates) acceptingNames.add(s.getName());
+        for (State s : states.values()) if (s.isAccept()) acceptingNames.add(s.getName());
+
+        Map<Set<State>, Integer> ids = new HashMap<>();
+        List<Set<State>> subsets = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+
+        Set<State> initial = new HashSet<>();
+        initial.add(startState);
+        initial.addAll(getEpsilonClosure(initial));
+        ids.put(initial, 0);
+        subsets.add(initial);
+
+        for (int i = 0; i < subsets.size(); i++) {
+            int[] row = new int[sigma.length];
+            for (int a = 0; a < sigma.length; a++) {
+                Symbol symbol = Symbol.of(sigma[a]);
+                Set<State> next = new HashSet<>();
+                for (State state : subsets.get(i)) {
+                    for (Transition t : transitions.getOrDefault(state, Collections.emptyList())) {
+                        if (t.getSymbol().equals(symbol)) next.add(t.getTo());
+                    }
+                }
+                if (next.isEmpty()) {
+                    row[a] = -1;
+                    continue;
+                }
+                next.addAll(getEpsilonClosure(next));
+                Integer id = ids.get(next);
+                if (id == null) {
+                    if (subsets.size() >= maxStates) {
+                        return null;
+                    }
+                    id = subsets.size();
+                    ids.put(next, id);
+                    subsets.add(next);
+                }
+                row[a] = id;
+            }
+            rows.add(row);
+        }
+
+        boolean[] accepting = new boolean[subsets.size()];
+        for (int i = 0; i < accepting.length; i++) {
+            for (State s : subsets.get(i)) {
+                if (s.isAccept() || acceptingNames.contains(s.getName())) {
+                    accepting[i] = true;
+                    break;
+                }
+            }
+        }
+        return new CompiledDFA(sigma, rows.toArray(new int[0][]), accepting, 0);
+    }
+
     @Override
     public String getDefaultTemplate() {
         return "Start: q1\n" +
@@ -387,6 +387,61 @@ public class PDA extends Automaton {
         return transitionMap.values().stream().mapToInt(List::size).sum();
     }
 
+    /**
+     * Returns the start state of this PDA.
+     *
+     * @return the start state, or null if not parsed
+     */
+    public State getStartState() {
+        return startState;
+    }
+
+    /**
+     * Returns the final states of this PDA.
+     *
+     * @return the final states, or null if not parsed
+     */
+    public Set<State> getFinalStates() {
+        return finalStates;
+    }
+
+    /**
+     * Returns the input alphabet of this PDA.
+     *
+     * @return the input alphabet, or null if not parsed
+     */
+    public Set<Symbol> getInputAlphabet() {
+        return inputAlphabet;
+    }
+
+    /**
+     * Returns the stack alphabet of this PDA.
+     *
+     * @return the stack alphabet, or null if not parsed
+     */
+    public Set<Symbol> getStackAlphabet() {
+        return stackAlphabet;
+    }
+
+    /**
+     * Returns the initial stack symbol of this PDA.
+     *
+     * @return the stack start symbol, or null if not parsed
+     */
+    public Symbol getStackStartSymbol() {
+        return stackStartSymbol;
+    }
+
+    /**
+     * Returns the transitions leaving a state, in the order they are tried during execution.
+     *
+     * @param state the source state
+     * @return an unmodifiable list of transitions, empty if there are none
+     */
+    public List<PDATransition> getTransitionsFrom(State state) {
+        return Collections.unmodifiableList(transitionMap.getOrDefault(state, Collections.emptyList()));
+    }
+
     /**
      * Validates the number of transitions against a maximum limit.
      *
@@ -431,7 +486,7 @@ public class PDA extends Automaton {
                 messages.add(new ValidationMessage("Alphabet symbol '" + s + "' must be a single character.", lineNum, ValidationMessageType.ERROR));
                 continue;
             }
-            alphabet.add(new Symbol(s.charAt(0)));
+            alphabet.add(Symbol.of(s.charAt(0)));
         }
     }
 
@@ -455,18 +510,18 @@ public class PDA extends Automaton {
                                            Set<Symbol> stackAlphabet, List<ValidationMessage> messages) {
         if (lines == null || lines.isEmpty()) {
             // Allow missing stack_start: stack begins empty (epsilon)
-            return new Symbol('_');
+            return Symbol.of('_');
         }
         String stackStartStr = lines.get(0).trim();
         if ("eps".equals(stackStartStr)) {
             // Explicit epsilon → stack begins empty
-            return new Symbol('_');
+            return Symbol.of('_');
         }
         if (stackStartStr.length() != 1) {
             messages.add(new ValidationMessage("Stack start symbol must be a single character.", lineNum, ValidationMessageType.ERROR));
             return null;
         }
-        Symbol stackStartSymbol = new Symbol(stackStartStr.charAt(0));
+        Symbol stackStartSymbol = Symbol.of(stackStartStr.charAt(0));
         if (!stackAlphabet.contains(stackStartSymbol)) {
             messages.add(new ValidationMessage("Stack start symbol '" + stackStartStr + "' is not defined in 'stack_alphabet'.", lineNum, ValidationMessageType.ERROR));
         }
@@ -550,12 +605,12 @@ public class PDA extends Automaton {
     }
 
     private Symbol validateInputSymbol(String s, Set<Symbol> alphabet, int line, List<ValidationMessage> messages) {
-        if (s.equals("eps")) return new Symbol('_');
+        if (s.equals("eps")) return Symbol.of('_');
         if (s.length() != 1) {
             messages.add(new ValidationMessage("Input symbol '" + s + "' must be a single character or 'eps'.", line, ValidationMessageType.ERROR));
             return null;
         }
-        Symbol symbol = new Symbol(s.charAt(0));
+        Symbol symbol = Symbol.of(s.charAt(0));
         if (!alphabet.contains(symbol)) {
             messages.add(new ValidationMessage("Input symbol '" + s + "' is not defined in 'alphabet'.", line, ValidationMessageType.ERROR));
             return null;
@@ -564,12 +619,12 @@ public class PDA extends Automaton {
     }
 
     private Symbol validateStackSymbol(String s, Set<Symbol> alphabet, int line, List<ValidationMessage> messages) {
-        if (s.equals("eps")) return new Symbol('_');
+        if (s.equals("eps")) return Symbol.of('_');
         if (s.length() != 1) {
             messages.add(new ValidationMessage("Stack symbol '" + s + "' must be a single character or 'eps'.", line, ValidationMessageType.ERROR));
             return null;
         }
-        Symbol symbol = new Symbol(s.charAt(0));
+        Symbol symbol = Symbol.of(s.charAt(0));
         if (!alphabet.contains(symbol)) {
             messages.add(new ValidationMessage("Stack symbol '" + s + "' is not defined in 'stack_alphabet'.", line, ValidationMessageType.ERROR));
             return null;
@@ -586,7 +641,7 @@ public class PDA extends Automaton {
                 return false;
             }
             char c = pushString.charAt(0);
-            if (!alphabet.contains(new Symbol(c))) {
+            if (!alphabet.contains(Symbol.of(c))) {
                 messages.add(new ValidationMessage(
                         "Stack symbol '" + c + "' is not defined in 'stack_alphabet'.",
                         line, ValidationMessageType.ERROR));
@@ -0,0 +1,342 @@
+package RegularExpression.Checker;
+
+import common.CompiledDFA;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel checker for large case files in the {@code testString,label} format.
+ * <p>
+ * The cases file is memory-mapped and cut into line-aligned chunks that are matched by a pool of
+ * workers against one immutable {@link CompiledDFA}. Each chunk reports its counts, its messages
+ * and its first mismatches with chunk-local line numbers; the results are merged in file order,
+ * so the output is identical to a sequential run regardless of the number of workers.
+ * </p>
+ * <p>
+ * Lines are interpreted exactly like {@link Check#check(String, String)}: blank lines are skipped,
+ * the string is everything before the first comma and the label is parsed as an integer, with
+ * {@code 1} meaning the string should match.
+ * </p>
+ */
+public class BatchCheck {
+    /** Chunks are at most this large so that every chunk fits in one mapping. */
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    /**
+     * A case whose verdict differs from its label.
+     */
+    public static class Mismatch {
+        private final long lineNumber;
+        private final String input;
+        private final boolean expected;
+
+        Mismatch(long lineNumber, String input, boolean expected) {
+            this.lineNumber = lineNumber;
+            this.input = input;
+            this.expected = expected;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getInput() {
+            return input;
+        }
+
+        /**
+         * @return whether the case file expects the string to match
+         */
+        public boolean isExpected() {
+            return expected;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": \"" + input + "\" expected " + (expected ? 1 : 0) + ", got " + (expected ? 0 : 1);
+        }
+    }
+
+    /**
+     * Merged outcome of a batch check.
+     */
+    public static class Result {
+        private long correct;
+        private long wrong;
+        private final List<String> messages = new ArrayList<>();
+        private final List<Mismatch> mismatches = new ArrayList<>();
+
+        public long getCorrect() {
+            return correct;
+        }
+
+        public long getWrong() {
+            return wrong;
+        }
+
+        /**
+         * @return messages about malformed lines, in file order
+         */
+        public List<String> getMessages() {
+            return messages;
+        }
+
+        /**
+         * @return the first mismatches in file order
+         */
+        public List<Mismatch> getMismatches() {
+            return mismatches;
+        }
+    }
+
+    /** Per-chunk result with line numbers relative to the chunk. */
+    private static final class ChunkResult {
+        long lines;
+        long correct;
+        long wrong;
+        final List<Long> messageLines = new ArrayList<>();
+        final List<String[]> messages = new ArrayList<>();
+        final List<Mismatch> mismatches = new ArrayList<>();
+    }
+
+    private BatchCheck() {
+    }
+
+    /**
+     * Checks every case of a file against an automaton.
+     *
+     * @param dfa the compiled regular expression
+     * @param casesPath the case file
+     * @param workers number of worker threads
+     * @param maxMismatches how many mismatches to keep
+     * @return the merged result
+     * @throws IOException if the file cannot be read
+     */
+    public static Result check(CompiledDFA dfa, Path casesPath, int workers, int maxMismatches) throws IOException {
+        try (FileChannel channel = FileChannel.open(casesPath, StandardOpenOption.READ)) {
+            List<long[]> chunks = splitChunks(channel, Math.max(1, workers));
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, workers));
+            try {
+                List<Future<ChunkResult>> futures = new ArrayList<>();
+                for (long[] chunk : chunks) {
+                    futures.add(pool.submit(() -> checkChunk(dfa, channel, chunk[0], chunk[1], maxMismatches)));
+                }
+
+                Result result = new Result();
+                long lineOffset = 0;
+                for (Future<ChunkResult> future : futures) {
+                    ChunkResult part = future.get();
+                    result.correct += part.correct;
+                    result.wrong += part.wrong;
+                    for (int i = 0; i < part.messages.size(); i++) {
+                        String[] text = part.messages.get(i);
+                        result.messages.add(text[0] + (lineOffset + part.messageLines.get(i)) + text[1]);
+                    }
+                    for (Mismatch m : part.mismatches) {
+                        if (result.mismatches.size() < maxMismatches) {
+                            result.mismatches.add(new Mismatch(lineOffset + m.lineNumber, m.input, m.expected));
+                        }
+                    }
+                    lineOffset += part.lines;
+                }
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while checking cases", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException("Checking cases failed", cause);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Cuts the file into about four chunks per worker, each ending right after a newline.
+     */
+    private static List<long[]> splitChunks(FileChannel channel, int workers) throws IOException {
+        long size = channel.size();
+        long target = Math.min(MAX_CHUNK_BYTES, Math.max(1 << 16, size / (workers * 4L) + 1));
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (start < size) {
+            long end = Math.min(size, start + target);
+            // Advance to just after the next newline
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int nl = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        nl = i;
+                        break;
+                    }
+                }
+                if (nl >= 0) {
+                    end += nl + 1;
+                    break;
+                }
+                end += read;
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line longer than 2 GB in " + channel);
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static ChunkResult checkChunk(CompiledDFA dfa, FileChannel channel, long start, long end,
+                                          int maxMismatches) throws IOException {
+        ChunkResult res = new ChunkResult();
+        if (end <= start) return res;
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buf.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buf.get(lineEnd) != '\n') lineEnd++;
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            res.lines++;
+            checkLine(dfa, buf, lineStart, lineEnd, res, maxMismatches);
+            lineStart = next;
+        }
+        return res;
+    }
+
+    private static void checkLine(CompiledDFA dfa, MappedByteBuffer buf, int from, int to,
+                                  ChunkResult res, int maxMismatches) {
+        int comma = -1;
+        boolean blank = true;
+        boolean ascii = true;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < 0) ascii = false;
+            if ((b & 0xFF) > ' ') blank = false;
+            if (b == ',' && comma < 0) comma = i;
+        }
+        if (blank) return;
+
+        if (!ascii) {
+            // Rare: decode the line and use the same rules on the decoded text
+            byte[] bytes = new byte[to - from];
+            for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(from + i);
+            checkDecodedLine(dfa, new String(bytes, StandardCharsets.UTF_8), res, maxMismatches);
+            return;
+        }
+
+        if (comma < 0) {
+            addMessage(res, "Malformed line ", " (expected 'string,label'): " + ascii(buf, from, to));
+            return;
+        }
+
+        Boolean expected = parseLabel(buf, comma + 1, to);
+        if (expected == null) {
+            addMessage(res, "Invalid label at line ", ": " + ascii(buf, comma + 1, to).trim());
+            return;
+        }
+
+        int q = dfa.getStart();
+        boolean alive = true;
+        for (int i = from; i < comma; i++) {
+            int a = dfa.indexOf((char) buf.get(i));
+            if (a < 0) {
+                alive = false;
+                break;
+            }
+            q = dfa.next(q, a);
+        }
+        boolean actual = alive && dfa.isAccepting(q);
+        record(res, actual == expected, expected, buf, from, comma, maxMismatches);
+    }
+
+    private static void checkDecodedLine(CompiledDFA dfa, String ln, ChunkResult res, int maxMismatches) {
+        String[] parts = ln.split(",", 2);
+        if (parts.length != 2) {
+            addMessage(res, "Malformed line ", " (expected 'string,label'): " + ln);
+            return;
+        }
+        int label;
+        try {
+            label = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException nfe) {
+            addMessage(res, "Invalid label at line ", ": " + parts[1].trim());
+            return;
+        }
+        boolean expected = label == 1;
+        boolean actual = dfa.accepts(parts[0]);
+        if (actual == expected) {
+            res.correct++;
+        } else {
+            res.wrong++;
+            if (res.mismatches.size() < maxMismatches) res.mismatches.add(new Mismatch(res.lines, parts[0], expected));
+        }
+    }
+
+    /**
+     * Parses the label like {@code Integer.parseInt(label.trim()) == 1}; null if it is not an integer.
+     */
+    private static Boolean parseLabel(MappedByteBuffer buf, int from, int to) {
+        while (from < to && (buf.get(from) & 0xFF) <= ' ') from++;
+        while (to > from && (buf.get(to - 1) & 0xFF) <= ' ') to--;
+        if (to - from == 1) {
+            byte b = buf.get(from);
+            if (b >= '0' && b <= '9') return b == '1';
+            return null;
+        }
+        try {
+            return Integer.parseInt(ascii(buf, from, to)) == 1;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void record(ChunkResult res, boolean ok, boolean expected, MappedByteBuffer buf,
+                               int from, int to, int maxMismatches) {
+        if (ok) {
+            res.correct++;
+            return;
+        }
+        res.wrong++;
+        if (res.mismatches.size() < maxMismatches) {
+            res.mismatches.add(new Mismatch(res.lines, ascii(buf, from, to), expected));
+        }
+    }
+
+    /**
+     * Records a message about the current line; the global line number is inserted between
+     * the two parts once the chunk offsets are known.
+     */
+    private static void addMessage(ChunkResult res, String beforeLine, String afterLine) {
+        res.messageLines.add(res.lines);
+        res.messages.add(new String[]{beforeLine, afterLine});
+    }
+
+    private static String ascii(MappedByteBuffer buf, int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) buf.get(from + i);
+        return new String(chars);
+    }
+}
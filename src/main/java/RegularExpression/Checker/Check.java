@@ -1,54 +1,24 @@
 package RegularExpression.Checker;
 
 import RegularExpression.SyntaxTree.RegularExpression;
+import RegularExpression.SyntaxTree.SyntaxTree;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.nio.file.Paths;
 
 /**
  * Check utility:
  * - Reads the regular expression from the first non-empty line of regexPath.
  * - Automatically extracts the alphabet from characters used in the regex (letters/digits),
- *   ignoring common regex meta-characters and the union operator 'u'.
+ *   ignoring regex meta-characters, repetition bounds and the union operator 'u'.
  * - Reads casesPath where each non-empty line is "testString,1" or "testString,0".
  */
 public class Check {
     public static void check(String regexPath, String casesPath) {
-        RegularExpression re;
-
-        String regex = null;
-        try (BufferedReader br = new BufferedReader(new FileReader(regexPath))) {
-            String ln;
-            while ((ln = br.readLine()) != null) {
-                if (!ln.trim().isEmpty()) {
-                    regex = ln.trim();
-                    break;
-                }
-            }
-            if (regex == null) {
-                System.err.println(regexPath + " is empty or contains only blank lines");
-                return;
-            }
-
-            char[] alphabet = extractAlphabetFromRegex(regex);
-            if (alphabet.length == 0) {
-                System.err.println("Warning: extracted alphabet is empty. Check the regex or provide an alphabet if needed.");
-            }
-
-            re = new RegularExpression(regex, alphabet);
-
-        } catch (IOException e) {
-            System.err.println(regexPath + " read unsuccessful");
-            e.printStackTrace();
-            return;
-        } catch (Exception e) {
-            System.err.println("Failed to construct RegularExpression from regex. Regex: " + regex);
-            e.printStackTrace();
-            return;
-        }
+        RegularExpression re = loadRegex(regexPath);
+        if (re == null) return;
 
         int correct = 0, wrong = 0;
         try (BufferedReader br = new BufferedReader(new FileReader(casesPath))) {
@@ -97,30 +67,88 @@ public class Check {
     }
 
     /**
-     * Simple alphabet extraction:
-     * - Collects distinct characters that are letters or digits (in order of appearance).
-     * - Skips the character 'u' (treated as union operator here) and common meta-characters.
-     *
-     * If your actual alphabet uses other printable symbols, adjust this method accordingly.
+     * Same as {@link #check(String, String)}, but matches the cases on {@code workers} threads
+     * against the compiled regex (see {@link BatchCheck}) and additionally lists the first
+     * {@code maxMismatches} misclassified cases. The output does not depend on the number of workers.
      */
-    private static char[] extractAlphabetFromRegex(String regex) {
-        Set<Character> set = new LinkedHashSet<>();
-        for (int i = 0; i < regex.length(); ++i) {
-            char c = regex.charAt(i);
+    public static void checkParallel(String regexPath, String casesPath, int workers, int maxMismatches) {
+        RegularExpression re = loadRegex(regexPath);
+        if (re == null) return;
+
+        BatchCheck.Result result;
+        try {
+            result = BatchCheck.check(re.st.toCompiledDFA(), Paths.get(casesPath), workers, maxMismatches);
+        } catch (IOException e) {
+            System.err.println("Path: " + casesPath);
+            System.err.println("Cases read unsuccessful");
+            e.printStackTrace();
+            return;
+        }
+
+        for (String message : result.getMessages())
+            System.err.println(message);
+
+        long correct = result.getCorrect(), wrong = result.getWrong();
+        System.out.println("Correct: " + correct);
+        System.out.println("Wrong: " + wrong);
+        if (correct + wrong == 0) {
+            System.out.println("Accuracy: N/A (no valid cases found)");
+        } else {
+            System.out.println("Accuracy: " + (double) correct / (correct + wrong));
+        }
+        if (!result.getMismatches().isEmpty()) {
+            System.out.println("First " + result.getMismatches().size() + " mismatches:");
+            for (BatchCheck.Mismatch m : result.getMismatches())
+                System.out.println("  " + m);
+        }
+    }
 
-            if (Character.isWhitespace(c)) continue;
-            if (c == '(' || c == ')' || c == '*' || c == '+' || c == '?' || c == '|' || c == '.' ) continue;
-            if (c == 'u') continue;
+    /**
+     * Reads the regex from the first non-empty line of regexPath and builds it with the extracted alphabet.
+     * Problems are reported on stderr and result in null.
+     */
+    private static RegularExpression loadRegex(String regexPath) {
+        String regex = null;
+        try (BufferedReader br = new BufferedReader(new FileReader(regexPath))) {
+            String ln;
+            while ((ln = br.readLine()) != null) {
+                if (!ln.trim().isEmpty()) {
+                    regex = ln.trim();
+                    break;
+                }
+            }
+            if (regex == null) {
+                System.err.println(regexPath + " is empty or contains only blank lines");
+                return null;
+            }
+
+            char[] alphabet = extractAlphabetFromRegex(regex);
+            if (alphabet.length == 0) {
+                System.err.println("Warning: extracted alphabet is empty. Check the regex or provide an alphabet if needed.");
+            }
+
+            return new RegularExpression(regex, alphabet);
 
-            // treat letters/digits as alphabet symbols, except u
-            if (Character.isLetterOrDigit(c))
-                set.add(c);
+        } catch (IOException e) {
+            System.err.println(regexPath + " read unsuccessful");
+            e.printStackTrace();
+            return null;
+        } catch (Exception e) {
+            System.err.println("Failed to construct RegularExpression from regex. Regex: " + regex);
+            e.printStackTrace();
+            return null;
         }
+    }
 
-        char[] alphabet = new char[set.size()];
-        int idx = 0;
-        for (Character ch : set) alphabet[idx++] = ch;
-        return alphabet;
+    /**
+     * Extracts the alphabet from the symbols the regex uses (see {@link SyntaxTree#symbolsOf}):
+     * letters and digits other than the union operator 'u', with class ranges such as [a-c]
+     * expanded and repetition bounds such as {2,3} left out.
+     *
+     * If your actual alphabet uses other printable symbols, adjust this method accordingly.
+     */
+    private static char[] extractAlphabetFromRegex(String regex) {
+        return SyntaxTree.symbolsOf(regex);
     }
 
 }
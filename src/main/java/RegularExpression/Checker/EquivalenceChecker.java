@@ -0,0 +1,168 @@
+package RegularExpression.Checker;
+
+import DeterministicFiniteAutomaton.DFA;
+import NondeterministicFiniteAutomaton.NFA;
+import RegularExpression.SyntaxTree.SyntaxTree;
+import common.Automaton;
+import common.CompiledDFA;
+
+/**
+ * Decides whether a student's regular expression describes the same language as a reference.
+ * <p>
+ * Both sides are compiled to minimal DFAs and compared through a breadth-first search of their
+ * product automaton. Instead of counting how many suite strings were misclassified, the result
+ * names the shortest string on which the two languages differ together with the verdict the
+ * reference expects for it.
+ * </p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ * <pre>{@code
+ * EquivalenceChecker.Result r = EquivalenceChecker.check(studentTree, referenceDfa);
+ * if (!r.isEquivalent())
+ *     System.out.println(r.getFeedback()); // e.g. Incorrectly rejected: "ab"
+ * }</pre>
+ */
+public class EquivalenceChecker {
+
+    /**
+     * Outcome of an equivalence check.
+     */
+    public static class Result {
+        private final boolean equivalent;
+        private final String counterexample;
+        private final boolean expectedAccept;
+        private final int studentStates;
+        private final int referenceStates;
+
+        Result(boolean equivalent, String counterexample, boolean expectedAccept,
+               int studentStates, int referenceStates) {
+            this.equivalent = equivalent;
+            this.counterexample = counterexample;
+            this.expectedAccept = expectedAccept;
+            this.studentStates = studentStates;
+            this.referenceStates = referenceStates;
+        }
+
+        public boolean isEquivalent() {
+            return equivalent;
+        }
+
+        /**
+         * @return a shortest string the two languages disagree on, or null if they are equivalent
+         */
+        public String getCounterexample() {
+            return counterexample;
+        }
+
+        /**
+         * @return whether the reference accepts the counterexample
+         */
+        public boolean isExpectedAccept() {
+            return expectedAccept;
+        }
+
+        /**
+         * @return the number of states of the student's minimal DFA
+         */
+        public int getStudentStates() {
+            return studentStates;
+        }
+
+        /**
+         * @return the number of states of the reference's minimal DFA
+         */
+        public int getReferenceStates() {
+            return referenceStates;
+        }
+
+        /**
+         * @return a one-line message suitable for showing to the student
+         */
+        public String getFeedback() {
+            if (equivalent) {
+                return "Equivalent to the reference";
+            }
+            String shown = counterexample.isEmpty() ? "ε (empty string)" : "\"" + counterexample + "\"";
+            return (expectedAccept ? "Incorrectly rejected: " : "Incorrectly accepted: ") + shown;
+        }
+
+        @Override
+        public String toString() {
+            return getFeedback();
+        }
+    }
+
+    private EquivalenceChecker() {
+    }
+
+    /**
+     * Compares a student's regular expression against a reference regular expression, DFA or NFA.
+     *
+     * @param student the parsed student expression
+     * @param reference a parsed {@link SyntaxTree}, {@link DFA} or {@link NFA}
+     * @return the comparison result
+     * @throws IllegalArgumentException if the reference type is not a finite automaton or regex
+     */
+    public static Result check(SyntaxTree student, Automaton reference) {
+        return check(student.toCompiledDFA(), compile(reference));
+    }
+
+    /**
+     * Compares two compiled automata.
+     *
+     * @param student the automaton under test
+     * @param reference the reference automaton
+     * @return the comparison result
+     */
+    public static Result check(CompiledDFA student, CompiledDFA reference) {
+        char[] sigma = CompiledDFA.unionAlphabet(student.getAlphabet(), reference.getAlphabet());
+        CompiledDFA s = student.withAlphabet(sigma).minimize();
+        CompiledDFA r = reference.withAlphabet(sigma).minimize();
+
+        String witness = s.findDistinguishingString(r);
+        if (witness == null) {
+            return new Result(true, null, false, s.getStateCount(), r.getStateCount());
+        }
+        return new Result(false, witness, r.accepts(witness), s.getStateCount(), r.getStateCount());
+    }
+
+    /**
+     * Compiles any regular-language machine of this project to a transition table.
+     *
+     * @param automaton a {@link SyntaxTree}, {@link DFA} or {@link NFA}
+     * @return its compiled table
+     * @throws IllegalArgumentException for other machine types
+     */
+    public static CompiledDFA compile(Automaton automaton) {
+        if (automaton instanceof SyntaxTree) {
+            return ((SyntaxTree) automaton).toCompiledDFA();
+        }
+        if (automaton instanceof DFA) {
+            return ((DFA) automaton).toCompiledDFA();
+        }
+        if (automaton instanceof NFA) {
+            return ((NFA) automaton).toCompiledDFA();
+        }
+        throw new IllegalArgumentException("Not a regular language machine: " + automaton.getType());
+    }
+
+    /**
+     * Same as {@link #compile(Automaton)}, but gives up on regular expressions and NFAs whose
+     * determinisation exceeds {@code maxStates} states. A DFA is compiled in linear time and is
+     * never refused.
+     *
+     * @param automaton a {@link SyntaxTree}, {@link DFA} or {@link NFA}
+     * @param maxStates the largest number of states to build by determinisation
+     * @return its compiled table, or null if it is too large
+     * @throws IllegalArgumentException for other machine types
+     */
+    public static CompiledDFA compile(Automaton automaton, int maxStates) {
+        if (automaton instanceof SyntaxTree) {
+            return ((SyntaxTree) automaton).toCompiledDFA(maxStates);
+        }
+        if (automaton instanceof NFA) {
+            return ((NFA) automaton).toCompiledDFA(maxStates);
+        }
+        return compile(automaton);
+    }
+}
@@ -0,0 +1,61 @@
+package RegularExpression.SyntaxTree;
+
+import java.util.*;
+
+import static RegularExpression.SyntaxTree.RegexOperator.*;
+
+/**
+ * Represents a character class such as <code>[abc]</code>, <code>[a-c]</code> or
+ * <code>[^ab]</code> in a regular expression syntax tree.
+ * <p>
+ *     Like a {@link LeafNode} it consumes exactly one input symbol, but any symbol of the
+ *     class is accepted. The members are resolved against the alphabet when the regex is
+ *     parsed and kept sorted, so a class of any size is a single node.
+ * </p>
+ */
+public class CharClassNode extends SyntaxTreeNode {
+    private final char[] members;
+
+    public CharClassNode(char[] members) {
+        super(CLASS_OPEN);
+        if (members.length == 0) {
+            throw new IllegalArgumentException("Empty character class");
+        }
+        this.members = members.clone();
+        Arrays.sort(this.members);
+    }
+
+    /**
+     * @return the symbols of the class in ascending order
+     */
+    public char[] getMembers() {
+        return members.clone();
+    }
+
+    public boolean contains(char c) {
+        return Arrays.binarySearch(members, c) >= 0;
+    }
+
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet res = new BitSet();
+        if (pos < s.length() && contains(s.charAt(pos)))
+            res.set(pos + 1);
+        return res;
+    }
+
+    public String generateOneCase() {
+        return String.valueOf(members[RANDOM.nextInt(members.length)]);
+    }
+
+    public String generateOneCase(int maxStarRepeat) {
+        return generateOneCase();
+    }
+
+    public Set<String> generateCasesExhaustive(int maxLen) {
+        Set<String> res = new HashSet<>();
+        if (maxLen >= 1)
+            for (char c : members)
+                res.add(String.valueOf(c));
+        return res;
+    }
+}
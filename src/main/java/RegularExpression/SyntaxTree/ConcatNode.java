@@ -1,5 +1,6 @@
 package RegularExpression.SyntaxTree;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -22,11 +23,11 @@ public class ConcatNode extends BinaryNode {
         super(l, r, CONCAT);
     }
 
-    public Set<Integer> match(String s, int pos) {
-        HashSet<Integer> res = new HashSet<>();
-        Set<Integer> mids = leftChild.match(s, pos);
-        for (int mid : mids)
-            res.addAll(rightChild.match(s, mid));
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet res = new BitSet();
+        BitSet mids = leftChild.ends(s, pos, memo);
+        for (int mid = mids.nextSetBit(0); mid >= 0; mid = mids.nextSetBit(mid + 1))
+            res.or(rightChild.ends(s, mid, memo));
         return res;
     }
 
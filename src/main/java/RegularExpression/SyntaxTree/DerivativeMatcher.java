@@ -0,0 +1,322 @@
+package RegularExpression.SyntaxTree;
+
+import common.AlphabetIndex;
+import common.CompiledDFA;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Matches strings with Brzozowski derivatives of the regular expression.
+ * <p>
+ *     The syntax tree is translated into hash-consed terms: structurally equal terms are
+ *     represented by the same integer id, and the smart constructors normalise unions
+ *     (flattened, sorted, without duplicates or &empty;), concatenations (right-nested,
+ *     without &epsilon; or &empty; operands) and stars. Character classes are single terms,
+ *     and bounded repetitions keep their bounds as counters, so the derivative of
+ *     {@code r{m,n}} is {@code r' r{m-1,n-1}} rather than an expansion of the bounds. With this
+ *     normalisation every
+ *     expression has finitely many distinct derivatives, so the derivative of term {@code t}
+ *     by symbol {@code a} is memoized in a table indexed by {@code (t, a)}. The table is a
+ *     lazily built DFA whose states are terms, and it is shared by every input matched
+ *     through the same instance.
+ * </p>
+ * <p>
+ *     Instances are owned by one {@link SyntaxTree} and are not thread-safe.
+ * </p>
+ */
+public class DerivativeMatcher {
+    private static final int EMPTY_SET = 0;
+    private static final int EPSILON = 1;
+
+    private static final byte K_EMPTY = 0, K_EPS = 1, K_SYM = 2, K_CAT = 3, K_OR = 4, K_STAR = 5,
+            K_CLASS = 6, K_REPEAT = 7;
+    private static final int UNKNOWN = -1;
+
+    /**
+     * A node of the term graph. Children are term ids, except for {@code K_CLASS} whose
+     * {@code kids} are the sorted member characters and {@code K_REPEAT} whose {@code kids}
+     * are {@code {term, min, max}} with {@code max == -1} when unbounded.
+     */
+    private static final class Term {
+        final byte kind;
+        final char sym;
+        final int[] kids;
+        final int hash;
+
+        Term(byte kind, char sym, int[] kids) {
+            this.kind = kind;
+            this.sym = sym;
+            this.kids = kids;
+            this.hash = (kind * 31 + sym) * 31 + Arrays.hashCode(kids);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Term)) return false;
+            Term t = (Term) o;
+            return hash == t.hash && kind == t.kind && sym == t.sym && Arrays.equals(kids, t.kids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final AlphabetIndex index;
+    private final char[] alphabet;
+
+    private final Map<Term, Integer> ids = new HashMap<>();
+    private final List<Term> terms = new ArrayList<>();
+    private boolean[] nullable = new boolean[64];
+    private int[][] derivatives = new int[64][];
+    private final int root;
+
+    public DerivativeMatcher(SyntaxTreeNode root, char[] alphabet) {
+        this.index = new AlphabetIndex(alphabet);
+        this.alphabet = index.toCharArray();
+
+        intern(new Term(K_EMPTY, '\0', new int[0]));
+        intern(new Term(K_EPS, '\0', new int[0]));
+        this.root = translate(root);
+    }
+
+    private int translate(SyntaxTreeNode node) {
+        if (node instanceof LeafNode) {
+            return node.sym == 'ε' ? EPSILON : intern(new Term(K_SYM, node.sym, new int[0]));
+        }
+        if (node instanceof OrNode) {
+            return or(translate(((BinaryNode) node).leftChild), translate(((BinaryNode) node).rightChild));
+        }
+        if (node instanceof ConcatNode) {
+            return cat(translate(((BinaryNode) node).leftChild), translate(((BinaryNode) node).rightChild));
+        }
+        if (node instanceof StarNode) {
+            return star(translate(((UnaryNode) node).child));
+        }
+        if (node instanceof PlusNode) {
+            int t = translate(((UnaryNode) node).child);
+            return cat(t, star(t));
+        }
+        if (node instanceof OptionalNode) {
+            return or(translate(((UnaryNode) node).child), EPSILON);
+        }
+        if (node instanceof RepeatNode) {
+            RepeatNode rep = (RepeatNode) node;
+            return repeat(translate(rep.child), rep.min, rep.max);
+        }
+        if (node instanceof CharClassNode) {
+            char[] members = ((CharClassNode) node).getMembers();
+            if (members.length == 1) return intern(new Term(K_SYM, members[0], new int[0]));
+            int[] kids = new int[members.length];
+            for (int i = 0; i < members.length; i++) kids[i] = members[i];
+            return intern(new Term(K_CLASS, '\0', kids));
+        }
+        throw new IllegalArgumentException("Unsupported syntax tree node: " + node);
+    }
+
+    private int intern(Term t) {
+        Integer id = ids.get(t);
+        if (id != null) return id;
+
+        int newId = terms.size();
+        if (newId == derivatives.length) {
+            derivatives = Arrays.copyOf(derivatives, newId * 2);
+            nullable = Arrays.copyOf(nullable, newId * 2);
+        }
+        terms.add(t);
+        ids.put(t, newId);
+        nullable[newId] = computeNullable(t);
+        return newId;
+    }
+
+    private boolean computeNullable(Term t) {
+        switch (t.kind) {
+            case K_EPS:
+            case K_STAR:
+                return true;
+            case K_CAT:
+                return nullable[t.kids[0]] && nullable[t.kids[1]];
+            case K_OR:
+                for (int k : t.kids) if (nullable[k]) return true;
+                return false;
+            case K_REPEAT:
+                return t.kids[1] == 0 || nullable[t.kids[0]];
+            default:
+                return false;
+        }
+    }
+
+    /* Smart constructors */
+
+    private int cat(int l, int r) {
+        if (l == EMPTY_SET || r == EMPTY_SET) return EMPTY_SET;
+        if (l == EPSILON) return r;
+        if (r == EPSILON) return l;
+        Term lt = terms.get(l);
+        if (lt.kind == K_CAT) {
+            // (a b) c = a (b c)
+            return cat(lt.kids[0], cat(lt.kids[1], r));
+        }
+        return intern(new Term(K_CAT, '\0', new int[]{l, r}));
+    }
+
+    private int or(int l, int r) {
+        if (l == r) return l;
+        if (l == EMPTY_SET) return r;
+        if (r == EMPTY_SET) return l;
+        TreeSet<Integer> operands = new TreeSet<>();
+        addOperands(l, operands);
+        addOperands(r, operands);
+        if (operands.size() == 1) return operands.first();
+        int[] kids = new int[operands.size()];
+        int i = 0;
+        for (int k : operands) kids[i++] = k;
+        return intern(new Term(K_OR, '\0', kids));
+    }
+
+    private void addOperands(int t, TreeSet<Integer> operands) {
+        Term term = terms.get(t);
+        if (term.kind == K_OR) {
+            for (int k : term.kids) operands.add(k);
+        } else {
+            operands.add(t);
+        }
+    }
+
+    private int star(int t) {
+        if (t == EMPTY_SET || t == EPSILON) return EPSILON;
+        if (terms.get(t).kind == K_STAR) return t;
+        return intern(new Term(K_STAR, '\0', new int[]{t}));
+    }
+
+    private int repeat(int t, int min, int max) {
+        if (max == 0 || t == EPSILON) return EPSILON;
+        if (t == EMPTY_SET) return min == 0 ? EPSILON : EMPTY_SET;
+        if (max < 0 && min == 0) return star(t);
+        if (min == 1 && max == 1) return t;
+        return intern(new Term(K_REPEAT, '\0', new int[]{t, min, max}));
+    }
+
+    /* Derivatives */
+
+    private int derive(int t, int symbol) {
+        int[] row = derivatives[t];
+        if (row == null) {
+            row = new int[alphabet.length];
+            Arrays.fill(row, UNKNOWN);
+            derivatives[t] = row;
+        }
+        if (row[symbol] != UNKNOWN) return row[symbol];
+
+        Term term = terms.get(t);
+        int res;
+        switch (term.kind) {
+            case K_SYM:
+                res = term.sym == alphabet[symbol] ? EPSILON : EMPTY_SET;
+                break;
+            case K_CAT: {
+                int first = cat(derive(term.kids[0], symbol), term.kids[1]);
+                res = nullable[term.kids[0]] ? or(first, derive(term.kids[1], symbol)) : first;
+                break;
+            }
+            case K_OR: {
+                res = EMPTY_SET;
+                for (int k : term.kids) res = or(res, derive(k, symbol));
+                break;
+            }
+            case K_STAR:
+                res = cat(derive(term.kids[0], symbol), t);
+                break;
+            case K_CLASS:
+                res = Arrays.binarySearch(term.kids, alphabet[symbol]) >= 0 ? EPSILON : EMPTY_SET;
+                break;
+            case K_REPEAT: {
+                int min = term.kids[1], max = term.kids[2];
+                int rest = repeat(term.kids[0], Math.max(0, min - 1), max < 0 ? max : max - 1);
+                res = cat(derive(term.kids[0], symbol), rest);
+                break;
+            }
+            default:
+                res = EMPTY_SET;
+        }
+        // intern() may have grown the table while deriving children
+        derivatives[t][symbol] = res;
+        return res;
+    }
+
+    private int indexOf(char c) {
+        return index.indexOf(c);
+    }
+
+    public boolean matches(CharSequence s) {
+        int t = root;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            int symbol = indexOf(s.charAt(i));
+            if (symbol < 0) return false;
+            int[] row = derivatives[t];
+            int next = row != null ? row[symbol] : UNKNOWN;
+            t = next != UNKNOWN ? next : derive(t, symbol);
+            if (t == EMPTY_SET) return false;
+        }
+        return nullable[t];
+    }
+
+    /**
+     * Builds the complete DFA whose states are the derivatives of the expression reachable
+     * from the root term. The alphabet of the result is sorted.
+     */
+    public CompiledDFA toCompiledDFA() {
+        return toCompiledDFA(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #toCompiledDFA()}, but gives up once more than {@code maxStates}
+     * derivatives have been found.
+     *
+     * @return the compiled automaton, or null if it would have more than maxStates states
+     */
+    public CompiledDFA toCompiledDFA(int maxStates) {
+        char[] sigma = CompiledDFA.unionAlphabet(alphabet, new char[0]);
+        int[] symbolOf = new int[sigma.length];
+        for (int a = 0; a < sigma.length; a++) symbolOf[a] = indexOf(sigma[a]);
+
+        Map<Integer, Integer> stateOf = new HashMap<>();
+        List<Integer> order = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        stateOf.put(root, 0);
+        order.add(root);
+        for (int i = 0; i < order.size(); i++) {
+            int[] row = new int[sigma.length];
+            for (int a = 0; a < sigma.length; a++) {
+                int d = derive(order.get(i), symbolOf[a]);
+                Integer state = stateOf.get(d);
+                if (state == null) {
+                    if (order.size() >= maxStates) return null;
+                    state = order.size();
+                    stateOf.put(d, state);
+                    order.add(d);
+                }
+                row[a] = state;
+            }
+            rows.add(row);
+        }
+
+        boolean[] acc = new boolean[order.size()];
+        for (int i = 0; i < acc.length; i++) acc[i] = nullable[order.get(i)];
+        return new CompiledDFA(sigma, rows.toArray(new int[0][]), acc, 0);
+    }
+
+    /**
+     * @return the number of distinct hash-consed terms created so far
+     */
+    public int getTermCount() {
+        return terms.size();
+    }
+}
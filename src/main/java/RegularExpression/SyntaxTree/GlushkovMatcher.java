@@ -0,0 +1,365 @@
+package RegularExpression.SyntaxTree;
+
+import common.AlphabetIndex;
+import common.CompiledDFA;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled form of a regular expression syntax tree.
+ * <p>
+ *     The tree is turned into a Glushkov automaton: every non-epsilon {@link LeafNode} and every
+ *     {@link CharClassNode} becomes a position, and the automaton moves between sets of positions
+ *     using the classic <i>nullable</i>, <i>first</i>, <i>last</i> and <i>follow</i> functions of
+ *     the tree. A {@link RepeatNode} contributes one copy of its child's positions per repetition.
+ *     Sets of positions are interned on demand into deterministic states, so the automaton is
+ *     a DFA that is only built as far as the inputs actually explore it. After warm-up, matching
+ *     a string is a single table lookup per character and allocates nothing.
+ * </p>
+ * <p>
+ *     Because repetitions are expanded rather than counted, an expression may have at most
+ *     10000 positions after expansion; a larger one is rejected with "Regex is too large" when
+ *     it is parsed. {@code (a|b|c){1000}} has 3000 positions, while {@code ((a|b){100}){100}}
+ *     has 20000. {@link DerivativeMatcher} keeps bounds as counters and has no such limit.
+ * </p>
+ * <p>
+ *     Instances are owned by one {@link SyntaxTree} and are not thread-safe.
+ * </p>
+ */
+public class GlushkovMatcher {
+    /** Returned by {@link #step(int, char)} when no accepting continuation exists. */
+    public static final int DEAD = -1;
+    private static final int UNKNOWN = -2;
+
+    /** Cap on cached deterministic states; the cache is flushed when it is reached. */
+    private static final int MAX_CACHED_STATES = 10000;
+    /** Cap on positions, which bounds the quadratic size of the follow sets. */
+    private static final int MAX_POSITIONS = 10000;
+
+    private final AlphabetIndex index;
+    private final char[] alphabet;
+
+    private final int positionCount;
+    /** follow[p] for every position, position 0 stands for "nothing read yet". */
+    private final BitSet[] follow;
+    /** Positions labelled with each alphabet symbol. */
+    private final BitSet[] positionsOf;
+    private final BitSet last;
+    private final boolean nullable;
+
+    private final Map<BitSet, Integer> stateIds = new HashMap<>();
+    private final List<BitSet> stateSets = new ArrayList<>();
+    private int[][] transitions = new int[16][];
+    private boolean[] accepting = new boolean[16];
+
+    public GlushkovMatcher(SyntaxTreeNode root, char[] alphabet) {
+        this.index = new AlphabetIndex(alphabet);
+        this.alphabet = index.toCharArray();
+
+        List<char[]> symbols = new ArrayList<>();
+        symbols.add(new char[0]); // position 0 is the virtual start position
+        collectPositions(root, symbols);
+        positionCount = symbols.size();
+
+        follow = new BitSet[positionCount];
+        for (int p = 0; p < positionCount; p++) follow[p] = new BitSet(positionCount);
+        positionsOf = new BitSet[this.alphabet.length];
+        for (int i = 0; i < this.alphabet.length; i++) positionsOf[i] = new BitSet(positionCount);
+        for (int p = 1; p < positionCount; p++) {
+            for (char c : symbols.get(p)) {
+                int idx = indexOf(c);
+                if (idx >= 0) positionsOf[idx].set(p);
+            }
+        }
+
+        Info info = analyze(root, new int[]{1});
+        follow[0].or(info.first);
+        last = info.last;
+        nullable = info.nullable;
+
+        BitSet initial = new BitSet(positionCount);
+        initial.set(0);
+        intern(initial);
+    }
+
+    /**
+     * Nullable, first and last of a subtree; follow sets are filled in as a side effect.
+     */
+    private static final class Info {
+        final boolean nullable;
+        final BitSet first;
+        final BitSet last;
+
+        Info(boolean nullable, BitSet first, BitSet last) {
+            this.nullable = nullable;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    private static void collectPositions(SyntaxTreeNode node, List<char[]> symbols) {
+        if (node instanceof LeafNode) {
+            if (node.sym != 'ε') symbols.add(new char[]{node.sym});
+        } else if (node instanceof CharClassNode) {
+            symbols.add(((CharClassNode) node).getMembers());
+        } else if (node instanceof RepeatNode) {
+            for (int i = copies((RepeatNode) node); i > 0; i--) {
+                collectPositions(((UnaryNode) node).child, symbols);
+            }
+        } else if (node instanceof BinaryNode) {
+            collectPositions(((BinaryNode) node).leftChild, symbols);
+            collectPositions(((BinaryNode) node).rightChild, symbols);
+        } else if (node instanceof UnaryNode) {
+            collectPositions(((UnaryNode) node).child, symbols);
+        } else {
+            throw new IllegalArgumentException("Unsupported syntax tree node: " + node);
+        }
+        if (symbols.size() > MAX_POSITIONS) {
+            throw new IllegalArgumentException("Regex is too large: more than " + MAX_POSITIONS
+                    + " symbol positions after expanding repetitions");
+        }
+    }
+
+    /**
+     * Number of copies of the child a repetition is compiled to: {@code r{m,n}} becomes
+     * {@code m} copies followed by {@code n - m} optional ones, and {@code r{m,}} becomes
+     * {@code m} copies whose last one may loop (a single looping copy when {@code m} is 0).
+     */
+    private static int copies(RepeatNode node) {
+        return node.max == RepeatNode.UNBOUNDED ? Math.max(1, node.min) : node.max;
+    }
+
+    /**
+     * Walks the tree in the same order as {@link #collectPositions} so positions line up.
+     */
+    private Info analyze(SyntaxTreeNode node, int[] nextPosition) {
+        if (node instanceof LeafNode) {
+            BitSet set = new BitSet(positionCount);
+            if (node.sym == 'ε') return new Info(true, set, set);
+            set.set(nextPosition[0]++);
+            return new Info(false, set, set);
+        }
+        if (node instanceof OrNode) {
+            Info l = analyze(((BinaryNode) node).leftChild, nextPosition);
+            Info r = analyze(((BinaryNode) node).rightChild, nextPosition);
+            return new Info(l.nullable || r.nullable, union(l.first, r.first), union(l.last, r.last));
+        }
+        if (node instanceof CharClassNode) {
+            BitSet set = new BitSet(positionCount);
+            set.set(nextPosition[0]++);
+            return new Info(false, set, set);
+        }
+        if (node instanceof ConcatNode) {
+            Info l = analyze(((BinaryNode) node).leftChild, nextPosition);
+            Info r = analyze(((BinaryNode) node).rightChild, nextPosition);
+            return concat(l, r);
+        }
+        if (node instanceof StarNode) {
+            Info c = loop(analyze(((UnaryNode) node).child, nextPosition));
+            return new Info(true, c.first, c.last);
+        }
+        if (node instanceof PlusNode) {
+            return loop(analyze(((UnaryNode) node).child, nextPosition));
+        }
+        if (node instanceof OptionalNode) {
+            Info c = analyze(((UnaryNode) node).child, nextPosition);
+            return new Info(true, c.first, c.last);
+        }
+        if (node instanceof RepeatNode) {
+            RepeatNode rep = (RepeatNode) node;
+            int copies = copies(rep);
+            BitSet empty = new BitSet(positionCount);
+            Info res = new Info(true, empty, empty);
+            for (int i = 0; i < copies; i++) {
+                Info c = analyze(rep.child, nextPosition);
+                if (rep.max == RepeatNode.UNBOUNDED && i == copies - 1) c = loop(c);
+                if (i >= rep.min) c = new Info(true, c.first, c.last);
+                res = concat(res, c);
+            }
+            return res;
+        }
+        throw new IllegalArgumentException("Unsupported syntax tree node: " + node);
+    }
+
+    private Info concat(Info l, Info r) {
+        for (int p = l.last.nextSetBit(0); p >= 0; p = l.last.nextSetBit(p + 1)) follow[p].or(r.first);
+        BitSet first = l.nullable ? union(l.first, r.first) : l.first;
+        BitSet lst = r.nullable ? union(l.last, r.last) : r.last;
+        return new Info(l.nullable && r.nullable, first, lst);
+    }
+
+    /**
+     * Lets the subtree repeat by making its first positions follow its last ones.
+     */
+    private Info loop(Info c) {
+        for (int p = c.last.nextSetBit(0); p >= 0; p = c.last.nextSetBit(p + 1)) follow[p].or(c.first);
+        return c;
+    }
+
+    private static BitSet union(BitSet a, BitSet b) {
+        BitSet res = (BitSet) a.clone();
+        res.or(b);
+        return res;
+    }
+
+    private int intern(BitSet set) {
+        Integer id = stateIds.get(set);
+        if (id != null) return id;
+
+        int newId = stateSets.size();
+        if (newId == transitions.length) {
+            transitions = Arrays.copyOf(transitions, newId * 2);
+            accepting = Arrays.copyOf(accepting, newId * 2);
+        }
+        int[] row = new int[alphabet.length];
+        Arrays.fill(row, UNKNOWN);
+        transitions[newId] = row;
+        accepting[newId] = set.intersects(last) || (set.get(0) && nullable);
+        stateSets.add(set);
+        stateIds.put(set, newId);
+        return newId;
+    }
+
+    private int computeTransition(int state, int symbol) {
+        BitSet current = stateSets.get(state);
+        BitSet next = new BitSet(positionCount);
+        for (int p = current.nextSetBit(0); p >= 0; p = current.nextSetBit(p + 1)) next.or(follow[p]);
+        next.and(positionsOf[symbol]);
+        if (next.isEmpty()) {
+            transitions[state][symbol] = DEAD;
+            return DEAD;
+        }
+
+        if (stateSets.size() >= MAX_CACHED_STATES && !stateIds.containsKey(next)) {
+            // Pathological blow-up: start over, keeping only the start state
+            BitSet initial = stateSets.get(0);
+            stateIds.clear();
+            stateSets.clear();
+            intern(initial);
+            return intern(next);
+        }
+
+        int id = intern(next);
+        transitions[state][symbol] = id;
+        return id;
+    }
+
+    /**
+     * Returns the index of a symbol in the alphabet, or -1 if it is not part of it.
+     */
+    public int indexOf(char c) {
+        return index.indexOf(c);
+    }
+
+    /**
+     * @return the start state
+     */
+    public int start() {
+        return 0;
+    }
+
+    /**
+     * Follows one input character.
+     *
+     * @return the next state, or {@link #DEAD} if the character cannot lead to acceptance
+     */
+    public int step(int state, char c) {
+        int symbol = indexOf(c);
+        if (symbol < 0) return DEAD;
+        int next = transitions[state][symbol];
+        return next != UNKNOWN ? next : computeTransition(state, symbol);
+    }
+
+    public boolean isAccepting(int state) {
+        return state != DEAD && accepting[state];
+    }
+
+    public boolean matches(CharSequence s) {
+        int state = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            state = step(state, s.charAt(i));
+            if (state == DEAD) return false;
+        }
+        return accepting[state];
+    }
+
+    /**
+     * Builds the complete deterministic automaton of the expression by exploring every
+     * reachable set of positions, independently of the lazily filled matching cache.
+     * The alphabet of the result is sorted.
+     */
+    public CompiledDFA toCompiledDFA() {
+        return toCompiledDFA(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #toCompiledDFA()}, but gives up once more than {@code maxStates} sets of
+     * positions have been found.
+     *
+     * @return the compiled automaton, or null if it would have more than maxStates states
+     */
+    public CompiledDFA toCompiledDFA(int maxStates) {
+        char[] sigma = CompiledDFA.unionAlphabet(alphabet, new char[0]);
+        int[] symbolOf = new int[sigma.length];
+        for (int a = 0; a < sigma.length; a++) symbolOf[a] = indexOf(sigma[a]);
+
+        Map<BitSet, Integer> ids = new HashMap<>();
+        List<BitSet> sets = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        BitSet initial = new BitSet(positionCount);
+        initial.set(0);
+        ids.put(initial, 0);
+        sets.add(initial);
+
+        for (int i = 0; i < sets.size(); i++) {
+            BitSet current = sets.get(i);
+            BitSet reachable = new BitSet(positionCount);
+            for (int p = current.nextSetBit(0); p >= 0; p = current.nextSetBit(p + 1)) reachable.or(follow[p]);
+            int[] row = new int[sigma.length];
+            for (int a = 0; a < sigma.length; a++) {
+                BitSet next = (BitSet) reachable.clone();
+                next.and(positionsOf[symbolOf[a]]);
+                if (next.isEmpty()) {
+                    row[a] = -1;
+                    continue;
+                }
+                Integer id = ids.get(next);
+                if (id == null) {
+                    if (sets.size() >= maxStates) return null;
+                    id = sets.size();
+                    ids.put(next, id);
+                    sets.add(next);
+                }
+                row[a] = id;
+            }
+            rows.add(row);
+        }
+
+        int[][] table = rows.toArray(new int[0][]);
+        boolean[] acc = new boolean[sets.size()];
+        for (int i = 0; i < acc.length; i++) {
+            acc[i] = sets.get(i).intersects(last) || (i == 0 && nullable);
+        }
+        return new CompiledDFA(sigma, table, acc, 0);
+    }
+
+    /**
+     * @return the number of Glushkov positions, i.e. symbols and character classes occurring in
+     * the regex, with repeated subexpressions counted once per copy
+     */
+    public int getPositionCount() {
+        return positionCount - 1;
+    }
+
+    /**
+     * @return the number of deterministic states built so far
+     */
+    public int getCachedStateCount() {
+        return stateSets.size();
+    }
+}
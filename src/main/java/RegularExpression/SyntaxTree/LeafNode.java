@@ -1,7 +1,7 @@
 package RegularExpression.SyntaxTree;
 
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -21,12 +21,13 @@ public class LeafNode extends SyntaxTreeNode {
         this.sym = sym;
     }
 
-    public Set<Integer> match(String s, int pos) {
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet res = new BitSet();
         if (sym == 'ε')
-            return Collections.singleton(pos);
-        if (pos < s.length() && s.charAt(pos) == sym)
-            return Collections.singleton(pos + 1);
-        return new HashSet<>();
+            res.set(pos);
+        else if (pos < s.length() && s.charAt(pos) == sym)
+            res.set(pos + 1);
+        return res;
     }
 
     public String generateOneCase() {
@@ -0,0 +1,40 @@
+package RegularExpression.SyntaxTree;
+
+import java.util.*;
+
+import static RegularExpression.SyntaxTree.RegexOperator.*;
+
+/**
+ * Represents the optional (<code>{@value RegularExpression.SyntaxTree.RegexOperator#OPTIONAL}</code>)
+ * operator in a regular expression syntax tree.
+ * <p>
+ * It matches either the empty string or one occurrence of its child, so <code>a?</code>
+ * means the same as <code>(a u eps)</code>.
+ * </p>
+ */
+public class OptionalNode extends UnaryNode {
+
+    public OptionalNode(SyntaxTreeNode child) {
+        super(child, OPTIONAL);
+    }
+
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet res = (BitSet) child.ends(s, pos, memo).clone();
+        res.set(pos);
+        return res;
+    }
+
+    public String generateOneCase() {
+        return RANDOM.nextBoolean() ? child.generateOneCase() : "";
+    }
+
+    public String generateOneCase(int maxStarRepeat) {
+        return RANDOM.nextBoolean() ? child.generateOneCase(maxStarRepeat) : "";
+    }
+
+    public Set<String> generateCasesExhaustive(int maxLen) {
+        Set<String> res = new HashSet<>(child.generateCasesExhaustive(maxLen));
+        res.add("");
+        return res;
+    }
+}
@@ -1,7 +1,7 @@
 package RegularExpression.SyntaxTree;
 
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.Set;
 
 import static RegularExpression.SyntaxTree.RegexOperator.*;
@@ -21,23 +21,20 @@ public class OrNode extends BinaryNode {
         super(l, r, OR);
     }
 
-    public Set<Integer> match(String s, int pos) {
-        HashSet<Integer> res = new HashSet<>();
-        res.addAll(leftChild.match(s, pos));
-        res.addAll(rightChild.match(s, pos));
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet res = (BitSet) leftChild.ends(s, pos, memo).clone();
+        res.or(rightChild.ends(s, pos, memo));
         return res;
     }
 
     public String generateOneCase() {
-        Random rand = new Random();
-        boolean l = rand.nextBoolean();
+        boolean l = RANDOM.nextBoolean();
         if (l) return leftChild.generateOneCase();
         return rightChild.generateOneCase();
     }
 
     public String generateOneCase(int maxStarRepeat) {
-        Random rand = new Random();
-        boolean l = rand.nextBoolean();
+        boolean l = RANDOM.nextBoolean();
         if (l) return leftChild.generateOneCase(maxStarRepeat);
         return rightChild.generateOneCase(maxStarRepeat);
     }
@@ -0,0 +1,74 @@
+package RegularExpression.SyntaxTree;
+
+import java.util.*;
+
+import static RegularExpression.SyntaxTree.RegexOperator.*;
+
+/**
+ * Represents the one-or-more (<code>{@value RegularExpression.SyntaxTree.RegexOperator#PLUS}</code>)
+ * operator in a regular expression syntax tree.
+ * <p>
+ * It matches one or more repetitions of its child, so <code>a+</code> means the same as
+ * <code>aa*</code> without duplicating the child in the tree.
+ * </p>
+ */
+public class PlusNode extends UnaryNode {
+
+    public PlusNode(SyntaxTreeNode child) {
+        super(child, PLUS);
+    }
+
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet res = new BitSet();
+        BitSet pending = (BitSet) child.ends(s, pos, memo).clone(); // at least one repetition
+        res.or(pending);
+
+        for (int p = pending.nextSetBit(0); p >= 0; p = pending.nextSetBit(0)) {
+            pending.clear(p);
+            BitSet nextEnds = child.ends(s, p, memo);
+            for (int nxt = nextEnds.nextSetBit(0); nxt >= 0; nxt = nextEnds.nextSetBit(nxt + 1)) {
+                if (!res.get(nxt)) {
+                    res.set(nxt);
+                    pending.set(nxt);
+                }
+            }
+        }
+        return res;
+    }
+
+    public String generateOneCase() {
+        int repeat = 1 + RANDOM.nextInt(3);
+        String base = child.generateOneCase();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            sb.append(base);
+        }
+        return sb.toString();
+    }
+
+    public String generateOneCase(int maxStarRepeat) {
+        int repeat = 1 + RANDOM.nextInt(Math.max(1, maxStarRepeat));
+        String base = child.generateOneCase(maxStarRepeat);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            sb.append(base);
+        }
+        return sb.toString();
+    }
+
+    public Set<String> generateCasesExhaustive(int maxLen) {
+        Set<String> base = child.generateCasesExhaustive(maxLen);
+        Set<String> res = new HashSet<>();
+
+        Deque<String> q = new ArrayDeque<>(base);
+        while (!q.isEmpty()) {
+            String prefix = q.poll();
+            if (!res.add(prefix)) continue;
+            for (String s : base)
+                if (prefix.length() + s.length() <= maxLen && !res.contains(prefix + s))
+                    q.add(prefix + s);
+        }
+
+        return res;
+    }
+}
@@ -3,12 +3,26 @@ package RegularExpression.SyntaxTree;
 /**
  * Contains constants representing regex operators used in the syntax tree.
  * <p>
- * These operator symbols (<code>{@value #OR}</code>, <code>{@value #CONCAT}</code>, <code>{@value #STAR}</code>)
- * may be changed freely.
+ * These operator symbols (<code>{@value #OR}</code>, <code>{@value #CONCAT}</code>, <code>{@value #STAR}</code>,
+ * <code>{@value #PLUS}</code>, <code>{@value #OPTIONAL}</code>) may be changed freely.
+ * </p>
+ * <p>
+ * Bounded repetition is written <code>{m,n}</code>, <code>{m,}</code> or <code>{m}</code> after an operand,
+ * and a character class is written <code>[abc]</code>, <code>[a-c]</code> or <code>[^ab]</code>.
+ * A character that belongs to the alphabet is always read as a symbol, never as an operator.
  * </p>
  */
 public class RegexOperator {
     public static final char OR = 'u';
     public static final char CONCAT = '.';
     public static final char STAR = '*';
+    public static final char PLUS = '+';
+    public static final char OPTIONAL = '?';
+
+    public static final char REPEAT_OPEN = '{';
+    public static final char REPEAT_CLOSE = '}';
+    public static final char CLASS_OPEN = '[';
+    public static final char CLASS_CLOSE = ']';
+    public static final char CLASS_NEGATE = '^';
+    public static final char CLASS_RANGE = '-';
 }
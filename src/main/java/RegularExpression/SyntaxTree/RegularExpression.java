@@ -1,9 +1,20 @@
 package RegularExpression.SyntaxTree;
 
+import common.LanguageEnumerator;
+import common.LanguageSampler;
+
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 /**
@@ -25,6 +36,8 @@ import java.util.Set;
  * }</pre>
  */
 public class RegularExpression {
+    private static final int MAX_FRUITLESS_ATTEMPTS = 10000;
+
     public SyntaxTree st;
     String regex;
 
@@ -34,7 +47,7 @@ public class RegularExpression {
     }
 
     public boolean match(String s) {
-        return st.root.match(s, 0).contains(s.length());
+        return st.getMatcher().matches(s);
     }
 
 
@@ -50,22 +63,104 @@ public class RegularExpression {
         return st.root.generateOneCase(maxStarRepeat);
     }
 
+    /**
+     * Random cases from the syntax tree. Gives up after {@value #MAX_FRUITLESS_ATTEMPTS} draws in a row
+     * that produce no new string, so small finite languages return fewer than {@code cnt} cases.
+     */
     Set<String> generateCases(int cnt) {
         Set<String> cases = new HashSet<>();
-        while (cases.size() != cnt)
-            cases.add(generateOneCase());
+        for (int fruitless = 0; cases.size() != cnt && fruitless < MAX_FRUITLESS_ATTEMPTS; )
+            fruitless = cases.add(generateOneCase()) ? 0 : fruitless + 1;
         return cases;
     }
 
     Set<String> generateCases(int cnt, int maxStarRepeat) {
         Set<String> cases = new HashSet<>();
-        while (cases.size() != cnt)
-            cases.add(generateOneCase(maxStarRepeat));
+        for (int fruitless = 0; cases.size() != cnt && fruitless < MAX_FRUITLESS_ATTEMPTS; )
+            fruitless = cases.add(generateOneCase(maxStarRepeat)) ? 0 : fruitless + 1;
+        return cases;
+    }
+
+    /**
+     * Draws up to {@code cnt} distinct strings of exactly {@code length} symbols, uniformly at random
+     * among all strings of that length with the given verdict. If fewer than {@code cnt} such strings
+     * exist, all of them are returned.
+     * @param cnt Number of distinct cases wanted
+     * @param length Length of every case
+     * @param accepted Whether matching or non-matching strings are drawn
+     * @param random Source of randomness; seed it for reproducible suites
+     */
+    public Set<String> sampleCases(int cnt, int length, boolean accepted, Random random) {
+        return sampleCases(new LanguageSampler(st.toCompiledDFA(), length), cnt, length, accepted, random);
+    }
+
+    private Set<String> sampleCases(LanguageSampler sampler, int cnt, int length, boolean accepted, Random random) {
+        Set<String> cases = new LinkedHashSet<>();
+        BigInteger available = sampler.count(length, accepted);
+        if (available.compareTo(BigInteger.valueOf(2L * cnt)) <= 0) {
+            // Small population: take everything, then drop random members down to cnt
+            try {
+                LanguageEnumerator.forEach(st.toCompiledDFA(), length, accepted, (chars, len) -> {
+                    if (len == length) cases.add(new String(chars, 0, len));
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            List<String> all = new ArrayList<>(cases);
+            Collections.shuffle(all, random);
+            return new LinkedHashSet<>(all.subList(0, Math.min(cnt, all.size())));
+        }
+        // At least half of the draws are new, so rejection of duplicates terminates quickly
+        while (cases.size() < cnt)
+            cases.add(sampler.sample(length, accepted, random));
         return cases;
     }
 
+    /**
+     * Writes a balanced suite: for every length in {@code minLen..maxLen}, up to {@code perLength}
+     * matching and up to {@code perLength} non-matching strings drawn uniformly at random.
+     * @return the number of cases written
+     */
+    public long generateBalancedCases(int minLen, int maxLen, int perLength, long seed, Writer out) throws IOException {
+        Random random = new Random(seed);
+        LanguageSampler sampler = new LanguageSampler(st.toCompiledDFA(), maxLen);
+        String newLine = System.lineSeparator();
+        long written = 0;
+        for (int length = minLen; length <= maxLen; length++) {
+            for (boolean accepted : new boolean[]{true, false}) {
+                for (String case_ : sampleCases(sampler, perLength, length, accepted, random)) {
+                    out.write(case_);
+                    out.write(accepted ? ",1" : ",0");
+                    out.write(newLine);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
     Set<String> generateCorrectCasesExhaustive(int maxLen) {
-        return st.root.generateCasesExhaustive(maxLen);
+        Set<String> cases = new LinkedHashSet<>();
+        try {
+            LanguageEnumerator.forEach(st.toCompiledDFA(), maxLen, true,
+                    (chars, length) -> cases.add(new String(chars, 0, length)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return cases;
+    }
+
+    /**
+     * Streams every string of length at most {@code maxLen} with the given verdict to {@code out},
+     * one {@code string,1} or {@code string,0} line each, in length-lexicographic order.
+     * The regex is compiled to a DFA first, so the language is never held in memory.
+     * @param maxLen Max length of the case
+     * @param accepted Whether matching or non-matching cases are written
+     * @param out Destination of the cases
+     * @return the number of cases written
+     */
+    public long generateCasesExhaustive(int maxLen, boolean accepted, Writer out) throws IOException {
+        return LanguageEnumerator.writeCases(st.toCompiledDFA(), maxLen, accepted, out);
     }
 
     /**
@@ -74,19 +169,7 @@ public class RegularExpression {
      * @param path Path where you wish to save the cases to
      */
     public int generateCorrectCasesExhaustive(int maxLen, String path, boolean append) {
-        Set<String> cases = st.root.generateCasesExhaustive(maxLen);
-        //System.out.println(cases);
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path, append))) {
-            for (String case_ : cases) {
-                bw.write(case_);
-                bw.write(",1");
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Write unsuccessful");
-            e.printStackTrace();
-        }
-        return cases.size();
+        return writeCasesExhaustive(maxLen, path, append, true);
     }
 
     /**
@@ -95,35 +178,17 @@ public class RegularExpression {
      * @param path Path where you wish to save the cases to
      */
     public int generateWrongCasesExhaustive(int maxLen, String path, boolean append) {
-        Set<String> cases = new HashSet<>();
-        rec(maxLen, new StringBuilder(), cases);
-        //System.out.println(cases);
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path, append))) {
-            for (String case_ : cases) {
-                bw.write(case_);
-                bw.write(",0");
-                bw.newLine();
-            }
+        return writeCasesExhaustive(maxLen, path, append, false);
+    }
+
+    private int writeCasesExhaustive(int maxLen, String path, boolean append, boolean accepted) {
+        long written = 0;
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path, append), 1 << 16)) {
+            written = generateCasesExhaustive(maxLen, accepted, bw);
         } catch (IOException e) {
             System.err.println("Write unsuccessful");
             e.printStackTrace();
         }
-        return cases.size();
-    }
-
-    private void rec(int maxLen, StringBuilder curCase, Set<String> cases) {
-        String s = new String(curCase);
-        if (!match(s))
-            cases.add(s);
-        if (curCase.length() == maxLen) {
-            curCase.deleteCharAt(curCase.length() - 1);
-            return;
-        }
-        for (char c : st.alphabet) {
-            curCase.append(c);
-            rec(maxLen, curCase, cases);
-        }
-        if (curCase.length() > 0)
-            curCase.deleteCharAt(curCase.length() - 1);
+        return (int) Math.min(Integer.MAX_VALUE, written);
     }
 }
@@ -0,0 +1,101 @@
+package RegularExpression.SyntaxTree;
+
+import java.util.*;
+
+import static RegularExpression.SyntaxTree.RegexOperator.*;
+
+/**
+ * Represents bounded repetition (<code>r{m,n}</code>, <code>r{m,}</code> or <code>r{m}</code>)
+ * in a regular expression syntax tree.
+ * <p>
+ * The bounds are stored on the node instead of copying the child, so <code>a{2,50}</code> is
+ * two nodes no matter how large the bounds are. An unbounded repetition has
+ * {@code max == }{@link #UNBOUNDED}.
+ * </p>
+ */
+public class RepeatNode extends UnaryNode {
+    public static final int UNBOUNDED = -1;
+
+    public final int min;
+    public final int max;
+
+    public RepeatNode(SyntaxTreeNode child, int min, int max) {
+        super(child, REPEAT_OPEN);
+        if (min < 0 || (max != UNBOUNDED && max < min)) {
+            throw new IllegalArgumentException("Invalid repetition bounds {" + min + "," + max + "}");
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    private BitSet step(String s, BitSet from, MatchMemo memo) {
+        BitSet next = new BitSet();
+        for (int p = from.nextSetBit(0); p >= 0; p = from.nextSetBit(p + 1))
+            next.or(child.ends(s, p, memo));
+        return next;
+    }
+
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet cur = new BitSet();
+        cur.set(pos);
+        for (int i = 0; i < min && !cur.isEmpty(); i++)
+            cur = step(s, cur, memo);
+
+        BitSet res = (BitSet) cur.clone();
+        // A position first reached after fewer repetitions has at least as much budget left,
+        // so positions that were already reached never need to be expanded again.
+        for (int i = min; (max == UNBOUNDED || i < max) && !cur.isEmpty(); i++) {
+            cur = step(s, cur, memo);
+            cur.andNot(res);
+            res.or(cur);
+        }
+        return res;
+    }
+
+    private int pickRepeat(int extra) {
+        int hi = max == UNBOUNDED ? min + extra : max;
+        return min + RANDOM.nextInt(hi - min + 1);
+    }
+
+    public String generateOneCase() {
+        int repeat = pickRepeat(3);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            sb.append(child.generateOneCase());
+        }
+        return sb.toString();
+    }
+
+    public String generateOneCase(int maxStarRepeat) {
+        int repeat = pickRepeat(maxStarRepeat);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            sb.append(child.generateOneCase(maxStarRepeat));
+        }
+        return sb.toString();
+    }
+
+    public Set<String> generateCasesExhaustive(int maxLen) {
+        Set<String> base = child.generateCasesExhaustive(maxLen);
+        Set<String> cur = Collections.singleton("");
+        for (int i = 0; i < min && !cur.isEmpty(); i++)
+            cur = append(cur, base, maxLen);
+
+        Set<String> res = new HashSet<>(cur);
+        for (int i = min; (max == UNBOUNDED || i < max) && !cur.isEmpty(); i++) {
+            cur = append(cur, base, maxLen);
+            cur.removeAll(res);
+            res.addAll(cur);
+        }
+        return res;
+    }
+
+    private static Set<String> append(Set<String> prefixes, Set<String> base, int maxLen) {
+        Set<String> res = new HashSet<>();
+        for (String p : prefixes)
+            for (String s : base)
+                if (p.length() + s.length() <= maxLen)
+                    res.add(p + s);
+        return res;
+    }
+}
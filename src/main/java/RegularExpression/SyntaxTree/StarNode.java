@@ -19,20 +19,20 @@ public class StarNode extends UnaryNode {
         super(child);
     }
 
-    public Set<Integer> match(String s, int pos) {
-        Set<Integer> res = new HashSet<>();
-        Deque<Integer> stack = new ArrayDeque<>(); // bfs will also work
+    BitSet computeEnds(String s, int pos, MatchMemo memo) {
+        BitSet res = new BitSet();
+        BitSet pending = new BitSet(); // positions reached but not yet expanded
 
-        res.add(pos); // because * allows 0 repetitions
-        stack.push(pos);
+        res.set(pos); // because * allows 0 repetitions
+        pending.set(pos);
 
-        while (!stack.isEmpty()) {
-            int p = stack.pop();
-            Set<Integer> nextEnds = child.match(s, p);
-            for (int nxt : nextEnds) {
-                if (!res.contains(nxt)) {
-                    res.add(nxt);
-                    stack.push(nxt);
+        for (int p = pending.nextSetBit(0); p >= 0; p = pending.nextSetBit(0)) {
+            pending.clear(p);
+            BitSet nextEnds = child.ends(s, p, memo);
+            for (int nxt = nextEnds.nextSetBit(0); nxt >= 0; nxt = nextEnds.nextSetBit(nxt + 1)) {
+                if (!res.get(nxt)) {
+                    res.set(nxt);
+                    pending.set(nxt);
                 }
             }
         }
@@ -40,8 +40,7 @@ public class StarNode extends UnaryNode {
     }
 
     public String generateOneCase() {
-        Random rand = new Random();
-        int repeat = rand.nextInt(4);
+        int repeat = RANDOM.nextInt(4);
         String base = child.generateOneCase();
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < repeat; i++) {
@@ -51,8 +50,7 @@ public class StarNode extends UnaryNode {
     }
 
     public String generateOneCase(int maxStarRepeat) {
-        Random rand = new Random();
-        int repeat = rand.nextInt(maxStarRepeat + 1);
+        int repeat = RANDOM.nextInt(maxStarRepeat + 1);
         String base = child.generateOneCase(maxStarRepeat);
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < repeat; i++) {
@@ -1,6 +1,8 @@
 package RegularExpression.SyntaxTree;
 
+import common.AlphabetIndex;
 import common.Automaton;
+import common.CompiledDFA;
 import common.InputNormalizer;
 
 import java.util.*;
@@ -8,18 +10,52 @@ import java.util.*;
 import static RegularExpression.SyntaxTree.RegexOperator.*;
 
 public class SyntaxTree extends Automaton {
+    /** Largest bound accepted in a repetition such as <code>a{2,5}</code>. */
+    public static final int MAX_REPEAT = 1000;
+
     private final Map<Character, Integer> precedence;
     
     {
         precedence = new HashMap<>();
         precedence.put(STAR, 3);
+        precedence.put(PLUS, 3);
+        precedence.put(OPTIONAL, 3);
+        precedence.put(REPEAT_OPEN, 3);
         precedence.put(CONCAT, 2);
         precedence.put(OR, 1);
     }
 
+    /**
+     * One unit of the sanitized regex: an operand with its prebuilt leaf, a parenthesis, or an
+     * operator. Repetitions and character classes span several characters but are one token.
+     */
+    private static final class Token {
+        final char op; // operator or parenthesis, '\0' for operands
+        final SyntaxTreeNode operand;
+        final int min, max; // bounds of a repetition
+        final String text;
+
+        Token(char op, SyntaxTreeNode operand, int min, int max, String text) {
+            this.op = op;
+            this.operand = operand;
+            this.min = min;
+            this.max = max;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
     public char[] alphabet;
     public SyntaxTreeNode root;
     private String sanitizedRegex; // Store the sanitized regex for length checking
+    private GlushkovMatcher matcher; // Compiled automaton used for matching
+    private DerivativeMatcher derivativeMatcher; // Alternative engine, built on first use
+    private AlphabetIndex alphabetIndex; // O(1) membership for alphabetHas
+    private char[] indexedAlphabet; // The array alphabetIndex was built from
 
     public SyntaxTree() {
         super(MachineType.REGEX);
@@ -29,12 +65,14 @@ public class SyntaxTree extends Automaton {
         super(MachineType.REGEX);
         this.alphabet = alphabet;
         String sanitizedReg = sanitize(regex);
-        String postfix = shunting_yard(sanitizedReg);
+        List<Token> postfix = shunting_yard(tokenize(sanitizedReg));
         compile(postfix);
     }
 
     /**
      * Checks for malformations that may occur in the regular expression text.
+     * The result keeps repetitions and character classes as written, so its length
+     * measures the source and not an expansion of the bounds or members.
      */
     private String sanitize(String regex) {
         // TODO check for other malformations like ** or * at the start
@@ -42,12 +80,24 @@ public class SyntaxTree extends Automaton {
         regex = regex.replace("eps", "ε"); // This will make things much easier for me
         StringBuilder sanitized = new StringBuilder();
         int parenthesisCount = 0;
-        for (char c : regex.toCharArray()) {
-            if ((c == '(' || alphabetHas(c)) && sanitized.length() > 0) {
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            boolean symbol = alphabetHas(c);
+            if ((c == '(' || symbol || (c == CLASS_OPEN && !symbol)) && sanitized.length() > 0) {
                 char prev = sanitized.charAt(sanitized.length() - 1);
-                if (prev == ')' || alphabetHas(prev) || prev == STAR)
+                if (prev == ')' || alphabetHas(prev) || prev == STAR || prev == PLUS || prev == OPTIONAL
+                        || prev == REPEAT_CLOSE || prev == CLASS_CLOSE)
                     sanitized.append(CONCAT);
             }
+            if (!symbol && (c == CLASS_OPEN || c == REPEAT_OPEN)) {
+                char close = c == CLASS_OPEN ? CLASS_CLOSE : REPEAT_CLOSE;
+                int end = regex.indexOf(close, i + 1);
+                if (end < 0)
+                    throw new IllegalArgumentException("Missing '" + close + "' after '" + c + "'");
+                sanitized.append(regex, i, end + 1);
+                i = end;
+                continue;
+            }
             sanitized.append(c);
 
             if (c == '(') parenthesisCount++;
@@ -66,33 +116,178 @@ public class SyntaxTree extends Automaton {
     }
 
     /**
-     * Applies the shunting yard algorithm to convert the regex into its postfix representation.
+     * Splits the sanitized regex into tokens, parsing the bounds of repetitions and
+     * resolving the members of character classes against the alphabet.
      */
-    private String shunting_yard(String regex) {
-        StringBuilder postfix = new StringBuilder();
-        Deque<Character> stk = new ArrayDeque<>();
-        for (char c : regex.toCharArray()) {
+    private List<Token> tokenize(String regex) {
+        List<Token> tokens = new ArrayList<>();
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
             if (alphabetHas(c)) {
-                postfix.append(c);
+                tokens.add(new Token('\0', new LeafNode(c), 0, 0, String.valueOf(c)));
+            } else if (c == CLASS_OPEN) {
+                int end = regex.indexOf(CLASS_CLOSE, i + 1);
+                String text = regex.substring(i, end + 1);
+                tokens.add(new Token('\0', new CharClassNode(classMembers(text)), 0, 0, text));
+                i = end;
+            } else if (c == REPEAT_OPEN) {
+                int end = regex.indexOf(REPEAT_CLOSE, i + 1);
+                String text = regex.substring(i, end + 1);
+                int[] bounds = repeatBounds(text);
+                tokens.add(new Token(REPEAT_OPEN, null, bounds[0], bounds[1], text));
+                i = end;
+            } else {
+                tokens.add(new Token(c, null, 0, 0, String.valueOf(c)));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Collects the symbols used in a regex, in order of appearance, for callers that have no
+     * alphabet. Follows the tokenizer: letters and digits other than the operators are symbols,
+     * a range in a character class contributes every letter or digit it spans, and the bounds
+     * of a repetition are skipped.
+     */
+    public static char[] symbolsOf(String regex) {
+        regex = regex.replaceAll("\\s+", "").replace("eps", "ε");
+        Set<Character> symbols = new LinkedHashSet<>();
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == CLASS_OPEN || c == REPEAT_OPEN) {
+                int end = regex.indexOf(c == CLASS_OPEN ? CLASS_CLOSE : REPEAT_CLOSE, i + 1);
+                if (end < 0) break; // reported when the regex is built
+                if (c == CLASS_OPEN) classSymbols(regex.substring(i + 1, end), symbols);
+                i = end;
+            } else if (isSymbol(c)) {
+                symbols.add(c);
+            }
+        }
+
+        char[] res = new char[symbols.size()];
+        int idx = 0;
+        for (char c : symbols) res[idx++] = c;
+        return res;
+    }
+
+    private static void classSymbols(String body, Set<Character> symbols) {
+        if (body.length() > 0 && body.charAt(0) == CLASS_NEGATE) body = body.substring(1);
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (i + 2 < body.length() && body.charAt(i + 1) == CLASS_RANGE) {
+                for (int a = c; a <= body.charAt(i + 2); a++)
+                    if (isSymbol((char) a)) symbols.add((char) a);
+                i += 2;
+            } else if (isSymbol(c)) {
+                symbols.add(c);
+            }
+        }
+    }
+
+    private static boolean isSymbol(char c) {
+        return Character.isLetterOrDigit(c) && c != OR && c != 'ε';
+    }
+
+    /**
+     * Parses <code>{m,n}</code>, <code>{m,}</code>, <code>{,n}</code> or <code>{m}</code>.
+     */
+    private static int[] repeatBounds(String text) {
+        String body = text.substring(1, text.length() - 1);
+        int comma = body.indexOf(',');
+        String lo = comma < 0 ? body : body.substring(0, comma);
+        String hi = comma < 0 ? body : body.substring(comma + 1);
+        if (!lo.matches("\\d*") || !hi.matches("\\d*") || (lo.isEmpty() && hi.isEmpty()))
+            throw new IllegalArgumentException("Invalid repetition: " + text);
+        if (lo.length() > 9 || hi.length() > 9)
+            throw new IllegalArgumentException("Repetition bound too large in " + text + " (limit: " + MAX_REPEAT + ")");
+        int min = lo.isEmpty() ? 0 : Integer.parseInt(lo);
+        int max = hi.isEmpty() ? RepeatNode.UNBOUNDED : Integer.parseInt(hi);
+        if (max != RepeatNode.UNBOUNDED && max < min)
+            throw new IllegalArgumentException("Invalid repetition: " + text + " (minimum exceeds maximum)");
+        if (Math.max(min, max) > MAX_REPEAT)
+            throw new IllegalArgumentException("Repetition bound too large in " + text + " (limit: " + MAX_REPEAT + ")");
+        return new int[]{min, max};
+    }
+
+    /**
+     * Resolves a class such as <code>[ab]</code>, <code>[a-z]</code> or <code>[^a]</code>.
+     * Single members must belong to the alphabet; a range selects the alphabet symbols it
+     * spans, and a negated class selects the alphabet symbols it does not list.
+     */
+    private char[] classMembers(String text) {
+        String body = text.substring(1, text.length() - 1);
+        boolean negate = body.length() > 0 && body.charAt(0) == CLASS_NEGATE;
+        if (negate) body = body.substring(1);
+
+        Set<Character> listed = new TreeSet<>();
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (i + 2 < body.length() && body.charAt(i + 1) == CLASS_RANGE) {
+                char to = body.charAt(i + 2);
+                if (to < c)
+                    throw new IllegalArgumentException("Invalid range in character class: " + c + CLASS_RANGE + to);
+                boolean any = false;
+                for (char a : alphabet) {
+                    if (a >= c && a <= to) {
+                        listed.add(a);
+                        any = true;
+                    }
+                }
+                if (!any)
+                    throw new IllegalArgumentException("Range " + c + CLASS_RANGE + to + " contains no alphabet symbol");
+                i += 2;
+            } else if (c == 'ε') {
+                throw new IllegalArgumentException("ε cannot appear in a character class: " + text);
+            } else if (alphabetHas(c)) {
+                listed.add(c);
+            } else {
+                throw new IllegalArgumentException("Invalid character in regex: " + c);
+            }
+        }
+
+        List<Character> members = new ArrayList<>();
+        if (negate) {
+            for (char a : alphabet)
+                if (!listed.contains(a) && !members.contains(a)) members.add(a);
+        } else {
+            members.addAll(listed);
+        }
+        if (members.isEmpty())
+            throw new IllegalArgumentException("Empty character class: " + text);
+        char[] res = new char[members.size()];
+        for (int i = 0; i < res.length; i++) res[i] = members.get(i);
+        return res;
+    }
+
+    /**
+     * Applies the shunting yard algorithm to convert the regex into its postfix representation.
+     */
+    private List<Token> shunting_yard(List<Token> regex) {
+        List<Token> postfix = new ArrayList<>();
+        Deque<Token> stk = new ArrayDeque<>();
+        for (Token t : regex) {
+            char c = t.op;
+            if (t.operand != null) {
+                postfix.add(t);
                 continue;
             }
             if (c == '(') {
-                stk.push(c);
+                stk.push(t);
                 continue;
             }
             if (c == ')') {
-                while (stk.peek() != '(')
-                    postfix.append(stk.pop());
+                while (stk.peek().op != '(')
+                    postfix.add(stk.pop());
                 stk.pop();
                 continue;
             }
-            while (!stk.isEmpty() && stk.peek() != '(' && precedence.get(stk.peek()) >= precedence.get(c))
-                postfix.append(stk.pop());
-            stk.push(c);
+            while (!stk.isEmpty() && stk.peek().op != '(' && precedence.get(stk.peek().op) >= precedence.get(c))
+                postfix.add(stk.pop());
+            stk.push(t);
         }
         while (!stk.isEmpty())
-            postfix.append(stk.pop());
-        return new String(postfix);
+            postfix.add(stk.pop());
+        return postfix;
     }
 
     @Override
@@ -153,7 +348,7 @@ public class SyntaxTree extends Automaton {
             this.alphabet = parsedAlphabet;
             String sanitized = sanitize(regex);
             this.sanitizedRegex = sanitized; // Store for length validation
-            String postfix = shunting_yard(sanitized);
+            List<Token> postfix = shunting_yard(tokenize(sanitized));
             compile(postfix);
         } catch (IllegalArgumentException e) {
             messages.add(new ValidationMessage(e.getMessage(), regexLine, ValidationMessage.ValidationMessageType.ERROR));
@@ -190,9 +385,7 @@ public class SyntaxTree extends Automaton {
             }
         }
 
-        Set<Integer> ends = root.match(inputText, 0);
-        boolean accepted = ends.contains(inputText.length());
-        trace.append("Ends: ").append(ends).append("\n");
+        boolean accepted = getMatcher().matches(inputText);
         trace.append(accepted ? "ACCEPT" : "REJECT");
 
         return new ExecutionResult(accepted, runtimeMessages, trace.toString());
@@ -246,6 +439,16 @@ public class SyntaxTree extends Automaton {
         return sanitizedRegex != null ? sanitizedRegex.length() : 0;
     }
 
+    /**
+     * Gets the sanitized regex: whitespace removed, 'eps' normalized to 'ε' and explicit
+     * concatenation operators inserted.
+     *
+     * @return the sanitized regex, or null if not parsed
+     */
+    public String getSanitizedRegex() {
+        return sanitizedRegex;
+    }
+
     /**
      * There is no need to display the AST of a regular expression.
      */
@@ -263,17 +466,29 @@ public class SyntaxTree extends Automaton {
     /**
      * Builds the AST of the regular expression using its postfix representation.
      */
-    private void compile(String postfix) {
+    private void compile(List<Token> postfix) {
         Deque<SyntaxTreeNode> stk = new ArrayDeque<>();
         SyntaxTreeNode r, l;
-        for (char c : postfix.toCharArray()) {
-            if (alphabetHas(c)) {
-                stk.push(new LeafNode(c));
+        StringBuilder text = new StringBuilder();
+        for (Token t : postfix) text.append(t);
+        for (Token t : postfix) {
+            char c = t.op;
+            if (t.operand != null) {
+                stk.push(t.operand);
             } else {
                 switch (c) {
                     case STAR:
                         stk.push(new StarNode(stk.pop()));
                         break;
+                    case PLUS:
+                        stk.push(new PlusNode(stk.pop()));
+                        break;
+                    case OPTIONAL:
+                        stk.push(new OptionalNode(stk.pop()));
+                        break;
+                    case REPEAT_OPEN:
+                        stk.push(new RepeatNode(stk.pop(), t.min, t.max));
+                        break;
                     case CONCAT:
                         r = stk.pop();
                         l = stk.pop();
@@ -289,8 +504,47 @@ public class SyntaxTree extends Automaton {
                 }
             }
         }
-        if (stk.size() != 1) throw new IllegalArgumentException("Malformed postfix: " + postfix + ", \ncheck regex");
+        if (stk.size() != 1) throw new IllegalArgumentException("Malformed postfix: " + text + ", \ncheck regex");
         root = stk.pop();
+        matcher = new GlushkovMatcher(root, alphabet);
+        derivativeMatcher = null;
+    }
+
+    /**
+     * Returns the automaton compiled from the syntax tree, which answers membership
+     * queries in time linear in the input length.
+     */
+    public GlushkovMatcher getMatcher() {
+        if (matcher == null && root != null) {
+            matcher = new GlushkovMatcher(root, alphabet);
+        }
+        return matcher;
+    }
+
+    /**
+     * Returns a matcher based on Brzozowski derivatives of the expression. Its derivative
+     * cache is shared by every input matched through this tree.
+     */
+    public DerivativeMatcher getDerivativeMatcher() {
+        if (derivativeMatcher == null && root != null) {
+            derivativeMatcher = new DerivativeMatcher(root, alphabet);
+        }
+        return derivativeMatcher;
+    }
+
+    /**
+     * Returns the complete DFA of this regular expression over its (sorted) alphabet.
+     */
+    public CompiledDFA toCompiledDFA() {
+        return getMatcher().toCompiledDFA();
+    }
+
+    /**
+     * Returns the complete DFA of this regular expression, or null if it has more than
+     * {@code maxStates} states.
+     */
+    public CompiledDFA toCompiledDFA(int maxStates) {
+        return getMatcher().toCompiledDFA(maxStates);
     }
 
     /**
@@ -299,9 +553,11 @@ public class SyntaxTree extends Automaton {
     public boolean alphabetHas(char c) {
         if (c == 'ε')
             return true;
-        for (char ch : alphabet)
-            if (ch == c)
-                return true;
-        return false;
+        if (alphabetIndex == null || indexedAlphabet != alphabet) {
+            // alphabet is a public field, so rebuild the index whenever it is replaced
+            alphabetIndex = new AlphabetIndex(alphabet);
+            indexedAlphabet = alphabet;
+        }
+        return alphabetIndex.contains(c);
     }
 }
@@ -1,18 +1,101 @@
 package RegularExpression.SyntaxTree;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 public abstract class SyntaxTreeNode {
+    /** Shared by the random case generators instead of creating a generator per call. */
+    static final Random RANDOM = new Random();
+
     public char sym;
 
+    /** Pre-order number of this node inside its tree, assigned on the first match. */
+    private int id = -1;
+    /** Number of nodes in the tree this node was numbered in. */
+    private int treeSize;
+
     public SyntaxTreeNode(char sym) {
         this.sym = sym;
     }
 
+    /**
+     * Per-input memo of end positions, indexed by (node id, start position).
+     */
+    static final class MatchMemo {
+        private final BitSet[][] ends;
+
+        MatchMemo(int nodeCount) {
+            ends = new BitSet[nodeCount][];
+        }
+    }
+
     /**
      * Recursive method that performs a DFS on the AST of the regular expression.
+     * Returns every position {@code e} such that {@code s[pos, e)} matches this node.
+     */
+    public Set<Integer> match(String s, int pos) {
+        BitSet ends = matchEnds(s, pos);
+        Set<Integer> res = new HashSet<>();
+        for (int e = ends.nextSetBit(0); e >= 0; e = ends.nextSetBit(e + 1))
+            res.add(e);
+        return res;
+    }
+
+    /**
+     * Same as {@link #match(String, int)}, but returns the end positions as a bitmap.
+     * Sub-results are memoized per (node, start position) for the duration of this call,
+     * so every node is matched at most once from each position.
      */
-    public abstract Set<Integer> match(String s, int pos);
+    public BitSet matchEnds(String s, int pos) {
+        if (id < 0) number();
+        return ends(s, pos, new MatchMemo(treeSize));
+    }
+
+    /**
+     * Computes the end positions of this node starting at {@code pos}. Implementations
+     * obtain the results of their children through {@link #ends}; the returned bitmap
+     * is cached and must not be modified by callers.
+     */
+    abstract BitSet computeEnds(String s, int pos, MatchMemo memo);
+
+    final BitSet ends(String s, int pos, MatchMemo memo) {
+        if (id < 0 || id >= memo.ends.length) {
+            // Subtree was attached after numbering; fall back to unmemoized matching
+            return computeEnds(s, pos, memo);
+        }
+        BitSet[] row = memo.ends[id];
+        if (row == null) row = memo.ends[id] = new BitSet[s.length() + 1];
+        BitSet res = row[pos];
+        if (res == null) res = row[pos] = computeEnds(s, pos, memo);
+        return res;
+    }
+
+    /**
+     * Assigns pre-order ids to every node of the tree rooted here.
+     */
+    private void number() {
+        Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        Deque<SyntaxTreeNode> all = new ArrayDeque<>();
+        stack.push(this);
+        int next = 0;
+        while (!stack.isEmpty()) {
+            SyntaxTreeNode node = stack.pop();
+            node.id = next++;
+            all.push(node);
+            if (node instanceof BinaryNode) {
+                stack.push(((BinaryNode) node).rightChild);
+                stack.push(((BinaryNode) node).leftChild);
+            } else if (node instanceof UnaryNode) {
+                stack.push(((UnaryNode) node).child);
+            }
+        }
+        for (SyntaxTreeNode node : all)
+            node.treeSize = next;
+    }
 
     public abstract String generateOneCase();
 
@@ -9,4 +9,9 @@ public abstract class UnaryNode extends SyntaxTreeNode {
         super(STAR);
         this.child = child;
     }
+
+    protected UnaryNode(SyntaxTreeNode child, char sym) {
+        super(sym);
+        this.child = child;
+    }
 }
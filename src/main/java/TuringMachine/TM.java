@@ -1,6 +1,7 @@
 package TuringMachine;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -146,6 +147,38 @@ public class TM extends Automaton {
         return startState;
     }
 
+    /**
+     * Returns the tape alphabet of the Turing Machine.
+     * @return The tape alphabet.
+     */
+    public Alphabet getTapeAlphabet() {
+        return tapeAlphabet;
+    }
+
+    /**
+     * Returns the accept state of the Turing Machine.
+     * @return The accept state.
+     */
+    public State getAcceptState() {
+        return acceptState;
+    }
+
+    /**
+     * Returns the reject state of the Turing Machine.
+     * @return The reject state.
+     */
+    public State getRejectState() {
+        return rejectState;
+    }
+
+    /**
+     * Returns the transition function of the Turing Machine.
+     * @return An unmodifiable view of the transition function.
+     */
+    public Map<ConfigurationKey, Transition> getTransitionFunction() {
+        return Collections.unmodifiableMap(transitionFunction);
+    }
+
     /**
      * Returns the current state of the Turing Machine.
      * @return The current state.
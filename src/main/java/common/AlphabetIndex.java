@@ -0,0 +1,85 @@
+package common;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the symbols of an alphabet to dense indices {@code 0..size()-1}.
+ * <p>
+ * ASCII symbols are looked up in a 128-entry array and other characters in a small
+ * fallback map, so membership tests and index lookups cost a single array access for
+ * the alphabets used in practice. The indices follow the order in which the symbols were
+ * given, with duplicates keeping their first index, so engines can use them directly as
+ * column numbers of their transition tables.
+ * </p>
+ * <p>Instances are immutable.</p>
+ */
+public final class AlphabetIndex {
+    private final char[] symbols;
+    private final int[] asciiIndex = new int[128];
+    private final Map<Character, Integer> otherIndex = new HashMap<>();
+
+    /**
+     * @param alphabet the symbols in index order; duplicates are ignored
+     */
+    public AlphabetIndex(char[] alphabet) {
+        Arrays.fill(asciiIndex, -1);
+        char[] unique = new char[alphabet.length];
+        int size = 0;
+        for (char c : alphabet) {
+            if (indexOf(c) >= 0) continue;
+            if (c < 128) asciiIndex[c] = size;
+            else otherIndex.put(c, size);
+            unique[size++] = c;
+        }
+        this.symbols = Arrays.copyOf(unique, size);
+    }
+
+    /**
+     * Indexes the values of a set of {@link Symbol}s in iteration order.
+     */
+    public static AlphabetIndex of(Collection<Symbol> alphabet) {
+        char[] chars = new char[alphabet.size()];
+        int i = 0;
+        for (Symbol symbol : alphabet) {
+            chars[i++] = symbol.getValue();
+        }
+        return new AlphabetIndex(chars);
+    }
+
+    /**
+     * @return the index of {@code c}, or -1 if it is not part of the alphabet
+     */
+    public int indexOf(char c) {
+        if (c < 128) return asciiIndex[c];
+        Integer idx = otherIndex.get(c);
+        return idx == null ? -1 : idx;
+    }
+
+    public boolean contains(char c) {
+        return indexOf(c) >= 0;
+    }
+
+    /**
+     * @return the number of distinct symbols
+     */
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * @return the symbol with the given index
+     */
+    public char symbolAt(int index) {
+        return symbols[index];
+    }
+
+    /**
+     * @return the distinct symbols in index order
+     */
+    public char[] toCharArray() {
+        return symbols.clone();
+    }
+}
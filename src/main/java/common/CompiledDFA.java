@@ -0,0 +1,372 @@
+package common;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * A complete deterministic automaton stored as an integer transition table.
+ * <p>
+ * This is the common exchange format used to compare languages of regular expressions,
+ * DFAs and NFAs. States are numbered {@code 0..n-1}, symbols are indices into a sorted
+ * alphabet and every state has exactly one successor per symbol; missing transitions
+ * are routed to an explicit rejecting sink when the table is built.
+ * </p>
+ * <p>Instances are immutable.</p>
+ */
+public class CompiledDFA {
+    private final char[] alphabet;
+    private final int[][] delta;
+    private final boolean[] accepting;
+    private final int start;
+    private final AlphabetIndex index;
+
+    /**
+     * Builds a table automaton. Entries of {@code delta} that are negative are treated as
+     * missing transitions and redirected to a rejecting sink state appended to the table.
+     *
+     * @param alphabet the input symbols, must not contain duplicates
+     * @param delta {@code delta[state][symbolIndex]} successor table
+     * @param accepting acceptance flag of every state
+     * @param start the start state
+     */
+    public CompiledDFA(char[] alphabet, int[][] delta, boolean[] accepting, int start) {
+        if (delta.length != accepting.length) {
+            throw new IllegalArgumentException("Transition table and acceptance flags differ in size");
+        }
+        if (start < 0 || start >= delta.length) {
+            throw new IllegalArgumentException("Start state out of range: " + start);
+        }
+        this.alphabet = alphabet.clone();
+        this.start = start;
+        this.index = new AlphabetIndex(alphabet);
+        if (index.size() != alphabet.length) {
+            throw new IllegalArgumentException("Alphabet contains duplicate symbols");
+        }
+
+        boolean missing = false;
+        for (int[] row : delta) {
+            if (row.length != alphabet.length) {
+                throw new IllegalArgumentException("Transition row does not cover the alphabet");
+            }
+            for (int to : row) {
+                if (to < 0) missing = true;
+                else if (to >= delta.length) throw new IllegalArgumentException("Transition target out of range: " + to);
+            }
+        }
+
+        int n = delta.length + (missing ? 1 : 0);
+        this.delta = new int[n][];
+        this.accepting = Arrays.copyOf(accepting, n);
+        for (int q = 0; q < delta.length; q++) {
+            int[] row = delta[q].clone();
+            for (int a = 0; a < row.length; a++) {
+                if (row[a] < 0) row[a] = n - 1;
+            }
+            this.delta[q] = row;
+        }
+        if (missing) {
+            int[] sink = new int[alphabet.length];
+            Arrays.fill(sink, n - 1);
+            this.delta[n - 1] = sink;
+        }
+    }
+
+    public char[] getAlphabet() {
+        return alphabet.clone();
+    }
+
+    public int getStateCount() {
+        return delta.length;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * @return the successor of {@code state} on the symbol with index {@code symbol}
+     */
+    public int next(int state, int symbol) {
+        return delta[state][symbol];
+    }
+
+    /**
+     * @return the index of {@code c} in the alphabet, or -1 if it is not part of it
+     */
+    public int indexOf(char c) {
+        return index.indexOf(c);
+    }
+
+    /**
+     * Runs the automaton. Strings containing symbols outside the alphabet are rejected.
+     */
+    public boolean accepts(CharSequence input) {
+        int q = start;
+        for (int i = 0; i < input.length(); i++) {
+            int a = indexOf(input.charAt(i));
+            if (a < 0) return false;
+            q = delta[q][a];
+        }
+        return accepting[q];
+    }
+
+    /**
+     * Sorted union of two alphabets.
+     */
+    public static char[] unionAlphabet(char[] a, char[] b) {
+        TreeSet<Character> set = new TreeSet<>();
+        for (char c : a) set.add(c);
+        for (char c : b) set.add(c);
+        char[] res = new char[set.size()];
+        int i = 0;
+        for (char c : set) res[i++] = c;
+        return res;
+    }
+
+    /**
+     * Returns the same language over another alphabet. Symbols that are not part of this
+     * automaton's alphabet lead to a rejecting sink, mirroring how the machines reject
+     * inputs containing unknown symbols.
+     */
+    public CompiledDFA withAlphabet(char[] newAlphabet) {
+        int[][] table = new int[delta.length][newAlphabet.length];
+        for (int q = 0; q < delta.length; q++) {
+            for (int a = 0; a < newAlphabet.length; a++) {
+                int old = indexOf(newAlphabet[a]);
+                table[q][a] = old < 0 ? -1 : delta[q][old];
+            }
+        }
+        return new CompiledDFA(newAlphabet, table, accepting, start);
+    }
+
+    /**
+     * Computes the equivalence classes of the minimal automaton with Hopcroft's partition
+     * refinement. Unreachable states are mapped to -1; reachable states are mapped to the
+     * number of their class, where classes are numbered in breadth-first order from the
+     * start state so that equal languages yield identical minimal tables.
+     *
+     * @return the class of every state of this automaton
+     */
+    public int[] minimalStateMap() {
+        int n = delta.length;
+        int k = alphabet.length;
+
+        // Restrict to reachable states
+        int[] reach = new int[n];
+        Arrays.fill(reach, -1);
+        int[] order = new int[n];
+        int m = 0;
+        reach[start] = m;
+        order[m++] = start;
+        for (int head = 0; head < m; head++) {
+            int q = order[head];
+            for (int a = 0; a < k; a++) {
+                int to = delta[q][a];
+                if (reach[to] < 0) {
+                    reach[to] = m;
+                    order[m++] = to;
+                }
+            }
+        }
+
+        // Inverse transitions over the reachable part in CSR form: preds[a][predStart[a][q] .. predStart[a][q+1])
+        int[][] predStart = new int[k][m + 1];
+        int[][] preds = new int[k][m];
+        for (int a = 0; a < k; a++) {
+            for (int i = 0; i < m; i++) predStart[a][reach[delta[order[i]][a]] + 1]++;
+            for (int i = 0; i < m; i++) predStart[a][i + 1] += predStart[a][i];
+            int[] fill = Arrays.copyOf(predStart[a], m);
+            for (int i = 0; i < m; i++) preds[a][fill[reach[delta[order[i]][a]]]++] = i;
+        }
+
+        // Partition refinement structure
+        int[] elems = new int[m];
+        int[] loc = new int[m];
+        int[] blockOf = new int[m];
+        int[] first = new int[m];
+        int[] end = new int[m];
+        int[] mid = new int[m];
+        int blocks = 0;
+
+        int acceptCount = 0;
+        for (int i = 0; i < m; i++) if (accepting[order[i]]) acceptCount++;
+        int pa = 0;
+        int pr = acceptCount;
+        for (int i = 0; i < m; i++) {
+            int pos = accepting[order[i]] ? pa++ : pr++;
+            elems[pos] = i;
+            loc[i] = pos;
+        }
+        if (acceptCount > 0) {
+            first[blocks] = 0;
+            end[blocks] = acceptCount;
+            blocks++;
+        }
+        if (acceptCount < m) {
+            first[blocks] = acceptCount;
+            end[blocks] = m;
+            blocks++;
+        }
+        for (int b = 0; b < blocks; b++) {
+            mid[b] = first[b];
+            for (int p = first[b]; p < end[b]; p++) blockOf[elems[p]] = b;
+        }
+
+        boolean[] inWork = new boolean[m * Math.max(1, k)];
+        ArrayDeque<int[]> work = new ArrayDeque<>();
+        for (int b = 0; b < blocks; b++) {
+            for (int a = 0; a < k; a++) {
+                inWork[b * k + a] = true;
+                work.add(new int[]{b, a});
+            }
+        }
+
+        int[] touched = new int[m];
+        while (!work.isEmpty()) {
+            int[] item = work.poll();
+            int splitter = item[0];
+            int a = item[1];
+            inWork[splitter * k + a] = false;
+
+            int touchedCount = 0;
+            // Mark predecessors of the splitter block. Block boundaries of the splitter
+            // may move while we split, so copy its members first.
+            int[] members = Arrays.copyOfRange(elems, first[splitter], end[splitter]);
+            for (int target : members) {
+                for (int j = predStart[a][target]; j < predStart[a][target + 1]; j++) {
+                    int q = preds[a][j];
+                    int b = blockOf[q];
+                    if (loc[q] < mid[b]) continue; // already marked
+                    if (mid[b] == first[b]) touched[touchedCount++] = b;
+                    int swapPos = mid[b]++;
+                    int other = elems[swapPos];
+                    elems[swapPos] = q;
+                    elems[loc[q]] = other;
+                    loc[other] = loc[q];
+                    loc[q] = swapPos;
+                }
+            }
+
+            for (int t = 0; t < touchedCount; t++) {
+                int b = touched[t];
+                if (mid[b] == end[b]) {
+                    mid[b] = first[b];
+                    continue;
+                }
+                // Marked part [first, mid) becomes a new block
+                int nb = blocks++;
+                first[nb] = first[b];
+                end[nb] = mid[b];
+                mid[nb] = first[nb];
+                first[b] = mid[b];
+                mid[b] = first[b];
+                for (int p = first[nb]; p < end[nb]; p++) blockOf[elems[p]] = nb;
+
+                int smaller = (end[nb] - first[nb]) <= (end[b] - first[b]) ? nb : b;
+                for (int c = 0; c < k; c++) {
+                    int add = inWork[b * k + c] ? nb : smaller;
+                    if (!inWork[add * k + c]) {
+                        inWork[add * k + c] = true;
+                        work.add(new int[]{add, c});
+                    }
+                }
+            }
+        }
+
+        // Number classes in BFS order of the quotient automaton
+        int[] classId = new int[blocks];
+        Arrays.fill(classId, -1);
+        int[] queue = new int[blocks];
+        int classes = 0;
+        int startBlock = blockOf[0];
+        classId[startBlock] = classes;
+        queue[classes++] = startBlock;
+        for (int head = 0; head < classes; head++) {
+            int rep = elems[first[queue[head]]];
+            for (int a = 0; a < k; a++) {
+                int to = blockOf[reach[delta[order[rep]][a]]];
+                if (classId[to] < 0) {
+                    classId[to] = classes;
+                    queue[classes++] = to;
+                }
+            }
+        }
+
+        int[] map = new int[n];
+        for (int q = 0; q < n; q++) map[q] = reach[q] < 0 ? -1 : classId[blockOf[reach[q]]];
+        return map;
+    }
+
+    /**
+     * Builds the minimal complete automaton for the same language.
+     * The result is canonical: two automata over the same alphabet accept the same language
+     * if and only if their minimized tables are identical.
+     */
+    public CompiledDFA minimize() {
+        int[] map = minimalStateMap();
+        int classes = 0;
+        for (int c : map) classes = Math.max(classes, c + 1);
+
+        int[][] table = new int[classes][];
+        boolean[] acc = new boolean[classes];
+        for (int q = 0; q < delta.length; q++) {
+            int c = map[q];
+            if (c < 0 || table[c] != null) continue;
+            int[] row = new int[alphabet.length];
+            for (int a = 0; a < alphabet.length; a++) row[a] = map[delta[q][a]];
+            table[c] = row;
+            acc[c] = accepting[q];
+        }
+        return new CompiledDFA(alphabet, table, acc, 0);
+    }
+
+    /**
+     * Searches the product automaton breadth-first for the shortest string on which the two
+     * automata disagree. Among strings of equal length the first one in alphabet order is returned.
+     *
+     * @param other the automaton to compare with
+     * @return a shortest distinguishing string, or {@code null} if both accept the same language
+     */
+    public String findDistinguishingString(CompiledDFA other) {
+        char[] sigma = unionAlphabet(alphabet, other.alphabet);
+        CompiledDFA x = Arrays.equals(sigma, alphabet) ? this : withAlphabet(sigma);
+        CompiledDFA y = Arrays.equals(sigma, other.alphabet) ? other : other.withAlphabet(sigma);
+
+        int ny = y.delta.length;
+        int total = x.delta.length * ny;
+        int[] parent = new int[total];
+        int[] via = new int[total];
+        Arrays.fill(parent, -2);
+        int[] queue = new int[total];
+        int head = 0;
+        int tail = 0;
+
+        int s = x.start * ny + y.start;
+        parent[s] = -1;
+        queue[tail++] = s;
+        while (head < tail) {
+            int pair = queue[head++];
+            int p = pair / ny;
+            int q = pair % ny;
+            if (x.accepting[p] != y.accepting[q]) {
+                StringBuilder sb = new StringBuilder();
+                for (int cur = pair; parent[cur] >= 0; cur = parent[cur]) sb.append(sigma[via[cur]]);
+                return sb.reverse().toString();
+            }
+            for (int a = 0; a < sigma.length; a++) {
+                int nxt = x.delta[p][a] * ny + y.delta[q][a];
+                if (parent[nxt] == -2) {
+                    parent[nxt] = pair;
+                    via[nxt] = a;
+                    queue[tail++] = nxt;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,117 @@
+package common;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams the strings accepted (or rejected) by a {@link CompiledDFA} in length-lexicographic order.
+ * <p>
+ * Strings are produced by a depth-first walk over the automaton with a single reusable buffer,
+ * so nothing but the current string is held in memory. A table of which states can still reach
+ * the wanted verdict with exactly {@code r} more symbols prunes every branch that would not
+ * produce output, so the work is proportional to the number of strings emitted.
+ * </p>
+ */
+public class LanguageEnumerator {
+
+    /**
+     * Receives the enumerated strings. The buffer is reused between calls.
+     */
+    public interface Visitor {
+        void visit(char[] chars, int length) throws IOException;
+    }
+
+    private LanguageEnumerator() {
+    }
+
+    /**
+     * Visits every string of length {@code 0..maxLen} over the automaton's alphabet whose
+     * verdict equals {@code accepted}, shortest first and alphabetically within one length.
+     *
+     * @param dfa the automaton
+     * @param maxLen the maximum string length
+     * @param accepted whether accepted or rejected strings are wanted
+     * @param visitor receives the strings
+     * @return the number of strings visited
+     * @throws IOException if the visitor fails
+     */
+    public static long forEach(CompiledDFA dfa, int maxLen, boolean accepted, Visitor visitor) throws IOException {
+        if (maxLen < 0) {
+            throw new IllegalArgumentException("Maximum length must be non-negative: " + maxLen);
+        }
+        char[] sigma = dfa.getAlphabet();
+        int k = sigma.length;
+        boolean[][] live = liveTable(dfa, maxLen, accepted);
+
+        char[] buffer = new char[maxLen];
+        int[] states = new int[maxLen + 1];
+        int[] nextSymbol = new int[maxLen + 1];
+        long count = 0;
+
+        for (int length = 0; length <= maxLen; length++) {
+            if (!live[length][dfa.getStart()]) continue;
+
+            int depth = 0;
+            states[0] = dfa.getStart();
+            nextSymbol[0] = 0;
+            while (depth >= 0) {
+                if (depth == length) {
+                    visitor.visit(buffer, length);
+                    count++;
+                    depth--;
+                    continue;
+                }
+                if (nextSymbol[depth] == k) {
+                    depth--;
+                    continue;
+                }
+                int a = nextSymbol[depth]++;
+                int to = dfa.next(states[depth], a);
+                if (live[length - depth - 1][to]) {
+                    buffer[depth] = sigma[a];
+                    states[depth + 1] = to;
+                    depth++;
+                    nextSymbol[depth] = 0;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the enumerated strings as test cases, one {@code string,1} or {@code string,0}
+     * line per string depending on {@code accepted}.
+     *
+     * @return the number of lines written
+     * @throws IOException if writing fails
+     */
+    public static long writeCases(CompiledDFA dfa, int maxLen, boolean accepted, Writer out) throws IOException {
+        String suffix = (accepted ? ",1" : ",0") + System.lineSeparator();
+        return forEach(dfa, maxLen, accepted, (chars, length) -> {
+            out.write(chars, 0, length);
+            out.write(suffix);
+        });
+    }
+
+    /**
+     * live[r][q] is true if some string of exactly r symbols leads from q to a state whose
+     * acceptance equals {@code accepted}.
+     */
+    private static boolean[][] liveTable(CompiledDFA dfa, int maxLen, boolean accepted) {
+        int n = dfa.getStateCount();
+        int k = dfa.getAlphabet().length;
+        boolean[][] live = new boolean[maxLen + 1][n];
+        for (int q = 0; q < n; q++) live[0][q] = dfa.isAccepting(q) == accepted;
+        for (int r = 1; r <= maxLen; r++) {
+            for (int q = 0; q < n; q++) {
+                for (int a = 0; a < k; a++) {
+                    if (live[r - 1][dfa.next(q, a)]) {
+                        live[r][q] = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return live;
+    }
+}
@@ -0,0 +1,118 @@
+package common;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Draws strings uniformly at random from the accepted (or rejected) strings of one length.
+ * <p>
+ * For every state {@code q} and remaining length {@code r} the sampler counts the strings of
+ * length {@code r} that lead from {@code q} to the wanted verdict. A string is then built symbol
+ * by symbol, choosing each symbol with probability proportional to the number of completions
+ * it leaves, which makes every string of the requested length equally likely regardless of how
+ * the automaton or regex is written. Counts are exact, so very long lengths are supported.
+ * </p>
+ */
+public class LanguageSampler {
+    private final CompiledDFA dfa;
+    private final int maxLen;
+    private final char[] alphabet;
+    /** counts[v][r][q]: strings of length r from q whose verdict is v (0 = rejected, 1 = accepted). */
+    private final BigInteger[][][] counts;
+
+    /**
+     * Precomputes the counting tables.
+     *
+     * @param dfa the automaton to sample from
+     * @param maxLen the longest length that will be sampled
+     */
+    public LanguageSampler(CompiledDFA dfa, int maxLen) {
+        if (maxLen < 0) {
+            throw new IllegalArgumentException("Maximum length must be non-negative: " + maxLen);
+        }
+        this.dfa = dfa;
+        this.maxLen = maxLen;
+        this.alphabet = dfa.getAlphabet();
+
+        int n = dfa.getStateCount();
+        counts = new BigInteger[2][maxLen + 1][n];
+        for (int v = 0; v < 2; v++) {
+            for (int q = 0; q < n; q++) {
+                counts[v][0][q] = dfa.isAccepting(q) == (v == 1) ? BigInteger.ONE : BigInteger.ZERO;
+            }
+            for (int r = 1; r <= maxLen; r++) {
+                for (int q = 0; q < n; q++) {
+                    BigInteger sum = BigInteger.ZERO;
+                    for (int a = 0; a < alphabet.length; a++) {
+                        sum = sum.add(counts[v][r - 1][dfa.next(q, a)]);
+                    }
+                    counts[v][r][q] = sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of strings of exactly {@code length} symbols with the given verdict
+     */
+    public BigInteger count(int length, boolean accepted) {
+        checkLength(length);
+        return counts[accepted ? 1 : 0][length][dfa.getStart()];
+    }
+
+    /**
+     * Draws one string of exactly {@code length} symbols with the given verdict.
+     *
+     * @param length the string length
+     * @param accepted whether an accepted or a rejected string is wanted
+     * @param random the source of randomness; seed it for reproducible suites
+     * @return a uniformly chosen string, or null if no such string exists
+     */
+    public String sample(int length, boolean accepted, Random random) {
+        checkLength(length);
+        BigInteger[][] table = counts[accepted ? 1 : 0];
+        int q = dfa.getStart();
+        if (table[length][q].signum() == 0) {
+            return null;
+        }
+
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int remaining = length - i;
+            BigInteger pick = below(table[remaining][q], random);
+            for (int a = 0; a < alphabet.length; a++) {
+                int to = dfa.next(q, a);
+                BigInteger c = table[remaining - 1][to];
+                if (pick.compareTo(c) < 0) {
+                    chars[i] = alphabet[a];
+                    q = to;
+                    break;
+                }
+                pick = pick.subtract(c);
+            }
+        }
+        return new String(chars);
+    }
+
+    private static BigInteger below(BigInteger bound, Random random) {
+        if (bound.bitLength() < 63) {
+            long b = bound.longValue();
+            long r;
+            do {
+                r = random.nextLong() >>> 1;
+            } while (r >= Long.MAX_VALUE - Long.MAX_VALUE % b);
+            return BigInteger.valueOf(r % b);
+        }
+        BigInteger r;
+        do {
+            r = new BigInteger(bound.bitLength(), random);
+        } while (r.compareTo(bound) >= 0);
+        return r;
+    }
+
+    private void checkLength(int length) {
+        if (length < 0 || length > maxLen) {
+            throw new IllegalArgumentException("Length " + length + " outside 0.." + maxLen);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A reference test suite compiled into a minimal DFA, used to grade DFAs and NFAs without
+ * executing every test case.
+ * <p>
+ * Test files for regular languages usually list every string over their alphabet up to some
+ * length exactly once. Such an exhaustive suite is itself a DFA: the prefix tree of its strings,
+ * labelled by the expected verdicts and minimized. A submission is graded by exploring the
+ * product of that DFA with the compiled submission breadth-first and counting, per product state
+ * and length, how many strings lead there. Summing the counts by verdict pair gives exactly the
+ * TP/TN/FP/FN figures {@link TestRunner} would report, in time proportional to the product size
+ * times the maximum length rather than to the number of test cases.
+ * </p>
+ * <p>
+ * A reference automaton can be supplied as well. It is then authoritative: when the suite is
+ * not exhaustive the counts cover every string over the reference alphabet up to the suite's
+ * maximum length.
+ * </p>
+ * <p>Instances are immutable and can be shared between threads.</p>
+ */
+public class ReferenceSuite {
+    /** How many disagreeing strings are listed in the detailed report. */
+    private static final int MAX_LISTED_FAILURES = 50;
+
+    private final int minPoints;
+    private final int maxPoints;
+    private final Integer maxRegexLength;
+    private final Integer maxRules;
+    private final Integer maxTransitions;
+    private final char[] alphabet;
+    private final int maxLength;
+    private final long stringCount;
+    private final boolean exhaustive;
+    /** Minimal reference DFA over {@link #alphabet}; null if the suite cannot be compiled. */
+    private final CompiledDFA reference;
+
+    private ReferenceSuite(TestFileParser.TestFileResult file, char[] alphabet, int maxLength,
+                           long stringCount, boolean exhaustive, CompiledDFA reference) {
+        this.minPoints = file.getMinPoints();
+        this.maxPoints = file.getMaxPoints();
+        this.maxRegexLength = file.getMaxRegexLength();
+        this.maxRules = file.getMaxRules();
+        this.maxTransitions = file.getMaxTransitions();
+        this.alphabet = alphabet;
+        this.maxLength = maxLength;
+        this.stringCount = stringCount;
+        this.exhaustive = exhaustive;
+        this.reference = reference;
+    }
+
+    /**
+     * Compiles a test file on its own. The result can only grade if the suite is exhaustive.
+     *
+     * @param testFilePath path to the CSV test file
+     * @return the compiled suite
+     * @throws IOException if the file cannot be read
+     */
+    public static ReferenceSuite compile(String testFilePath) throws IOException {
+        return compile(testFilePath, null);
+    }
+
+    /**
+     * Compiles a test file together with a reference automaton for the same question.
+     *
+     * @param testFilePath path to the CSV test file, which provides the points and the maximum length
+     * @param referenceAutomaton the reference language, or null to derive it from the test cases
+     * @return the compiled suite
+     * @throws IOException if the file cannot be read
+     */
+    public static ReferenceSuite compile(String testFilePath, CompiledDFA referenceAutomaton) throws IOException {
+        return compile(TestFileParser.parseTestFile(testFilePath), referenceAutomaton);
+    }
+
+    /**
+     * Compiles an already parsed test file together with a reference automaton for the same question.
+     *
+     * @param file the parsed test file, which provides the points and the maximum length
+     * @param referenceAutomaton the reference language, or null to derive it from the test cases
+     * @return the compiled suite
+     */
+    public static ReferenceSuite compile(TestFileParser.TestFileResult file, CompiledDFA referenceAutomaton) {
+        List<TestCase> cases = file.getTestCases();
+
+        TreeSet<Character> letters = new TreeSet<>();
+        int maxLength = 0;
+        for (TestCase testCase : cases) {
+            String input = testCase.getInput();
+            maxLength = Math.max(maxLength, input.length());
+            for (int i = 0; i < input.length(); i++) {
+                letters.add(input.charAt(i));
+            }
+        }
+        char[] sigma = new char[letters.size()];
+        int idx = 0;
+        for (char c : letters) sigma[idx++] = c;
+
+        CompiledDFA prefixTree = cases.isEmpty() ? null : exhaustivePrefixTree(cases, sigma, maxLength);
+        boolean exhaustive = prefixTree != null;
+
+        CompiledDFA reference;
+        if (referenceAutomaton != null && !cases.isEmpty()) {
+            if (!exhaustive) sigma = referenceAutomaton.getAlphabet();
+            reference = referenceAutomaton.withAlphabet(sigma).minimize();
+        } else {
+            reference = exhaustive ? prefixTree.minimize() : null;
+        }
+
+        long count = countStrings(sigma.length, maxLength);
+        if (count < 0) reference = null;
+        return new ReferenceSuite(file, sigma, maxLength, count, exhaustive, reference);
+    }
+
+    /**
+     * Number of strings of length {@code 0..maxLength} over {@code k} symbols, or -1 if that
+     * exceeds what a {@link TestRunner.TestResult} can count.
+     */
+    private static long countStrings(int k, int maxLength) {
+        long total = 0;
+        long level = 1;
+        for (int l = 0; l <= maxLength; l++) {
+            total += level;
+            if (total > Integer.MAX_VALUE) return -1;
+            level *= k;
+        }
+        return total;
+    }
+
+    /**
+     * Builds the prefix tree of an exhaustive suite. Strings are numbered by length and then by
+     * their value in base {@code |sigma|}, so every string has a fixed slot; the suite is
+     * exhaustive if it has exactly as many cases as slots and no slot is filled twice.
+     *
+     * @return the labelled prefix tree, or null if the suite is not exhaustive
+     */
+    private static CompiledDFA exhaustivePrefixTree(List<TestCase> cases, char[] sigma, int maxLength) {
+        int k = sigma.length;
+        long total = countStrings(k, maxLength);
+        if (total != cases.size()) return null;
+
+        int[] offset = new int[maxLength + 2];
+        int level = 1;
+        for (int l = 0; l <= maxLength; l++) {
+            offset[l + 1] = offset[l] + level;
+            level *= k;
+        }
+
+        int n = (int) total;
+        AlphabetIndex index = new AlphabetIndex(sigma);
+        boolean[] seen = new boolean[n];
+        boolean[] accepting = new boolean[n];
+        for (TestCase testCase : cases) {
+            String input = testCase.getInput();
+            int value = 0;
+            for (int i = 0; i < input.length(); i++) {
+                value = value * k + index.indexOf(input.charAt(i));
+            }
+            int slot = offset[input.length()] + value;
+            if (seen[slot]) return null;
+            seen[slot] = true;
+            accepting[slot] = testCase.shouldAccept();
+        }
+
+        // Children of a string of length l < maxLength; strings of maximal length lead to the sink
+        int[][] delta = new int[n][k];
+        for (int l = 0; l <= maxLength; l++) {
+            for (int q = offset[l]; q < offset[l + 1]; q++) {
+                int value = q - offset[l];
+                for (int a = 0; a < k; a++) {
+                    delta[q][a] = l == maxLength ? -1 : offset[l + 1] + value * k + a;
+                }
+            }
+        }
+        return new CompiledDFA(sigma, delta, accepting, 0);
+    }
+
+    /**
+     * @return whether the suite could be compiled into a reference DFA
+     */
+    public boolean isCompiled() {
+        return reference != null;
+    }
+
+    /**
+     * @return whether the test file lists every string up to its maximum length exactly once
+     */
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @return the number of strings the counts cover
+     */
+    public long getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * @return the minimal reference DFA, or null if the suite is not compiled
+     */
+    public CompiledDFA getReference() {
+        return reference;
+    }
+
+    /**
+     * Checks whether a submission can be graded without running the tests. This requires a
+     * compiled suite and a submission that knows every symbol of the suite, since the machines
+     * report an error rather than rejecting when they meet an unknown symbol.
+     *
+     * @param student the compiled submission
+     * @return whether {@link #grade(CompiledDFA)} gives the same result as running the tests
+     */
+    public boolean canGrade(CompiledDFA student) {
+        if (reference == null) return false;
+        for (char c : alphabet) {
+            if (student.indexOf(c) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Grades a submission by counting strings in the product automaton.
+     *
+     * @param student the compiled submission
+     * @return a test result with exact classification counts and the first disagreeing strings
+     * @throws IllegalArgumentException if {@link #canGrade(CompiledDFA)} is false
+     */
+    public TestRunner.TestResult grade(CompiledDFA student) {
+        if (!canGrade(student)) {
+            throw new IllegalArgumentException("Submission cannot be graded against this reference suite");
+        }
+        CompiledDFA s = student.withAlphabet(alphabet).minimize();
+        int k = alphabet.length;
+        int ns = s.getStateCount();
+
+        // Breadth-first exploration of the reachable product states
+        int[] ids = new int[reference.getStateCount() * ns];
+        Arrays.fill(ids, -1);
+        List<int[]> rows = new ArrayList<>();
+        List<Integer> pairs = new ArrayList<>();
+        int startPair = reference.getStart() * ns + s.getStart();
+        ids[startPair] = 0;
+        pairs.add(startPair);
+        for (int p = 0; p < pairs.size(); p++) {
+            int r = pairs.get(p) / ns;
+            int q = pairs.get(p) % ns;
+            int[] row = new int[k];
+            for (int a = 0; a < k; a++) {
+                int next = reference.next(r, a) * ns + s.next(q, a);
+                if (ids[next] < 0) {
+                    ids[next] = pairs.size();
+                    pairs.add(next);
+                }
+                row[a] = ids[next];
+            }
+            rows.add(row);
+        }
+
+        // outcome: 0 = TN, 1 = FP, 2 = FN, 3 = TP
+        int size = pairs.size();
+        int[][] delta = rows.toArray(new int[0][]);
+        int[] outcome = new int[size];
+        boolean[] disagree = new boolean[size];
+        for (int p = 0; p < size; p++) {
+            boolean expected = reference.isAccepting(pairs.get(p) / ns);
+            boolean actual = s.isAccepting(pairs.get(p) % ns);
+            outcome[p] = (expected ? 2 : 0) + (actual ? 1 : 0);
+            disagree[p] = expected != actual;
+        }
+
+        // counts[o]: strings of length 0..maxLength ending in a product state with outcome o
+        long[] counts = new long[4];
+        long[] current = new long[size];
+        current[0] = 1;
+        for (int l = 0; l <= maxLength; l++) {
+            long[] next = new long[size];
+            for (int p = 0; p < size; p++) {
+                if (current[p] == 0) continue;
+                counts[outcome[p]] += current[p];
+                if (l < maxLength) {
+                    for (int a = 0; a < k; a++) next[delta[p][a]] += current[p];
+                }
+            }
+            current = next;
+        }
+
+        TestRunner.TestResult result = new TestRunner.TestResult();
+        result.setTotalTests((int) stringCount);
+        result.setMinPoints(minPoints);
+        result.setMaxPoints(maxPoints);
+        result.setMaxRegexLength(maxRegexLength);
+        result.setMaxRules(maxRules);
+        result.setMaxTransitions(maxTransitions);
+        result.setTrueNegatives((int) counts[0]);
+        result.setFalsePositives((int) counts[1]);
+        result.setFalseNegatives((int) counts[2]);
+        result.setTruePositives((int) counts[3]);
+        result.setPassedTests((int) (counts[0] + counts[3]));
+
+        long wrong = counts[1] + counts[2];
+        if (wrong > 0) {
+            List<String> listed = new ArrayList<>();
+            try {
+                LanguageEnumerator.forEach(new CompiledDFA(alphabet, delta, disagree, 0), maxLength, true, (chars, length) -> {
+                    if (listed.size() < MAX_LISTED_FAILURES) listed.add(new String(chars, 0, length));
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            for (String input : listed) {
+                boolean expected = reference.accepts(input);
+                TestRunner.TestCaseResult caseResult = new TestRunner.TestCaseResult(input, expected, !expected, null);
+                result.addResult(caseResult);
+                result.addFailure(caseResult.toString());
+            }
+            if (wrong > listed.size()) {
+                result.addFailure(String.format("... and %d more strings", wrong - listed.size()));
+            }
+        }
+        return result;
+    }
+}
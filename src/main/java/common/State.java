@@ -1,7 +1,5 @@
 package common;
 
-import java.util.Objects;
-
 /**
  * Represents a standardized state that can be used across different types of automata.
  * This class provides a unified interface for states in DFA, NFA, PDA, and Turing Machines.
@@ -10,11 +8,14 @@ import java.util.Objects;
  * - Immutable name for state identity
  * - Support for start, accept, and reject states
  * - Consistent naming conventions
- * - Proper equals/hashCode implementation
+ * - Proper equals/hashCode implementation, with the hash computed once
  * - Flexible constructors for different use cases
+ * - A dense id when the state was created through a {@link StateInterner}
  */
 public class State {
     private final String name;
+    private final int hash;
+    private int id = -1;
     private boolean isStart;
     private boolean isAccept;
     private boolean isReject;
@@ -57,6 +58,7 @@ public class State {
         }
         
         this.name = name.trim();
+        this.hash = 31 + this.name.hashCode(); // same value as Objects.hash(name)
         this.isStart = isStart;
         this.isAccept = isAccept;
         this.isReject = isReject;
@@ -70,6 +72,19 @@ public class State {
         return name;
     }
 
+    /**
+     * Gets the dense id assigned by the {@link StateInterner} that created this state.
+     * Ids run from 0 to the number of interned states minus one, so they can index arrays.
+     * @return The id, or -1 if the state was not created through an interner
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Checks if this is the start state.
      * @return True if this is the start state, false otherwise
@@ -152,7 +167,7 @@ public class State {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         State other = (State) obj;
-        return Objects.equals(name, other.name);
+        return hash == other.hash && name.equals(other.name);
     }
 
     /**
@@ -162,7 +177,7 @@ public class State {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        return hash;
     }
 
     /**
@@ -0,0 +1,68 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the states of one automaton so that every name maps to a single {@link State}
+ * instance with a dense id.
+ * <p>
+ * Lookups in sets and maps then usually succeed on the identity check in
+ * {@link State#equals(Object)}, and engines that compile the automaton can use
+ * {@link State#getId()} directly as an array index. States are still equal by name,
+ * so states created elsewhere keep working as keys.
+ * </p>
+ */
+public class StateInterner {
+    private final Map<String, State> byName = new HashMap<>();
+    private final List<State> byId = new ArrayList<>();
+
+    /**
+     * Returns the state with the given name, creating it with the next free id if needed.
+     *
+     * @param name the state name, surrounding whitespace is ignored
+     * @return the canonical state for the name
+     * @throws IllegalArgumentException if the name is null or empty
+     */
+    public State intern(String name) {
+        State state = name == null ? null : byName.get(name.trim());
+        if (state != null) return state;
+
+        state = new State(name);
+        state.setId(byId.size());
+        byName.put(state.getName(), state);
+        byId.add(state);
+        return state;
+    }
+
+    /**
+     * @return the state with the given name, or null if it was never interned
+     */
+    public State get(String name) {
+        return byName.get(name.trim());
+    }
+
+    /**
+     * @return the state with the given id
+     */
+    public State get(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return the number of interned states, which is one more than the largest id
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * @return the interned states in id order
+     */
+    public List<State> getStates() {
+        return Collections.unmodifiableList(byId);
+    }
+}
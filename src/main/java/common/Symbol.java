@@ -1,17 +1,24 @@
 package common;
 
-import java.util.Objects;
-
 /**
  * Represents a symbol in formal language theory, such as those used in automata,
  * grammars, and regular expressions. A symbol can be any character, including
  * a special epsilon symbol represented internally by the underscore character '_'.
  * 
  * <p>This class is immutable and provides methods for symbol comparison,
- * epsilon checking, and string representation.</p>
+ * epsilon checking, and string representation. {@link #of(char)} returns shared
+ * instances for ASCII characters, so equal symbols are usually the same object.</p>
  * 
  */
 public class Symbol {
+  private static final Symbol[] ASCII = new Symbol[128];
+
+  static {
+    for (char c = 0; c < ASCII.length; c++) {
+      ASCII[c] = new Symbol(c);
+    }
+  }
+
   private final char value;
 
   /**
@@ -23,6 +30,16 @@ public class Symbol {
     this.value = value;
   }
 
+  /**
+   * Returns the symbol for a character, reusing a shared instance for ASCII characters.
+   *
+   * @param value the character value of the symbol
+   * @return a symbol with the given value
+   */
+  public static Symbol of(char value) {
+    return value < ASCII.length ? ASCII[value] : new Symbol(value);
+  }
+
   /**
    * Returns the character value of this symbol.
    * 
@@ -72,7 +89,7 @@ public class Symbol {
     if (this == o) return true;
     if (!(o instanceof Symbol)) return false;
     Symbol symbol = (Symbol) o;
-    return Objects.equals(value, symbol.value);
+    return value == symbol.value;
   }
 
   /**
@@ -82,7 +99,7 @@ public class Symbol {
    * @return a hash code value for this object
    */
   @Override
-  public int hashCode() { return Objects.hash(value); }
+  public int hashCode() { return 31 + value; } // same value as Objects.hash(value), without boxing
 
   /**
    * Returns a string representation of this symbol.
@@ -153,6 +153,10 @@ public class TestRunner {
         public void incrementFalsePositives() { this.falsePositives++; }
         public void incrementFalseNegatives() { this.falseNegatives++; }
         public void incrementTimeoutCount() { this.timeoutCount++; }
+        public void setTruePositives(int count) { this.truePositives = count; }
+        public void setTrueNegatives(int count) { this.trueNegatives = count; }
+        public void setFalsePositives(int count) { this.falsePositives = count; }
+        public void setFalseNegatives(int count) { this.falseNegatives = count; }
         
         // Score calculation methods
         public double getAccuracy() {
@@ -387,8 +391,51 @@ public class TestRunner {
      * @return test results
      */
     public static TestResult runTests(Automaton automaton, String testFilePath, long totalTimeoutMs, TestProgressCallback progressCallback) {
+        TestFileParser.TestFileResult fileResult;
+        try {
+            fileResult = TestFileParser.parseTestFile(testFilePath);
+        } catch (IOException e) {
+            return fileFailure("Failed to read test file: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return fileFailure("Invalid test file format: " + e.getMessage());
+        }
+        return runTests(automaton, testFilePath, fileResult, totalTimeoutMs, progressCallback);
+    }
+
+    /**
+     * Runs test cases from a file against the given automaton with default timeout, taking the
+     * parsed file from a cache shared with other gradings of the same suite.
+     *
+     * @param automaton the automaton to test
+     * @param testFilePath path to the CSV test file
+     * @param suiteCache cache of parsed test files
+     * @return test results
+     */
+    public static TestResult runTests(Automaton automaton, String testFilePath, TestSuiteCache suiteCache) {
+        TestFileParser.TestFileResult fileResult;
+        try {
+            fileResult = suiteCache.get(testFilePath);
+        } catch (IOException e) {
+            return fileFailure("Failed to read test file: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return fileFailure("Invalid test file format: " + e.getMessage());
+        }
+        return runTests(automaton, testFilePath, fileResult, DEFAULT_TIMEOUT_MS, null);
+    }
+
+    private static TestResult fileFailure(String message) {
+        TestResult result = new TestResult();
+        result.addFailure(message);
+        return result;
+    }
+
+    /**
+     * Runs the parsed test cases with a timeout for the entire test suite.
+     */
+    private static TestResult runTests(Automaton automaton, String testFilePath, TestFileParser.TestFileResult fileResult,
+                                       long totalTimeoutMs, TestProgressCallback progressCallback) {
         // Execute entire test suite with timeout
-        Future<TestResult> future = executor.submit(() -> runTestsWithoutTimeout(automaton, testFilePath, progressCallback));
+        Future<TestResult> future = executor.submit(() -> runTestsWithoutTimeout(automaton, testFilePath, fileResult, progressCallback));
         
         try {
             return future.get(totalTimeoutMs, TimeUnit.MILLISECONDS);
@@ -396,30 +443,25 @@ public class TestRunner {
             future.cancel(true);
             // Create a result indicating the entire test suite timed out
             TestResult result = new TestResult();
-            try {
-                TestFileParser.TestFileResult fileResult = TestFileParser.parseTestFile(testFilePath);
-                List<TestCase> testCases = fileResult.getTestCases();
-                result.setTotalTests(testCases.size());
-                result.setMinPoints(fileResult.getMinPoints());
-                result.setMaxPoints(fileResult.getMaxPoints());
-                result.setMaxRegexLength(fileResult.getMaxRegexLength());
-                result.setMaxRules(fileResult.getMaxRules());
-                result.setMaxTransitions(fileResult.getMaxTransitions());
-                result.incrementTimeoutCount();
-                result.addFailure("TIMEOUT: Entire test suite exceeded " + totalTimeoutMs + "ms");
-                
-                // Add a timeout result for each test case
-                for (TestCase testCase : testCases) {
-                    TestCaseResult testResult = new TestCaseResult(
-                        testCase.getInput(), 
-                        testCase.shouldAccept(), 
-                        false, 
-                        "TIMEOUT: Test suite execution exceeded " + totalTimeoutMs + "ms"
-                    );
-                    result.addResult(testResult);
-                }
-            } catch (Exception ex) {
-                result.addFailure("Error parsing test file during timeout: " + ex.getMessage());
+            List<TestCase> testCases = fileResult.getTestCases();
+            result.setTotalTests(testCases.size());
+            result.setMinPoints(fileResult.getMinPoints());
+            result.setMaxPoints(fileResult.getMaxPoints());
+            result.setMaxRegexLength(fileResult.getMaxRegexLength());
+            result.setMaxRules(fileResult.getMaxRules());
+            result.setMaxTransitions(fileResult.getMaxTransitions());
+            result.incrementTimeoutCount();
+            result.addFailure("TIMEOUT: Entire test suite exceeded " + totalTimeoutMs + "ms");
+            
+            // Add a timeout result for each test case
+            for (TestCase testCase : testCases) {
+                TestCaseResult testResult = new TestCaseResult(
+                    testCase.getInput(), 
+                    testCase.shouldAccept(), 
+                    false, 
+                    "TIMEOUT: Test suite execution exceeded " + totalTimeoutMs + "ms"
+                );
+                result.addResult(testResult);
             }
             return result;
         } catch (InterruptedException e) {
@@ -434,131 +476,118 @@ public class TestRunner {
         }
     }
     
-    /**
-     * Runs tests without timeout (used internally by the timeout wrapper)
-     */
-    private static TestResult runTestsWithoutTimeout(Automaton automaton, String testFilePath) {
-        return runTestsWithoutTimeout(automaton, testFilePath, null);
-    }
-    
     /**
      * Runs tests without timeout with progress callback (used internally by the timeout wrapper)
      */
-    private static TestResult runTestsWithoutTimeout(Automaton automaton, String testFilePath, TestProgressCallback progressCallback) {
+    private static TestResult runTestsWithoutTimeout(Automaton automaton, String testFilePath,
+                                                     TestFileParser.TestFileResult fileResult,
+                                                     TestProgressCallback progressCallback) {
         TestResult result = new TestResult();
 
-        try {
-            TestFileParser.TestFileResult fileResult = TestFileParser.parseTestFile(testFilePath);
-            List<TestCase> testCases = fileResult.getTestCases();
-            result.setTotalTests(testCases.size());
-            result.setMinPoints(fileResult.getMinPoints());
-            result.setMaxPoints(fileResult.getMaxPoints());
-            result.setMaxRegexLength(fileResult.getMaxRegexLength());
-            result.setMaxRules(fileResult.getMaxRules());
-            result.setMaxTransitions(fileResult.getMaxTransitions());
+        List<TestCase> testCases = fileResult.getTestCases();
+        result.setTotalTests(testCases.size());
+        result.setMinPoints(fileResult.getMinPoints());
+        result.setMaxPoints(fileResult.getMaxPoints());
+        result.setMaxRegexLength(fileResult.getMaxRegexLength());
+        result.setMaxRules(fileResult.getMaxRules());
+        result.setMaxTransitions(fileResult.getMaxTransitions());
 
-            if (testCases.isEmpty()) {
-                result.addFailure("No test cases found in file: " + testFilePath);
-                return result;
-            }
-
-            int passed = 0;
-            
-            for (int i = 0; i < testCases.size(); i++) {
-                TestCase testCase = testCases.get(i);
-                
-                // Report test started
-                if (progressCallback != null) {
-                    progressCallback.onTestStarted(i + 1, testCases.size(), testCase.getInput());
-                }
-                
-                try {
-                    Automaton.ExecutionResult execResult = automaton.execute(testCase.getInput());
+        if (testCases.isEmpty()) {
+            result.addFailure("No test cases found in file: " + testFilePath);
+            return result;
+        }
 
-                    // Check for validation errors FIRST - invalid automaton should fail all tests
-                    boolean hasValidationError = execResult.getRuntimeMessages().stream()
-                        .anyMatch(msg -> msg.getType() == Automaton.ValidationMessage.ValidationMessageType.ERROR);
+        int passed = 0;
 
-                    if (hasValidationError) {
-                        // Automaton is invalid - stop processing and fail with clear message
-                        String errorMessage = execResult.getRuntimeMessages().stream()
-                            .filter(msg -> msg.getType() == Automaton.ValidationMessage.ValidationMessageType.ERROR)
-                            .map(Automaton.ValidationMessage::getMessage)
-                            .collect(java.util.stream.Collectors.joining(", "));
+        for (int i = 0; i < testCases.size(); i++) {
+            TestCase testCase = testCases.get(i);
+            
+            // Report test started
+            if (progressCallback != null) {
+                progressCallback.onTestStarted(i + 1, testCases.size(), testCase.getInput());
+            }
+            
+            try {
+                Automaton.ExecutionResult execResult = automaton.execute(testCase.getInput());
 
-                        result.addFailure("Automaton validation failed: " + errorMessage);
+                // Check for validation errors FIRST - invalid automaton should fail all tests
+                boolean hasValidationError = execResult.getRuntimeMessages().stream()
+                    .anyMatch(msg -> msg.getType() == Automaton.ValidationMessage.ValidationMessageType.ERROR);
 
-                        // Report test completion with failure
-                        if (progressCallback != null) {
-                            progressCallback.onTestCompleted(i + 1, testCases.size(), testCase.getInput(), false);
-                        }
+                if (hasValidationError) {
+                    // Automaton is invalid - stop processing and fail with clear message
+                    String errorMessage = execResult.getRuntimeMessages().stream()
+                        .filter(msg -> msg.getType() == Automaton.ValidationMessage.ValidationMessageType.ERROR)
+                        .map(Automaton.ValidationMessage::getMessage)
+                        .collect(java.util.stream.Collectors.joining(", "));
 
-                        // Stop processing tests - invalid automaton gets no credit
-                        break;
-                    }
+                    result.addFailure("Automaton validation failed: " + errorMessage);
 
-                    boolean actualAccept = execResult.isAccepted();
-                    boolean expectedAccept = testCase.shouldAccept();
-                    
-                    TestCaseResult testResult = new TestCaseResult(
-                        testCase.getInput(), 
-                        expectedAccept, 
-                        actualAccept, 
-                        execResult.getTrace()
-                    );
-                    
-                    result.addResult(testResult);
-                    
-                    // Count classification metrics
-                    if (expectedAccept && actualAccept) {
-                        result.incrementTruePositives(); // TP: Expected ACCEPT, Got ACCEPT
-                    } else if (!expectedAccept && !actualAccept) {
-                        result.incrementTrueNegatives(); // TN: Expected REJECT, Got REJECT
-                    } else if (!expectedAccept && actualAccept) {
-                        result.incrementFalsePositives(); // FP: Expected REJECT, Got ACCEPT
-                    } else if (expectedAccept && !actualAccept) {
-                        result.incrementFalseNegatives(); // FN: Expected ACCEPT, Got REJECT
-                    }
-                    
-                    if (testResult.isPassed()) {
-                        passed++;
-                    } else {
-                        result.addFailure(String.format("Test %d failed: %s", i + 1, testResult.toString()));
-                    }
-                    
-                    // Report test completed
-                    if (progressCallback != null) {
-                        progressCallback.onTestCompleted(i + 1, testCases.size(), testCase.getInput(), testResult.isPassed());
-                    }
-                    
-                } catch (Exception e) {
-                    String failure = String.format("Test %d error: %s with input '%s': %s", 
-                                                 i + 1, e.getClass().getSimpleName(), testCase.getInput(), e.getMessage());
-                    result.addFailure(failure);
-                    
-                    TestCaseResult testResult = new TestCaseResult(
-                        testCase.getInput(), 
-                        testCase.shouldAccept(), 
-                        false, 
-                        "Error: " + e.getMessage()
-                    );
-                    result.addResult(testResult);
-                    
-                    // Report test completed with error
+                    // Report test completion with failure
                     if (progressCallback != null) {
                         progressCallback.onTestCompleted(i + 1, testCases.size(), testCase.getInput(), false);
                     }
+
+                    // Stop processing tests - invalid automaton gets no credit
+                    break;
+                }
+
+                boolean actualAccept = execResult.isAccepted();
+                boolean expectedAccept = testCase.shouldAccept();
+                
+                TestCaseResult testResult = new TestCaseResult(
+                    testCase.getInput(), 
+                    expectedAccept, 
+                    actualAccept, 
+                    execResult.getTrace()
+                );
+                
+                result.addResult(testResult);
+                
+                // Count classification metrics
+                if (expectedAccept && actualAccept) {
+                    result.incrementTruePositives(); // TP: Expected ACCEPT, Got ACCEPT
+                } else if (!expectedAccept && !actualAccept) {
+                    result.incrementTrueNegatives(); // TN: Expected REJECT, Got REJECT
+                } else if (!expectedAccept && actualAccept) {
+                    result.incrementFalsePositives(); // FP: Expected REJECT, Got ACCEPT
+                } else if (expectedAccept && !actualAccept) {
+                    result.incrementFalseNegatives(); // FN: Expected ACCEPT, Got REJECT
+                }
+                
+                if (testResult.isPassed()) {
+                    passed++;
+                } else {
+                    result.addFailure(String.format("Test %d failed: %s", i + 1, testResult.toString()));
+                }
+                
+                // Report test completed
+                if (progressCallback != null) {
+                    progressCallback.onTestCompleted(i + 1, testCases.size(), testCase.getInput(), testResult.isPassed());
+                }
+                
+            } catch (Exception e) {
+                String failure = String.format("Test %d error: %s with input '%s': %s", 
+                                             i + 1, e.getClass().getSimpleName(), testCase.getInput(), e.getMessage());
+                result.addFailure(failure);
+                
+                TestCaseResult testResult = new TestCaseResult(
+                    testCase.getInput(), 
+                    testCase.shouldAccept(), 
+                    false, 
+                    "Error: " + e.getMessage()
+                );
+                result.addResult(testResult);
+                
+                // Report test completed with error
+                if (progressCallback != null) {
+                    progressCallback.onTestCompleted(i + 1, testCases.size(), testCase.getInput(), false);
                 }
             }
-            
-            result.setPassedTests(passed);
-            
-        } catch (IOException e) {
-            result.addFailure("Failed to read test file: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            result.addFailure("Invalid test file format: " + e.getMessage());
         }
         
+        result.setPassedTests(passed);
+        
         return result;
     }
 
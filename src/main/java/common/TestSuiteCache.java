@@ -0,0 +1,228 @@
+package common;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Thread-safe cache of parsed test files, shared by everything that grades against the same
+ * reference suites.
+ * <p>
+ * Entries are keyed by canonical path and remember the modification time and size of the file
+ * they were parsed from; a file that changed on disk is parsed again. When several threads ask
+ * for the same file at once it is parsed only once, and a file that fails to parse is not cached.
+ * </p>
+ * <p>
+ * The test cases are stored in a compact immutable table (all inputs in one string plus offsets
+ * and a bit set of expected verdicts) instead of one object per case. The cache keeps an estimate
+ * of the memory these tables use and evicts the least recently used suites when the estimate
+ * exceeds its budget; a suite larger than the whole budget is returned but not kept.
+ * </p>
+ */
+public class TestSuiteCache {
+
+    /**
+     * Default memory budget for cached suites (64 MB)
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long estimatedBytes;
+
+    /**
+     * A cached suite, valid for one version of the file.
+     */
+    private static class Entry {
+        final long lastModified;
+        final long length;
+        final FutureTask<TestFileParser.TestFileResult> task;
+        long bytes;
+
+        Entry(String path, long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.task = new FutureTask<>(() -> compact(TestFileParser.parseTestFile(path)));
+        }
+
+        boolean matches(long lastModified, long length) {
+            return this.lastModified == lastModified && this.length == length;
+        }
+    }
+
+    public TestSuiteCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes memory budget for the cached test cases, in estimated bytes
+     */
+    public TestSuiteCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the parsed test file, parsing it only if it is not cached or changed since.
+     *
+     * @param testFilePath path to the test file
+     * @return the parsed file; its test case list is immutable
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file format is invalid
+     */
+    public TestFileParser.TestFileResult get(String testFilePath) throws IOException {
+        File file = new File(testFilePath);
+        String key = file.getCanonicalPath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null || !entry.matches(lastModified, length)) {
+                if (entry != null) {
+                    remove(key, entry);
+                }
+                entry = new Entry(key, lastModified, length);
+                entries.put(key, entry);
+                load = true;
+            }
+        }
+
+        if (load) {
+            entry.task.run();
+        }
+        try {
+            TestFileParser.TestFileResult result = entry.task.get();
+            if (load) {
+                account(key, entry, ((TestCaseTable) result.getTestCases()).estimatedBytes());
+            }
+            return result;
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                remove(key, entry);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for test file: " + testFilePath, e);
+        }
+    }
+
+    /**
+     * Records the size of a freshly parsed suite and evicts least recently used suites over budget.
+     */
+    private synchronized void account(String key, Entry entry, long bytes) {
+        if (entries.get(key) != entry) {
+            return; // replaced or evicted meanwhile
+        }
+        entry.bytes = bytes;
+        estimatedBytes += bytes;
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (estimatedBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getValue().task.isDone()) {
+                estimatedBytes -= eldest.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            estimatedBytes -= entry.bytes;
+        }
+    }
+
+    /**
+     * @return the number of cached suites
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated memory used by the cached test cases, in bytes
+     */
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    /**
+     * Copies a parsed file into its compact form.
+     */
+    static TestFileParser.TestFileResult compact(TestFileParser.TestFileResult file) {
+        return new TestFileParser.TestFileResult(new TestCaseTable(file.getTestCases()),
+            file.getMinPoints(), file.getMaxPoints(), file.getMaxRegexLength(), file.getTimeout(),
+            file.getMaxRules(), file.getMaxTransitions());
+    }
+
+    /**
+     * Immutable list of test cases stored as one string of concatenated inputs. Elements are
+     * created on access.
+     */
+    static final class TestCaseTable extends AbstractList<TestCase> implements RandomAccess {
+        private final String inputs;
+        private final int[] offsets;
+        private final BitSet accepts;
+
+        TestCaseTable(List<TestCase> testCases) {
+            StringBuilder sb = new StringBuilder();
+            offsets = new int[testCases.size() + 1];
+            accepts = new BitSet(testCases.size());
+            for (int i = 0; i < testCases.size(); i++) {
+                TestCase testCase = testCases.get(i);
+                sb.append(testCase.getInput());
+                offsets[i + 1] = sb.length();
+                accepts.set(i, testCase.shouldAccept());
+            }
+            inputs = sb.toString();
+        }
+
+        @Override
+        public TestCase get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return new TestCase(inputs.substring(offsets[index], offsets[index + 1]), accepts.get(index));
+        }
+
+        @Override
+        public int size() {
+            return offsets.length - 1;
+        }
+
+        /**
+         * Estimated heap size: two bytes per input character, the offsets, the verdict bits and
+         * a small constant for the object headers.
+         */
+        long estimatedBytes() {
+            return 2L * inputs.length() + 4L * offsets.length + accepts.size() / 8 + 96;
+        }
+    }
+}
@@ -1,35 +1,71 @@
 package grader;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 /**
  * Complete exam grading system in pure Java.
  * Extracts ZIPs, grades all students using reference test cases, generates CSV and HTML reports.
  *
- * Usage: java -cp CS410-Exam.jar grader.BatchGrader <exam_folder> <test_cases_folder> <output_folder>
+ * Usage: java -cp CS410-Exam.jar grader.BatchGrader <exam_folder> <test_cases_folder> <output_folder> [--equivalence] [--workers N]
+ *
+ * Every (student, question) pair is graded as a separate task on a pool of worker threads,
+ * one per processor by default. Results are collected in sorted student order, so the reports
+ * do not depend on the number of workers.
  */
 public class BatchGrader {
 
     private static final String[] QUESTION_IDS = {"Q1a", "Q1b", "Q2a", "Q2b", "Q3a", "Q3b"};
 
     public static void main(String[] args) {
-        if (args.length != 3) {
-            System.err.println("Usage: java grader.BatchGrader <exam_folder> <test_cases_folder> <output_folder>");
+        boolean equivalenceMode = false;
+        int workers = Runtime.getRuntime().availableProcessors();
+        boolean validArgs = args.length >= 3;
+        for (int i = 3; i < args.length && validArgs; i++) {
+            if ("--equivalence".equals(args[i])) {
+                equivalenceMode = true;
+            } else if ("--workers".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    workers = Integer.parseInt(args[++i]);
+                    validArgs = workers > 0;
+                } catch (NumberFormatException e) {
+                    validArgs = false;
+                }
+            } else {
+                validArgs = false;
+            }
+        }
+
+        if (!validArgs) {
+            System.err.println("Usage: java grader.BatchGrader <exam_folder> <test_cases_folder> <output_folder> [--equivalence] [--workers N]");
             System.err.println("Example: java grader.BatchGrader \"exams/CS410 Mock Exam\" \"reference_tests\" \"grading_results\"");
             System.err.println();
             System.err.println("Arguments:");
             System.err.println("  exam_folder       - Folder containing student submissions");
             System.err.println("  test_cases_folder - Folder containing reference test cases (*.test files)");
             System.err.println("  output_folder     - Folder where results will be saved");
+            System.err.println("  --equivalence     - Grade DFA/NFA answers against the compiled reference instead of running every test");
+            System.err.println("  --workers N       - Number of questions graded in parallel (default: number of processors)");
             System.exit(1);
         }
 
+        if (workers > Runtime.getRuntime().availableProcessors()) {
+            System.err.println("Warning: " + workers + " workers on " + Runtime.getRuntime().availableProcessors()
+                    + " processors; test suite timeouts are wall-clock times and may expire under load");
+        }
+
         String examFolder = args[0];
         String testCasesFolder = args[1];
         String outputFolder = args[2];
@@ -39,47 +75,84 @@ public class BatchGrader {
         System.out.println("======================================================================");
         System.out.println();
 
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
         try {
-            // Step 1: Extract ZIP files
-            int extracted = extractZipFiles(examFolder);
-            System.out.println("Extracted " + extracted + " ZIP files\n");
-
-            // Step 2: Fix nested folders
-            int fixed = fixNestedFolders(examFolder);
-            if (fixed > 0) {
-                System.out.println("Fixed " + fixed + " nested folder structures\n");
-            }
-
-            // Step 3: Grade all students
-            System.out.println("Starting batch grading...");
-            System.out.println();
-            List<StudentResult> results = gradeAllStudents(examFolder, testCasesFolder);
-
-            // Step 4: Generate reports
-            System.out.println("\nGenerating reports...");
-            generateCsvReport(results, outputFolder);
-            generateHtmlReports(results, outputFolder);
-            generateIndividualPdfReports(results, outputFolder);
-
-            System.out.println("\n======================================================================");
-            System.out.println("Grading complete! All done! 🎉");
-            System.out.println("======================================================================");
-            System.out.println("\nResults saved to: " + outputFolder + "/");
-            System.out.println("  - CSV summary: " + outputFolder + "/grading_summary.csv");
-            System.out.println("  - HTML reports: " + outputFolder + "/reports/");
-            System.out.println("  - Question PDFs: " + outputFolder + "/question_pdfs/");
-
+            runBatch(examFolder, testCasesFolder, outputFolder, equivalenceMode, pool, workers);
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            pool.shutdownNow();
         }
     }
 
     /**
-     * Extract all ZIP files in the exam folder
+     * Run the whole pipeline for one exam: extract, grade, and write all reports to the output folder.
+     * The pool is used for every parallel step and left running, so a long-lived caller such as
+     * {@link GradingService} can keep its threads (and their warmed-up Graphviz engines) between runs.
+     *
+     * @param workers the number of threads in the pool, for display
      */
-    private static int extractZipFiles(String examFolder) throws IOException {
+    static void runBatch(String examFolder, String testCasesFolder, String outputFolder, boolean equivalenceMode,
+                         ExecutorService pool, int workers) throws IOException, InterruptedException {
+        // Step 1: Extract ZIP files
+        int extracted = extractZipFiles(examFolder, pool);
+        System.out.println("Extracted " + extracted + " ZIP files\n");
+
+        // Step 2: Fix nested folders
+        int fixed = fixNestedFolders(examFolder);
+        if (fixed > 0) {
+            System.out.println("Fixed " + fixed + " nested folder structures\n");
+        }
+
+        // Step 3: Grade all students
+        System.out.println("Starting batch grading with " + workers + " worker thread(s)...");
+        System.out.println();
+        List<StudentResult> results;
+        try (ResultJournal journal = ResultJournal.open(outputFolder)) {
+            results = gradeAllStudents(examFolder, testCasesFolder, equivalenceMode, pool, journal);
+        }
+
+        // Step 4: Generate reports, skipping pages and PDFs whose results did not change
+        System.out.println("\nGenerating reports...");
+        List<DuplicateCluster> duplicates = findDuplicateClusters(results);
+        ReportManifest manifest = ReportManifest.load(outputFolder);
+        try {
+            generateReports(results, duplicates, outputFolder, pool, manifest);
+            generateDuplicateReport(duplicates, outputFolder);
+            generateIndividualPdfReports(results, outputFolder, pool, manifest);
+        } finally {
+            manifest.save();
+        }
+
+        System.out.println("\n======================================================================");
+        System.out.println("Grading complete! All done! 🎉");
+        System.out.println("======================================================================");
+        System.out.println("\nResults saved to: " + outputFolder + "/");
+        System.out.println("  - CSV summary: " + outputFolder + "/grading_summary.csv");
+        System.out.println("  - Duplicate submissions: " + outputFolder + "/duplicate_submissions.csv");
+        System.out.println("  - HTML reports: " + outputFolder + "/reports/");
+        System.out.println("  - Question statistics: " + outputFolder + "/" + ReportRenderer.STATISTICS_FILE);
+        System.out.println("  - Question PDFs: " + outputFolder + "/question_pdfs/");
+    }
+
+    /**
+     * Name of the file recording which archive a student folder was extracted from
+     */
+    private static final String ZIP_SIGNATURE_FILE = ".zip_signature";
+
+    /**
+     * Extract all ZIP files in the exam folder, several archives at a time.
+     * <p>
+     * An archive is extracted into a hidden staging folder that is moved into place once complete,
+     * so an interrupted run never leaves a half-extracted student folder. The size and CRC of every
+     * entry are recorded next to the extracted files; an archive whose entries are unchanged is not
+     * extracted again, while a changed archive replaces its folder. Folders that were not extracted
+     * by the grader are left alone.
+     * </p>
+     */
+    private static int extractZipFiles(String examFolder, ExecutorService pool) throws IOException, InterruptedException {
         File examDir = new File(examFolder);
         File[] zipFiles = examDir.listFiles((dir, name) -> name.endsWith(".zip"));
 
@@ -88,50 +161,119 @@ public class BatchGrader {
             return 0;
         }
 
+        Arrays.sort(zipFiles, Comparator.comparing(File::getName));
         System.out.println("Found " + zipFiles.length + " ZIP files to extract...");
-        int extracted = 0;
 
+        List<Future<String>> outcomes = new ArrayList<>();
         for (File zipFile : zipFiles) {
-            String studentName = zipFile.getName().replace(".zip", "");
-            File extractDir = new File(examDir, studentName);
+            outcomes.add(pool.submit(() -> extractIfChanged(zipFile, examDir)));
+        }
 
-            if (extractDir.exists()) {
-                System.out.println("  Skipping " + studentName + " (already extracted)");
-                continue;
+        // Report in archive order, independent of completion order
+        int extracted = 0;
+        for (int i = 0; i < zipFiles.length; i++) {
+            String studentName = zipFiles[i].getName().replace(".zip", "");
+            try {
+                String outcome = outcomes.get(i).get();
+                System.out.println("  " + outcome + ": " + studentName);
+                if (outcome.startsWith("Extracted")) {
+                    extracted++;
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.err.println("  Failed to extract " + studentName + ": " + cause.getMessage());
             }
-
-            extractZip(zipFile, extractDir);
-            System.out.println("  Extracted: " + studentName);
-            extracted++;
         }
-
         return extracted;
     }
 
     /**
-     * Extract a single ZIP file
+     * Extract one archive unless its folder is already up to date.
+     *
+     * @return a short description of what was done
      */
-    private static void extractZip(File zipFile, File destDir) throws IOException {
-        destDir.mkdirs();
-
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile))) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                File newFile = new File(destDir, entry.getName());
-
-                if (entry.isDirectory()) {
-                    newFile.mkdirs();
-                } else {
-                    newFile.getParentFile().mkdirs();
-                    try (FileOutputStream fos = new FileOutputStream(newFile)) {
-                        byte[] buffer = new byte[1024];
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
-                        }
-                    }
+    static String extractIfChanged(File zipFile, File examDir) throws IOException {
+        String studentName = zipFile.getName().replace(".zip", "");
+        Path destDir = examDir.toPath().resolve(studentName);
+        Path signatureFile = destDir.resolve(ZIP_SIGNATURE_FILE);
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            String signature = zipSignature(zip);
+            if (Files.isDirectory(destDir)) {
+                if (!Files.exists(signatureFile)) {
+                    return "Skipped (already extracted)";
+                }
+                if (signature.equals(new String(Files.readAllBytes(signatureFile), StandardCharsets.UTF_8))) {
+                    return "Skipped (unchanged)";
+                }
+            }
+
+            Path staging = examDir.toPath().resolve("." + studentName + ".partial");
+            deleteRecursively(staging);
+            try {
+                extractZip(zip, staging);
+                Files.write(staging.resolve(ZIP_SIGNATURE_FILE), signature.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                deleteRecursively(staging);
+                throw e;
+            }
+
+            boolean replaced = Files.exists(destDir);
+            deleteRecursively(destDir);
+            Files.move(staging, destDir);
+            return replaced ? "Extracted (archive changed)" : "Extracted";
+        }
+    }
+
+    /**
+     * Extract every entry of an archive below a folder, rejecting entries that would be written
+     * outside of it.
+     */
+    static void extractZip(ZipFile zip, Path destDir) throws IOException {
+        Path root = destDir.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            Path target = root.resolve(entry.getName()).normalize();
+            if (!target.startsWith(root) || target.equals(root)) {
+                throw new IOException("Entry outside of the extraction folder: " + entry.getName());
+            }
+
+            if (entry.isDirectory()) {
+                Files.createDirectories(target);
+            } else {
+                Files.createDirectories(target.getParent());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
                 }
-                zis.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Name, size and CRC of every entry, read from the archive's central directory.
+     */
+    private static String zipSignature(ZipFile zip) {
+        StringBuilder sb = new StringBuilder();
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            sb.append(entry.getName()).append('\t').append(entry.getSize())
+              .append('\t').append(Long.toHexString(entry.getCrc())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (java.util.stream.Stream<Path> walk = Files.walk(path)) {
+            List<Path> paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path p : paths) {
+                Files.delete(p);
             }
         }
     }
@@ -174,9 +316,14 @@ public class BatchGrader {
     }
 
     /**
-     * Grade all students
+     * Grade all students, running every (student, question) pair as a task on a worker pool.
+     * Pairs whose submission and reference suite are unchanged since they were journaled are taken
+     * from the journal; every newly graded pair is appended to it as soon as it completes.
+     * Results are returned in sorted student order regardless of completion order.
      */
-    private static List<StudentResult> gradeAllStudents(String examFolder, String testCasesFolder) {
+    private static List<StudentResult> gradeAllStudents(String examFolder, String testCasesFolder,
+                                                        boolean equivalenceMode, ExecutorService pool,
+                                                        ResultJournal journal) throws InterruptedException, IOException {
         File examDir = new File(examFolder);
         File[] studentFolders = examDir.listFiles(File::isDirectory);
 
@@ -190,64 +337,207 @@ public class BatchGrader {
                 .collect(Collectors.toList());
 
         System.out.println("Found " + folders.size() + " student folders");
+
+        String[] suiteHashes = new String[QUESTION_IDS.length];
+        for (int q = 0; q < QUESTION_IDS.length; q++) {
+            suiteHashes[q] = ResultJournal.suiteHash(new File(testCasesFolder), QUESTION_IDS[q], equivalenceMode);
+        }
+
+        // Look up every pair in the journal first, so progress only counts what is left to grade
+        ExamGrader.GradingResult[][] journaled = new ExamGrader.GradingResult[folders.size()][QUESTION_IDS.length];
+        String[][] submissionHashes = new String[folders.size()][QUESTION_IDS.length];
+        int pendingStudents = 0;
+        int pendingQuestions = 0;
+        for (int i = 0; i < folders.size(); i++) {
+            int pending = 0;
+            for (int q = 0; q < QUESTION_IDS.length; q++) {
+                submissionHashes[i][q] = ResultJournal.submissionHash(folders.get(i), QUESTION_IDS[q]);
+                journaled[i][q] = journal.get(folders.get(i).getName(), QUESTION_IDS[q], submissionHashes[i][q], suiteHashes[q]);
+                if (journaled[i][q] == null) {
+                    pending++;
+                }
+            }
+            pendingQuestions += pending;
+            if (pending > 0) {
+                pendingStudents++;
+            }
+        }
+
+        int total = folders.size() * QUESTION_IDS.length;
+        if (pendingQuestions < total) {
+            System.out.println("Resuming: " + (total - pendingQuestions) + " of " + total
+                    + " answers unchanged since they were graded (" + ResultJournal.FILE_NAME + ")");
+        }
         System.out.println();
 
+        GradingProgress progress = new GradingProgress(pendingStudents, pendingQuestions);
         List<StudentResult> results = new ArrayList<>();
-        long startTime = System.currentTimeMillis();
-        int completed = 0;
-
-        for (File studentFolder : folders) {
-            StudentResult result = gradeStudent(studentFolder, testCasesFolder);
-            results.add(result);
+        List<List<Future<ExamGrader.GradingResult>>> futures = new ArrayList<>();
+        for (int i = 0; i < folders.size(); i++) {
+            File studentFolder = folders.get(i);
+            int pending = 0;
+            for (ExamGrader.GradingResult r : journaled[i]) {
+                if (r == null) pending++;
+            }
+            AtomicInteger remaining = new AtomicInteger(pending);
+            List<Future<ExamGrader.GradingResult>> studentFutures = new ArrayList<>();
+            for (int q = 0; q < QUESTION_IDS.length; q++) {
+                if (journaled[i][q] != null) {
+                    journaled[i][q].studentFolder = studentFolder.getPath();
+                    studentFutures.add(CompletableFuture.completedFuture(journaled[i][q]));
+                    continue;
+                }
+                String questionId = QUESTION_IDS[q];
+                String submissionHash = submissionHashes[i][q];
+                String suiteHash = suiteHashes[q];
+                studentFutures.add(pool.submit(() -> {
+                    try {
+                        ExamGrader.GradingResult graded = ExamGrader.gradeQuestion(
+                                studentFolder.getPath(), questionId, testCasesFolder, equivalenceMode);
+                        try {
+                            journal.append(studentFolder.getName(), questionId, submissionHash, suiteHash, graded);
+                        } catch (IOException e) {
+                            System.err.println("Warning: could not journal " + studentFolder.getName() + " "
+                                    + questionId + ": " + e.getMessage());
+                        }
+                        return graded;
+                    } finally {
+                        progress.questionCompleted(remaining.decrementAndGet() == 0);
+                    }
+                }));
+            }
+            futures.add(studentFutures);
+        }
 
-            completed++;
-            if (completed % 5 == 0 || completed == folders.size()) {
-                long elapsed = System.currentTimeMillis() - startTime;
-                double avgTime = elapsed / (double) completed;
-                long remaining = (long) (avgTime * (folders.size() - completed));
-                System.out.printf("Progress: %d/%d students (%.1f%%) - Est. remaining: %d seconds%n",
-                        completed, folders.size(),
-                        100.0 * completed / folders.size(),
-                        remaining / 1000);
+        for (int i = 0; i < folders.size(); i++) {
+            StudentResult result = new StudentResult();
+            result.studentName = folders.get(i).getName();
+            result.studentFolder = folders.get(i).getPath();
+            for (int q = 0; q < QUESTION_IDS.length; q++) {
+                result.questions.add(collect(futures.get(i).get(q), result.studentFolder, QUESTION_IDS[q]));
             }
+            results.add(result);
         }
 
-        long totalTime = System.currentTimeMillis() - startTime;
-        System.out.printf("\nGraded %d students in %.1f seconds%n", folders.size(), totalTime / 1000.0);
+        System.out.printf("\nGraded %d students in %.1f seconds%n", folders.size(), progress.elapsedMillis() / 1000.0);
 
         return results;
     }
 
     /**
-     * Grade a single student
+     * Wait for a grading task. A task that failed unexpectedly is reported like a grading error.
      */
-    private static StudentResult gradeStudent(File studentFolder, String testCasesFolder) {
-        StudentResult result = new StudentResult();
-        result.studentName = studentFolder.getName();
-        result.studentFolder = studentFolder.getPath();
+    private static ExamGrader.GradingResult collect(Future<ExamGrader.GradingResult> future,
+                                                    String studentFolder, String questionId) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            ExamGrader.GradingResult failed = new ExamGrader.GradingResult(studentFolder, questionId);
+            Throwable cause = e.getCause();
+            failed.errorMessage = "Error: " + cause.getClass().getSimpleName() + ": " + cause.getMessage();
+            return failed;
+        }
+    }
 
-        for (String questionId : QUESTION_IDS) {
-            ExamGrader.GradingResult gradingResult = ExamGrader.gradeQuestion(
-                    studentFolder.getPath(),
-                    questionId,
-                    testCasesFolder
-            );
-            result.questions.add(gradingResult);
+    /**
+     * Thread-safe progress reporting with throughput and remaining time estimates.
+     * A line is printed every 5 completed students and when the last one completes.
+     */
+    private static class GradingProgress {
+        private final int totalStudents;
+        private final int totalQuestions;
+        private final long startTime = System.currentTimeMillis();
+        private int completedQuestions;
+        private int completedStudents;
+
+        GradingProgress(int totalStudents, int totalQuestions) {
+            this.totalStudents = totalStudents;
+            this.totalQuestions = totalQuestions;
         }
 
-        return result;
+        synchronized void questionCompleted(boolean studentCompleted) {
+            completedQuestions++;
+            if (!studentCompleted) {
+                return;
+            }
+            completedStudents++;
+            if (completedStudents % 5 == 0 || completedStudents == totalStudents) {
+                long elapsed = elapsedMillis();
+                double perSecond = completedQuestions * 1000.0 / Math.max(1, elapsed);
+                long remaining = (long) ((totalQuestions - completedQuestions) / Math.max(perSecond, 1e-9));
+                System.out.printf("Progress: %d/%d students (%.1f%%) - %.1f questions/s - Est. remaining: %d seconds%n",
+                        completedStudents, totalStudents,
+                        100.0 * completedStudents / totalStudents,
+                        perSecond, remaining);
+            }
+        }
+
+        long elapsedMillis() {
+            return System.currentTimeMillis() - startTime;
+        }
     }
 
     /**
-     * Generate CSV summary report
+     * Group students whose answers to a question have the same canonical form. Groups of two or
+     * more students are returned by question and then by first student.
      */
-    private static void generateCsvReport(List<StudentResult> results, String outputFolder) throws IOException {
+    static List<DuplicateCluster> findDuplicateClusters(List<StudentResult> results) {
+        List<DuplicateCluster> clusters = new ArrayList<>();
+        for (int q = 0; q < QUESTION_IDS.length; q++) {
+            Map<String, DuplicateCluster> byHash = new LinkedHashMap<>();
+            for (StudentResult student : results) {
+                ExamGrader.GradingResult answer = student.questions.get(q);
+                if (answer.canonicalHash == null || !answer.success) {
+                    continue;
+                }
+                DuplicateCluster cluster = byHash.computeIfAbsent(answer.canonicalHash, h -> new DuplicateCluster(answer));
+                cluster.students.add(student.studentName);
+            }
+            for (DuplicateCluster cluster : byHash.values()) {
+                if (cluster.students.size() > 1) {
+                    clusters.add(cluster);
+                }
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Write the groups of identical answers, for spotting default templates and copied answers
+     */
+    private static void generateDuplicateReport(List<DuplicateCluster> clusters, String outputFolder) throws IOException {
+        File csvFile = new File(outputFolder, "duplicate_submissions.csv");
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8))) {
+            writer.println("Question,Count,Score,Max,Students");
+            for (DuplicateCluster cluster : clusters) {
+                writer.printf("%s,%d,%.1f,%d,\"%s\"\n", cluster.questionId, cluster.students.size(),
+                        cluster.score, cluster.maxPoints, String.join("; ", cluster.students));
+            }
+        }
+
+        System.out.println("Duplicate report saved: " + csvFile.getPath() + " (" + clusters.size() + " groups)");
+    }
+
+    /**
+     * Generate the CSV summary, the per-student HTML reports and the question statistics page in
+     * one pass over the results. CSV rows and statistics are written on this thread while the HTML
+     * pages are rendered on the worker pool; pages whose results are unchanged since they were
+     * written are kept.
+     */
+    static void generateReports(List<StudentResult> results, List<DuplicateCluster> duplicates,
+                                String outputFolder, ExecutorService pool,
+                                ReportManifest manifest) throws IOException, InterruptedException {
         File resultsDir = new File(outputFolder);
-        resultsDir.mkdirs();
+        File reportsDir = new File(resultsDir, "reports");
+        reportsDir.mkdirs();
 
         File csvFile = new File(resultsDir, "grading_summary.csv");
+        ReportRenderer renderer = new ReportRenderer(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        List<Future<?>> pages = new ArrayList<>();
+        List<String> pageStudents = new ArrayList<>();
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(csvFile))) {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8))) {
             // Header
             writer.print("Student");
             for (String qid : QUESTION_IDS) {
@@ -257,198 +547,123 @@ public class BatchGrader {
 
             // Each student
             for (StudentResult student : results) {
-                writer.print(student.studentName);
-
-                double total = 0;
-                int totalMaxPoints = 0;
-                StringBuilder notes = new StringBuilder();
-
-                for (ExamGrader.GradingResult q : student.questions) {
-                    double score = q.score != null ? q.score : 0.0;
-                    writer.printf(",%.1f", score);
-                    total += score;
-                    totalMaxPoints += (q.maxPoints != null ? q.maxPoints : 10);
-
-                    // Track length violations for notes column
-                    if (q.regexLengthViolation != null && q.regexLengthViolation) {
-                        if (notes.length() > 0) notes.append("; ");
-                        notes.append(q.questionId).append(" LENGTH VIOLATION (")
-                             .append(q.actualRegexLength).append("/").append(q.maxAllowedRegexLength).append(")");
-                    }
+                File htmlFile = new File(reportsDir, student.studentName + ".html");
+                String inputs = ReportManifest.studentInputs(student);
+                if (!manifest.isCurrent(htmlFile, inputs)) {
+                    pages.add(pool.submit(() -> {
+                        renderer.writeStudentReport(student, htmlFile.toPath());
+                        manifest.record(htmlFile, inputs);
+                        return null;
+                    }));
+                    pageStudents.add(student.studentName);
                 }
-
-                writer.printf(",%.1f,%d,\"%s\"\n", total, totalMaxPoints, notes.toString());
+                renderer.addToStatistics(student);
+                writeCsvRow(writer, student, duplicates);
             }
         }
-
         System.out.println("CSV report saved: " + csvFile.getPath());
-    }
 
-    /**
-     * Generate HTML reports for all students
-     */
-    private static void generateHtmlReports(List<StudentResult> results, String outputFolder) throws IOException {
-        File reportsDir = new File(outputFolder, "reports");
-        reportsDir.mkdirs();
-
-        for (StudentResult student : results) {
-            File htmlFile = new File(reportsDir, student.studentName + ".html");
-            generateStudentHtml(student, htmlFile);
+        int failed = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            try {
+                pages.get(i).get();
+            } catch (ExecutionException e) {
+                failed++;
+                System.err.println("Failed to write HTML report for " + pageStudents.get(i) + ": "
+                        + e.getCause().getMessage());
+            }
         }
+        System.out.println("Generated " + (pages.size() - failed) + " HTML reports in: " + reportsDir.getPath()
+                + (pages.size() < results.size() ? " (" + (results.size() - pages.size()) + " unchanged)" : ""));
 
-        System.out.println("Generated " + results.size() + " HTML reports in: " + reportsDir.getPath());
+        File statisticsFile = new File(resultsDir, ReportRenderer.STATISTICS_FILE);
+        renderer.writeStatistics(statisticsFile.toPath());
+        System.out.println("Question statistics saved: " + statisticsFile.getPath());
     }
 
     /**
-     * Generate question-based PDF reports with all students' answers sorted by grade
+     * Write one student's CSV row: scores, total, and notes on length violations and identical answers
      */
-    private static void generateIndividualPdfReports(List<StudentResult> results, String outputFolder) throws IOException {
-        StudentPdfExporter.exportQuestionPdfs(results, outputFolder);
-    }
+    private static void writeCsvRow(PrintWriter writer, StudentResult student, List<DuplicateCluster> duplicates) {
+        writer.print(student.studentName);
 
-    /**
-     * Generate HTML report for a single student (email-friendly table layout)
-     */
-    private static void generateStudentHtml(StudentResult student, File outputFile) throws IOException {
-        // Calculate totals
-        double totalScore = 0;
+        double total = 0;
         int totalMaxPoints = 0;
+        StringBuilder notes = new StringBuilder();
+
         for (ExamGrader.GradingResult q : student.questions) {
-            totalScore += (q.score != null ? q.score : 0.0);
+            double score = q.score != null ? q.score : 0.0;
+            writer.printf(",%.1f", score);
+            total += score;
             totalMaxPoints += (q.maxPoints != null ? q.maxPoints : 10);
-        }
-        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html>\n<html>\n<head>\n");
-        html.append("    <meta charset=\"UTF-8\">\n");
-        html.append("    <title>Grading Report - ").append(student.studentName).append("</title>\n");
-        html.append("</head>\n<body style=\"font-family: Arial, sans-serif; margin: 0; padding: 20px; background-color: #f5f5f5;\">\n");
-        html.append("    <table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif;\">\n");
-        html.append("        <tr>\n");
-        html.append("            <td>\n");
-
-        // Header
-        html.append("                <table width=\"100%\" cellpadding=\"20\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #2c3e50; color: white;\">\n");
-        html.append("                    <tr>\n");
-        html.append("                        <td>\n");
-        html.append("                            <h1 style=\"margin: 0 0 10px 0; font-size: 24px; font-family: Arial, sans-serif;\">CS410 Exam Grading Report</h1>\n");
-        html.append("                            <h2 style=\"margin: 0; font-size: 20px; font-weight: normal; font-family: Arial, sans-serif;\">").append(student.studentName).append("</h2>\n");
-        html.append("                            <p style=\"margin: 10px 0 0 0; font-size: 12px; font-family: Arial, sans-serif;\">Generated on ").append(timestamp).append("</p>\n");
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
-        html.append("                </table>\n\n");
-
-        // Summary
-        html.append("                <table width=\"100%\" cellpadding=\"15\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #ecf0f1; margin-top: 20px;\">\n");
-        html.append("                    <tr>\n");
-        html.append("                        <td>\n");
-        html.append("                            <h3 style=\"margin: 0 0 10px 0; font-family: Arial, sans-serif;\">Overall Score</h3>\n");
-        html.append("                            <p style=\"margin: 0; font-size: 20px; font-weight: bold; font-family: Arial, sans-serif;\">");
-        html.append(String.format("%.1f / %d", totalScore, totalMaxPoints));
-        html.append("</p>\n");
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
-        html.append("                </table>\n\n");
-
-        // Questions table
-        html.append("                <table width=\"100%\" cellpadding=\"10\" cellspacing=\"0\" border=\"1\" style=\"font-family: Arial, sans-serif; margin-top: 20px; border-collapse: collapse; border: 1px solid #bdc3c7;\">\n");
-        html.append("                    <tr style=\"background-color: #34495e; color: white;\">\n");
-        html.append("                        <th style=\"padding: 10px; text-align: left; font-family: Arial, sans-serif;\">Question</th>\n");
-        html.append("                        <th style=\"padding: 10px; text-align: center; width: 100px; font-family: Arial, sans-serif;\">Score</th>\n");
-        html.append("                        <th style=\"padding: 10px; text-align: left; font-family: Arial, sans-serif;\">Details</th>\n");
-        html.append("                    </tr>\n");
-
-        // Each question
-        for (ExamGrader.GradingResult q : student.questions) {
-            html.append(getQuestionHtml(q));
+
+            // Track length violations for notes column
+            if (q.regexLengthViolation != null && q.regexLengthViolation) {
+                if (notes.length() > 0) notes.append("; ");
+                notes.append(q.questionId).append(" LENGTH VIOLATION (")
+                     .append(q.actualRegexLength).append("/").append(q.maxAllowedRegexLength).append(")");
+            }
         }
 
-        html.append("                </table>\n\n");
+        // Identical answers that did not get full marks (correct answers to DFA/NFA questions all coincide)
+        for (DuplicateCluster cluster : duplicates) {
+            if (cluster.score < cluster.maxPoints && cluster.students.contains(student.studentName)) {
+                if (notes.length() > 0) notes.append("; ");
+                notes.append(cluster.questionId).append(" same answer as ").append(cluster.othersThan(student.studentName));
+            }
+        }
 
-        // Footer
-        html.append("                <table width=\"100%\" cellpadding=\"15\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; margin-top: 20px;\">\n");
-        html.append("                    <tr>\n");
-        html.append("                        <td style=\"text-align: center; color: #7f8c8d; font-size: 12px; font-family: Arial, sans-serif;\">\n");
-        html.append("                            <p style=\"margin: 5px 0; font-family: Arial, sans-serif;\">Auto-generated grading report for CS410 Mock Exam</p>\n");
-        html.append("                            <p style=\"margin: 5px 0; font-family: Arial, sans-serif;\">For questions or grade appeals, please contact your instructor</p>\n");
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
-        html.append("                </table>\n\n");
+        writer.printf(",%.1f,%d,\"%s\"\n", total, totalMaxPoints, notes.toString());
+    }
 
-        html.append("            </td>\n");
-        html.append("        </tr>\n");
-        html.append("    </table>\n");
-        html.append("</body>\n</html>\n");
+    /**
+     * Generate question-based PDF reports with all students' answers sorted by grade
+     */
+    static void generateIndividualPdfReports(List<StudentResult> results, String outputFolder,
+                                             ExecutorService pool, ReportManifest manifest)
+            throws IOException, InterruptedException {
+        File pdfDir = new File(outputFolder, "question_pdfs");
+        List<String> changed = new ArrayList<>();
+        Map<String, String> inputs = new HashMap<>();
+        for (String questionId : QUESTION_IDS) {
+            inputs.put(questionId, ReportManifest.questionInputs(questionId, results));
+            if (!manifest.isCurrent(new File(pdfDir, questionId + ".pdf"), inputs.get(questionId))) {
+                changed.add(questionId);
+            }
+        }
+        if (changed.isEmpty()) {
+            System.out.println("Question PDFs unchanged in: " + pdfDir.getPath());
+            return;
+        }
 
-        Files.write(outputFile.toPath(), html.toString().getBytes());
+        for (String questionId : StudentPdfExporter.exportQuestionPdfs(results, outputFolder, pool, changed)) {
+            manifest.record(new File(pdfDir, questionId + ".pdf"), inputs.get(questionId));
+        }
     }
 
-    private static String getQuestionHtml(ExamGrader.GradingResult q) {
-        double score = (q.score != null ? q.score : 0.0);
-        String scoreColor;
-        if (score >= 8) scoreColor = "#27ae60";  // green
-        else if (score >= 4) scoreColor = "#f39c12";  // orange
-        else scoreColor = "#e74c3c";  // red
-
-        StringBuilder html = new StringBuilder();
-        html.append("                    <tr>\n");
-        html.append("                        <td style=\"padding: 10px; font-weight: bold; vertical-align: top;\">").append(q.questionId).append("</td>\n");
-        html.append("                        <td style=\"padding: 10px; text-align: center; background-color: ").append(scoreColor).append("; color: white; font-weight: bold; vertical-align: top;\">");
-        html.append(String.format("%.1f/10", score)).append("</td>\n");
-        html.append("                        <td style=\"padding: 10px; vertical-align: top;\">\n");
-
-        if (!q.success) {
-            html.append("                            <table width=\"100%\" cellpadding=\"5\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #fadbd8;\">\n");
-            html.append("                                <tr>\n");
-            html.append("                                    <td style=\"border-left: 3px solid #e74c3c; padding-left: 10px; font-family: Arial, sans-serif;\">\n");
-            html.append("                                        <strong>Error:</strong> ");
-            html.append(escapeHtml(q.errorMessage != null ? q.errorMessage : "Unknown error"));
-            html.append("\n                                    </td>\n");
-            html.append("                                </tr>\n");
-            html.append("                            </table>\n");
-        } else if (q.regexLengthViolation != null && q.regexLengthViolation) {
-            // Regex length violation warning
-            html.append("                            <table width=\"100%\" cellpadding=\"5\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #fff3cd;\">\n");
-            html.append("                                <tr>\n");
-            html.append("                                    <td style=\"border-left: 3px solid #f39c12; padding-left: 10px; font-family: Arial, sans-serif;\">\n");
-            html.append("                                        <strong>REGEX LENGTH VIOLATION</strong><br>\n");
-            html.append("                                        Your regex exceeds the maximum allowed length.<br><br>\n");
-            html.append("                                        <strong>Actual length:</strong> ").append(q.actualRegexLength).append(" characters<br>\n");
-            html.append("                                        <strong>Maximum allowed:</strong> ").append(q.maxAllowedRegexLength).append(" characters<br>\n");
-            html.append("                                        <strong>Exceeded by:</strong> ").append(q.actualRegexLength - q.maxAllowedRegexLength).append(" characters<br><br>\n");
-            html.append("                                        <em>Note: Length is measured after removing whitespace and normalizing 'eps' to 'ε'.</em>\n");
-            html.append("\n                                    </td>\n");
-            html.append("                                </tr>\n");
-            html.append("                            </table>\n");
-        } else if (q.accuracy != null) {
-            html.append("                            <table cellpadding=\"3\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; font-size: 13px;\">\n");
-            html.append("                                <tr>\n");
-            html.append("                                    <td style=\"padding-right: 15px; font-family: Arial, sans-serif;\"><strong>Accuracy:</strong></td>\n");
-            html.append("                                    <td style=\"font-family: Arial, sans-serif;\">").append(String.format("%.1f%%", q.accuracy)).append("</td>\n");
-            html.append("                                    <td style=\"padding-left: 15px; padding-right: 15px; font-family: Arial, sans-serif;\"><strong>Precision:</strong></td>\n");
-            html.append("                                    <td style=\"font-family: Arial, sans-serif;\">").append(String.format("%.1f%%", q.precision != null ? q.precision : 0.0)).append("</td>\n");
-            html.append("                                </tr>\n");
-            html.append("                                <tr>\n");
-            html.append("                                    <td style=\"padding-right: 15px; font-family: Arial, sans-serif;\"><strong>Recall:</strong></td>\n");
-            html.append("                                    <td style=\"font-family: Arial, sans-serif;\">").append(String.format("%.1f%%", q.recall != null ? q.recall : 0.0)).append("</td>\n");
-            html.append("                                    <td style=\"padding-left: 15px; padding-right: 15px; font-family: Arial, sans-serif;\"><strong>F1 Score:</strong></td>\n");
-            html.append("                                    <td style=\"font-family: Arial, sans-serif;\">").append(String.format("%.1f%%", q.f1Score != null ? q.f1Score : 0.0)).append("</td>\n");
-            html.append("                                </tr>\n");
-            html.append("                            </table>\n");
-        }
-
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
-        return html.toString();
-    }
+    /**
+     * Students with the same canonical answer to one question
+     */
+    static class DuplicateCluster {
+        final String questionId;
+        final double score;
+        final int maxPoints;
+        final List<String> students = new ArrayList<>();
+
+        DuplicateCluster(ExamGrader.GradingResult answer) {
+            this.questionId = answer.questionId;
+            this.score = answer.score != null ? answer.score : 0.0;
+            this.maxPoints = answer.maxPoints != null ? answer.maxPoints : 10;
+        }
 
-    private static String escapeHtml(String text) {
-        return text.replace("&", "&amp;")
-                   .replace("<", "&lt;")
-                   .replace(">", "&gt;")
-                   .replace("\"", "&quot;")
-                   .replace("\n", "<br>");
+        String othersThan(String studentName) {
+            List<String> others = new ArrayList<>(students);
+            others.remove(studentName);
+            if (others.size() <= 3) {
+                return String.join(", ", others);
+            }
+            return String.join(", ", others.subList(0, 3)) + " and " + (others.size() - 3) + " more";
+        }
     }
 
     /**
@@ -0,0 +1,157 @@
+package grader;
+
+import guru.nidi.graphviz.engine.Format;
+import guru.nidi.graphviz.engine.Graphviz;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Thread-safe cache of rendered automaton diagrams, keyed by the hash of their DOT code.
+ * <p>
+ * Identical DOT code (the same answer submitted by several students, or an answer unchanged since
+ * the last run) is rendered once. Rendered PNGs are kept in memory up to a byte budget, least
+ * recently used first out, and written to a folder on disk so that later runs can read them
+ * instead of rendering again. When several threads ask for the same diagram at once it is
+ * rendered only once.
+ * </p>
+ */
+class DiagramCache {
+
+    /**
+     * Default memory budget for rendered diagrams (32 MB)
+     */
+    static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final int WIDTH = 600;
+
+    private final Path folder;
+    private final long maxBytes;
+    private final LinkedHashMap<String, FutureTask<byte[]>> diagrams = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> sizes = new LinkedHashMap<>();
+    private long estimatedBytes;
+    private int rendered;
+
+    /**
+     * @param folder folder for the rendered PNG files, created if missing
+     */
+    DiagramCache(Path folder) throws IOException {
+        this(folder, DEFAULT_MAX_BYTES);
+    }
+
+    DiagramCache(Path folder, long maxBytes) throws IOException {
+        this.folder = folder;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(folder);
+    }
+
+    /**
+     * Returns the PNG rendering of DOT code, rendering it only if it is neither in memory nor on disk.
+     *
+     * @throws IOException if rendering or reading the cached file fails
+     */
+    byte[] get(String dotCode) throws IOException {
+        String key = SubmissionCanonicalizer.sha256(WIDTH + "\n" + dotCode);
+
+        FutureTask<byte[]> task;
+        boolean load = false;
+        synchronized (this) {
+            task = diagrams.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> load(key, dotCode));
+                diagrams.put(key, task);
+                load = true;
+            }
+        }
+
+        if (load) {
+            task.run();
+        }
+        try {
+            byte[] png = task.get();
+            if (load) {
+                account(key, png.length);
+            }
+            return png;
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                diagrams.remove(key, task);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for diagram", e);
+        }
+    }
+
+    private byte[] load(String key, String dotCode) throws IOException {
+        Path file = folder.resolve(key + ".png");
+        if (Files.isRegularFile(file)) {
+            return Files.readAllBytes(file);
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Graphviz.fromString(dotCode)
+                .width(WIDTH)
+                .render(Format.PNG)
+                .toOutputStream(outputStream);
+        byte[] png = outputStream.toByteArray();
+
+        // Write under a temporary name so an interrupted run never leaves a truncated PNG behind
+        Path temp = Files.createTempFile(folder, key, ".tmp");
+        Files.write(temp, png);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (this) {
+            rendered++;
+        }
+        return png;
+    }
+
+    /**
+     * Records the size of a freshly loaded diagram and evicts least recently used ones over budget.
+     */
+    private synchronized void account(String key, long bytes) {
+        if (!diagrams.containsKey(key)) {
+            return;
+        }
+        sizes.put(key, bytes);
+        estimatedBytes += bytes;
+
+        Iterator<Map.Entry<String, FutureTask<byte[]>>> it = diagrams.entrySet().iterator();
+        while (estimatedBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, FutureTask<byte[]>> eldest = it.next();
+            Long size = sizes.get(eldest.getKey());
+            if (eldest.getValue().isDone() && size != null) {
+                estimatedBytes -= size;
+                sizes.remove(eldest.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of diagrams rendered by Graphviz rather than found in the cache
+     */
+    synchronized int getRenderedCount() {
+        return rendered;
+    }
+
+    /**
+     * @return the number of diagrams held in memory
+     */
+    synchronized int size() {
+        return diagrams.size();
+    }
+}
@@ -4,15 +4,23 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import ContextFreeGrammar.CFG;
 import DeterministicFiniteAutomaton.DFA;
+import DeterministicFiniteAutomaton.DFAMinimizer;
 import NondeterministicFiniteAutomaton.NFA;
 import PushDownAutomaton.PDA;
+import RegularExpression.Checker.EquivalenceChecker;
 import RegularExpression.SyntaxTree.SyntaxTree;
 import TuringMachine.TM;
 import common.Automaton;
+import common.CompiledDFA;
+import common.ReferenceSuite;
 import common.TestRunner;
+import common.TestSuiteCache;
 
 /**
  * Command-line tool for grading individual student exam submissions.
@@ -22,6 +30,65 @@ import common.TestRunner;
  */
 public class ExamGrader {
 
+    /**
+     * Submission file extensions, in the order they are looked for
+     */
+    static final String[] AUTOMATON_EXTENSIONS = {".dfa", ".nfa", ".rex", ".pda", ".tm", ".cfg"};
+
+    /**
+     * Extensions of reference automata that may sit next to a test file
+     */
+    static final String[] REFERENCE_EXTENSIONS = {".dfa", ".nfa", ".rex"};
+
+    /**
+     * Parsed reference test files, shared by all students and worker threads
+     */
+    private static final TestSuiteCache testSuites = new TestSuiteCache();
+
+    /**
+     * Content hashes of the reference test files and automata, computed once per version
+     */
+    private static final SuiteHashes suiteHashes = new SuiteHashes();
+
+    /**
+     * Largest number of compiled reference suites kept in memory
+     */
+    private static final int MAX_REFERENCE_SUITES = 64;
+
+    /**
+     * Compiled reference suites for equivalence grading, keyed by canonical test file path.
+     * Only the suite compiled from the current content of the question's files is kept, and the
+     * least recently used test files are evicted beyond {@link #MAX_REFERENCE_SUITES}.
+     */
+    private static final Map<String, CompiledSuite> referenceSuites = Collections.synchronizedMap(
+        new LinkedHashMap<String, CompiledSuite>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledSuite> eldest) {
+                return size() > MAX_REFERENCE_SUITES;
+            }
+        });
+
+    /**
+     * Largest DFA built from a submission or a reference automaton for equivalence grading.
+     * Machines whose determinisation is larger are graded by running the tests instead.
+     */
+    static final int MAX_COMPILED_STATES = 4096;
+
+    private static class CompiledSuite {
+        final String suiteHash;
+        /** null if the reference automaton is too large to compile */
+        final ReferenceSuite suite;
+
+        CompiledSuite(String suiteHash, ReferenceSuite suite) {
+            this.suiteHash = suiteHash;
+            this.suite = suite;
+        }
+    }
+
+    /**
+     * Test results of earlier submissions, reused for submissions with the same canonical form
+     */
+    private static final VerdictCache verdicts = new VerdictCache();
 
     /**
      * Result object for JSON serialization
@@ -55,6 +122,10 @@ public class ExamGrader {
         public Boolean transitionsLimitViolation;
         public Integer actualTransitionsCount;
         public Integer maxAllowedTransitions;
+        public Integer dfaStateCount;
+        public Integer minimalDfaStateCount;
+        public String canonicalHash;
+        public String dotCode;
 
         public GradingResult(String studentFolder, String questionId) {
             this.studentFolder = studentFolder;
@@ -69,7 +140,7 @@ public class ExamGrader {
     /**
      * Helper class to hold detected file information
      */
-    private static class DetectedFile {
+    static class DetectedFile {
         public final File file;
         public final String extension;
 
@@ -87,10 +158,8 @@ public class ExamGrader {
      * @param questionId Question ID (e.g., "Q1a", "Q2b")
      * @return DetectedFile containing the file and extension, or null if not found
      */
-    private static DetectedFile detectAutomatonFile(String studentFolder, String questionId) {
-        String[] extensions = {".dfa", ".nfa", ".rex", ".pda", ".tm", ".cfg"};
-
-        for (String ext : extensions) {
+    static DetectedFile detectAutomatonFile(String studentFolder, String questionId) {
+        for (String ext : AUTOMATON_EXTENSIONS) {
             File file = new File(Paths.get(studentFolder, questionId + ext).toString());
             if (file.exists()) {
                 return new DetectedFile(file, ext);
@@ -101,16 +170,15 @@ public class ExamGrader {
     }
 
     /**
-     * Load and parse an automaton from a file based on its extension.
-     * Follows the same pattern as the UI application.
+     * Read an automaton file, rejecting empty and truncated files.
      *
      * @param file The automaton file
      * @param extension File extension (e.g., ".dfa", ".nfa", ".rex")
-     * @return Successfully parsed Automaton instance
+     * @return the file content
      * @throws IOException if file reading fails
-     * @throws IllegalArgumentException if parsing fails or extension is not supported
+     * @throws IllegalArgumentException if the file is empty or too small
      */
-    private static Automaton loadAutomaton(File file, String extension) throws IOException {
+    private static String readAutomatonFile(File file, String extension) throws IOException {
         // Check file size
         long fileSize = file.length();
         if (fileSize == 0) {
@@ -124,9 +192,19 @@ public class ExamGrader {
                 "File too small (%d bytes, likely incomplete): %s", fileSize, file.getAbsolutePath()));
         }
 
-        // Read file content
-        String content = new String(Files.readAllBytes(file.toPath()));
+        return new String(Files.readAllBytes(file.toPath()));
+    }
 
+    /**
+     * Parse an automaton based on its file extension.
+     * Follows the same pattern as the UI application.
+     *
+     * @param content The automaton file content
+     * @param extension File extension (e.g., ".dfa", ".nfa", ".rex")
+     * @return Successfully parsed Automaton instance
+     * @throws IllegalArgumentException if parsing fails or extension is not supported
+     */
+    private static Automaton loadAutomaton(String content, String extension) {
         // Create automaton instance based on extension (same as UI)
         Automaton automaton;
         switch (extension) {
@@ -170,6 +248,16 @@ public class ExamGrader {
         return parseResult.getAutomaton();
     }
 
+    /**
+     * Forget the memoized suite hashes, so that the next grading run hashes the reference files
+     * again. A long-running grader calls this at the start of every job: the hashes then cover
+     * only the questions of the current job, and an edit that kept a file's modification time
+     * and length is still noticed. Compiled suites are kept, as they are keyed by those hashes.
+     */
+    static void forgetSuiteHashes() {
+        suiteHashes.clear();
+    }
+
     /**
      * Grade a single question for a student
      * @param studentFolder Path to student's submission folder
@@ -177,6 +265,30 @@ public class ExamGrader {
      * @param testCasesFolder Path to reference test cases folder (use reference tests, not student's tests)
      */
     public static GradingResult gradeQuestion(String studentFolder, String questionId, String testCasesFolder) {
+        return gradeQuestion(studentFolder, questionId, testCasesFolder, false);
+    }
+
+    /**
+     * Grade a single question for a student, optionally in equivalence mode.
+     *
+     * In equivalence mode DFA and NFA submissions are compared with the reference suite compiled
+     * into a minimal DFA (see {@link ReferenceSuite}) instead of executing every test case.
+     * Without a reference automaton the counts and the score are the same as running an
+     * exhaustive test file. A reference automaton next to the test file (.dfa, .nfa or .rex) is
+     * authoritative instead: its verdicts override the labels in the file, and when the file does
+     * not list every string up to its longest one, every string over the reference alphabet up to
+     * that length is counted, so totalTests is that string count rather than the number of test
+     * cases. Submissions the suite cannot grade exactly, such as invalid automata or ones missing
+     * alphabet symbols, still run the full test suite. So does a submission when it or the
+     * reference automaton determinises to more than {@link #MAX_COMPILED_STATES} states.
+     *
+     * @param studentFolder Path to student's submission folder
+     * @param questionId Question ID (e.g., "Q1a", "Q2b")
+     * @param testCasesFolder Path to reference test cases folder (use reference tests, not student's tests)
+     * @param equivalenceMode whether to grade DFAs and NFAs by equivalence with the reference
+     */
+    public static GradingResult gradeQuestion(String studentFolder, String questionId, String testCasesFolder,
+                                              boolean equivalenceMode) {
         GradingResult result = new GradingResult(studentFolder, questionId);
 
         try {
@@ -199,10 +311,30 @@ public class ExamGrader {
             }
 
             // Load and parse the automaton (reuses UI logic)
-            Automaton automaton = loadAutomaton(detected.file, detected.extension);
+            String content = readAutomatonFile(detected.file, detected.extension);
+            Automaton automaton = loadAutomaton(content, detected.extension);
+
+            // Diagram source for the reports, taken before the tests run the automaton
+            result.dotCode = dotCode(automaton, content);
+
+            // Submissions with the same canonical form as an earlier one reuse its test result
+            result.canonicalHash = canonicalHash(automaton);
+            String suiteHash = result.canonicalHash == null ? null
+                : suiteHashes.get(new File(testCasesFolder), questionId, equivalenceMode);
 
             // Run tests to get test configuration (including max regex length)
-            TestRunner.TestResult testResult = TestRunner.runTests(automaton, testFilePath);
+            TestRunner.TestResult testResult = suiteHash == null ? null : verdicts.get(result.canonicalHash, suiteHash);
+            if (testResult == null) {
+                if (equivalenceMode && (automaton instanceof DFA || automaton instanceof NFA)) {
+                    testResult = gradeByEquivalence(automaton, testFile, testCasesFolder, questionId);
+                }
+                if (testResult == null) {
+                    testResult = TestRunner.runTests(automaton, testFilePath, testSuites);
+                }
+                if (suiteHash != null) {
+                    verdicts.put(result.canonicalHash, suiteHash, testResult);
+                }
+            }
 
             // For regex files, check length limit BEFORE awarding any points
             if (".rex".equals(detected.extension) && automaton instanceof SyntaxTree) {
@@ -331,6 +463,20 @@ public class ExamGrader {
             result.f1Score = testResult.getF1Score();
             result.detailedReport = testResult.getDetailedReport();
 
+            // Report how far a DFA is from the minimal one (informational, does not affect the score)
+            if (automaton instanceof DFA) {
+                try {
+                    DFAMinimizer.Result minimization = ((DFA) automaton).minimize();
+                    result.dfaStateCount = minimization.getOriginalStateCount();
+                    result.minimalDfaStateCount = minimization.getMinimalStateCount();
+                    result.detailedReport += "\n" + minimization.getSummary() + "\n";
+                } catch (RuntimeException e) {
+                    // The result is already graded; a failed minimization only loses the state counts
+                    System.err.println("Warning: could not minimize " + questionId + " of " + studentFolder
+                            + ": " + e.getMessage());
+                }
+            }
+
         } catch (IOException e) {
             result.errorMessage = "IO Error: " + e.getMessage();
         } catch (Exception e) {
@@ -341,4 +487,85 @@ public class ExamGrader {
         return result;
     }
 
+    /**
+     * Graphviz source of a submission's diagram, or null if it cannot be drawn.
+     */
+    private static String dotCode(Automaton automaton, String content) {
+        try {
+            return automaton.toDotCode(content);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Canonical hash of a submission, or null if it has none or cannot be canonicalized.
+     */
+    private static String canonicalHash(Automaton automaton) {
+        try {
+            return SubmissionCanonicalizer.canonicalHash(automaton);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Grade a DFA or NFA against the compiled reference suite.
+     *
+     * @return the test result, or null if the submission has to be graded by running the tests
+     */
+    private static TestRunner.TestResult gradeByEquivalence(Automaton automaton, File testFile,
+                                                            String testCasesFolder, String questionId) throws IOException {
+        // Invalid automata fail every test with an error message; leave that to the TestRunner
+        boolean invalid = automaton.execute("").getRuntimeMessages().stream()
+            .anyMatch(msg -> msg.getType() == Automaton.ValidationMessage.ValidationMessageType.ERROR);
+        if (invalid) {
+            return null;
+        }
+
+        ReferenceSuite suite = getReferenceSuite(testFile, testCasesFolder, questionId);
+        if (suite == null) {
+            return null;
+        }
+        CompiledDFA student = EquivalenceChecker.compile(automaton, MAX_COMPILED_STATES);
+        if (student == null) {
+            return null;
+        }
+        return suite.canGrade(student) ? suite.grade(student) : null;
+    }
+
+    /**
+     * Compile the reference suite of a question once per version of its files. A reference
+     * automaton next to the test file (same name with a .dfa, .nfa or .rex extension) takes
+     * precedence over the test cases.
+     *
+     * @return the suite, or null if the reference automaton is too large to compile
+     */
+    private static ReferenceSuite getReferenceSuite(File testFile, String testCasesFolder, String questionId)
+            throws IOException {
+        String key = testFile.getCanonicalPath();
+        String suiteHash = suiteHashes.get(new File(testCasesFolder), questionId, true);
+        CompiledSuite compiled = referenceSuites.get(key);
+        if (compiled != null && compiled.suiteHash.equals(suiteHash)) {
+            return compiled.suite;
+        }
+
+        CompiledDFA referenceAutomaton = null;
+        for (String ext : REFERENCE_EXTENSIONS) {
+            File file = new File(Paths.get(testCasesFolder, questionId + ext).toString());
+            if (file.exists()) {
+                referenceAutomaton = EquivalenceChecker.compile(
+                    loadAutomaton(readAutomatonFile(file, ext), ext), MAX_COMPILED_STATES);
+                if (referenceAutomaton == null) {
+                    referenceSuites.put(key, new CompiledSuite(suiteHash, null));
+                    return null;
+                }
+                break;
+            }
+        }
+        ReferenceSuite suite = ReferenceSuite.compile(testSuites.get(testFile.getPath()), referenceAutomaton);
+        referenceSuites.put(key, new CompiledSuite(suiteHash, suite));
+        return suite;
+    }
+
 }
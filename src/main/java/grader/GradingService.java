@@ -0,0 +1,207 @@
+package grader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running grader that takes batch grading jobs from a spool folder.
+ * <p>
+ * A one-off BatchGrader run pays for JVM startup, JIT warm-up and the Graphviz engine every time.
+ * The service pays for them once: jobs run on one persistent worker pool, and the parsed reference
+ * suites, memoized test results and diagram engines stay warm between jobs, so a regrade during
+ * exam review takes seconds. Each cache is bounded, and the hashes of the reference files are
+ * computed again at the start of every job, so a job always grades against the files as they are.
+ * </p>
+ * <p>
+ * A job is a properties file named {@code <name>.job} in the spool folder:
+ * <pre>
+ * exam=exams/CS410 Final
+ * tests=reference_tests
+ * output=grading_results
+ * equivalence=false
+ * </pre>
+ * The service claims it by renaming it to {@code <name>.running}, runs the same pipeline as
+ * BatchGrader, and renames it to {@code <name>.done} or {@code <name>.failed} with the outcome
+ * appended. Jobs run one at a time, oldest first. Results are journaled as they are graded, so a
+ * job that was running when the service stopped is queued again on the next start and resumes.
+ * </p>
+ *
+ * Usage: java -cp CS410-Exam.jar grader.GradingService <spool_folder> [--workers N]
+ */
+public class GradingService {
+
+    static final String JOB = ".job";
+    static final String RUNNING = ".running";
+    static final String DONE = ".done";
+    static final String FAILED = ".failed";
+
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+
+    public static void main(String[] args) {
+        int workers = Runtime.getRuntime().availableProcessors();
+        boolean validArgs = args.length == 1 || (args.length == 3 && "--workers".equals(args[1]));
+        if (validArgs && args.length == 3) {
+            try {
+                workers = Integer.parseInt(args[2]);
+                validArgs = workers > 0;
+            } catch (NumberFormatException e) {
+                validArgs = false;
+            }
+        }
+
+        if (!validArgs) {
+            System.err.println("Usage: java grader.GradingService <spool_folder> [--workers N]");
+            System.err.println();
+            System.err.println("Arguments:");
+            System.err.println("  spool_folder - Folder watched for <name>.job files");
+            System.err.println("  --workers N  - Number of questions graded in parallel (default: number of processors)");
+            System.err.println();
+            System.err.println("Job file (properties): exam=<exam_folder>, tests=<test_cases_folder>,");
+            System.err.println("                       output=<output_folder>, equivalence=true|false (optional)");
+            System.exit(1);
+        }
+
+        File spool = new File(args[0]);
+        if (!spool.isDirectory() && !spool.mkdirs()) {
+            System.err.println("Error: cannot create spool folder " + spool.getPath());
+            System.exit(1);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            requeueInterruptedJobs(spool);
+            System.out.println("Grading service waiting for *" + JOB + " files in " + spool.getAbsolutePath()
+                    + " (" + workers + " worker thread(s), Ctrl+C to stop)");
+
+            while (!Thread.currentThread().isInterrupted()) {
+                File job = claimNextJob(spool);
+                if (job == null) {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                } else {
+                    runJob(job, pool, workers);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue jobs again that were running when the service last stopped.
+     */
+    static void requeueInterruptedJobs(File spool) throws IOException {
+        File[] running = spool.listFiles((dir, name) -> name.endsWith(RUNNING));
+        if (running == null) {
+            return;
+        }
+        for (File job : running) {
+            Files.move(job.toPath(), withSuffix(job, RUNNING, JOB), StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Requeued interrupted job " + job.getName());
+        }
+    }
+
+    /**
+     * Claim the oldest waiting job by renaming it, so that no other service instance takes it too.
+     *
+     * @return the claimed job file, or null if no job is waiting
+     */
+    static File claimNextJob(File spool) {
+        File[] jobs = spool.listFiles((dir, name) -> name.endsWith(JOB));
+        if (jobs == null || jobs.length == 0) {
+            return null;
+        }
+        Arrays.sort(jobs, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+
+        for (File job : jobs) {
+            Path claimed = withSuffix(job, JOB, RUNNING);
+            try {
+                Files.move(job.toPath(), claimed, StandardCopyOption.ATOMIC_MOVE);
+                return claimed.toFile();
+            } catch (IOException e) {
+                // Taken by another instance or removed meanwhile
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Run a claimed job and record its outcome next to it.
+     */
+    static void runJob(File job, ExecutorService pool, int workers) throws IOException, InterruptedException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(job.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        String name = job.getName().substring(0, job.getName().length() - RUNNING.length());
+        System.out.println();
+        System.out.println("======================================================================");
+        System.out.println("Job " + name);
+        System.out.println("======================================================================");
+
+        long start = System.currentTimeMillis();
+        String error = null;
+        try {
+            String exam = required(properties, "exam");
+            String tests = required(properties, "tests");
+            String output = required(properties, "output");
+            if (!new File(exam).isDirectory()) {
+                throw new IllegalArgumentException("Exam folder not found: " + exam);
+            }
+            if (!new File(tests).isDirectory()) {
+                throw new IllegalArgumentException("Test cases folder not found: " + tests);
+            }
+            boolean equivalence = Boolean.parseBoolean(properties.getProperty("equivalence", "false").trim());
+
+            ExamGrader.forgetSuiteHashes();
+            BatchGrader.runBatch(exam, tests, output, equivalence, pool, workers);
+        } catch (IOException | RuntimeException e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            System.err.println("Job " + name + " failed: " + error);
+            e.printStackTrace();
+        }
+
+        double seconds = (System.currentTimeMillis() - start) / 1000.0;
+        properties.setProperty("status", error == null ? "done" : "failed");
+        properties.setProperty("seconds", String.format("%.1f", seconds));
+        if (error != null) {
+            properties.setProperty("error", error);
+        }
+        try (Writer writer = Files.newBufferedWriter(job.toPath(), StandardCharsets.UTF_8)) {
+            properties.store(writer, "CS410 grading job");
+        }
+        Files.move(job.toPath(), withSuffix(job, RUNNING, error == null ? DONE : FAILED),
+                StandardCopyOption.REPLACE_EXISTING);
+        System.out.printf("Job %s %s in %.1f seconds%n", name, error == null ? "done" : "failed", seconds);
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Job has no '" + key + "' folder");
+        }
+        return value.trim();
+    }
+
+    private static Path withSuffix(File file, String oldSuffix, String newSuffix) {
+        String name = file.getName();
+        return file.toPath().resolveSibling(name.substring(0, name.length() - oldSuffix.length()) + newSuffix);
+    }
+}
@@ -0,0 +1,124 @@
+package grader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records which results every generated report was built from, so that a rerun only rewrites the
+ * reports whose results changed.
+ * <p>
+ * A student's HTML page depends on that student's results; a question PDF depends on every
+ * student's result for that question, since answers are ranked by grade. Each report is stored
+ * with a hash of those results. A report is current if the file exists and the hash of its
+ * results is unchanged; otherwise it is generated again and its new hash recorded.
+ * </p>
+ * <p>
+ * File format: one line per report, {@code path TAB hash}, with the path relative to the output
+ * folder. Delete the file to regenerate every report.
+ * </p>
+ */
+class ReportManifest {
+
+    static final String FILE_NAME = "report_manifest.tsv";
+
+    private final Path outputFolder;
+    private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+    private ReportManifest(Path outputFolder) {
+        this.outputFolder = outputFolder.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Loads the manifest of an output folder; a missing or unreadable manifest is empty.
+     */
+    static ReportManifest load(String outputFolder) {
+        ReportManifest manifest = new ReportManifest(Paths.get(outputFolder));
+        Path file = manifest.outputFolder.resolve(FILE_NAME);
+        if (Files.isRegularFile(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.lastIndexOf('\t');
+                    if (tab > 0) {
+                        manifest.hashes.put(line.substring(0, tab), line.substring(tab + 1));
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Warning: could not read " + file + ", regenerating all reports: " + e.getMessage());
+                manifest.hashes.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * @return true if the report exists and was generated from results with this hash
+     */
+    boolean isCurrent(File report, String inputHash) {
+        return report.isFile() && inputHash.equals(hashes.get(key(report)));
+    }
+
+    /**
+     * Records that a report was generated from results with this hash.
+     */
+    void record(File report, String inputHash) {
+        hashes.put(key(report), inputHash);
+    }
+
+    /**
+     * Writes the manifest to the output folder.
+     */
+    void save() throws IOException {
+        Path file = outputFolder.resolve(FILE_NAME);
+        Path temp = outputFolder.resolve(FILE_NAME + ".tmp");
+        Files.createDirectories(outputFolder);
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : new TreeMap<>(hashes).entrySet()) {
+                writer.write(entry.getKey() + "\t" + entry.getValue());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String key(File report) {
+        return outputFolder.relativize(report.toPath().toAbsolutePath().normalize()).toString();
+    }
+
+    /**
+     * Hash of the results a student's HTML page is built from.
+     */
+    static String studentInputs(BatchGrader.StudentResult student) {
+        StringBuilder sb = new StringBuilder(student.studentName);
+        for (ExamGrader.GradingResult q : student.questions) {
+            sb.append('\n').append(ResultJournal.fingerprint(q));
+        }
+        return SubmissionCanonicalizer.sha256(sb.toString());
+    }
+
+    /**
+     * Hash of the results a question PDF is built from: every student's answer to the question.
+     */
+    static String questionInputs(String questionId, List<BatchGrader.StudentResult> results) {
+        StringBuilder sb = new StringBuilder(questionId);
+        for (BatchGrader.StudentResult student : results) {
+            for (ExamGrader.GradingResult q : student.questions) {
+                if (q.questionId.equals(questionId)) {
+                    sb.append('\n').append(student.studentName).append('\t').append(ResultJournal.fingerprint(q));
+                }
+            }
+        }
+        return SubmissionCanonicalizer.sha256(sb.toString());
+    }
+}
@@ -0,0 +1,417 @@
+package grader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the HTML reports: one email-friendly page per student and one page of per-question
+ * statistics for the instructor.
+ * <p>
+ * Pages are assembled from templates that are split into static text and placeholders once, and
+ * written straight to a buffered UTF-8 writer instead of being built in memory. Rendering a
+ * student page only reads that student's results, so pages can be rendered concurrently.
+ * Statistics are accumulated with {@link #addToStatistics} while the results are walked for the
+ * CSV report, so the statistics page needs no second pass over the results.
+ * </p>
+ */
+class ReportRenderer {
+
+    static final String STATISTICS_FILE = "question_statistics.html";
+
+    /**
+     * Upper bounds of the false positive / false negative count buckets
+     */
+    private static final int[] ERROR_BUCKETS = {0, 9, 99, 999};
+    private static final String[] ERROR_BUCKET_LABELS = {"0", "1-9", "10-99", "100-999", "1000+"};
+    private static final int HISTOGRAM_BINS = 10;
+
+    /**
+     * Text with {{name}} placeholders, split into its static parts once.
+     */
+    static final class Template {
+        private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)\\}\\}");
+
+        private final String[] text;
+        private final String[] names;
+
+        private Template(String[] text, String[] names) {
+            this.text = text;
+            this.names = names;
+        }
+
+        static Template compile(String source) {
+            List<String> text = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            Matcher m = PLACEHOLDER.matcher(source);
+            int last = 0;
+            while (m.find()) {
+                text.add(source.substring(last, m.start()));
+                names.add(m.group(1));
+                last = m.end();
+            }
+            text.add(source.substring(last));
+            return new Template(text.toArray(new String[0]), names.toArray(new String[0]));
+        }
+
+        /**
+         * Writes the template with each placeholder replaced by its value, which is written as is.
+         */
+        void write(Writer out, Map<String, String> values) throws IOException {
+            for (int i = 0; i < names.length; i++) {
+                out.write(text[i]);
+                String value = values.get(names[i]);
+                if (value == null) {
+                    throw new IllegalArgumentException("No value for template placeholder: " + names[i]);
+                }
+                out.write(value);
+            }
+            out.write(text[names.length]);
+        }
+
+        void write(Writer out) throws IOException {
+            write(out, new HashMap<>());
+        }
+    }
+
+    private static final Template STUDENT_HEADER = Template.compile(
+            "<!DOCTYPE html>\n<html>\n<head>\n"
+            + "    <meta charset=\"UTF-8\">\n"
+            + "    <title>Grading Report - {{name}}</title>\n"
+            + "</head>\n<body style=\"font-family: Arial, sans-serif; margin: 0; padding: 20px; background-color: #f5f5f5;\">\n"
+            + "    <table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif;\">\n"
+            + "        <tr>\n"
+            + "            <td>\n"
+            // Header
+            + "                <table width=\"100%\" cellpadding=\"20\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #2c3e50; color: white;\">\n"
+            + "                    <tr>\n"
+            + "                        <td>\n"
+            + "                            <h1 style=\"margin: 0 0 10px 0; font-size: 24px; font-family: Arial, sans-serif;\">CS410 Exam Grading Report</h1>\n"
+            + "                            <h2 style=\"margin: 0; font-size: 20px; font-weight: normal; font-family: Arial, sans-serif;\">{{name}}</h2>\n"
+            + "                            <p style=\"margin: 10px 0 0 0; font-size: 12px; font-family: Arial, sans-serif;\">Generated on {{timestamp}}</p>\n"
+            + "                        </td>\n"
+            + "                    </tr>\n"
+            + "                </table>\n\n"
+            // Summary
+            + "                <table width=\"100%\" cellpadding=\"15\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #ecf0f1; margin-top: 20px;\">\n"
+            + "                    <tr>\n"
+            + "                        <td>\n"
+            + "                            <h3 style=\"margin: 0 0 10px 0; font-family: Arial, sans-serif;\">Overall Score</h3>\n"
+            + "                            <p style=\"margin: 0; font-size: 20px; font-weight: bold; font-family: Arial, sans-serif;\">{{score}}</p>\n"
+            + "                        </td>\n"
+            + "                    </tr>\n"
+            + "                </table>\n\n"
+            // Questions table
+            + "                <table width=\"100%\" cellpadding=\"10\" cellspacing=\"0\" border=\"1\" style=\"font-family: Arial, sans-serif; margin-top: 20px; border-collapse: collapse; border: 1px solid #bdc3c7;\">\n"
+            + "                    <tr style=\"background-color: #34495e; color: white;\">\n"
+            + "                        <th style=\"padding: 10px; text-align: left; font-family: Arial, sans-serif;\">Question</th>\n"
+            + "                        <th style=\"padding: 10px; text-align: center; width: 100px; font-family: Arial, sans-serif;\">Score</th>\n"
+            + "                        <th style=\"padding: 10px; text-align: left; font-family: Arial, sans-serif;\">Details</th>\n"
+            + "                    </tr>\n");
+
+    private static final Template QUESTION_ROW_START = Template.compile(
+            "                    <tr>\n"
+            + "                        <td style=\"padding: 10px; font-weight: bold; vertical-align: top;\">{{question}}</td>\n"
+            + "                        <td style=\"padding: 10px; text-align: center; background-color: {{color}}; color: white; font-weight: bold; vertical-align: top;\">{{score}}</td>\n"
+            + "                        <td style=\"padding: 10px; vertical-align: top;\">\n");
+
+    private static final Template QUESTION_ERROR = Template.compile(
+            "                            <table width=\"100%\" cellpadding=\"5\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #fadbd8;\">\n"
+            + "                                <tr>\n"
+            + "                                    <td style=\"border-left: 3px solid #e74c3c; padding-left: 10px; font-family: Arial, sans-serif;\">\n"
+            + "                                        <strong>Error:</strong> {{message}}\n"
+            + "                                    </td>\n"
+            + "                                </tr>\n"
+            + "                            </table>\n");
+
+    private static final Template QUESTION_LENGTH_VIOLATION = Template.compile(
+            "                            <table width=\"100%\" cellpadding=\"5\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; background-color: #fff3cd;\">\n"
+            + "                                <tr>\n"
+            + "                                    <td style=\"border-left: 3px solid #f39c12; padding-left: 10px; font-family: Arial, sans-serif;\">\n"
+            + "                                        <strong>REGEX LENGTH VIOLATION</strong><br>\n"
+            + "                                        Your regex exceeds the maximum allowed length.<br><br>\n"
+            + "                                        <strong>Actual length:</strong> {{actual}} characters<br>\n"
+            + "                                        <strong>Maximum allowed:</strong> {{max}} characters<br>\n"
+            + "                                        <strong>Exceeded by:</strong> {{exceeded}} characters<br><br>\n"
+            + "                                        <em>Note: Length is measured after removing whitespace and normalizing 'eps' to 'ε'.</em>\n"
+            + "\n                                    </td>\n"
+            + "                                </tr>\n"
+            + "                            </table>\n");
+
+    private static final Template QUESTION_METRICS = Template.compile(
+            "                            <table cellpadding=\"3\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; font-size: 13px;\">\n"
+            + "                                <tr>\n"
+            + "                                    <td style=\"padding-right: 15px; font-family: Arial, sans-serif;\"><strong>Accuracy:</strong></td>\n"
+            + "                                    <td style=\"font-family: Arial, sans-serif;\">{{accuracy}}</td>\n"
+            + "                                    <td style=\"padding-left: 15px; padding-right: 15px; font-family: Arial, sans-serif;\"><strong>Precision:</strong></td>\n"
+            + "                                    <td style=\"font-family: Arial, sans-serif;\">{{precision}}</td>\n"
+            + "                                </tr>\n"
+            + "                                <tr>\n"
+            + "                                    <td style=\"padding-right: 15px; font-family: Arial, sans-serif;\"><strong>Recall:</strong></td>\n"
+            + "                                    <td style=\"font-family: Arial, sans-serif;\">{{recall}}</td>\n"
+            + "                                    <td style=\"padding-left: 15px; padding-right: 15px; font-family: Arial, sans-serif;\"><strong>F1 Score:</strong></td>\n"
+            + "                                    <td style=\"font-family: Arial, sans-serif;\">{{f1}}</td>\n"
+            + "                                </tr>\n"
+            + "                            </table>\n");
+
+    private static final Template QUESTION_ROW_END = Template.compile(
+            "                        </td>\n"
+            + "                    </tr>\n");
+
+    private static final Template STUDENT_FOOTER = Template.compile(
+            "                </table>\n\n"
+            + "                <table width=\"100%\" cellpadding=\"15\" cellspacing=\"0\" border=\"0\" style=\"font-family: Arial, sans-serif; margin-top: 20px;\">\n"
+            + "                    <tr>\n"
+            + "                        <td style=\"text-align: center; color: #7f8c8d; font-size: 12px; font-family: Arial, sans-serif;\">\n"
+            + "                            <p style=\"margin: 5px 0; font-family: Arial, sans-serif;\">Auto-generated grading report for CS410 Mock Exam</p>\n"
+            + "                            <p style=\"margin: 5px 0; font-family: Arial, sans-serif;\">For questions or grade appeals, please contact your instructor</p>\n"
+            + "                        </td>\n"
+            + "                    </tr>\n"
+            + "                </table>\n\n"
+            + "            </td>\n"
+            + "        </tr>\n"
+            + "    </table>\n"
+            + "</body>\n</html>\n");
+
+    private static final Template STATISTICS_HEADER = Template.compile(
+            "<!DOCTYPE html>\n<html>\n<head>\n"
+            + "    <meta charset=\"UTF-8\">\n"
+            + "    <title>Question Statistics</title>\n"
+            + "</head>\n<body style=\"font-family: Arial, sans-serif; margin: 0; padding: 20px; background-color: #f5f5f5;\">\n"
+            + "    <h1 style=\"margin: 0 0 5px 0; font-size: 24px;\">CS410 Exam Question Statistics</h1>\n"
+            + "    <p style=\"margin: 0 0 20px 0; font-size: 12px; color: #7f8c8d;\">{{students}} students, generated on {{timestamp}}</p>\n");
+
+    private static final Template STATISTICS_QUESTION = Template.compile(
+            "    <h2 style=\"margin: 20px 0 10px 0; font-size: 20px;\">{{question}}</h2>\n"
+            + "    <p style=\"margin: 0 0 10px 0;\">Mean {{mean}} / {{max}}, median {{median}}, "
+            + "{{full}} full marks, {{errors}} not gradable</p>\n"
+            + "    <table cellpadding=\"4\" cellspacing=\"0\" border=\"1\" style=\"border-collapse: collapse; border: 1px solid #bdc3c7; background-color: white; font-size: 13px;\">\n"
+            + "        <tr style=\"background-color: #34495e; color: white;\"><th>Score</th><th>Answers</th><th style=\"width: 300px;\"></th></tr>\n");
+
+    private static final Template STATISTICS_BAR_ROW = Template.compile(
+            "        <tr><td>{{label}}</td><td style=\"text-align: right;\">{{count}}</td>"
+            + "<td><div style=\"background-color: {{color}}; height: 12px; width: {{width}}px;\"></div></td></tr>\n");
+
+    private static final Template STATISTICS_ERRORS_HEADER = Template.compile(
+            "    </table>\n"
+            + "    <table cellpadding=\"4\" cellspacing=\"0\" border=\"1\" style=\"border-collapse: collapse; border: 1px solid #bdc3c7; background-color: white; font-size: 13px; margin-top: 10px;\">\n"
+            + "        <tr style=\"background-color: #34495e; color: white;\"><th>Wrong verdicts</th><th>False positives</th><th>False negatives</th></tr>\n");
+
+    private static final Template STATISTICS_ERRORS_ROW = Template.compile(
+            "        <tr><td>{{label}}</td><td style=\"text-align: right;\">{{fp}}</td><td style=\"text-align: right;\">{{fn}}</td></tr>\n");
+
+    private static final Template STATISTICS_QUESTION_END = Template.compile(
+            "        <tr><td>Mean</td><td style=\"text-align: right;\">{{fp}}</td><td style=\"text-align: right;\">{{fn}}</td></tr>\n"
+            + "    </table>\n");
+
+    private static final Template STATISTICS_FOOTER = Template.compile(
+            "</body>\n</html>\n");
+
+    /**
+     * Score, false positive and false negative distribution of the answers to one question
+     */
+    static class QuestionStatistics {
+        final String questionId;
+        int answers;
+        int errors;
+        int fullMarks;
+        int maxPoints;
+        double scoreSum;
+        final List<Double> scores = new ArrayList<>();
+        final int[] histogram = new int[HISTOGRAM_BINS];
+        final int[] falsePositives = new int[ERROR_BUCKETS.length + 1];
+        final int[] falseNegatives = new int[ERROR_BUCKETS.length + 1];
+        long falsePositiveSum;
+        long falseNegativeSum;
+        int classified;
+
+        QuestionStatistics(String questionId) {
+            this.questionId = questionId;
+        }
+
+        void add(ExamGrader.GradingResult q) {
+            double score = q.score != null ? q.score : 0.0;
+            int max = q.maxPoints != null ? q.maxPoints : 10;
+            answers++;
+            scoreSum += score;
+            scores.add(score);
+            maxPoints = Math.max(maxPoints, max);
+            if (score >= max) {
+                fullMarks++;
+            }
+            histogram[Math.min(HISTOGRAM_BINS - 1, Math.max(0, (int) (score / max * HISTOGRAM_BINS)))]++;
+
+            if (!q.success) {
+                errors++;
+            }
+            if (q.falsePositives != null && q.falseNegatives != null) {
+                classified++;
+                falsePositives[bucket(q.falsePositives)]++;
+                falseNegatives[bucket(q.falseNegatives)]++;
+                falsePositiveSum += q.falsePositives;
+                falseNegativeSum += q.falseNegatives;
+            }
+        }
+
+        double median() {
+            if (scores.isEmpty()) {
+                return 0;
+            }
+            double[] sorted = scores.stream().mapToDouble(Double::doubleValue).toArray();
+            Arrays.sort(sorted);
+            int mid = sorted.length / 2;
+            return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+        }
+
+        private static int bucket(int count) {
+            for (int i = 0; i < ERROR_BUCKETS.length; i++) {
+                if (count <= ERROR_BUCKETS[i]) {
+                    return i;
+                }
+            }
+            return ERROR_BUCKETS.length;
+        }
+    }
+
+    private final String timestamp;
+    private final Map<String, QuestionStatistics> statistics = new LinkedHashMap<>();
+    private int students;
+
+    /**
+     * @param timestamp the generation time shown on every page
+     */
+    ReportRenderer(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Adds a student's results to the per-question statistics.
+     */
+    void addToStatistics(BatchGrader.StudentResult student) {
+        students++;
+        for (ExamGrader.GradingResult q : student.questions) {
+            statistics.computeIfAbsent(q.questionId, QuestionStatistics::new).add(q);
+        }
+    }
+
+    /**
+     * Writes the HTML report for a single student (email-friendly table layout).
+     */
+    void writeStudentReport(BatchGrader.StudentResult student, Path file) throws IOException {
+        double totalScore = 0;
+        int totalMaxPoints = 0;
+        for (ExamGrader.GradingResult q : student.questions) {
+            totalScore += (q.score != null ? q.score : 0.0);
+            totalMaxPoints += (q.maxPoints != null ? q.maxPoints : 10);
+        }
+
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            Map<String, String> values = new HashMap<>();
+            values.put("name", escapeHtml(student.studentName));
+            values.put("timestamp", timestamp);
+            values.put("score", String.format("%.1f / %d", totalScore, totalMaxPoints));
+            STUDENT_HEADER.write(out, values);
+
+            for (ExamGrader.GradingResult q : student.questions) {
+                writeQuestionRow(out, q);
+            }
+
+            STUDENT_FOOTER.write(out);
+        }
+    }
+
+    private static void writeQuestionRow(Writer out, ExamGrader.GradingResult q) throws IOException {
+        double score = (q.score != null ? q.score : 0.0);
+        Map<String, String> values = new HashMap<>();
+        values.put("question", q.questionId);
+        values.put("color", scoreColor(score));
+        values.put("score", String.format("%.1f/10", score));
+        QUESTION_ROW_START.write(out, values);
+
+        if (!q.success) {
+            values.put("message", escapeHtml(q.errorMessage != null ? q.errorMessage : "Unknown error"));
+            QUESTION_ERROR.write(out, values);
+        } else if (q.regexLengthViolation != null && q.regexLengthViolation) {
+            values.put("actual", String.valueOf(q.actualRegexLength));
+            values.put("max", String.valueOf(q.maxAllowedRegexLength));
+            values.put("exceeded", String.valueOf(q.actualRegexLength - q.maxAllowedRegexLength));
+            QUESTION_LENGTH_VIOLATION.write(out, values);
+        } else if (q.accuracy != null) {
+            values.put("accuracy", String.format("%.1f%%", q.accuracy));
+            values.put("precision", String.format("%.1f%%", q.precision != null ? q.precision : 0.0));
+            values.put("recall", String.format("%.1f%%", q.recall != null ? q.recall : 0.0));
+            values.put("f1", String.format("%.1f%%", q.f1Score != null ? q.f1Score : 0.0));
+            QUESTION_METRICS.write(out, values);
+        }
+
+        QUESTION_ROW_END.write(out);
+    }
+
+    /**
+     * Writes the statistics page from everything passed to {@link #addToStatistics}.
+     */
+    void writeStatistics(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            Map<String, String> values = new HashMap<>();
+            values.put("students", String.valueOf(students));
+            values.put("timestamp", timestamp);
+            STATISTICS_HEADER.write(out, values);
+
+            for (QuestionStatistics stats : statistics.values()) {
+                values.put("question", escapeHtml(stats.questionId));
+                values.put("mean", String.format("%.1f", stats.answers > 0 ? stats.scoreSum / stats.answers : 0.0));
+                values.put("max", String.valueOf(stats.maxPoints));
+                values.put("median", String.format("%.1f", stats.median()));
+                values.put("full", String.valueOf(stats.fullMarks));
+                values.put("errors", String.valueOf(stats.errors));
+                STATISTICS_QUESTION.write(out, values);
+
+                int largest = Math.max(1, Arrays.stream(stats.histogram).max().orElse(0));
+                for (int bin = HISTOGRAM_BINS - 1; bin >= 0; bin--) {
+                    values.put("label", bin * 10 + "-" + (bin == HISTOGRAM_BINS - 1 ? "100" : (bin + 1) * 10 + "") + "%");
+                    values.put("count", String.valueOf(stats.histogram[bin]));
+                    values.put("color", bin >= 8 ? "#27ae60" : bin >= 4 ? "#f39c12" : "#e74c3c");
+                    values.put("width", String.valueOf(300 * stats.histogram[bin] / largest));
+                    STATISTICS_BAR_ROW.write(out, values);
+                }
+
+                STATISTICS_ERRORS_HEADER.write(out);
+                for (int b = 0; b < ERROR_BUCKET_LABELS.length; b++) {
+                    values.put("label", ERROR_BUCKET_LABELS[b]);
+                    values.put("fp", String.valueOf(stats.falsePositives[b]));
+                    values.put("fn", String.valueOf(stats.falseNegatives[b]));
+                    STATISTICS_ERRORS_ROW.write(out, values);
+                }
+                values.put("fp", String.format("%.1f", stats.classified > 0 ? (double) stats.falsePositiveSum / stats.classified : 0.0));
+                values.put("fn", String.format("%.1f", stats.classified > 0 ? (double) stats.falseNegativeSum / stats.classified : 0.0));
+                STATISTICS_QUESTION_END.write(out, values);
+            }
+
+            STATISTICS_FOOTER.write(out);
+        }
+    }
+
+    private static String scoreColor(double score) {
+        if (score >= 8) return "#27ae60";  // green
+        if (score >= 4) return "#f39c12";  // orange
+        return "#e74c3c";  // red
+    }
+
+    static String escapeHtml(String text) {
+        return text.replace("&", "&amp;")
+                   .replace("<", "&lt;")
+                   .replace(">", "&gt;")
+                   .replace("\"", "&quot;")
+                   .replace("\n", "<br>");
+    }
+}
@@ -0,0 +1,338 @@
+package grader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only journal of grading results in the output folder, so that an interrupted batch can
+ * be resumed and a rerun only grades what changed.
+ * <p>
+ * Every graded (student, question) is appended as one line together with the hash of the
+ * submission files and the hash of the reference suite, and flushed right away. A result is
+ * reused while both hashes are unchanged; later lines for the same (student, question) replace
+ * earlier ones. Lines cut short by a crash are ignored, and superseded lines are dropped when the
+ * journal is opened.
+ * </p>
+ * <p>
+ * Only reproducible results are journaled: graded without timeouts and without an exception.
+ * Grading again may give a different result for the others, so they are graded on every run.
+ * </p>
+ * <p>
+ * Line format: {@code student TAB question TAB submissionHash TAB suiteHash TAB field=value ... TAB .}
+ * where the fields are the non-null public fields of {@link ExamGrader.GradingResult} and values
+ * escape backslash, tab, newline and carriage return.
+ * </p>
+ */
+class ResultJournal implements Closeable {
+
+    static final String FILE_NAME = "grading_journal.tsv";
+
+    private static final String HEADER = "# CS410 grading journal v1";
+    private static final String END = ".";
+
+    /**
+     * A journaled result with the hashes it was computed for
+     */
+    static class Entry {
+        final String student;
+        final String questionId;
+        final String submissionHash;
+        final String suiteHash;
+        final ExamGrader.GradingResult result;
+
+        Entry(String student, String questionId, String submissionHash, String suiteHash,
+              ExamGrader.GradingResult result) {
+            this.student = student;
+            this.questionId = questionId;
+            this.submissionHash = submissionHash;
+            this.suiteHash = suiteHash;
+            this.result = result;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private BufferedWriter writer;
+
+    private ResultJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the journal in an output folder, loading and compacting existing entries.
+     */
+    static ResultJournal open(String outputFolder) throws IOException {
+        Path file = Paths.get(outputFolder, FILE_NAME);
+        Files.createDirectories(file.getParent());
+        ResultJournal journal = new ResultJournal(file);
+
+        int lines = 0;
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("#") || line.isEmpty()) {
+                        continue;
+                    }
+                    lines++;
+                    String[] parts = line.split("\t", -1);
+                    if (parts.length < 5 || !END.equals(parts[parts.length - 1])) {
+                        continue; // cut short by a crash
+                    }
+                    ExamGrader.GradingResult result = parseResult(parts);
+                    if (result != null) {
+                        String student = unescape(parts[0]);
+                        String questionId = unescape(parts[1]);
+                        journal.entries.put(key(student, questionId),
+                                new Entry(student, questionId, parts[2], parts[3], result));
+                    }
+                }
+            }
+        }
+
+        if (lines != journal.entries.size()) {
+            journal.rewrite();
+        }
+        journal.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (Files.size(file) == 0) {
+            journal.writer.write(HEADER);
+            journal.writer.newLine();
+            journal.writer.flush();
+        }
+        return journal;
+    }
+
+    /**
+     * @return the journaled result if it was computed for the same submission and suite, else null
+     */
+    synchronized ExamGrader.GradingResult get(String student, String questionId, String submissionHash, String suiteHash) {
+        Entry entry = entries.get(key(student, questionId));
+        if (entry == null || !entry.submissionHash.equals(submissionHash) || !entry.suiteHash.equals(suiteHash)
+                || !isReproducible(entry.result)) {
+            return null;
+        }
+        return entry.result;
+    }
+
+    /**
+     * Appends a result and flushes it to disk. Results that are not reproducible are not written,
+     * and an earlier result for the same (student, question) is no longer returned.
+     */
+    synchronized void append(String student, String questionId, String submissionHash, String suiteHash,
+                             ExamGrader.GradingResult result) throws IOException {
+        if (!isReproducible(result)) {
+            entries.remove(key(student, questionId));
+            return;
+        }
+        writer.write(format(student, questionId, submissionHash, suiteHash, result));
+        writer.newLine();
+        writer.flush();
+        entries.put(key(student, questionId), new Entry(student, questionId, submissionHash, suiteHash, result));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A result is reproducible if the submission was graded without timeouts and without an
+     * exception, so that grading it again gives the same result.
+     */
+    static boolean isReproducible(ExamGrader.GradingResult result) {
+        if (!result.success || (result.timeoutCount != null && result.timeoutCount > 0)) {
+            return false;
+        }
+        String error = result.errorMessage;
+        return error == null || !(error.startsWith("Error: ") || error.startsWith("IO Error: "));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Replaces the journal file with one line per current entry.
+     */
+    private void rewrite() throws IOException {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (Entry entry : entries.values()) {
+                out.write(format(entry.student, entry.questionId, entry.submissionHash, entry.suiteHash, entry.result));
+                out.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String key(String student, String questionId) {
+        return student + "\t" + questionId;
+    }
+
+    private static String format(String student, String questionId, String submissionHash, String suiteHash,
+                                 ExamGrader.GradingResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(escape(student)).append('\t').append(escape(questionId)).append('\t')
+          .append(submissionHash).append('\t').append(suiteHash);
+        for (Field field : resultFields()) {
+            try {
+                Object value = field.get(result);
+                if (value != null) {
+                    sb.append('\t').append(field.getName()).append('=').append(escape(value.toString()));
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return sb.append('\t').append(END).toString();
+    }
+
+    /**
+     * The journaled fields of a result as one line, leaving out the student folder, which depends
+     * on where the exam folder is rather than on the answer.
+     */
+    static String fingerprint(ExamGrader.GradingResult result) {
+        StringBuilder sb = new StringBuilder();
+        for (Field field : resultFields()) {
+            if ("studentFolder".equals(field.getName())) {
+                continue;
+            }
+            try {
+                Object value = field.get(result);
+                if (value != null) {
+                    sb.append(field.getName()).append('=').append(escape(value.toString())).append('\t');
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static ExamGrader.GradingResult parseResult(String[] parts) {
+        ExamGrader.GradingResult result = new ExamGrader.GradingResult(unescape(parts[0]), unescape(parts[1]));
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (Field field : resultFields()) {
+            fields.put(field.getName(), field);
+        }
+        try {
+            for (int i = 4; i < parts.length - 1; i++) {
+                int eq = parts[i].indexOf('=');
+                Field field = eq < 0 ? null : fields.get(parts[i].substring(0, eq));
+                if (field == null) {
+                    return null;
+                }
+                String value = unescape(parts[i].substring(eq + 1));
+                Class<?> type = field.getType();
+                if (type == String.class) {
+                    field.set(result, value);
+                } else if (type == Integer.class) {
+                    field.set(result, Integer.valueOf(value));
+                } else if (type == Double.class) {
+                    field.set(result, Double.valueOf(value));
+                } else if (type == Boolean.class || type == boolean.class) {
+                    field.set(result, Boolean.valueOf(value));
+                } else {
+                    return null;
+                }
+            }
+        } catch (IllegalAccessException | NumberFormatException e) {
+            return null;
+        }
+        return result;
+    }
+
+    private static List<Field> resultFields() {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : ExamGrader.GradingResult.class.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hash of every file a student may have submitted for a question, so that adding, removing or
+     * editing any of them invalidates the journaled result.
+     */
+    static String submissionHash(File studentFolder, String questionId) throws IOException {
+        return hashFiles(studentFolder, questionId, ExamGrader.AUTOMATON_EXTENSIONS, "");
+    }
+
+    /**
+     * Hash of the reference test file of a question, any reference automaton next to it and the
+     * grading mode.
+     */
+    static String suiteHash(File testCasesFolder, String questionId, boolean equivalenceMode) throws IOException {
+        String[] extensions = new String[ExamGrader.REFERENCE_EXTENSIONS.length + 1];
+        extensions[0] = ".test";
+        System.arraycopy(ExamGrader.REFERENCE_EXTENSIONS, 0, extensions, 1, ExamGrader.REFERENCE_EXTENSIONS.length);
+        return hashFiles(testCasesFolder, questionId, extensions, equivalenceMode ? "equivalence" : "tests");
+    }
+
+    private static String hashFiles(File folder, String questionId, String[] extensions, String salt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(salt.getBytes(StandardCharsets.UTF_8));
+        for (String ext : extensions) {
+            File file = new File(folder, questionId + ext);
+            if (file.isFile()) {
+                byte[] content = Files.readAllBytes(file.toPath());
+                bytes.write(("\n" + ext + " " + content.length + "\n").getBytes(StandardCharsets.UTF_8));
+                bytes.write(content);
+            }
+        }
+        return SubmissionCanonicalizer.sha256(bytes.toByteArray());
+    }
+}
@@ -1,6 +1,5 @@
 package grader;
 
-import guru.nidi.graphviz.engine.Format;
 import guru.nidi.graphviz.engine.Graphviz;
 import guru.nidi.graphviz.engine.GraphvizJdkEngine;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -17,13 +16,16 @@ import PushDownAutomaton.PDA;
 import RegularExpression.SyntaxTree.SyntaxTree;
 import TuringMachine.TM;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,6 +45,8 @@ public class StudentPdfExporter {
 
     private static final String[] QUESTION_IDS = {"Q1a", "Q1b", "Q2a", "Q2b", "Q3a", "Q3b"};
 
+    private static boolean graphvizInitialized;
+
     /**
      * Extract student number from folder name (e.g., "ulas_baran_s033428" -> "s033428")
      */
@@ -70,22 +74,15 @@ public class StudentPdfExporter {
     /**
      * Read answer file content
      */
-    private static String readAnswerFile(String studentFolder, String questionId) {
-        // Try different extensions
-        String[] extensions = {".dfa", ".nfa", ".pda", ".tm", ".cfg", ".rex"};
-
-        for (String ext : extensions) {
-            File file = new File(studentFolder, questionId + ext);
-            if (file.exists()) {
-                try {
-                    return new String(Files.readAllBytes(file.toPath()));
-                } catch (IOException e) {
-                    return "[Error reading file: " + e.getMessage() + "]";
-                }
-            }
+    private static String readAnswerFile(ExamGrader.DetectedFile detected) {
+        if (detected == null) {
+            return "[Answer file not found]";
+        }
+        try {
+            return new String(Files.readAllBytes(detected.file.toPath()));
+        } catch (IOException e) {
+            return "[Error reading file: " + e.getMessage() + "]";
         }
-
-        return "[Answer file not found]";
     }
 
     /**
@@ -114,32 +111,96 @@ public class StudentPdfExporter {
      * Export PDF for each question with all students' answers, sorted by grade
      */
     public static void exportQuestionPdfs(List<BatchGrader.StudentResult> results, String outputFolder) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            exportQuestionPdfs(results, outputFolder, pool, Arrays.asList(QUESTION_IDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting question PDFs", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Export PDFs for the given questions with all students' answers, sorted by grade, on a worker pool.
+     * <p>
+     * All diagrams are queued for rendering first, then one task per question assembles its PDF,
+     * taking each diagram as soon as it is ready. Since the pool runs tasks in submission order,
+     * every diagram has started rendering before any PDF task waits for one. Diagrams are cached
+     * by DOT code in {@code diagram_cache} under the output folder, so identical answers are
+     * rendered once and unchanged answers are not rendered again on the next run.
+     * </p>
+     *
+     * @return the questions whose PDF was written
+     */
+    static List<String> exportQuestionPdfs(List<BatchGrader.StudentResult> results, String outputFolder,
+                                           ExecutorService pool, List<String> questionIds)
+            throws IOException, InterruptedException {
         File pdfDir = new File(outputFolder, "question_pdfs");
         pdfDir.mkdirs();
+        DiagramCache diagrams = new DiagramCache(Paths.get(outputFolder, "diagram_cache"));
+
+        initGraphviz();
+
+        List<List<StudentQuestionData>> answers = new ArrayList<>();
+        for (String questionId : questionIds) {
+            List<StudentQuestionData> studentAnswers = collectAnswers(questionId, results);
+            for (StudentQuestionData studentAnswer : studentAnswers) {
+                if (studentAnswer.success && (studentAnswer.dotCode != null
+                        || (studentAnswer.answerContent != null && !studentAnswer.answerContent.isEmpty()))) {
+                    studentAnswer.diagram = pool.submit(() -> generateAutomatonDiagram(studentAnswer, diagrams));
+                }
+            }
+            answers.add(studentAnswers);
+        }
 
-        // Initialize GraphViz engine once
+        List<Future<?>> pdfs = new ArrayList<>();
+        for (int q = 0; q < questionIds.size(); q++) {
+            String questionId = questionIds.get(q);
+            List<StudentQuestionData> studentAnswers = answers.get(q);
+            File pdfFile = new File(pdfDir, questionId + ".pdf");
+            pdfs.add(pool.submit(() -> {
+                exportSingleQuestionPdf(questionId, studentAnswers, pdfFile.getAbsolutePath());
+                return null;
+            }));
+        }
+
+        List<String> exported = new ArrayList<>();
+        for (int q = 0; q < questionIds.size(); q++) {
+            try {
+                pdfs.get(q).get();
+                exported.add(questionIds.get(q));
+            } catch (ExecutionException e) {
+                System.err.println("Warning: Could not export PDF for " + questionIds.get(q) + ": " + e.getCause().getMessage());
+            }
+        }
+
+        System.out.println("Generated " + exported.size() + " question PDFs in: " + pdfDir.getPath()
+            + " (" + diagrams.getRenderedCount() + " diagrams rendered)");
+        return exported;
+    }
+
+    /**
+     * Initialize the GraphViz engine once per process
+     */
+    private static synchronized void initGraphviz() {
+        if (graphvizInitialized) {
+            return;
+        }
         try {
             GraphvizJdkEngine jdkEngine = new GraphvizJdkEngine();
             Graphviz.useEngine(jdkEngine);
+            graphvizInitialized = true;
         } catch (Exception e) {
             System.err.println("Warning: Could not initialize GraphViz engine: " + e.getMessage());
         }
-
-        int count = 0;
-        for (String questionId : QUESTION_IDS) {
-            File pdfFile = new File(pdfDir, questionId + ".pdf");
-            exportSingleQuestionPdf(questionId, results, pdfFile.getAbsolutePath());
-            count++;
-        }
-
-        System.out.println("Generated " + count + " question PDFs in: " + pdfDir.getPath());
     }
 
     /**
-     * Export PDF for a single question with all students' answers
+     * Collect all students' answers for a question, sorted by grade (descending - highest first)
      */
-    private static void exportSingleQuestionPdf(String questionId, List<BatchGrader.StudentResult> results, String outputFile) throws IOException {
-        // Collect all students' answers for this question
+    private static List<StudentQuestionData> collectAnswers(String questionId, List<BatchGrader.StudentResult> results) {
         List<StudentQuestionData> studentAnswers = new ArrayList<>();
         for (BatchGrader.StudentResult result : results) {
             for (ExamGrader.GradingResult gradingResult : result.questions) {
@@ -160,16 +221,26 @@ public class StudentPdfExporter {
                     sqd.falsePositives = gradingResult.falsePositives;
                     sqd.falseNegatives = gradingResult.falseNegatives;
                     sqd.timeoutCount = gradingResult.timeoutCount;
-                    sqd.answerContent = readAnswerFile(result.studentFolder, questionId);
+                    sqd.dotCode = gradingResult.dotCode;
+                    if (sqd.success && sqd.dotCode == null) {
+                        // Graded before diagrams were recorded: read the answer again
+                        sqd.answerFile = ExamGrader.detectAutomatonFile(result.studentFolder, questionId);
+                        sqd.answerContent = readAnswerFile(sqd.answerFile);
+                    }
                     studentAnswers.add(sqd);
                     break;
                 }
             }
         }
 
-        // Sort by grade (descending - highest first)
         Collections.sort(studentAnswers, (a, b) -> Double.compare(b.score, a.score));
+        return studentAnswers;
+    }
 
+    /**
+     * Export PDF for a single question with all students' answers, already sorted by grade
+     */
+    private static void exportSingleQuestionPdf(String questionId, List<StudentQuestionData> studentAnswers, String outputFile) throws IOException {
         // Create PDF
         PDDocument document = new PDDocument();
 
@@ -260,8 +331,8 @@ public class StudentPdfExporter {
         yPosition -= 25;
 
         // Add automaton diagram if parsing succeeded
-        if (studentAnswer.success && studentAnswer.answerContent != null && !studentAnswer.answerContent.isEmpty()) {
-            byte[] diagramBytes = generateAutomatonDiagram(studentAnswer.studentFolder, studentAnswer.questionId, studentAnswer.answerContent);
+        if (studentAnswer.diagram != null) {
+            byte[] diagramBytes = waitForDiagram(studentAnswer);
 
             if (diagramBytes != null && diagramBytes.length > 0) {
                 try {
@@ -362,66 +433,69 @@ public class StudentPdfExporter {
     /**
      * Generate automaton diagram as PNG bytes
      */
-    private static byte[] generateAutomatonDiagram(String studentFolder, String questionId, String answerContent) {
+    private static byte[] generateAutomatonDiagram(StudentQuestionData studentAnswer, DiagramCache diagrams) {
         try {
+            // Diagram source recorded while grading
+            if (studentAnswer.dotCode != null) {
+                return diagrams.get(studentAnswer.dotCode);
+            }
+
             // Determine automaton type from file extension
-            Automaton automaton = createAutomatonFromFile(studentFolder, questionId);
+            Automaton automaton = createAutomaton(studentAnswer.answerFile);
             if (automaton == null) {
                 return null;
             }
 
             // Parse the answer content
-            Automaton.ParseResult parseResult = automaton.parse(answerContent);
+            Automaton.ParseResult parseResult = automaton.parse(studentAnswer.answerContent);
             if (!parseResult.isSuccess()) {
                 return null;
             }
 
-            // Generate DOT code
-            String dotCode = parseResult.getAutomaton().toDotCode(answerContent);
-
-            // Render to PNG
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            Graphviz.fromString(dotCode)
-                    .width(600)
-                    .render(Format.PNG)
-                    .toOutputStream(outputStream);
-
-            return outputStream.toByteArray();
+            // Generate DOT code and render it to PNG, unless the same DOT code was rendered before
+            String dotCode = parseResult.getAutomaton().toDotCode(studentAnswer.answerContent);
+            return diagrams.get(dotCode);
 
         } catch (Exception e) {
-            System.err.println("Warning: Could not generate diagram for " + questionId + ": " + e.getMessage());
+            System.err.println("Warning: Could not generate diagram for " + studentAnswer.questionId + ": " + e.getMessage());
             return null;
         }
     }
 
+    private static byte[] waitForDiagram(StudentQuestionData studentAnswer) throws IOException {
+        try {
+            return studentAnswer.diagram.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for diagram", e);
+        }
+    }
+
     /**
      * Create appropriate automaton instance based on actual file extension
      */
-    private static Automaton createAutomatonFromFile(String studentFolder, String questionId) {
-        // Try all possible extensions to find which file exists
-        String[] extensions = {".dfa", ".nfa", ".pda", ".tm", ".cfg", ".rex"};
-
-        for (String ext : extensions) {
-            File file = new File(studentFolder, questionId + ext);
-            if (file.exists()) {
-                // Return appropriate automaton based on file extension
-                switch (ext) {
-                    case ".dfa":
-                        return new DFA();
-                    case ".nfa":
-                        return new NFA();
-                    case ".pda":
-                        return new PDA();
-                    case ".tm":
-                        return new TM();
-                    case ".cfg":
-                        return new CFG();
-                    case ".rex":
-                        return new SyntaxTree();
-                }
-            }
+    private static Automaton createAutomaton(ExamGrader.DetectedFile detected) {
+        if (detected == null) {
+            return null; // No matching file found
+        }
+        switch (detected.extension) {
+            case ".dfa":
+                return new DFA();
+            case ".nfa":
+                return new NFA();
+            case ".pda":
+                return new PDA();
+            case ".tm":
+                return new TM();
+            case ".cfg":
+                return new CFG();
+            case ".rex":
+                return new SyntaxTree();
+            default:
+                return null;
         }
-        return null; // No matching file found
     }
 
     /**
@@ -443,6 +517,9 @@ public class StudentPdfExporter {
         Integer falsePositives;
         Integer falseNegatives;
         Integer timeoutCount;
+        ExamGrader.DetectedFile answerFile;
         String answerContent;
+        String dotCode;
+        Future<byte[]> diagram;
     }
 }
@@ -0,0 +1,246 @@
+package grader;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import ContextFreeGrammar.CFG;
+import ContextFreeGrammar.NonTerminal;
+import ContextFreeGrammar.Production;
+import ContextFreeGrammar.Terminal;
+import DeterministicFiniteAutomaton.DFA;
+import NondeterministicFiniteAutomaton.NFA;
+import PushDownAutomaton.PDA;
+import PushDownAutomaton.PDATransition;
+import RegularExpression.Checker.EquivalenceChecker;
+import RegularExpression.SyntaxTree.SyntaxTree;
+import TuringMachine.ConfigurationKey;
+import TuringMachine.TM;
+import TuringMachine.Transition;
+import common.Automaton;
+import common.CompiledDFA;
+import common.Symbol;
+
+/**
+ * Computes canonical forms of submissions, so that answers which necessarily get the same test
+ * results can be recognised by a hash.
+ * <p>
+ * The canonical form depends on the machine type:
+ * <ul>
+ *   <li>DFA and NFA: the minimal DFA over the sorted alphabet, which is unique per language</li>
+ *   <li>Regex: the sorted alphabet and the sanitized regex text</li>
+ *   <li>CFG: the start symbol and the sorted variables, terminals and productions</li>
+ *   <li>PDA and TM: the machine with states renamed in breadth-first order from the start state,
+ *       keeping the order in which a PDA tries its transitions</li>
+ * </ul>
+ * Unreachable states are not part of the PDA and TM forms, and DFAs and NFAs that cannot execute
+ * have no canonical form. Neither does an NFA whose determinisation exceeds
+ * {@link #MAX_SUBSETS} states: the canonical form must never cost more than grading the
+ * submission, so such an NFA is simply graded without reusing verdicts.
+ * </p>
+ */
+public final class SubmissionCanonicalizer {
+
+    /**
+     * Largest DFA built while determinising an NFA submission
+     */
+    static final int MAX_SUBSETS = 4096;
+
+    private SubmissionCanonicalizer() {
+    }
+
+    /**
+     * @param automaton a parsed submission
+     * @return the hex SHA-256 hash of its canonical form, or null if it has none
+     */
+    public static String canonicalHash(Automaton automaton) {
+        String form = canonicalForm(automaton);
+        return form == null ? null : sha256(form);
+    }
+
+    /**
+     * @param automaton a parsed submission
+     * @return the canonical form as text, or null if it has none
+     */
+    static String canonicalForm(Automaton automaton) {
+        if (automaton instanceof DFA || automaton instanceof NFA) {
+            return regularForm(automaton);
+        }
+        if (automaton instanceof SyntaxTree) {
+            return regexForm((SyntaxTree) automaton);
+        }
+        if (automaton instanceof CFG) {
+            return grammarForm((CFG) automaton);
+        }
+        if (automaton instanceof PDA) {
+            return pdaForm((PDA) automaton);
+        }
+        if (automaton instanceof TM) {
+            return tmForm((TM) automaton);
+        }
+        return null;
+    }
+
+    private static String regularForm(Automaton automaton) {
+        boolean invalid = automaton.execute("").getRuntimeMessages().stream()
+            .anyMatch(msg -> msg.getType() == Automaton.ValidationMessage.ValidationMessageType.ERROR);
+        if (invalid) {
+            return null;
+        }
+
+        CompiledDFA compiled = EquivalenceChecker.compile(automaton, MAX_SUBSETS);
+        if (compiled == null) {
+            return null;
+        }
+        char[] sigma = compiled.getAlphabet().clone();
+        Arrays.sort(sigma);
+        CompiledDFA minimal = compiled.withAlphabet(sigma).minimize();
+
+        StringBuilder sb = new StringBuilder("REG|").append(sigma).append('|').append(minimal.getStart());
+        for (int q = 0; q < minimal.getStateCount(); q++) {
+            sb.append('\n').append(minimal.isAccepting(q) ? 'F' : '-');
+            for (int a = 0; a < sigma.length; a++) {
+                sb.append(' ').append(minimal.next(q, a));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String regexForm(SyntaxTree regex) {
+        if (regex.getSanitizedRegex() == null || regex.alphabet == null) {
+            return null;
+        }
+        char[] sigma = regex.alphabet.clone();
+        Arrays.sort(sigma);
+        return "REX|" + new String(sigma) + "|" + regex.getSanitizedRegex();
+    }
+
+    private static String grammarForm(CFG cfg) {
+        if (cfg.getStartSymbol() == null || cfg.getProductions() == null) {
+            return null;
+        }
+        TreeSet<String> variables = new TreeSet<>();
+        for (NonTerminal variable : cfg.getVariables()) {
+            variables.add(variable.getName());
+        }
+        TreeSet<String> terminals = new TreeSet<>();
+        for (Terminal terminal : cfg.getTerminals()) {
+            terminals.add(terminal.getName());
+        }
+        List<String> productions = new ArrayList<>();
+        for (Production production : cfg.getProductions()) {
+            productions.add(production.toString());
+        }
+        Collections.sort(productions);
+
+        return "CFG|" + cfg.getStartSymbol().getName() + "|" + String.join(" ", variables)
+            + "|" + String.join(" ", terminals) + "\n" + String.join("\n", productions);
+    }
+
+    private static String pdaForm(PDA pda) {
+        if (pda.getStartState() == null) {
+            return null;
+        }
+        Map<common.State, Integer> ids = new HashMap<>();
+        List<common.State> order = new ArrayList<>();
+        ids.put(pda.getStartState(), 0);
+        order.add(pda.getStartState());
+
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < order.size(); i++) {
+            common.State state = order.get(i);
+            rows.append('\n').append(i).append(pda.getFinalStates().contains(state) ? 'F' : '-').append(':');
+            for (PDATransition t : pda.getTransitionsFrom(state)) {
+                Integer to = ids.get(t.getToState());
+                if (to == null) {
+                    to = order.size();
+                    ids.put(t.getToState(), to);
+                    order.add(t.getToState());
+                }
+                rows.append(' ').append(symbolName(t.getInputSymbol())).append(',')
+                    .append(symbolName(t.getStackPop())).append('>').append(to).append(',')
+                    .append(t.getStackPush());
+            }
+        }
+
+        return "PDA|" + sortedSymbols(pda.getInputAlphabet()) + "|" + sortedSymbols(pda.getStackAlphabet())
+            + "|" + symbolName(pda.getStackStartSymbol()) + rows;
+    }
+
+    private static String tmForm(TM tm) {
+        if (tm.getStartState() == null) {
+            return null;
+        }
+        Map<common.State, Map<Character, Transition>> outgoing = new HashMap<>();
+        for (Map.Entry<ConfigurationKey, Transition> entry : tm.getTransitionFunction().entrySet()) {
+            outgoing.computeIfAbsent(entry.getKey().getState(), k -> new TreeMap<>())
+                .put(entry.getKey().getSymbolToRead(), entry.getValue());
+        }
+
+        Map<common.State, Integer> ids = new HashMap<>();
+        List<TuringMachine.State> order = new ArrayList<>();
+        ids.put(tm.getStartState(), 0);
+        order.add(tm.getStartState());
+
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < order.size(); i++) {
+            TuringMachine.State state = order.get(i);
+            rows.append('\n').append(i).append(state.isAccept() ? 'A' : state.isReject() ? 'R' : '-').append(':');
+            Map<Character, Transition> transitions = outgoing.getOrDefault(state, Collections.emptyMap());
+            for (Map.Entry<Character, Transition> entry : transitions.entrySet()) {
+                Transition t = entry.getValue();
+                Integer to = ids.get(t.getNextState());
+                if (to == null) {
+                    to = order.size();
+                    ids.put(t.getNextState(), to);
+                    order.add(t.getNextState());
+                }
+                rows.append(' ').append(entry.getKey()).append('>').append(to).append(',')
+                    .append(t.getSymbolToWrite()).append(',').append(t.getMoveDirection());
+            }
+        }
+
+        return "TM|" + sortedSymbols(tm.getInputAlphabet().getSymbols())
+            + "|" + sortedSymbols(tm.getTapeAlphabet().getSymbols()) + rows;
+    }
+
+    private static String symbolName(Symbol symbol) {
+        return symbol == null ? "" : symbol.isEpsilon() ? "eps" : symbol.getName();
+    }
+
+    private static String sortedSymbols(Set<? extends Symbol> symbols) {
+        TreeSet<String> names = new TreeSet<>();
+        if (symbols != null) {
+            for (Symbol symbol : symbols) {
+                names.add(symbolName(symbol));
+            }
+        }
+        return String.join(" ", names);
+    }
+
+    static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package grader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoized {@link ResultJournal#suiteHash} of each question, so that grading an answer does not
+ * read and hash the test file and reference automata again.
+ * <p>
+ * The content hash is computed again whenever the modification time or length of one of those
+ * files changes. Only the hash of the current version is kept, one entry per question and mode.
+ * </p>
+ */
+class SuiteHashes {
+
+    private static class Entry {
+        final String version;
+        final String hash;
+
+        Entry(String version, String hash) {
+            this.version = version;
+            this.hash = hash;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @return the content hash of the question's test file and reference automata
+     */
+    String get(File testCasesFolder, String questionId, boolean equivalenceMode) throws IOException {
+        String key = new File(testCasesFolder.getCanonicalFile(), questionId).getPath()
+                + (equivalenceMode ? "#equivalence" : "#tests");
+        String version = version(testCasesFolder, questionId);
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.version.equals(version)) {
+            entry = new Entry(version, ResultJournal.suiteHash(testCasesFolder, questionId, equivalenceMode));
+            entries.put(key, entry);
+        }
+        return entry.hash;
+    }
+
+    /**
+     * Forgets every hash, so that the next lookup reads the files again.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String version(File testCasesFolder, String questionId) {
+        StringBuilder sb = new StringBuilder();
+        appendVersion(sb, new File(testCasesFolder, questionId + ".test"));
+        for (String ext : ExamGrader.REFERENCE_EXTENSIONS) {
+            appendVersion(sb, new File(testCasesFolder, questionId + ext));
+        }
+        return sb.toString();
+    }
+
+    private static void appendVersion(StringBuilder sb, File file) {
+        sb.append(file.lastModified()).append(':').append(file.length()).append(';');
+    }
+}
@@ -0,0 +1,117 @@
+package grader;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import common.TestRunner;
+
+/**
+ * Memoized test results, keyed by the canonical hash of a submission (see
+ * {@link SubmissionCanonicalizer}) and the suite hash of the question (see
+ * {@link ResultJournal#suiteHash}), which covers the test file, the reference automata and the
+ * grading mode.
+ * <p>
+ * Only results that depend on nothing but the verdicts are stored: every test case classified,
+ * no timeouts, no execution errors and no validation failure. Such a result is the same for
+ * every submission with the same canonical form. Stored copies leave out the per-test details
+ * (traces), and the least recently used results are evicted beyond the memory budget.
+ * </p>
+ */
+class VerdictCache {
+
+    /**
+     * Default memory budget for stored results (64 MB)
+     */
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long estimatedBytes;
+
+    private static class Entry {
+        final TestRunner.TestResult result;
+        final long bytes;
+
+        Entry(TestRunner.TestResult result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+
+    VerdictCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    VerdictCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the stored result, or null if there is none
+     */
+    synchronized TestRunner.TestResult get(String canonicalHash, String suiteHash) {
+        Entry entry = results.get(canonicalHash + "|" + suiteHash);
+        return entry == null ? null : entry.result;
+    }
+
+    /**
+     * Stores a copy of the result if it can be reused for equivalent submissions.
+     */
+    synchronized void put(String canonicalHash, String suiteHash, TestRunner.TestResult result) {
+        if (!isReusable(result)) {
+            return;
+        }
+        TestRunner.TestResult copy = copyWithoutDetails(result);
+        long bytes = 256;
+        for (String failure : copy.getFailures()) {
+            bytes += 64 + 2L * failure.length();
+        }
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        Entry previous = results.put(canonicalHash + "|" + suiteHash, new Entry(copy, bytes));
+        if (previous != null) {
+            estimatedBytes -= previous.bytes;
+        }
+        estimatedBytes += bytes;
+
+        Iterator<Entry> it = results.values().iterator();
+        while (estimatedBytes > maxBytes && it.hasNext()) {
+            estimatedBytes -= it.next().bytes;
+            it.remove();
+        }
+    }
+
+    synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * A result is reusable if every test case was classified and nothing timed out.
+     */
+    static boolean isReusable(TestRunner.TestResult result) {
+        int classified = result.getTruePositives() + result.getTrueNegatives()
+            + result.getFalsePositives() + result.getFalseNegatives();
+        return result.getTotalTests() > 0 && classified == result.getTotalTests() && result.getTimeoutCount() == 0;
+    }
+
+    private static TestRunner.TestResult copyWithoutDetails(TestRunner.TestResult result) {
+        TestRunner.TestResult copy = new TestRunner.TestResult();
+        copy.setTotalTests(result.getTotalTests());
+        copy.setPassedTests(result.getPassedTests());
+        copy.setMinPoints(result.getMinPoints());
+        copy.setMaxPoints(result.getMaxPoints());
+        copy.setMaxRegexLength(result.getMaxRegexLength());
+        copy.setMaxRules(result.getMaxRules());
+        copy.setMaxTransitions(result.getMaxTransitions());
+        copy.setTruePositives(result.getTruePositives());
+        copy.setTrueNegatives(result.getTrueNegatives());
+        copy.setFalsePositives(result.getFalsePositives());
+        copy.setFalseNegatives(result.getFalseNegatives());
+        for (String failure : result.getFailures()) {
+            copy.addFailure(failure);
+        }
+        return copy;
+    }
+}
@@ -2,8 +2,24 @@ package ContextFreeGrammar;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
 import common.Automaton;
+import common.Symbol;
+import common.TestCase;
+import common.TestFileParser;
 
 /**
  * Main class for the Context-Free Grammar parser application.
@@ -15,6 +31,9 @@ import common.Automaton;
  */
 public class CFGTest {
 
+    @TempDir
+    Path tempDir;
+
     /**
      * Main method that runs the CFG parser demonstration.
      * Reads a grammar file, parses it, validates the grammar, and displays
@@ -70,4 +89,210 @@ public class CFGTest {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private static final String USELESS_SYMBOLS_GRAMMAR =
+        "Variables = S A B\n" +
+        "Terminals = a b\n" +
+        "Start = S\n" +
+        "S -> a S | A | b\n" +
+        "A -> a A\n" +
+        "B -> b\n";
+
+    private static final String UNIT_CYCLE_GRAMMAR =
+        "Variables = S A B\n" +
+        "Terminals = a b\n" +
+        "Start = S\n" +
+        "S -> A\n" +
+        "A -> B | a\n" +
+        "B -> A | b\n";
+
+    private static CFG grammar(String text) {
+        CFG cfg = new CFG();
+        assertTrue(cfg.parse(text).isSuccess());
+        return cfg;
+    }
+
+    private static NonTerminal variable(CFG cfg, String name) {
+        for (NonTerminal v : cfg.getVariables()) {
+            if (v.getName().equals(name)) return v;
+        }
+        throw new AssertionError("No variable " + name);
+    }
+
+    private static Set<String> rules(List<Production> productions) {
+        Set<String> rules = new TreeSet<>();
+        for (Production p : productions) rules.add(p.toString());
+        return rules;
+    }
+
+    @Test
+    @DisplayName("Non-generating and then unreachable variables are removed")
+    void testRemoveUselessSymbols() {
+        CFG cfg = grammar(USELESS_SYMBOLS_GRAMMAR);
+        Set<NonTerminal> variables = new HashSet<>(cfg.getVariables());
+        GrammarSimplifier.Report report = new GrammarSimplifier.Report();
+
+        List<Production> useful = GrammarSimplifier.removeUselessSymbols(
+            new ArrayList<>(cfg.getProductions()), variables, cfg.getStartSymbol(), report);
+
+        assertEquals(2, useful.size());
+        for (Production p : useful) assertEquals("S", p.getLeft().getName());
+        assertEquals(1, variables.size());
+        assertEquals(1, report.getNonGeneratingRemoved(), "A derives no terminal string");
+        assertEquals(1, report.getUnreachableRemoved(), "B is only reachable through A");
+        assertEquals(3, report.getVariablesBefore());
+        assertEquals(5, report.getProductionsBefore());
+    }
+
+    @Test
+    @DisplayName("Variables on a unit cycle share one closure")
+    void testCollapseUnitCycle() {
+        CFG cfg = grammar(UNIT_CYCLE_GRAMMAR);
+        GrammarSimplifier.Report report = new GrammarSimplifier.Report();
+
+        List<Production> collapsed = GrammarSimplifier.collapseUnitChains(
+            new ArrayList<>(cfg.getProductions()), new HashSet<>(cfg.getVariables()), report);
+
+        assertEquals(3, report.getUnitProductionsCollapsed());
+        assertEquals(1, report.getUnitCycles(), "A and B form one component");
+        assertEquals(6, collapsed.size());
+        for (String v : Arrays.asList("S", "A", "B")) {
+            List<Production> own = new ArrayList<>();
+            for (Production p : collapsed) {
+                assertFalse(p.getRight().size() == 1 && p.getRight().get(0) instanceof NonTerminal, p.toString());
+                if (p.getLeft().equals(variable(cfg, v))) own.add(p);
+            }
+            assertEquals(new TreeSet<>(Arrays.asList(v + " -> a", v + " -> b")), rules(own));
+        }
+    }
+
+    @Test
+    @DisplayName("Duplicate productions are merged by exact symbol sequence")
+    void testMergeDuplicates() {
+        NonTerminal s = new NonTerminal("S");
+        NonTerminal a = new NonTerminal("A");
+        NonTerminal b = new NonTerminal("B");
+        NonTerminal ab = new NonTerminal("AB");
+        Terminal x = new Terminal("x");
+        List<Production> productions = Arrays.asList(
+            new Production(s, Arrays.<Symbol>asList(a, b)),
+            new Production(s, Arrays.<Symbol>asList(x)),
+            new Production(s, Arrays.<Symbol>asList(ab)),
+            new Production(s, Arrays.<Symbol>asList(a, b)),
+            new Production(a, Arrays.<Symbol>asList(x)),
+            new Production(s, Arrays.<Symbol>asList(x)));
+        GrammarSimplifier.Report report = new GrammarSimplifier.Report();
+
+        List<Production> unique = GrammarSimplifier.mergeDuplicates(productions, report);
+
+        assertEquals(Arrays.asList(productions.get(0), productions.get(1), productions.get(2), productions.get(4)), unique);
+        assertEquals(2, report.getDuplicatesMerged());
+    }
+
+    @Test
+    @DisplayName("CNF conversion reports what the simplification removed")
+    void testSimplificationReport() {
+        CFG cfg = grammar(USELESS_SYMBOLS_GRAMMAR);
+        CFG cnf = cfg.toChomskyNormalForm();
+        GrammarSimplifier.Report report = cfg.getSimplificationReport();
+        assertNotNull(report);
+
+        // The fresh start symbol S' -> S is counted as part of the input
+        assertEquals(4, report.getVariablesBefore());
+        assertEquals(6, report.getProductionsBefore());
+        assertEquals(1, report.getNonGeneratingRemoved());
+        assertEquals(1, report.getUnreachableRemoved());
+        assertEquals(1, report.getUnitProductionsCollapsed());
+        assertEquals(0, report.getUnitCycles());
+        assertEquals(cnf.getVariables().size(), report.getVariablesAfter());
+        assertEquals(cnf.getProductions().size(), report.getProductionsAfter());
+
+        assertTrue(cfg.execute("aab").isAccepted());
+        assertFalse(cfg.execute("ba").isAccepted());
+    }
+
+    private static final String ZERO_N_ONE_N_GRAMMAR =
+        "Variables = S\n" +
+        "Terminals = 0 1\n" +
+        "Start = S\n" +
+        "S -> 0 S 1 | eps\n";
+
+    private static final String EQUAL_COUNT_GRAMMAR =
+        "Variables = S\n" +
+        "Terminals = a b\n" +
+        "Start = S\n" +
+        "S -> a S b S | b S a S | eps\n";
+
+    /**
+     * Every string over the alphabet of exactly the given length, in lexicographic order.
+     */
+    private static List<String> allStrings(char[] alphabet, int length) {
+        List<String> strings = new ArrayList<>();
+        strings.add("");
+        for (int i = 0; i < length; i++) {
+            List<String> longer = new ArrayList<>();
+            for (String prefix : strings) {
+                for (char c : alphabet) longer.add(prefix + c);
+            }
+            strings = longer;
+        }
+        return strings;
+    }
+
+    @Test
+    @DisplayName("Enumerated language matches the CYK parser for short strings")
+    void testEnumeratorMatchesCyk() {
+        for (String text : Arrays.asList(ZERO_N_ONE_N_GRAMMAR, EQUAL_COUNT_GRAMMAR, UNIT_CYCLE_GRAMMAR)) {
+            CFG cfg = grammar(text);
+            CFGEnumerator enumerator = new CFGEnumerator(cfg, 6);
+            char[] alphabet = enumerator.getAlphabet();
+
+            long total = 0;
+            for (int length = 0; length <= 6; length++) {
+                List<String> expected = new ArrayList<>();
+                for (String input : allStrings(alphabet, length)) {
+                    boolean accepted = cfg.execute(input).isAccepted();
+                    assertEquals(accepted, enumerator.accepts(input), text + " on \"" + input + "\"");
+                    if (accepted) expected.add(input);
+                }
+                assertEquals(expected, enumerator.acceptedStrings(length), text + " at length " + length);
+                assertEquals(expected.size(), enumerator.count(length));
+                total += expected.size();
+            }
+            assertEquals(total, enumerator.countAll());
+        }
+
+        // 0^n 1^n: exactly one string of every even length
+        CFGEnumerator zeroOne = new CFGEnumerator(grammar(ZERO_N_ONE_N_GRAMMAR), 6);
+        assertEquals(Arrays.asList("", "01", "0011", "000111"), zeroOne.acceptedStrings());
+    }
+
+    @Test
+    @DisplayName("Written test file reads back with the same verdicts")
+    void testWriteTestFileRoundTrip() throws IOException {
+        CFG cfg = grammar(EQUAL_COUNT_GRAMMAR);
+        CFGEnumerator enumerator = new CFGEnumerator(cfg, 5);
+
+        String all = tempDir.resolve("all.test").toString();
+        int written = enumerator.writeTestFile(all, true);
+        assertEquals(63, written, "Every string over {a, b} up to length 5");
+        assertEquals(",1", Files.readAllLines(Paths.get(all)).get(0));
+
+        List<TestCase> cases = TestFileParser.parseTestFile(all).getTestCases();
+        assertEquals(written, cases.size());
+        assertEquals("", cases.get(0).getInput());
+        assertTrue(cases.get(0).shouldAccept());
+        for (TestCase testCase : cases) {
+            assertEquals(cfg.execute(testCase.getInput()).isAccepted(), testCase.shouldAccept(), testCase.toString());
+        }
+
+        String accepted = tempDir.resolve("accepted.test").toString();
+        assertEquals(enumerator.countAll(), enumerator.writeTestFile(accepted, false));
+        List<String> inputs = new ArrayList<>();
+        for (TestCase testCase : TestFileParser.parseTestFile(accepted).getTestCases()) {
+            assertTrue(testCase.shouldAccept());
+            inputs.add(testCase.getInput());
+        }
+        assertEquals(enumerator.acceptedStrings(), inputs);
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -204,4 +205,144 @@ public class DFATest {
             assertFalse(noFinalDFA.execute("aa").isAccepted());
         }
     }
+
+    @Nested
+    @DisplayName("Minimization Tests")
+    class MinimizationTests {
+
+        // Even number of a's, with q2/q3 duplicating q0/q1 and q4 unreachable
+        private final String bloated =
+            "Start: q0\n" +
+            "Finals: q0 q2\n" +
+            "Alphabet: a b\n" +
+            "States: q0 q1 q2 q3 q4\n" +
+            "\n" +
+            "Transitions:\n" +
+            "q0 -> q1 (a)\n" +
+            "q0 -> q0 (b)\n" +
+            "q1 -> q2 (a)\n" +
+            "q1 -> q1 (b)\n" +
+            "q2 -> q3 (a)\n" +
+            "q2 -> q2 (b)\n" +
+            "q3 -> q0 (a)\n" +
+            "q3 -> q3 (b)\n" +
+            "q4 -> q0 (a b)\n";
+
+        @Test
+        @DisplayName("Equivalent states are merged and unreachable ones dropped")
+        void testMinimize() {
+            DFA parsed = new DFA();
+            assertTrue(parsed.parse(bloated).isSuccess());
+
+            DFAMinimizer.Result result = parsed.minimize();
+            assertEquals(5, result.getOriginalStateCount());
+            assertEquals(2, result.getMinimalStateCount());
+            assertEquals("Your DFA has 5 states, minimal is 2.", result.getSummary());
+
+            assertEquals("q0", result.getStateMapping().get("q2"));
+            assertEquals("q1", result.getStateMapping().get("q3"));
+            assertFalse(result.getStateMapping().containsKey("q4"));
+
+            DFA minimal = result.getMinimalDFA();
+            assertEquals(2, minimal.getStates().size());
+            for (String input : new String[]{"", "a", "aa", "ab", "bab", "abab", "aaa"}) {
+                assertEquals(parsed.execute(input).isAccepted(), minimal.execute(input).isAccepted(), input);
+            }
+            assertTrue(result.getMinimalDFA().minimize().isMinimal());
+        }
+
+        @Test
+        @DisplayName("Missing transitions become a named sink")
+        void testSink() {
+            DFA partial = new DFA();
+            assertTrue(partial.parse(
+                "Start: q0\nFinals: q1\nAlphabet: a b\nStates: q0 q1\n\nTransitions:\nq0 -> q1 (a)\n").isSuccess());
+
+            DFAMinimizer.Result result = partial.minimize();
+            assertTrue(result.isDeadStateAdded());
+            assertEquals(2, result.getMinimalStateCount(), "The added sink is not counted");
+            assertTrue(result.isMinimal());
+            assertEquals("Your DFA has 2 states, which is minimal.", result.getSummary());
+            Set<String> names = new HashSet<>();
+            for (State s : result.getMinimalDFA().getStates()) names.add(s.getName());
+            assertEquals(new HashSet<>(java.util.Arrays.asList("q0", "q1", "dead")), names);
+            assertTrue(result.getMinimalDFA().execute("a").isAccepted());
+            assertFalse(result.getMinimalDFA().execute("ab").isAccepted());
+        }
+
+        @Test
+        @DisplayName("Partial DFA is compared with the minimal partial DFA")
+        void testPartialNotMinimal() {
+            // q1 and q2 are equivalent; both lack a b-transition
+            DFA partial = new DFA();
+            assertTrue(partial.parse(
+                "Start: q0\nFinals: q1 q2\nAlphabet: a b\nStates: q0 q1 q2\n\nTransitions:\n" +
+                "q0 -> q1 (a)\nq1 -> q2 (a)\nq2 -> q1 (a)\n").isSuccess());
+
+            DFAMinimizer.Result result = partial.minimize();
+            assertEquals(2, result.getMinimalStateCount());
+            assertEquals(3, result.getMinimalDFA().getStates().size(), "The minimal DFA itself is complete");
+            assertFalse(result.isMinimal());
+            assertEquals("Your DFA has 3 states, minimal is 2.", result.getSummary());
+        }
+
+        @Test
+        @DisplayName("Explicit dead state of a complete DFA is counted")
+        void testExplicitDeadState() {
+            DFA complete = new DFA();
+            assertTrue(complete.parse(
+                "Start: q0\nFinals: q1\nAlphabet: a b\nStates: q0 q1 q2\n\nTransitions:\n" +
+                "q0 -> q1 (a)\nq0 -> q2 (b)\nq1 -> q2 (a b)\nq2 -> q2 (a b)\n").isSuccess());
+
+            DFAMinimizer.Result result = complete.minimize();
+            assertFalse(result.isDeadStateAdded());
+            assertEquals(3, result.getMinimalStateCount());
+            assertTrue(result.isMinimal());
+        }
+
+        @Test
+        @DisplayName("Accepting sinks of the fixture are merged")
+        void testFixture() {
+            DFAMinimizer.Result result = dfa.minimize();
+            assertEquals(result.getStateMapping().get("q5"), result.getStateMapping().get("q7"));
+            assertEquals(7, result.getMinimalStateCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Structural Analysis Tests")
+    class AnalysisTests {
+
+        @Test
+        @DisplayName("Analysis is computed once and describes the fixture")
+        void testAnalysisIsCached() {
+            DFAAnalysis analysis = dfa.getAnalysis();
+            assertSame(analysis, dfa.getAnalysis());
+            assertTrue(analysis.isComplete());
+            assertTrue(analysis.getUnreachableStates().isEmpty());
+            assertTrue(analysis.getDeadEndStates().isEmpty());
+            assertTrue(analysis.getStatesWithoutPathToFinal().isEmpty());
+
+            assertTrue(dfa.execute("aabacb").isAccepted());
+            assertSame(analysis, dfa.getAnalysis(), "Execution should reuse the analysis");
+        }
+
+        @Test
+        @DisplayName("Parsing invalidates the analysis; the caller's sets do not")
+        void testAnalysisInvalidation() {
+            DFAAnalysis before = dfa.getAnalysis();
+            states.add(new State("q8"));
+            transitions.clear();
+
+            assertSame(before, dfa.getAnalysis(), "The DFA keeps its own copies of the sets");
+            assertFalse(dfa.getStates().stream().anyMatch(s -> s.getName().equals("q8")));
+            assertTrue(dfa.execute("aabacb").isAccepted());
+
+            assertTrue(dfa.parse("Start: q0\nFinals: q0\nAlphabet: a\nStates: q0 q1\nTransitions:\nq0 -> q0 (a)\n").isSuccess());
+            DFAAnalysis parsed = dfa.getAnalysis();
+            assertEquals(Collections.singleton("q1"), parsed.getUnreachableStates());
+            assertEquals(Collections.singleton("q1"), parsed.getDeadEndStates());
+            assertFalse(parsed.isComplete());
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package RegularExpression;
+
+import RegularExpression.Checker.BatchCheck;
+import RegularExpression.Checker.Check;
+import RegularExpression.SyntaxTree.RegularExpression;
+import common.CompiledDFA;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchCheckTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeCases(int lines) throws IOException {
+        Path cases = tempDir.resolve("cases.test");
+        Random random = new Random(11);
+        RegularExpression reference = new RegularExpression("(0u1(01*0)*1)*", new char[]{'0', '1'});
+        try (BufferedWriter bw = Files.newBufferedWriter(cases, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                StringBuilder sb = new StringBuilder();
+                int len = random.nextInt(16);
+                for (int j = 0; j < len; j++) sb.append(random.nextBoolean() ? '1' : '0');
+                boolean label = reference.match(sb.toString());
+                if (i % 97 == 0) label = !label; // some wrong labels
+                bw.write(sb + "," + (label ? 1 : 0));
+                bw.write(i % 5 == 0 ? "\r\n" : "\n");
+                if (i % 1000 == 0) bw.write("   \n");
+                if (i == 5000) bw.write("no label here\n");
+                if (i == 6000) bw.write("0101,x\n");
+            }
+        }
+        return cases;
+    }
+
+    private static String captureOut(Runnable action) {
+        PrintStream original = System.out;
+        PrintStream originalErr = System.err;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(out, true));
+            System.setErr(new PrintStream(new ByteArrayOutputStream(), true));
+            action.run();
+        } finally {
+            System.setOut(original);
+            System.setErr(originalErr);
+        }
+        return out.toString();
+    }
+
+    @Test
+    @DisplayName("Parallel check prints the same summary as the sequential check")
+    void testSameOutputAsSequential() throws IOException {
+        Path cases = writeCases(20000);
+        Path regex = tempDir.resolve("regex.txt");
+        Files.write(regex, "(0u1(01*0)*1)*\n".getBytes(StandardCharsets.UTF_8));
+
+        String sequential = captureOut(() -> Check.check(regex.toString(), cases.toString()));
+        String parallel = captureOut(() -> Check.checkParallel(regex.toString(), cases.toString(), 8, 0));
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    @DisplayName("Result is independent of the number of workers")
+    void testDeterministic() throws IOException {
+        Path cases = writeCases(50000);
+        CompiledDFA dfa = new RegularExpression("(0u1(01*0)*1)*", new char[]{'0', '1'}).st.toCompiledDFA();
+
+        BatchCheck.Result single = BatchCheck.check(dfa, cases, 1, 10);
+        BatchCheck.Result many = BatchCheck.check(dfa, cases, 8, 10);
+        assertEquals(single.getCorrect(), many.getCorrect());
+        assertEquals(single.getWrong(), many.getWrong());
+        assertEquals(single.getMessages(), many.getMessages());
+        assertEquals(2, many.getMessages().size(), "One malformed line and one invalid label");
+        assertEquals(10, many.getMismatches().size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(single.getMismatches().get(i).toString(), many.getMismatches().get(i).toString());
+        }
+        assertEquals(1, many.getMismatches().get(0).getLineNumber(), "The first case is mislabelled on purpose");
+    }
+
+    @Test
+    @DisplayName("Alphabet expands class ranges and leaves out repetition bounds")
+    void testClassesAndRepetitionAlphabet() throws IOException {
+        Path regex = tempDir.resolve("regex.txt");
+        Files.write(regex, "[a-c][^a]{2,3}\n".getBytes(StandardCharsets.UTF_8));
+        Path cases = tempDir.resolve("cases.test");
+        Files.write(cases, ("abb,1\ncbc,1\nbcbc,1\nab,0\nabbbb,0\naab,0\na22,0\na23,0\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        String sequential = captureOut(() -> Check.check(regex.toString(), cases.toString()));
+        assertTrue(sequential.contains("Correct: 8"), sequential);
+        assertTrue(sequential.contains("Wrong: 0"), sequential);
+        assertEquals(sequential, captureOut(() -> Check.checkParallel(regex.toString(), cases.toString(), 2, 0)));
+    }
+}
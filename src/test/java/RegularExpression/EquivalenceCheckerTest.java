@@ -0,0 +1,157 @@
+package RegularExpression;
+
+import DeterministicFiniteAutomaton.DFA;
+import NondeterministicFiniteAutomaton.NFA;
+import RegularExpression.Checker.EquivalenceChecker;
+import RegularExpression.SyntaxTree.SyntaxTree;
+import common.Automaton;
+import common.CompiledDFA;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EquivalenceCheckerTest {
+
+    private static SyntaxTree regex(String text) {
+        SyntaxTree st = new SyntaxTree();
+        Automaton.ParseResult result = st.parse(text);
+        assertTrue(result.isSuccess(), "Regex should parse: " + result.getValidationMessages());
+        return st;
+    }
+
+    @Nested
+    @DisplayName("Regex against regex")
+    class RegexAgainstRegexTests {
+
+        @Test
+        @DisplayName("Equivalent expressions written differently")
+        void testEquivalentExpressions() {
+            EquivalenceChecker.Result r = EquivalenceChecker.check(regex("(a*b*)*\na b\n"), regex("(aub)*\na b\n"));
+            assertTrue(r.isEquivalent(), r.getFeedback());
+            assertNull(r.getCounterexample());
+            assertEquals(1, r.getStudentStates(), "(aub)* has a one-state minimal DFA");
+        }
+
+        @Test
+        @DisplayName("Shortest counterexample for a missing string")
+        void testIncorrectlyRejected() {
+            EquivalenceChecker.Result r = EquivalenceChecker.check(regex("a*b\na b\n"), regex("a*ba*\na b\n"));
+            assertFalse(r.isEquivalent());
+            assertEquals("ba", r.getCounterexample());
+            assertTrue(r.isExpectedAccept());
+            assertEquals("Incorrectly rejected: \"ba\"", r.getFeedback());
+        }
+
+        @Test
+        @DisplayName("Empty string as counterexample")
+        void testEmptyStringCounterexample() {
+            EquivalenceChecker.Result r = EquivalenceChecker.check(regex("a*\na\n"), regex("aa*\na\n"));
+            assertFalse(r.isEquivalent());
+            assertEquals("", r.getCounterexample());
+            assertFalse(r.isExpectedAccept());
+            assertTrue(r.getFeedback().startsWith("Incorrectly accepted"));
+        }
+
+        @Test
+        @DisplayName("Symbols missing from one alphabet are rejected on that side")
+        void testDifferentAlphabets() {
+            EquivalenceChecker.Result r = EquivalenceChecker.check(regex("a*\na\n"), regex("(aub)*\na b\n"));
+            assertFalse(r.isEquivalent());
+            assertEquals("b", r.getCounterexample());
+            assertTrue(r.isExpectedAccept());
+        }
+    }
+
+    @Nested
+    @DisplayName("Regex against finite automata")
+    class RegexAgainstAutomatonTests {
+
+        @Test
+        @DisplayName("Regex equivalent to a DFA")
+        void testAgainstDfa() {
+            DFA dfa = new DFA();
+            Automaton.ParseResult parsed = dfa.parse(
+                    "Start: q0\n" +
+                    "Finals: q1\n" +
+                    "Alphabet: a b\n" +
+                    "States: q0 q1\n" +
+                    "\n" +
+                    "Transitions:\n" +
+                    "q0 -> q0 (a)\n" +
+                    "q0 -> q1 (b)\n" +
+                    "q1 -> q1 (a b)\n");
+            assertTrue(parsed.isSuccess());
+            assertTrue(EquivalenceChecker.check(regex("a*b(aub)*\na b\n"), dfa).isEquivalent());
+
+            EquivalenceChecker.Result r = EquivalenceChecker.check(regex("a*b\na b\n"), dfa);
+            assertFalse(r.isEquivalent());
+            assertEquals("ba", r.getCounterexample());
+        }
+
+        @Test
+        @DisplayName("Regex equivalent to an NFA with epsilon moves")
+        void testAgainstNfa() {
+            NFA nfa = new NFA();
+            Automaton.ParseResult parsed = nfa.parse(
+                    "Start: q1\n" +
+                    "Finals: q2\n" +
+                    "Alphabet: a b\n" +
+                    "States: q1 q2\n" +
+                    "\n" +
+                    "Transitions:\n" +
+                    "q1 -> q2 (a b eps)\n" +
+                    "q2 -> q2 (a b)\n");
+            assertTrue(parsed.isSuccess());
+            assertTrue(EquivalenceChecker.check(regex("(aub)*\na b\n"), nfa).isEquivalent());
+        }
+    }
+
+    @Nested
+    @DisplayName("Compiled tables")
+    class CompiledTableTests {
+
+        @Test
+        @DisplayName("Minimization merges equivalent states and keeps the language")
+        void testMinimize() {
+            // Even number of a's, with two redundant copies of each parity state
+            int[][] delta = {{1}, {2}, {3}, {0}};
+            CompiledDFA dfa = new CompiledDFA(new char[]{'a'}, delta, new boolean[]{true, false, true, false}, 0);
+            CompiledDFA min = dfa.minimize();
+            assertEquals(2, min.getStateCount());
+            assertTrue(min.accepts("aaaa"));
+            assertFalse(min.accepts("aaa"));
+            assertNull(dfa.findDistinguishingString(min));
+        }
+
+        @Test
+        @DisplayName("Missing transitions go to a rejecting sink")
+        void testMissingTransitions() {
+            CompiledDFA dfa = new CompiledDFA(new char[]{'a', 'b'}, new int[][]{{0, -1}}, new boolean[]{true}, 0);
+            assertEquals(2, dfa.getStateCount());
+            assertTrue(dfa.accepts("aaa"));
+            assertFalse(dfa.accepts("ab"));
+            assertFalse(dfa.accepts("c"));
+        }
+
+        @Test
+        @DisplayName("Compiling with a state budget gives up on large determinisations")
+        void testStateBudget() {
+            // a at the 12th position from the end: the minimal DFA has 2^12 states
+            StringBuilder text = new StringBuilder("(aub)*a");
+            for (int i = 1; i < 12; i++) text.append("(aub)");
+            SyntaxTree st = regex(text + "\na b\n");
+            assertNull(EquivalenceChecker.compile(st, 1000));
+            assertNull(st.getDerivativeMatcher().toCompiledDFA(1000));
+            CompiledDFA full = EquivalenceChecker.compile(st, 5000);
+            assertNotNull(full);
+            assertEquals(4096, full.minimize().getStateCount());
+
+            DFA dfa = (DFA) new DFA().parse(
+                "Start: q0\nFinals: q1\nAlphabet: a\nStates: q0 q1\nTransitions:\nq0 -> q1 (a)\nq1 -> q0 (a)\n")
+                .getAutomaton();
+            assertNotNull(EquivalenceChecker.compile(dfa, 1), "DFAs are never refused");
+        }
+    }
+}
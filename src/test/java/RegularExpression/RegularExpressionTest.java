@@ -1,6 +1,9 @@
 package RegularExpression;
 
 import RegularExpression.SyntaxTree.RegularExpression;
+import RegularExpression.SyntaxTree.RepeatNode;
+import RegularExpression.SyntaxTree.SyntaxTree;
+import common.Automaton;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -559,4 +562,329 @@ public class RegularExpressionTest {
             assertFalse(mixed.match("bc"), "Should not match 'bc'");
         }
     }
-} 
\ No newline at end of file
+    
+    @Nested
+    @DisplayName("Compiled Matcher Tests")
+    class CompiledMatcherTests {
+        
+        private void assertSameAsTreeWalk(String regex, char[] alphabet, int maxLen) {
+            RegularExpression compiled = new RegularExpression(regex, alphabet);
+            java.util.List<String> inputs = new java.util.ArrayList<>();
+            inputs.add("");
+            for (int i = 0; i < inputs.size(); i++) {
+                if (inputs.get(i).length() == maxLen) continue;
+                for (char c : alphabet) inputs.add(inputs.get(i) + c);
+            }
+            for (String input : inputs) {
+                boolean expected = compiled.st.root.match(input, 0).contains(input.length());
+                assertEquals(expected, compiled.match(input), regex + " on '" + input + "'");
+            }
+        }
+        
+        @Test
+        @DisplayName("Compiled matcher agrees with tree walking")
+        void testAgreesWithTreeWalk() {
+            char[] ab = {'a', 'b'};
+            assertSameAsTreeWalk("(a*)*b", ab, 8);
+            assertSameAsTreeWalk("(aub)*abb", ab, 8);
+            assertSameAsTreeWalk("(εua)(bu(ab)*)*", ab, 8);
+            assertSameAsTreeWalk("a*b*ua*", ab, 8);
+            assertSameAsTreeWalk("(0u1(01*0)*1)*", new char[]{'0', '1'}, 10);
+        }
+        
+        @Test
+        @DisplayName("Nested stars stay linear on long inputs")
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void testNestedStarsLinear() {
+            RegularExpression nested = new RegularExpression("((a*)*)*b", new char[]{'a', 'b'});
+            String as = repeat("a", 200000);
+            assertTrue(nested.match(as + "b"), "Should match a^n b");
+            assertFalse(nested.match(as), "Should not match a^n");
+        }
+        
+        @Test
+        @DisplayName("Symbols outside the alphabet are rejected")
+        void testForeignSymbolRejected() {
+            RegularExpression ab = new RegularExpression("(aub)*", new char[]{'a', 'b'});
+            assertFalse(ab.match("abc"), "Should not match 'abc'");
+            assertTrue(ab.match("abba"), "Should match 'abba'");
+        }
+    }
+    
+    @Nested
+    @DisplayName("Tree Matching Oracle Tests")
+    class TreeMatchingOracleTests {
+        
+        @Test
+        @DisplayName("End positions of a prefix match")
+        void testEndPositions() {
+            RegularExpression prefix = new RegularExpression("a*b*", new char[]{'a', 'b'});
+            java.util.BitSet ends = prefix.st.root.matchEnds("aabba", 0);
+            assertEquals("{0, 1, 2, 3, 4}", ends.toString(), "Every prefix up to the last b matches");
+            assertEquals(new java.util.HashSet<>(java.util.Arrays.asList(0, 1, 2, 3, 4)),
+                    prefix.st.root.match("aabba", 0), "Set view should match bitmap view");
+        }
+        
+        @Test
+        @DisplayName("Memoized tree walk handles nested stars")
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void testNestedStarsMemoized() {
+            RegularExpression nested = new RegularExpression("((a*)*)*b", new char[]{'a', 'b'});
+            String as = repeat("a", 300);
+            assertTrue(nested.st.root.match(as + "b", 0).contains(301), "Should match a^n b");
+            assertFalse(nested.st.root.match(as, 0).contains(300), "Should not match a^n");
+        }
+    }
+    
+    @Nested
+    @DisplayName("Derivative Matcher Tests")
+    class DerivativeMatcherTests {
+        
+        @Test
+        @DisplayName("Derivative matcher agrees with the compiled matcher")
+        void testAgreesWithCompiledMatcher() {
+            String[] regexes = {"(a*)*b", "(aub)*abb", "(εua)(bu(ab)*)*", "a*b*ua*", "((aub)(aub))*"};
+            for (String regex : regexes) {
+                RegularExpression expr = new RegularExpression(regex, new char[]{'a', 'b'});
+                java.util.List<String> inputs = new java.util.ArrayList<>();
+                inputs.add("");
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (inputs.get(i).length() == 8) continue;
+                    inputs.add(inputs.get(i) + 'a');
+                    inputs.add(inputs.get(i) + 'b');
+                }
+                for (String input : inputs) {
+                    assertEquals(expr.match(input), expr.st.getDerivativeMatcher().matches(input),
+                            regex + " on '" + input + "'");
+                }
+            }
+        }
+        
+        @Test
+        @DisplayName("Derivatives of nested stars stay finite")
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void testFiniteDerivatives() {
+            RegularExpression nested = new RegularExpression("((a*)*(bub*))*", new char[]{'a', 'b'});
+            String input = repeat("ab", 100000);
+            assertTrue(nested.st.getDerivativeMatcher().matches(input), "Should match (ab)^n");
+            assertTrue(nested.st.getDerivativeMatcher().getTermCount() < 50, "Derivative terms should be reused");
+        }
+        
+        @Test
+        @DisplayName("Derivative DFA recognises the same language")
+        void testDerivativeDfa() {
+            RegularExpression expr = new RegularExpression("(aub)*abb", new char[]{'a', 'b'});
+            assertNull(expr.st.getDerivativeMatcher().toCompiledDFA()
+                    .findDistinguishingString(expr.st.toCompiledDFA()), "Both constructions should agree");
+            assertEquals(4, expr.st.getDerivativeMatcher().toCompiledDFA().minimize().getStateCount());
+        }
+    }
+    
+    @Nested
+    @DisplayName("Exhaustive Generation Tests")
+    class ExhaustiveGenerationTests {
+        
+        @Test
+        @DisplayName("Cases are labelled correctly and in length-lexicographic order")
+        void testLabelsAndOrder() throws java.io.IOException {
+            RegularExpression expr = new RegularExpression("(aub)*abb", new char[]{'b', 'a'});
+            java.io.StringWriter correct = new java.io.StringWriter();
+            java.io.StringWriter wrong = new java.io.StringWriter();
+            long accepted = expr.generateCasesExhaustive(6, true, correct);
+            long rejected = expr.generateCasesExhaustive(6, false, wrong);
+            assertEquals(127, accepted + rejected, "Every string up to length 6 appears once");
+            
+            String[] lines = correct.toString().split(System.lineSeparator());
+            assertEquals(accepted, lines.length);
+            assertEquals("abb,1", lines[0]);
+            assertEquals("aabb,1", lines[1]);
+            assertEquals("babb,1", lines[2]);
+            for (String line : lines)
+                assertTrue(expr.match(line.substring(0, line.length() - 2)), line);
+            for (String line : wrong.toString().split(System.lineSeparator()))
+                assertFalse(expr.match(line.substring(0, line.length() - 2)), line);
+        }
+        
+        @Test
+        @DisplayName("Long binary lengths are streamed")
+        @Timeout(value = 20, unit = TimeUnit.SECONDS)
+        void testLongLengths() throws java.io.IOException {
+            RegularExpression expr = new RegularExpression("(0u1(01*0)*1)*", new char[]{'0', '1'});
+            java.io.Writer sink = new java.io.Writer() {
+                @Override public void write(char[] cbuf, int off, int len) { }
+                @Override public void flush() { }
+                @Override public void close() { }
+            };
+            long accepted = expr.generateCasesExhaustive(20, true, sink);
+            long rejected = expr.generateCasesExhaustive(20, false, sink);
+            assertEquals((1L << 21) - 1, accepted + rejected, "All binary strings up to length 20");
+        }
+    }
+    
+    @Nested
+    @DisplayName("Random Sampling Tests")
+    class RandomSamplingTests {
+        
+        @Test
+        @DisplayName("Sampled strings have the requested length and verdict")
+        void testSampledVerdicts() {
+            java.util.Set<String> ok = re.sampleCases(50, 40, true, new java.util.Random(7));
+            java.util.Set<String> bad = re.sampleCases(50, 40, false, new java.util.Random(7));
+            assertEquals(50, ok.size());
+            assertEquals(50, bad.size());
+            for (String s : ok) {
+                assertEquals(40, s.length());
+                assertTrue(re.match(s), s);
+            }
+            for (String s : bad) {
+                assertEquals(40, s.length());
+                assertFalse(re.match(s), s);
+            }
+        }
+        
+        @Test
+        @DisplayName("Same seed gives the same suite")
+        void testSeeded() {
+            assertEquals(re.sampleCases(20, 30, true, new java.util.Random(42)),
+                    re.sampleCases(20, 30, true, new java.util.Random(42)));
+        }
+        
+        @Test
+        @DisplayName("Small languages return every member instead of looping")
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void testSmallLanguage() {
+            RegularExpression small = new RegularExpression("aubuab", new char[]{'a', 'b'});
+            assertEquals(new java.util.HashSet<>(java.util.Arrays.asList("a", "b")),
+                    small.sampleCases(10, 1, true, new java.util.Random(1)));
+            assertTrue(small.sampleCases(10, 3, true, new java.util.Random(1)).isEmpty());
+        }
+        
+        @Test
+        @DisplayName("Draws are uniform over strings of one length")
+        void testUniform() {
+            // a*b* has exactly 5 strings of length 4
+            common.LanguageSampler sampler = new common.LanguageSampler(
+                    new RegularExpression("a*b*", new char[]{'a', 'b'}).st.toCompiledDFA(), 4);
+            assertEquals(java.math.BigInteger.valueOf(5), sampler.count(4, true));
+            java.util.Map<String, Integer> seen = new java.util.HashMap<>();
+            java.util.Random random = new java.util.Random(3);
+            for (int i = 0; i < 5000; i++)
+                seen.merge(sampler.sample(4, true, random), 1, Integer::sum);
+            assertEquals(5, seen.size());
+            for (int c : seen.values())
+                assertTrue(c > 850 && c < 1150, "Each string should be drawn about 1000 times: " + seen);
+        }
+    }
+    
+    @Nested
+    @DisplayName("Extended operators")
+    class ExtendedOperatorTests {
+        
+        private final char[] abc = {'a', 'b', 'c'};
+        
+        /** Every engine must agree with the equivalent expression in the basic syntax. */
+        private void assertSameLanguage(String extended, String basic) {
+            SyntaxTree ext = new SyntaxTree(extended, abc);
+            SyntaxTree exp = new SyntaxTree(basic, abc);
+            java.util.Random random = new java.util.Random(17);
+            for (int i = 0; i < 300; i++) {
+                StringBuilder sb = new StringBuilder();
+                int len = random.nextInt(10);
+                for (int j = 0; j < len; j++) sb.append(abc[random.nextInt(3)]);
+                String s = sb.toString();
+                boolean expected = exp.getMatcher().matches(s);
+                assertEquals(expected, ext.getMatcher().matches(s), extended + " on " + s);
+                assertEquals(expected, ext.getDerivativeMatcher().matches(s), extended + " on " + s);
+                assertEquals(expected, ext.root.matchEnds(s, 0).get(s.length()), extended + " on " + s);
+            }
+        }
+        
+        @Test
+        @DisplayName("Plus and optional")
+        void testPlusAndOptional() {
+            assertSameLanguage("a+b?", "aa*(bueps)");
+            assertSameLanguage("(ab)+c", "ab(ab)*c");
+            assertSameLanguage("(a?b?)+", "(aubueps)*");
+        }
+        
+        @Test
+        @DisplayName("Bounded repetition")
+        void testRepetition() {
+            assertSameLanguage("a{2}", "aa");
+            assertSameLanguage("a{1,3}b", "a(aueps)(aueps)b");
+            assertSameLanguage("(ab){2,}", "abab(ab)*");
+            assertSameLanguage("(aub){,2}c", "((aub)ueps)((aub)ueps)c");
+            assertSameLanguage("(a*b){0,1}", "(a*bueps)");
+        }
+        
+        @Test
+        @DisplayName("Character classes")
+        void testCharacterClasses() {
+            assertSameLanguage("[ab]*c", "(aub)*c");
+            assertSameLanguage("[a-b]c[^a]", "(aub)c(buc)");
+            assertSameLanguage("[a-z]+", "(aubuc)(aubuc)*");
+        }
+        
+        @Test
+        @DisplayName("Large bounds stay compact in the tree")
+        void testLargeBounds() {
+            RegularExpression big = new RegularExpression("(ab){500,1000}", new char[]{'a', 'b'});
+            assertTrue(big.st.root instanceof RepeatNode);
+            assertTrue(big.match(repeat("ab", 500)));
+            assertTrue(big.match(repeat("ab", 1000)));
+            assertFalse(big.match(repeat("ab", 499)));
+            assertFalse(big.match(repeat("ab", 1001)));
+            assertTrue(big.st.getDerivativeMatcher().matches(repeat("ab", 750)));
+        }
+        
+        @Test
+        @DisplayName("Expansions beyond the position limit are reported, not thrown")
+        void testPositionLimit() {
+            SyntaxTree wide = new SyntaxTree();
+            assertTrue(wide.parse("(aubuc){1000}\na b c\n").isSuccess());
+            assertEquals(3000, wide.getMatcher().getPositionCount());
+            
+            Automaton.ParseResult nested = new SyntaxTree().parse("((aub){100}){100}\na b\n");
+            assertFalse(nested.isSuccess());
+            assertTrue(nested.getValidationMessages().stream()
+                    .anyMatch(m -> m.getMessage().startsWith("Regex is too large")), nested.getValidationMessages().toString());
+        }
+        
+        @Test
+        @DisplayName("Alphabet symbols are never read as operators")
+        void testAlphabetTakesPrecedence() {
+            RegularExpression re = new RegularExpression("a+?", new char[]{'a', '+', '?'});
+            assertTrue(re.match("a+?"));
+            assertFalse(re.match("a"));
+        }
+        
+        @Test
+        @DisplayName("Sanitized length counts the source, not the expansion")
+        void testSanitizedLength() {
+            SyntaxTree st = new SyntaxTree();
+            assertTrue(st.parse("a{2,500}[bc]+\na b c\n").isSuccess());
+            assertEquals("a{2,500}.[bc]+".length(), st.getSanitizedRegexLength());
+        }
+        
+        @Test
+        @DisplayName("Malformed repetitions and classes are reported")
+        void testErrors() {
+            String[] invalid = {"a{3,2}\na b\n", "a{x}\na b\n", "a{2\na b\n", "[ax]\na b\n",
+                    "[^ab]\na b\n", "a{1,5000}\na b\n", "[c-d]\na b\n"};
+            for (String text : invalid) {
+                assertFalse(new SyntaxTree().parse(text).isSuccess(), text);
+            }
+        }
+        
+        @Test
+        @DisplayName("Generated cases belong to the language")
+        void testGeneration() {
+            RegularExpression re = new RegularExpression("[ab]{2,3}c?", abc);
+            for (String s : re.st.root.generateCasesExhaustive(4)) assertTrue(re.match(s), s);
+            for (int i = 0; i < 50; i++) {
+                String s = re.st.root.generateOneCase();
+                assertTrue(re.match(s), s);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package common;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Alphabet index")
+class AlphabetIndexTest {
+
+    @Test
+    @DisplayName("Indices are dense and follow the given order")
+    void testDenseIndices() {
+        AlphabetIndex index = new AlphabetIndex(new char[]{'b', 'a', 'ε', 'b', '#'});
+        assertEquals(4, index.size());
+        assertEquals(0, index.indexOf('b'));
+        assertEquals(1, index.indexOf('a'));
+        assertEquals(2, index.indexOf('ε'));
+        assertEquals(3, index.indexOf('#'));
+        assertEquals(-1, index.indexOf('c'));
+        assertEquals(-1, index.indexOf('λ'));
+        assertArrayEquals(new char[]{'b', 'a', 'ε', '#'}, index.toCharArray());
+        assertEquals('ε', index.symbolAt(2));
+    }
+
+    @Test
+    @DisplayName("Built from symbols in iteration order")
+    void testFromSymbols() {
+        AlphabetIndex index = AlphabetIndex.of(new LinkedHashSet<>(Arrays.asList(new Symbol('1'), new Symbol('0'))));
+        assertTrue(index.contains('0'));
+        assertFalse(index.contains('2'));
+        assertEquals(0, index.indexOf('1'));
+    }
+
+    @Test
+    @DisplayName("Compiled automata reject duplicate symbols")
+    void testCompiledDuplicates() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompiledDFA(new char[]{'a', 'a'}, new int[][]{{0, 0}}, new boolean[]{true}, 0));
+    }
+}
@@ -0,0 +1,163 @@
+package common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import DeterministicFiniteAutomaton.DFA;
+import NondeterministicFiniteAutomaton.NFA;
+
+/**
+ * Test class for grading against a compiled reference suite.
+ */
+public class ReferenceSuiteTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String CONTAINS_11_NFA =
+        "Start: q0\n" +
+        "Finals: q2\n" +
+        "Alphabet: 0 1\n" +
+        "States: q0 q1 q2\n" +
+        "Transitions:\n" +
+        "q0 -> q0 (0 1)\n" +
+        "q0 -> q1 (1)\n" +
+        "q1 -> q2 (1)\n" +
+        "q2 -> q2 (0 1)\n";
+
+    private static final String ENDS_WITH_1_DFA =
+        "Start: q0\n" +
+        "Finals: q1\n" +
+        "Alphabet: 0 1\n" +
+        "States: q0 q1\n" +
+        "Transitions:\n" +
+        "q0 -> q0 (0)\n" +
+        "q0 -> q1 (1)\n" +
+        "q1 -> q0 (0)\n" +
+        "q1 -> q1 (1)\n";
+
+    /**
+     * Writes every binary string up to maxLen labelled "ends with 1", in an arbitrary order.
+     */
+    private Path writeSuite(int maxLen, boolean skipOne) throws IOException {
+        Path file = tempDir.resolve("suite.test");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("#min_points=3");
+            writer.println("#max_points=12");
+            for (int len = maxLen; len >= 0; len--) {
+                for (int v = (1 << len) - 1; v >= 0; v--) {
+                    if (skipOne && len == 2 && v == 1) continue;
+                    StringBuilder sb = new StringBuilder();
+                    for (int i = len - 1; i >= 0; i--) sb.append((v >> i) & 1);
+                    writer.println(sb + "," + (len > 0 && (v & 1) == 1 ? 1 : 0));
+                }
+            }
+        }
+        return file;
+    }
+
+    private static void assertSameCounts(TestRunner.TestResult expected, TestRunner.TestResult actual) {
+        assertEquals(expected.getTotalTests(), actual.getTotalTests());
+        assertEquals(expected.getPassedTests(), actual.getPassedTests());
+        assertEquals(expected.getTruePositives(), actual.getTruePositives());
+        assertEquals(expected.getTrueNegatives(), actual.getTrueNegatives());
+        assertEquals(expected.getFalsePositives(), actual.getFalsePositives());
+        assertEquals(expected.getFalseNegatives(), actual.getFalseNegatives());
+        assertEquals(expected.getMaxPoints(), actual.getMaxPoints());
+        assertEquals(expected.getPoints(), actual.getPoints());
+    }
+
+    @Test
+    @DisplayName("Exhaustive suite gives the same counts and score as running the tests")
+    void testMatchesTestRunner() throws IOException {
+        Path suiteFile = writeSuite(10, false);
+        ReferenceSuite suite = ReferenceSuite.compile(suiteFile.toString());
+        assertTrue(suite.isExhaustive());
+        assertEquals(2047, suite.getStringCount());
+
+        Automaton nfa = new NFA().parse(CONTAINS_11_NFA).getAutomaton();
+        Automaton dfa = new DFA().parse(ENDS_WITH_1_DFA).getAutomaton();
+        for (Automaton automaton : new Automaton[]{nfa, dfa}) {
+            CompiledDFA compiled = automaton instanceof NFA ? ((NFA) automaton).toCompiledDFA() : ((DFA) automaton).toCompiledDFA();
+            assertTrue(suite.canGrade(compiled));
+            TestRunner.TestResult expected = TestRunner.runTests(automaton, suiteFile.toString(), 60000);
+            assertSameCounts(expected, suite.grade(compiled));
+        }
+    }
+
+    @Test
+    @DisplayName("Suite with a missing string is not compiled unless a reference is given")
+    void testNonExhaustiveSuite() throws IOException {
+        Path suiteFile = writeSuite(6, true);
+        ReferenceSuite suite = ReferenceSuite.compile(suiteFile.toString());
+        assertFalse(suite.isExhaustive());
+        assertFalse(suite.isCompiled());
+
+        CompiledDFA reference = ((DFA) new DFA().parse(ENDS_WITH_1_DFA).getAutomaton()).toCompiledDFA();
+        ReferenceSuite withReference = ReferenceSuite.compile(suiteFile.toString(), reference);
+        assertTrue(withReference.isCompiled());
+        assertEquals(127, withReference.getStringCount());
+
+        TestRunner.TestResult result = withReference.grade(reference);
+        assertEquals(64, result.getTrueNegatives());
+        assertEquals(63, result.getTruePositives());
+        assertEquals(12.0, result.getPoints());
+    }
+
+    @Test
+    @DisplayName("Reference automaton overrides the labels of an exhaustive suite")
+    void testReferenceOverridesLabels() throws IOException {
+        Path suiteFile = writeSuite(4, false);
+        CompiledDFA reference = ((NFA) new NFA().parse(CONTAINS_11_NFA).getAutomaton()).toCompiledDFA();
+        ReferenceSuite suite = ReferenceSuite.compile(suiteFile.toString(), reference);
+        assertTrue(suite.isExhaustive());
+        assertEquals(31, suite.getStringCount());
+
+        // Strings that end with 1 but do not contain 11, or the other way round
+        int disagreements = 0;
+        int positives = 0;
+        for (int len = 0; len <= 4; len++) {
+            for (int v = 0; v < (1 << len); v++) {
+                boolean endsWith1 = len > 0 && (v & 1) == 1;
+                boolean contains11 = (v & (v >> 1)) != 0;
+                if (endsWith1 != contains11) disagreements++;
+                if (contains11) positives++;
+            }
+        }
+        assertTrue(disagreements > 0);
+
+        // The file's labels: the student matching them passes every test case when run
+        Automaton endsWith1 = new DFA().parse(ENDS_WITH_1_DFA).getAutomaton();
+        TestRunner.TestResult run = TestRunner.runTests(endsWith1, suiteFile.toString(), 60000);
+        assertEquals(31, run.getPassedTests());
+
+        // The reference decides instead
+        TestRunner.TestResult graded = suite.grade(((DFA) endsWith1).toCompiledDFA());
+        assertEquals(31, graded.getTotalTests());
+        assertEquals(31 - disagreements, graded.getPassedTests());
+
+        TestRunner.TestResult exact = suite.grade(reference);
+        assertEquals(31, exact.getPassedTests());
+        assertEquals(positives, exact.getTruePositives());
+        assertEquals(31 - positives, exact.getTrueNegatives());
+    }
+
+    @Test
+    @DisplayName("Wrong strings are listed shortest first")
+    void testListsFailures() throws IOException {
+        ReferenceSuite suite = ReferenceSuite.compile(writeSuite(8, false).toString());
+        CompiledDFA student = ((NFA) new NFA().parse(CONTAINS_11_NFA).getAutomaton()).toCompiledDFA();
+
+        TestRunner.TestResult result = suite.grade(student);
+        assertEquals("\"1\" → REJECT (Expected: ACCEPT)", result.getFailures().get(0));
+        assertEquals("\"01\" → REJECT (Expected: ACCEPT)", result.getFailures().get(1));
+        assertTrue(result.getFailures().get(result.getFailures().size() - 1).startsWith("... and "));
+    }
+}
@@ -0,0 +1,70 @@
+package common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import DeterministicFiniteAutomaton.DFA;
+
+@DisplayName("State and symbol interning")
+class StateInternerTest {
+
+    @Test
+    @DisplayName("Each name maps to one state with a dense id")
+    void testDenseIds() {
+        StateInterner interner = new StateInterner();
+        State q0 = interner.intern("q0");
+        State q1 = interner.intern("q1");
+        assertSame(q0, interner.intern(" q0 "));
+        assertEquals(0, q0.getId());
+        assertEquals(1, q1.getId());
+        assertEquals(2, interner.size());
+        assertSame(q1, interner.get(1));
+        assertSame(q1, interner.get("q1"));
+        assertEquals(-1, new State("q0").getId());
+    }
+
+    @Test
+    @DisplayName("Interned states stay equal by name to other states")
+    void testNameEquality() {
+        State interned = new StateInterner().intern("q0");
+        State plain = new State("q0", true, false);
+        assertEquals(plain, interned);
+        assertEquals(plain.hashCode(), interned.hashCode());
+        assertEquals(java.util.Objects.hash("q0"), interned.hashCode());
+    }
+
+    @Test
+    @DisplayName("Parsed DFA uses the interned states for its start and final states")
+    void testDfaStartAndFinalStatesInterned() {
+        DFA dfa = new DFA();
+        assertTrue(dfa.parse("Start: q0\nFinals: q0 q2\nAlphabet: a\nStates: q0 q1 q2\n"
+            + "Transitions:\nq0 -> q1 (a)\nq1 -> q2 (a)\nq2 -> q0 (a)\n").isSuccess());
+
+        State start = dfa.getStartState();
+        assertNotEquals(-1, start.getId());
+        assertTrue(start.isStart());
+        assertTrue(start.isAccept());
+        for (State state : dfa.getFinalStates()) {
+            assertNotEquals(-1, state.getId());
+            assertTrue(state.isAccept());
+        }
+        for (State state : dfa.getStates()) {
+            if (state.getName().equals("q0")) assertSame(start, state);
+            if (state.getName().equals("q1")) assertFalse(state.isAccept() || state.isStart());
+        }
+    }
+
+    @Test
+    @DisplayName("ASCII symbols are shared")
+    void testSharedSymbols() {
+        assertSame(Symbol.of('a'), Symbol.of('a'));
+        assertEquals(new Symbol('a'), Symbol.of('a'));
+        assertEquals(java.util.Objects.hash('a'), Symbol.of('a').hashCode());
+        assertEquals(new Symbol('λ'), Symbol.of('λ'));
+    }
+}
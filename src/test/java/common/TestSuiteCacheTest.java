@@ -0,0 +1,105 @@
+package common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import NondeterministicFiniteAutomaton.NFA;
+
+/**
+ * Test class for the shared cache of parsed test files.
+ */
+public class TestSuiteCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeSuite(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes());
+        return file;
+    }
+
+    @Test
+    @DisplayName("Cached suite has the same cases and headers as the parsed file")
+    void testSameAsParser() throws IOException {
+        Path file = writeSuite("a.test", "#min_points=3\n#max_points=12\n#max_rules=7\n,0\n0,1\n1,0\n00,1\n");
+        TestFileParser.TestFileResult parsed = TestFileParser.parseTestFile(file.toString());
+        TestFileParser.TestFileResult cached = new TestSuiteCache().get(file.toString());
+
+        assertEquals(parsed.getMinPoints(), cached.getMinPoints());
+        assertEquals(parsed.getMaxPoints(), cached.getMaxPoints());
+        assertEquals(parsed.getMaxRules(), cached.getMaxRules());
+        List<TestCase> expected = parsed.getTestCases();
+        List<TestCase> actual = cached.getTestCases();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getInput(), actual.get(i).getInput());
+            assertEquals(expected.get(i).shouldAccept(), actual.get(i).shouldAccept());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> actual.add(new TestCase("1", true)));
+    }
+
+    @Test
+    @DisplayName("Unchanged file is parsed once, modified file is parsed again")
+    void testReloadOnChange() throws IOException {
+        Path file = writeSuite("a.test", "0,1\n1,0\n");
+        TestSuiteCache cache = new TestSuiteCache();
+        TestFileParser.TestFileResult first = cache.get(file.toString());
+        assertSame(first, cache.get(tempDir.resolve(".").resolve("a.test").toString()));
+
+        Files.write(file, "0,1\n1,1\n".getBytes());
+        file.toFile().setLastModified(file.toFile().lastModified() + 2000);
+        TestFileParser.TestFileResult second = cache.get(file.toString());
+        assertNotSame(first, second);
+        assertTrue(second.getTestCases().get(1).shouldAccept());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Least recently used suites are evicted over the memory budget")
+    void testEviction() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("0101010101,1\n");
+        }
+        Path a = writeSuite("a.test", sb.toString());
+        Path b = writeSuite("b.test", sb.toString());
+        Path c = writeSuite("c.test", sb.toString());
+
+        TestSuiteCache cache = new TestSuiteCache(6000);
+        cache.get(a.toString());
+        cache.get(b.toString());
+        assertEquals(2, cache.size());
+        cache.get(a.toString());
+        cache.get(c.toString());
+        assertEquals(2, cache.size());
+        assertTrue(cache.getEstimatedBytes() <= cache.getMaxBytes());
+
+        TestFileParser.TestFileResult keptA = cache.get(a.toString());
+        assertSame(keptA, cache.get(a.toString()));
+
+        TestSuiteCache tiny = new TestSuiteCache(100);
+        assertEquals(100, tiny.get(a.toString()).getTestCases().size());
+        assertEquals(0, tiny.size());
+        assertEquals(0, tiny.getEstimatedBytes());
+    }
+
+    @Test
+    @DisplayName("Invalid files are reported and not cached")
+    void testInvalidFile() throws IOException {
+        Path file = writeSuite("bad.test", "0,2\n");
+        TestSuiteCache cache = new TestSuiteCache();
+        assertThrows(IllegalArgumentException.class, () -> cache.get(file.toString()));
+        assertEquals(0, cache.size());
+
+        TestRunner.TestResult result = TestRunner.runTests(new NFA(), file.toString(), cache);
+        assertTrue(result.getFailures().get(0).startsWith("Invalid test file format: "));
+    }
+}
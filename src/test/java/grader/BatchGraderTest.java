@@ -0,0 +1,105 @@
+package grader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Test class for extracting student archives.
+ */
+public class BatchGraderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Writes an archive whose entries alternate between names and contents.
+     */
+    private File zip(String name, String... entries) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(file);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(entries[i]));
+                zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return file.toFile();
+    }
+
+    private String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Unchanged archive is not extracted again")
+    void testUnchangedArchiveSkipped() throws IOException {
+        File archive = zip("alice.zip", "Q1a.dfa", "first");
+        assertEquals("Extracted", BatchGrader.extractIfChanged(archive, tempDir.toFile()));
+        Path answer = tempDir.resolve("alice").resolve("Q1a.dfa");
+        assertEquals("first", read(answer));
+
+        Files.write(answer, "edited".getBytes(StandardCharsets.UTF_8));
+        assertEquals("Skipped (unchanged)", BatchGrader.extractIfChanged(archive, tempDir.toFile()));
+        assertEquals("edited", read(answer));
+    }
+
+    @Test
+    @DisplayName("Changed archive replaces its folder")
+    void testChangedArchiveReplacesFolder() throws IOException {
+        BatchGrader.extractIfChanged(zip("bob.zip", "Q1a.dfa", "first", "Q1b.nfa", "old"), tempDir.toFile());
+        File changed = zip("bob.zip", "Q1a.dfa", "second");
+        assertEquals("Extracted (archive changed)", BatchGrader.extractIfChanged(changed, tempDir.toFile()));
+
+        Path folder = tempDir.resolve("bob");
+        assertEquals("second", read(folder.resolve("Q1a.dfa")));
+        assertFalse(Files.exists(folder.resolve("Q1b.nfa")), "Files of the old archive are removed");
+    }
+
+    @Test
+    @DisplayName("Failed extraction leaves the previous folder intact")
+    void testFailedExtractionKeepsFolder() throws IOException {
+        BatchGrader.extractIfChanged(zip("carol.zip", "Q1a.dfa", "first"), tempDir.toFile());
+        File broken = zip("carol.zip", "Q1a.dfa", "second", "../escaped.dfa", "evil");
+
+        assertThrows(IOException.class, () -> BatchGrader.extractIfChanged(broken, tempDir.toFile()));
+        assertEquals("first", read(tempDir.resolve("carol").resolve("Q1a.dfa")));
+        assertFalse(Files.exists(tempDir.resolve(".carol.partial")), "Staging folder is removed");
+        assertFalse(Files.exists(tempDir.resolve("escaped.dfa")));
+    }
+
+    @Test
+    @DisplayName("Entry outside of the extraction folder is rejected")
+    void testPathTraversalRejected() throws IOException {
+        File archive = zip("dave.zip", "../x", "evil");
+        Path dest = tempDir.resolve("dest");
+        try (ZipFile zip = new ZipFile(archive)) {
+            IOException e = assertThrows(IOException.class, () -> BatchGrader.extractZip(zip, dest));
+            assertTrue(e.getMessage().contains("../x"), e.getMessage());
+        }
+        assertFalse(Files.exists(tempDir.resolve("x")));
+    }
+
+    @Test
+    @DisplayName("Folder not extracted by the grader is left alone")
+    void testManualFolderLeftAlone() throws IOException {
+        Path folder = Files.createDirectories(tempDir.resolve("erin"));
+        Files.write(folder.resolve("Q1a.dfa"), "manual".getBytes(StandardCharsets.UTF_8));
+
+        File archive = zip("erin.zip", "Q1a.dfa", "zipped");
+        assertEquals("Skipped (already extracted)", BatchGrader.extractIfChanged(archive, tempDir.toFile()));
+        assertEquals("manual", read(folder.resolve("Q1a.dfa")));
+    }
+}
@@ -0,0 +1,66 @@
+package grader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Test class for the cache of rendered diagrams.
+ */
+public class DiagramCacheTest {
+
+    private static final String ONE_STATE = "digraph { q0 -> q0 [label=\"a\"]; }";
+    private static final String TWO_STATES = "digraph { q0 -> q1 [label=\"a\"]; }";
+
+    @TempDir
+    Path tempDir;
+
+    private long pngCount() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".png")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Diagrams are rendered once, reused from memory and then from disk")
+    void testMemoryAndDiskReuse() throws IOException {
+        DiagramCache cache = new DiagramCache(tempDir);
+        byte[] png = cache.get(ONE_STATE);
+        assertTrue(png.length > 0);
+        assertEquals(1, cache.getRenderedCount());
+        assertEquals(1, pngCount());
+
+        assertSame(png, cache.get(ONE_STATE), "Second lookup is served from memory");
+        assertEquals(1, cache.getRenderedCount());
+        assertEquals(1, cache.size());
+
+        DiagramCache nextRun = new DiagramCache(tempDir);
+        assertArrayEquals(png, nextRun.get(ONE_STATE));
+        assertEquals(0, nextRun.getRenderedCount(), "Next run reads the PNG from disk");
+
+        byte[] other = nextRun.get(TWO_STATES);
+        assertEquals(1, nextRun.getRenderedCount(), "Different DOT code is rendered separately");
+        assertFalse(Arrays.equals(png, other));
+        assertEquals(2, nextRun.size());
+        assertEquals(2, pngCount());
+    }
+
+    @Test
+    @DisplayName("Diagrams over the memory budget are evicted but stay on disk")
+    void testEvictionKeepsDiskCopy() throws IOException {
+        DiagramCache cache = new DiagramCache(tempDir, 1);
+        byte[] png = cache.get(ONE_STATE);
+        assertEquals(0, cache.size());
+        assertEquals(1, pngCount());
+
+        assertArrayEquals(png, cache.get(ONE_STATE));
+        assertEquals(1, cache.getRenderedCount(), "Evicted diagram is read back from disk");
+    }
+}
@@ -0,0 +1,101 @@
+package grader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Test class for grading submissions in equivalence mode.
+ */
+public class ExamGraderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * NFA accepting the strings whose k-th symbol from the end is 1; its subset construction
+     * has 2^k states.
+     */
+    private static String kthFromEndNfa(int k) {
+        StringBuilder states = new StringBuilder();
+        StringBuilder transitions = new StringBuilder("q0 -> q0 (0 1)\nq0 -> q1 (1)\n");
+        for (int i = 0; i <= k; i++) {
+            states.append(" q").append(i);
+            if (i > 0 && i < k) {
+                transitions.append("q").append(i).append(" -> q").append(i + 1).append(" (0 1)\n");
+            }
+        }
+        return "Start: q0\n" +
+            "Finals: q" + k + "\n" +
+            "Alphabet: 0 1\n" +
+            "States:" + states + "\n" +
+            "Transitions:\n" + transitions;
+    }
+
+    /**
+     * Exhaustive test file up to length 3 for the strings whose third symbol from the end is 1.
+     */
+    private static String thirdFromEndTests() {
+        StringBuilder sb = new StringBuilder();
+        for (int length = 0; length <= 3; length++) {
+            for (int value = 0; value < (1 << length); value++) {
+                StringBuilder input = new StringBuilder();
+                for (int bit = length - 1; bit >= 0; bit--) input.append((value >> bit) & 1);
+                boolean accept = length == 3 && input.charAt(0) == '1';
+                sb.append(input).append(',').append(accept ? 1 : 0).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertSameGrade(ExamGrader.GradingResult expected, ExamGrader.GradingResult actual) {
+        assertTrue(actual.success, actual.errorMessage);
+        assertEquals(expected.totalTests, actual.totalTests);
+        assertEquals(expected.passedTests, actual.passedTests);
+        assertEquals(expected.score, actual.score);
+    }
+
+    @Test
+    @DisplayName("Submission too large to determinise is graded by running the tests")
+    void testLargeSubmissionRunsTests() throws IOException {
+        Path tests = tempDir.resolve("tests");
+        Path student = tempDir.resolve("student");
+        write(tests.resolve("Q1.test"), thirdFromEndTests());
+        write(student.resolve("Q1.nfa"), kthFromEndNfa(20));
+
+        ExamGrader.GradingResult byTests = ExamGrader.gradeQuestion(student.toString(), "Q1", tests.toString());
+        ExamGrader.GradingResult byEquivalence = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> ExamGrader.gradeQuestion(student.toString(), "Q1", tests.toString(), true));
+        assertSameGrade(byTests, byEquivalence);
+        assertEquals(11, byEquivalence.passedTests);
+    }
+
+    @Test
+    @DisplayName("Reference automaton too large to determinise leaves grading to the tests")
+    void testLargeReferenceRunsTests() throws IOException {
+        Path tests = tempDir.resolve("tests");
+        Path student = tempDir.resolve("student");
+        write(tests.resolve("Q2.test"), thirdFromEndTests());
+        write(tests.resolve("Q2.nfa"), kthFromEndNfa(20));
+        write(student.resolve("Q2.nfa"), kthFromEndNfa(3));
+
+        ExamGrader.GradingResult byTests = ExamGrader.gradeQuestion(student.toString(), "Q2", tests.toString());
+        ExamGrader.GradingResult byEquivalence = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> ExamGrader.gradeQuestion(student.toString(), "Q2", tests.toString(), true));
+        assertSameGrade(byTests, byEquivalence);
+        assertEquals(15, byEquivalence.passedTests);
+        assertEquals(15, byEquivalence.totalTests);
+    }
+}
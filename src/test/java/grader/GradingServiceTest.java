@@ -0,0 +1,124 @@
+package grader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test class for the life cycle of jobs in the grading service's spool folder.
+ */
+public class GradingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path spool;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        spool = Files.createDirectories(tempDir.resolve("spool"));
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private Path job(String name, Path exam, Path tests, Path output) throws IOException {
+        String content = "exam=" + exam.toString().replace("\\", "/") + "\n" +
+            "tests=" + tests.toString().replace("\\", "/") + "\n" +
+            "output=" + output.toString().replace("\\", "/") + "\n";
+        Path job = spool.resolve(name + GradingService.JOB);
+        Files.write(job, content.getBytes(StandardCharsets.UTF_8));
+        return job;
+    }
+
+    private static Properties properties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    @Test
+    @DisplayName("Job is claimed, run and marked done")
+    void testJobRunsToDone() throws Exception {
+        Path exam = tempDir.resolve("exam");
+        Files.createDirectories(exam.resolve("alice"));
+        Path tests = Files.createDirectories(tempDir.resolve("tests"));
+        Files.write(tests.resolve("Q1a.test"), "a,1\nb,0\n".getBytes(StandardCharsets.UTF_8));
+        Path output = tempDir.resolve("output");
+        job("regrade", exam, tests, output);
+
+        File claimed = GradingService.claimNextJob(spool.toFile());
+        assertNotNull(claimed);
+        assertEquals("regrade" + GradingService.RUNNING, claimed.getName());
+        assertFalse(Files.exists(spool.resolve("regrade" + GradingService.JOB)));
+        assertNull(GradingService.claimNextJob(spool.toFile()), "A running job is not claimed again");
+
+        GradingService.runJob(claimed, pool, 2);
+        Path done = spool.resolve("regrade" + GradingService.DONE);
+        assertTrue(Files.exists(done));
+        assertFalse(claimed.exists());
+        assertEquals("done", properties(done).getProperty("status"));
+        assertTrue(Files.exists(output.resolve("grading_summary.csv")));
+    }
+
+    @Test
+    @DisplayName("Job with a missing exam folder is marked failed with the error")
+    void testMissingExamFails() throws Exception {
+        job("broken", tempDir.resolve("missing"), tempDir, tempDir.resolve("output"));
+
+        GradingService.runJob(GradingService.claimNextJob(spool.toFile()), pool, 2);
+        Path failed = spool.resolve("broken" + GradingService.FAILED);
+        assertTrue(Files.exists(failed));
+        Properties properties = properties(failed);
+        assertEquals("failed", properties.getProperty("status"));
+        assertTrue(properties.getProperty("error").contains("Exam folder not found"), properties.getProperty("error"));
+    }
+
+    @Test
+    @DisplayName("Job left running by a stopped service is queued again")
+    void testStaleRunningJobRequeued() throws Exception {
+        Path running = spool.resolve("interrupted" + GradingService.RUNNING);
+        Files.write(running, "exam=e\ntests=t\noutput=o\n".getBytes(StandardCharsets.UTF_8));
+
+        GradingService.requeueInterruptedJobs(spool.toFile());
+        assertFalse(Files.exists(running));
+        Path requeued = spool.resolve("interrupted" + GradingService.JOB);
+        assertTrue(Files.exists(requeued));
+        assertEquals("e", properties(requeued).getProperty("exam"));
+
+        File claimed = GradingService.claimNextJob(spool.toFile());
+        assertNotNull(claimed);
+        assertEquals("interrupted" + GradingService.RUNNING, claimed.getName());
+    }
+
+    @Test
+    @DisplayName("Oldest waiting job is claimed first")
+    void testOldestJobFirst() throws Exception {
+        Path newer = job("a-newer", tempDir, tempDir, tempDir);
+        Path older = job("b-older", tempDir, tempDir, tempDir);
+        assertTrue(older.toFile().setLastModified(newer.toFile().lastModified() - 60_000));
+
+        assertEquals("b-older" + GradingService.RUNNING, GradingService.claimNextJob(spool.toFile()).getName());
+        assertEquals("a-newer" + GradingService.RUNNING, GradingService.claimNextJob(spool.toFile()).getName());
+        assertNull(GradingService.claimNextJob(spool.toFile()));
+    }
+}
@@ -0,0 +1,184 @@
+package grader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test class for regenerating only the reports whose results changed.
+ */
+public class ReportManifestTest {
+
+    private static final String[] QUESTION_IDS = {"Q1a", "Q1b", "Q2a", "Q2b", "Q3a", "Q3b"};
+
+    /** Content written over every report to detect which ones a run rewrites. */
+    private static final String KEPT = "kept";
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static BatchGrader.StudentResult student(String name, double score) {
+        BatchGrader.StudentResult student = new BatchGrader.StudentResult();
+        student.studentName = name;
+        student.studentFolder = "exams/" + name;
+        for (String questionId : QUESTION_IDS) {
+            ExamGrader.GradingResult result = new ExamGrader.GradingResult(student.studentFolder, questionId);
+            result.success = true;
+            result.score = score;
+            result.minPoints = 4;
+            result.maxPoints = 10;
+            result.totalTests = 10;
+            result.passedTests = (int) score;
+            result.timeoutCount = 0;
+            result.accuracy = score * 10;
+            result.detailedReport = "";
+            student.questions.add(result);
+        }
+        return student;
+    }
+
+    private List<BatchGrader.StudentResult> results(double aliceScore, double bobScore) {
+        List<BatchGrader.StudentResult> results = new ArrayList<>();
+        results.add(student("alice", aliceScore));
+        results.add(student("bob", bobScore));
+        return results;
+    }
+
+    /**
+     * Generates the student pages and question PDFs the way a batch run does.
+     */
+    private void generate(List<BatchGrader.StudentResult> results) throws IOException, InterruptedException {
+        ReportManifest manifest = ReportManifest.load(tempDir.toString());
+        try {
+            BatchGrader.generateReports(results, BatchGrader.findDuplicateClusters(results),
+                    tempDir.toString(), pool, manifest);
+            BatchGrader.generateIndividualPdfReports(results, tempDir.toString(), pool, manifest);
+        } finally {
+            manifest.save();
+        }
+    }
+
+    private List<Path> reports() {
+        List<Path> reports = new ArrayList<>();
+        reports.add(page("alice"));
+        reports.add(page("bob"));
+        for (String questionId : QUESTION_IDS) {
+            reports.add(pdf(questionId));
+        }
+        return reports;
+    }
+
+    private Path page(String student) {
+        return tempDir.resolve("reports").resolve(student + ".html");
+    }
+
+    private Path pdf(String questionId) {
+        return tempDir.resolve("question_pdfs").resolve(questionId + ".pdf");
+    }
+
+    private void markAllKept() throws IOException {
+        for (Path report : reports()) {
+            assertTrue(Files.isRegularFile(report), report + " should have been generated");
+            Files.write(report, KEPT.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private boolean kept(Path report) throws IOException {
+        return KEPT.equals(new String(Files.readAllBytes(report), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Rerun with unchanged results writes no report")
+    void testUnchangedRerunWritesNothing() throws Exception {
+        generate(results(8, 6));
+        markAllKept();
+
+        generate(results(8, 6));
+        for (Path report : reports()) {
+            assertTrue(kept(report), report + " should not be rewritten");
+        }
+    }
+
+    @Test
+    @DisplayName("Changed result rewrites only that student's page and that question's PDF")
+    void testChangedResultInvalidatesAffectedReports() throws Exception {
+        generate(results(8, 6));
+        markAllKept();
+
+        List<BatchGrader.StudentResult> changed = results(8, 6);
+        changed.get(1).questions.get(0).score = 7.0;
+        generate(changed);
+
+        assertTrue(kept(page("alice")));
+        assertFalse(kept(page("bob")));
+        assertFalse(kept(pdf("Q1a")));
+        for (int i = 1; i < QUESTION_IDS.length; i++) {
+            assertTrue(kept(pdf(QUESTION_IDS[i])), QUESTION_IDS[i] + " should not be rewritten");
+        }
+    }
+
+    @Test
+    @DisplayName("Missing or corrupt manifest regenerates every report")
+    void testMissingOrCorruptManifest() throws Exception {
+        generate(results(8, 6));
+        markAllKept();
+        Path manifestFile = tempDir.resolve(ReportManifest.FILE_NAME);
+
+        Files.delete(manifestFile);
+        generate(results(8, 6));
+        for (Path report : reports()) {
+            assertFalse(kept(report), report + " should be rewritten without a manifest");
+        }
+
+        markAllKept();
+        Files.write(manifestFile, "garbage without tabs\nreports/alice.html\tnot-a-hash\n\t\n"
+                .getBytes(StandardCharsets.UTF_8));
+        generate(results(8, 6));
+        for (Path report : reports()) {
+            assertFalse(kept(report), report + " should be rewritten with a corrupt manifest");
+        }
+
+        markAllKept();
+        generate(results(8, 6));
+        for (Path report : reports()) {
+            assertTrue(kept(report), "Manifest should be rebuilt after a corrupt one");
+        }
+    }
+
+    @Test
+    @DisplayName("Deleted report is generated again even if its results are unchanged")
+    void testDeletedReportRegenerated() throws Exception {
+        generate(results(8, 6));
+        markAllKept();
+        Files.delete(page("alice"));
+
+        generate(results(8, 6));
+        assertTrue(Files.isRegularFile(page("alice")));
+        assertFalse(kept(page("alice")));
+        assertTrue(kept(page("bob")));
+    }
+}
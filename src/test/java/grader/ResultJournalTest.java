@@ -0,0 +1,131 @@
+package grader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Test class for the journal of grading results.
+ */
+public class ResultJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ExamGrader.GradingResult graded(String student, String questionId, double score) {
+        ExamGrader.GradingResult result = new ExamGrader.GradingResult("exams/" + student, questionId);
+        result.success = true;
+        result.score = score;
+        result.minPoints = 4;
+        result.maxPoints = 10;
+        result.totalTests = 20;
+        result.passedTests = 18;
+        result.timeoutCount = 0;
+        result.accuracy = 90.0;
+        result.detailedReport = "Failed:\n\t\"ab\" → ACCEPT\r\nback\\slash \\t not a tab";
+        return result;
+    }
+
+    private List<String> lines() throws IOException {
+        return Files.readAllLines(tempDir.resolve(ResultJournal.FILE_NAME), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Results survive a round trip, escapes included")
+    void testRoundTrip() throws IOException {
+        ExamGrader.GradingResult result = graded("jane\tdoe", "Q1a", 9.2);
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            journal.append("jane\tdoe", "Q1a", "sub", "suite", result);
+        }
+        assertEquals(2, lines().size());
+
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            ExamGrader.GradingResult loaded = journal.get("jane\tdoe", "Q1a", "sub", "suite");
+            assertNotNull(loaded);
+            assertEquals(ResultJournal.fingerprint(result), ResultJournal.fingerprint(loaded));
+            assertEquals(result.detailedReport, loaded.detailedReport);
+            assertEquals(result.studentFolder, loaded.studentFolder);
+            assertNull(loaded.errorMessage);
+
+            assertNull(journal.get("jane\tdoe", "Q1a", "changed", "suite"));
+            assertNull(journal.get("jane\tdoe", "Q1a", "sub", "changed"));
+            assertNull(journal.get("jane", "Q1a", "sub", "suite"));
+        }
+    }
+
+    @Test
+    @DisplayName("Line cut short by a crash is ignored and dropped")
+    void testTruncatedLastLine() throws IOException {
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            journal.append("alice", "Q1a", "sub", "suite", graded("alice", "Q1a", 10.0));
+            journal.append("bob", "Q1a", "sub", "suite", graded("bob", "Q1a", 8.0));
+        }
+        String last = lines().get(2);
+        Files.write(tempDir.resolve(ResultJournal.FILE_NAME), last.substring(0, last.length() - 10)
+                .replace("bob", "carol").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            assertEquals(2, journal.size());
+            assertNotNull(journal.get("bob", "Q1a", "sub", "suite"));
+            assertNull(journal.get("carol", "Q1a", "sub", "suite"));
+            journal.append("carol", "Q1a", "sub", "suite", graded("carol", "Q1a", 7.0));
+        }
+        assertEquals(4, lines().size());
+
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            assertEquals(7.0, journal.get("carol", "Q1a", "sub", "suite").score);
+        }
+    }
+
+    @Test
+    @DisplayName("Superseded lines are compacted when the journal is opened")
+    void testCompaction() throws IOException {
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            journal.append("alice", "Q1a", "old", "suite", graded("alice", "Q1a", 5.0));
+            journal.append("alice", "Q1b", "sub", "suite", graded("alice", "Q1b", 6.0));
+            journal.append("alice", "Q1a", "new", "suite", graded("alice", "Q1a", 9.0));
+        }
+        assertEquals(4, lines().size());
+
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            assertEquals(2, journal.size());
+            assertNull(journal.get("alice", "Q1a", "old", "suite"));
+            assertEquals(9.0, journal.get("alice", "Q1a", "new", "suite").score);
+        }
+        List<String> lines = lines();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("#"));
+    }
+
+    @Test
+    @DisplayName("Results with timeouts or exceptions are not journaled")
+    void testNonReproducibleNotJournaled() throws IOException {
+        ExamGrader.GradingResult timedOut = graded("alice", "Q2a", 6.0);
+        timedOut.timeoutCount = 2;
+        ExamGrader.GradingResult crashed = graded("alice", "Q2b", 4.0);
+        crashed.errorMessage = "Error: NullPointerException: null";
+        ExamGrader.GradingResult failed = new ExamGrader.GradingResult("exams/alice", "Q2c");
+        failed.errorMessage = "IO Error: disk full";
+
+        try (ResultJournal journal = ResultJournal.open(tempDir.toString())) {
+            journal.append("alice", "Q2a", "sub", "suite", graded("alice", "Q2a", 10.0));
+            journal.append("alice", "Q2a", "sub", "suite", timedOut);
+            journal.append("alice", "Q2b", "sub", "suite", crashed);
+            journal.append("alice", "Q2c", "sub", "suite", failed);
+
+            assertFalse(ResultJournal.isReproducible(timedOut));
+            assertNull(journal.get("alice", "Q2a", "sub", "suite"));
+            assertNull(journal.get("alice", "Q2b", "sub", "suite"));
+            assertNull(journal.get("alice", "Q2c", "sub", "suite"));
+        }
+        assertEquals(2, lines().size());
+    }
+}
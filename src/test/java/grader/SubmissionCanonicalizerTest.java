@@ -0,0 +1,147 @@
+package grader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import DeterministicFiniteAutomaton.DFA;
+import NondeterministicFiniteAutomaton.NFA;
+import PushDownAutomaton.PDA;
+import common.Automaton;
+
+/**
+ * Test class for the canonical forms used to share test results between submissions.
+ */
+public class SubmissionCanonicalizerTest {
+
+    private static final String ENDS_WITH_1_DFA =
+        "Start: q0\n" +
+        "Finals: q1\n" +
+        "Alphabet: 0 1\n" +
+        "States: q0 q1\n" +
+        "Transitions:\n" +
+        "q0 -> q0 (0)\n" +
+        "q0 -> q1 (1)\n" +
+        "q1 -> q0 (0)\n" +
+        "q1 -> q1 (1)\n";
+
+    private static final String ENDS_WITH_1_NFA =
+        "Start: q0\n" +
+        "Finals: q1\n" +
+        "Alphabet: 0 1\n" +
+        "States: q0 q1\n" +
+        "Transitions:\n" +
+        "q0 -> q0 (0 1)\n" +
+        "q0 -> q1 (1)\n";
+
+    private static final String ENDS_WITH_1_NFA_WIDER_ALPHABET =
+        "Start: q0\n" +
+        "Finals: q1\n" +
+        "Alphabet: 0 1 2\n" +
+        "States: q0 q1\n" +
+        "Transitions:\n" +
+        "q0 -> q0 (0 1)\n" +
+        "q0 -> q1 (1)\n";
+
+    private static final String PDA_HEADER =
+        "states: q0 q1 q2\n" +
+        "alphabet: a b\n" +
+        "stack_alphabet: a Z\n" +
+        "start: q0\n" +
+        "stack_start: Z\n" +
+        "finals: q2\n" +
+        "transitions:\n";
+
+    private static Automaton dfa(String content) {
+        return new DFA().parse(content).getAutomaton();
+    }
+
+    private static Automaton nfa(String content) {
+        return new NFA().parse(content).getAutomaton();
+    }
+
+    private static Automaton pda(String content) {
+        return new PDA().parse(content).getAutomaton();
+    }
+
+    @Test
+    @DisplayName("DFA and NFA of the same language over the same alphabet share a hash")
+    void testSameLanguageSameHash() {
+        String hash = SubmissionCanonicalizer.canonicalHash(dfa(ENDS_WITH_1_DFA));
+        assertNotNull(hash);
+        assertEquals(hash, SubmissionCanonicalizer.canonicalHash(nfa(ENDS_WITH_1_NFA)));
+    }
+
+    @Test
+    @DisplayName("Same language with a different declared alphabet hashes differently")
+    void testDifferentAlphabetDifferentHash() {
+        String dfaHash = SubmissionCanonicalizer.canonicalHash(dfa(ENDS_WITH_1_DFA));
+        String nfaHash = SubmissionCanonicalizer.canonicalHash(nfa(ENDS_WITH_1_NFA_WIDER_ALPHABET));
+        assertNotNull(nfaHash);
+        assertNotEquals(dfaHash, nfaHash);
+    }
+
+    @Test
+    @DisplayName("Incomplete DFA has no canonical form")
+    void testIncompleteDfaHasNoHash() {
+        String incomplete =
+            "Start: q0\n" +
+            "Finals: q1\n" +
+            "Alphabet: 0 1\n" +
+            "States: q0 q1\n" +
+            "Transitions:\n" +
+            "q0 -> q0 (0)\n" +
+            "q0 -> q1 (1)\n" +
+            "q1 -> q1 (1)\n";
+        assertNull(SubmissionCanonicalizer.canonicalForm(dfa(incomplete)));
+        assertNull(SubmissionCanonicalizer.canonicalHash(dfa(incomplete)));
+    }
+
+    @Test
+    @DisplayName("NFA whose subset construction exceeds the budget has no canonical form")
+    void testLargeNfaHasNoHash() {
+        int k = 20;
+        StringBuilder states = new StringBuilder();
+        StringBuilder transitions = new StringBuilder("q0 -> q0 (0 1)\nq0 -> q1 (1)\n");
+        for (int i = 0; i <= k; i++) {
+            states.append(" q").append(i);
+            if (i > 0 && i < k) {
+                transitions.append("q").append(i).append(" -> q").append(i + 1).append(" (0 1)\n");
+            }
+        }
+        String kthFromEnd =
+            "Start: q0\n" +
+            "Finals: q" + k + "\n" +
+            "Alphabet: 0 1\n" +
+            "States:" + states + "\n" +
+            "Transitions:\n" + transitions;
+
+        Automaton automaton = nfa(kthFromEnd);
+        assertNull(((NFA) automaton).toCompiledDFA(SubmissionCanonicalizer.MAX_SUBSETS));
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+            () -> assertNull(SubmissionCanonicalizer.canonicalHash(automaton)));
+    }
+
+    @Test
+    @DisplayName("PDA form keeps the order of transitions but not state names")
+    void testPdaTransitionOrder() {
+        String pushFirst = PDA_HEADER +
+            "q0 a Z -> q1 a\n" +
+            "q0 eps Z -> q2 eps\n" +
+            "q1 b a -> q1 eps\n" +
+            "q1 eps Z -> q2 eps\n";
+        String acceptFirst = PDA_HEADER +
+            "q0 eps Z -> q2 eps\n" +
+            "q0 a Z -> q1 a\n" +
+            "q1 b a -> q1 eps\n" +
+            "q1 eps Z -> q2 eps\n";
+        String renamed = pushFirst.replace("q1", "r1").replace("q2", "r2");
+
+        String hash = SubmissionCanonicalizer.canonicalHash(pda(pushFirst));
+        assertNotNull(hash);
+        assertEquals(hash, SubmissionCanonicalizer.canonicalHash(pda(renamed)));
+        assertNotEquals(hash, SubmissionCanonicalizer.canonicalHash(pda(acceptFirst)));
+    }
+}
@@ -0,0 +1,85 @@
+package grader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import common.TestRunner;
+
+/**
+ * Test class for memoized test results.
+ */
+public class VerdictCacheTest {
+
+    private static TestRunner.TestResult result(int tp, int tn, int fp, int fn) {
+        TestRunner.TestResult result = new TestRunner.TestResult();
+        result.setTotalTests(tp + tn + fp + fn);
+        result.setPassedTests(tp + tn);
+        result.setTruePositives(tp);
+        result.setTrueNegatives(tn);
+        result.setFalsePositives(fp);
+        result.setFalseNegatives(fn);
+        return result;
+    }
+
+    @Test
+    @DisplayName("Fully classified result is stored without its details")
+    void testStoresReusableResult() {
+        VerdictCache cache = new VerdictCache();
+        TestRunner.TestResult result = result(3, 4, 1, 0);
+        result.addFailure("\"0\" → ACCEPT (Expected: REJECT)");
+        result.addResult(new TestRunner.TestCaseResult("0", false, true, "trace"));
+
+        cache.put("canonical", "suite", result);
+        TestRunner.TestResult stored = cache.get("canonical", "suite");
+        assertNotNull(stored);
+        assertEquals(8, stored.getTotalTests());
+        assertEquals(7, stored.getPassedTests());
+        assertEquals(result.getFailures(), stored.getFailures());
+        assertTrue(stored.getDetailedResults().isEmpty());
+        assertNull(cache.get("canonical", "other suite"));
+    }
+
+    @Test
+    @DisplayName("Results with timeouts are not stored")
+    void testTimeoutNotStored() {
+        VerdictCache cache = new VerdictCache();
+        TestRunner.TestResult result = result(3, 4, 0, 0);
+        result.incrementTimeoutCount();
+
+        assertFalse(VerdictCache.isReusable(result));
+        cache.put("canonical", "suite", result);
+        assertNull(cache.get("canonical", "suite"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Results with unclassified test cases are not stored")
+    void testUnclassifiedNotStored() {
+        VerdictCache cache = new VerdictCache();
+        TestRunner.TestResult result = result(3, 4, 0, 0);
+        result.setTotalTests(10);
+
+        assertFalse(VerdictCache.isReusable(result));
+        cache.put("canonical", "suite", result);
+        assertNull(cache.get("canonical", "suite"));
+
+        cache.put("empty", "suite", new TestRunner.TestResult());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Least recently used results are evicted beyond the budget")
+    void testEviction() {
+        VerdictCache cache = new VerdictCache(600);
+        cache.put("a", "suite", result(1, 0, 0, 0));
+        cache.put("b", "suite", result(1, 0, 0, 0));
+        assertNotNull(cache.get("a", "suite"));
+        cache.put("c", "suite", result(1, 0, 0, 0));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a", "suite"));
+        assertNull(cache.get("b", "suite"));
+        assertNotNull(cache.get("c", "suite"));
+    }
+}